@@ -31,6 +31,7 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.logging.Level;
 
 /**
  * Helper class for importing {@link Search} objects in an unambiguous way. The pattern for using this is to 1) Import
@@ -248,8 +249,11 @@ public class SearchBuilder {
 
         var builder = new DocumentModelBuilder(model);
         for (Search search : new SearchOrderer().order(searchList)) {
+            long startTime = System.currentTimeMillis();
             new FieldOperationApplierForSearch().process(search); // TODO: Why is this not in the regular list?
             process(search, deployLogger, new QueryProfiles(queryProfileRegistry, deployLogger), validate);
+            deployLogger.log(Level.FINE, "Processed search definition '" + search.getName() + "' in " +
+                                         (System.currentTimeMillis() - startTime) + " ms");
             built.add(search);
         }
         builder.addToModel(searchList);
@@ -2,6 +2,9 @@
 package com.yahoo.searchdefinition.derived;
 
 import ai.vespa.rankingexpression.importer.configmodelview.ImportedMlModels;
+import com.yahoo.collections.Pair;
+import com.yahoo.concurrent.DaemonThreadFactory;
+import com.yahoo.config.application.api.DeployLogger;
 import com.yahoo.config.model.api.ModelContext;
 import com.yahoo.search.query.profile.QueryProfileRegistry;
 import com.yahoo.searchdefinition.OnnxModel;
@@ -12,12 +15,25 @@ import com.yahoo.searchdefinition.RankingConstants;
 import com.yahoo.vespa.config.search.RankProfilesConfig;
 import com.yahoo.searchdefinition.RankProfile;
 import com.yahoo.searchdefinition.Search;
+import com.yahoo.searchlib.rankingexpression.RankingExpression;
+import com.yahoo.searchlib.rankingexpression.rule.CompositeNode;
+import com.yahoo.searchlib.rankingexpression.rule.ExpressionNode;
+import com.yahoo.searchlib.rankingexpression.rule.ReferenceNode;
 import com.yahoo.vespa.config.search.core.OnnxModelsConfig;
 import com.yahoo.vespa.config.search.core.RankingConstantsConfig;
 import com.yahoo.vespa.model.AbstractService;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -31,6 +47,12 @@ public class RankProfileList extends Derived implements RankProfilesConfig.Produ
 
     private static final Logger log = Logger.getLogger(RankProfileList.class.getName());
 
+    /**
+     * The features converting machine learned models in expressions. Converting them adds models and constants to
+     * the search definition, and writes the converted model to the application package.
+     */
+    private static final Set<String> modelFeatures = Set.of("tensorflow", "onnx", "onnxModel", "xgboost", "lightgbm");
+
     private final Map<String, RawRankProfile> rankProfiles = new java.util.LinkedHashMap<>();
     private final RankingConstants rankingConstants;
     private final OnnxModels onnxModels;
@@ -54,31 +76,134 @@ public class RankProfileList extends Derived implements RankProfilesConfig.Produ
                            RankProfileRegistry rankProfileRegistry,
                            QueryProfileRegistry queryProfiles,
                            ImportedMlModels importedModels,
-                           ModelContext.Properties deployProperties) {
+                           ModelContext.Properties deployProperties,
+                           DeployLogger deployLogger) {
+        this(search, rankingConstants, attributeFields, rankProfileRegistry, queryProfiles, importedModels,
+             deployProperties, deployLogger, null);
+    }
+
+    /**
+     * Creates a rank profile list deriving rank profiles in parallel on the given executor, or if it is null,
+     * on a thread pool which is created for, and shut down after, this derivation
+     */
+    RankProfileList(Search search,
+                    RankingConstants rankingConstants,
+                    AttributeFields attributeFields,
+                    RankProfileRegistry rankProfileRegistry,
+                    QueryProfileRegistry queryProfiles,
+                    ImportedMlModels importedModels,
+                    ModelContext.Properties deployProperties,
+                    DeployLogger deployLogger,
+                    Executor executor) {
         setName(search == null ? "default" : search.getName());
         this.rankingConstants = rankingConstants;
-        deriveRankProfiles(rankProfileRegistry, queryProfiles, importedModels, search, attributeFields, deployProperties);
+        deriveRankProfiles(rankProfileRegistry, queryProfiles, importedModels, search, attributeFields, deployProperties, deployLogger, executor);
         this.onnxModels = search == null ? new OnnxModels() : search.onnxModels();  // as ONNX models come from parsing rank expressions
     }
 
+    /**
+     * Derives the rank profiles of the given search in parallel, except those converting machine learned models,
+     * which modify the search definition and are therefore derived first, one at the time.
+     * All profiles are derived one at the time if the search has ONNX models, as deriving any profile
+     * then modifies the input mappings of those models.
+     * The result, and the error thrown if derivation fails, is the same as if all were derived sequentially.
+     */
     private void deriveRankProfiles(RankProfileRegistry rankProfileRegistry,
                                     QueryProfileRegistry queryProfiles,
                                     ImportedMlModels importedModels,
                                     Search search,
                                     AttributeFields attributeFields,
-                                    ModelContext.Properties deployProperties) {
-        if (search != null) { // profiles belonging to a search have a default profile
-            RawRankProfile defaultProfile = new RawRankProfile(rankProfileRegistry.get(search, "default"),
-                                                               queryProfiles, importedModels, attributeFields, deployProperties);
-            rankProfiles.put(defaultProfile.getName(), defaultProfile);
-        }
-
+                                    ModelContext.Properties deployProperties,
+                                    DeployLogger deployLogger,
+                                    Executor executor) {
+        boolean parallel = search == null || search.onnxModels().asMap().isEmpty();
+        List<RankProfile> profiles = new ArrayList<>();
+        if (search != null) // profiles belonging to a search have a default profile
+            profiles.add(rankProfileRegistry.get(search, "default"));
         for (RankProfile rank : rankProfileRegistry.rankProfilesOf(search)) {
             if (search != null && "default".equals(rank.getName())) continue;
+            profiles.add(rank);
+        }
+
+        List<FutureTask<Pair<RawRankProfile, Long>>> derivations = new ArrayList<>(profiles.size());
+        List<FutureTask<Pair<RawRankProfile, Long>>> parallelDerivations = new ArrayList<>();
+        for (RankProfile profile : profiles) {
+            FutureTask<Pair<RawRankProfile, Long>> derivation = new FutureTask<>(() -> {
+                long startTime = System.nanoTime();
+                RawRankProfile rawRank = new RawRankProfile(profile, queryProfiles, importedModels, attributeFields, deployProperties);
+                return new Pair<>(rawRank, System.nanoTime() - startTime);
+            });
+            derivations.add(derivation);
+            if ( ! parallel || convertsModels(profile))
+                derivation.run();
+            else
+                parallelDerivations.add(derivation);
+        }
+        ExecutorService ownExecutor = null;
+        if (parallelDerivations.size() == 1) {
+            parallelDerivations.get(0).run();
+        }
+        else if ( ! parallelDerivations.isEmpty()) {
+            if (executor == null)
+                executor = ownExecutor = Executors.newFixedThreadPool(Math.min(parallelDerivations.size(),
+                                                                               Runtime.getRuntime().availableProcessors()),
+                                                                      new DaemonThreadFactory("rank-profile-compiler-"));
+            parallelDerivations.forEach(executor::execute);
+        }
+
+        try {
+            for (FutureTask<Pair<RawRankProfile, Long>> derivation : derivations) {
+                Pair<RawRankProfile, Long> derived = resultOf(derivation);
+                rankProfiles.put(derived.getFirst().getName(), derived.getFirst());
+                deployLogger.log(Level.FINE, "Derived rank profile '" + derived.getFirst().getName() + "' of " + getName() +
+                                             " in " + derived.getSecond() / 1_000_000 + " ms");
+            }
+        }
+        finally {
+            if (ownExecutor != null)
+                ownExecutor.shutdownNow(); // Only stops remaining derivations if one failed
+        }
+    }
+
+    private static <T> T resultOf(FutureTask<T> task) {
+        try {
+            return task.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while deriving rank profiles", e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException)e.getCause();
+            if (e.getCause() instanceof Error) throw (Error)e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** Returns whether compiling this profile will convert machine learned models */
+    private static boolean convertsModels(RankProfile profile) {
+        if (convertsModels(profile.getFirstPhaseRanking())) return true;
+        if (convertsModels(profile.getSecondPhaseRanking())) return true;
+        for (RankProfile.RankingExpressionFunction function : profile.getFunctions().values())
+            if (convertsModels(function.function().getBody())) return true;
+        for (ReferenceNode feature : profile.getSummaryFeatures())
+            if (convertsModels(feature)) return true;
+        for (ReferenceNode feature : profile.getRankFeatures())
+            if (convertsModels(feature)) return true;
+        return false;
+    }
+
+    private static boolean convertsModels(RankingExpression expression) {
+        return expression != null && convertsModels(expression.getRoot());
+    }
 
-            RawRankProfile rawRank = new RawRankProfile(rank, queryProfiles, importedModels, attributeFields, deployProperties);
-            rankProfiles.put(rawRank.getName(), rawRank);
+    private static boolean convertsModels(ExpressionNode node) {
+        if (node instanceof ReferenceNode && modelFeatures.contains(((ReferenceNode)node).getName())) return true;
+        if (node instanceof CompositeNode) {
+            for (ExpressionNode child : ((CompositeNode)node).children())
+                if (convertsModels(child)) return true;
         }
+        return false;
     }
 
     public Map<String, RawRankProfile> getRankProfiles() {
@@ -176,7 +176,8 @@ public final class VespaModel extends AbstractConfigProducerRoot implements Seri
                                                    deployState.rankProfileRegistry(),
                                                    deployState.getQueryProfiles().getRegistry(),
                                                    deployState.getImportedModels(),
-                                                   deployState.getProperties());
+                                                   deployState.getProperties(),
+                                                   deployState.getDeployLogger());
 
 
 
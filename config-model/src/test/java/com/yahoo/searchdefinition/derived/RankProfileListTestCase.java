@@ -0,0 +1,146 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchdefinition.derived;
+
+import ai.vespa.rankingexpression.importer.configmodelview.ImportedMlModels;
+import com.yahoo.config.model.deploy.TestProperties;
+import com.yahoo.searchdefinition.OnnxModel;
+import com.yahoo.searchdefinition.RankProfileRegistry;
+import com.yahoo.searchdefinition.Search;
+import com.yahoo.searchdefinition.SearchBuilder;
+import com.yahoo.searchdefinition.parser.ParseException;
+import com.yahoo.vespa.config.search.RankProfilesConfig;
+import com.yahoo.yolean.Exceptions;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that deriving rank profiles in parallel gives the same result as deriving them sequentially
+ *
+ * @author bratseth
+ */
+public class RankProfileListTestCase {
+
+    private final Executor sequential = Runnable::run;
+    private final ExecutorService parallel = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutDown() {
+        parallel.shutdown();
+    }
+
+    @Test
+    public void parallel_derivation_gives_the_same_result_as_sequential() throws IOException, ParseException {
+        assertSameDerivedInParallel("src/test/derived/rankprofiles/rankprofiles.sd");
+    }
+
+    @Test
+    public void parallel_derivation_gives_the_same_result_as_sequential_with_onnx_models() throws IOException, ParseException {
+        assertSameDerivedInParallel("src/test/integration/onnx-model/searchdefinitions/test.sd");
+    }
+
+    @Test
+    public void the_error_of_the_first_invalid_profile_is_thrown_also_in_parallel() throws ParseException {
+        String schema =
+                "search test {\n" +
+                "    document test {\n" +
+                "        field a type string {\n" +
+                "            indexing: index\n" +
+                "        }\n" +
+                "    }\n" +
+                "    rank-profile valid {\n" +
+                "        first-phase {\n" +
+                "            expression: nativeRank\n" +
+                "        }\n" +
+                "    }\n" +
+                "    rank-profile first {\n" +
+                "        constants {\n" +
+                "            c: 7\n" +
+                "        }\n" +
+                "        function c() {\n" +
+                "            expression: 1\n" +
+                "        }\n" +
+                "    }\n" +
+                "    rank-profile second {\n" +
+                "        constants {\n" +
+                "            d: 7\n" +
+                "        }\n" +
+                "        function d() {\n" +
+                "            expression: 1\n" +
+                "        }\n" +
+                "    }\n" +
+                "}\n";
+        assertDerivationFails("Rank profile 'first' is invalid: Cannot have both a constant and function named 'c'",
+                              schema, sequential);
+        assertDerivationFails("Rank profile 'first' is invalid: Cannot have both a constant and function named 'c'",
+                              schema, parallel);
+        assertDerivationFails("Rank profile 'first' is invalid: Cannot have both a constant and function named 'c'",
+                              schema, null);
+    }
+
+    private void assertSameDerivedInParallel(String schemaFile) throws IOException, ParseException {
+        SearchBuilder sequentialBuilder = SearchBuilder.createFromFile(schemaFile);
+        SearchBuilder parallelBuilder = SearchBuilder.createFromFile(schemaFile);
+        SearchBuilder ownPoolBuilder = SearchBuilder.createFromFile(schemaFile);
+        RankProfileList sequentiallyDerived = derive(sequentialBuilder, sequential);
+        RankProfileList parallelDerived = derive(parallelBuilder, parallel);
+        RankProfileList ownPoolDerived = derive(ownPoolBuilder, null);
+
+        assertEquals(rankProfilesConfig(sequentiallyDerived), rankProfilesConfig(parallelDerived));
+        assertEquals(onnxMappings(sequentialBuilder.getSearch()), onnxMappings(parallelBuilder.getSearch()));
+        assertEquals(rankProfilesConfig(sequentiallyDerived), rankProfilesConfig(ownPoolDerived));
+        assertEquals(onnxMappings(sequentialBuilder.getSearch()), onnxMappings(ownPoolBuilder.getSearch()));
+    }
+
+    private void assertDerivationFails(String expectedMessage, String schema, Executor executor) throws ParseException {
+        SearchBuilder builder = new SearchBuilder(new RankProfileRegistry());
+        builder.importString(schema);
+        builder.build();
+        try {
+            derive(builder, executor);
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals(expectedMessage, Exceptions.toMessageString(e));
+        }
+    }
+
+    /** Derives the rank profiles of the given builder on the given executor, or on a pool of their own if it is null */
+    private static RankProfileList derive(SearchBuilder builder, Executor executor) {
+        Search search = builder.getSearch();
+        return new RankProfileList(search,
+                                   search.rankingConstants(),
+                                   new AttributeFields(search),
+                                   builder.getRankProfileRegistry(),
+                                   builder.getQueryProfileRegistry(),
+                                   new ImportedMlModels(),
+                                   new TestProperties(),
+                                   new TestableDeployLogger(),
+                                   executor);
+    }
+
+    private static RankProfilesConfig rankProfilesConfig(RankProfileList rankProfiles) {
+        RankProfilesConfig.Builder builder = new RankProfilesConfig.Builder();
+        rankProfiles.getConfig(builder);
+        return new RankProfilesConfig(builder);
+    }
+
+    private static String onnxMappings(Search search) {
+        StringBuilder b = new StringBuilder();
+        for (OnnxModel model : search.onnxModels().asMap().values()) {
+            b.append(model.getName()).append(":");
+            model.getInputMap().forEach(mapping -> b.append(" ").append(mapping.getOnnxName()).append("<-").append(mapping.getVespaName()));
+            model.getOutputMap().forEach(mapping -> b.append(" ").append(mapping.getOnnxName()).append("->").append(mapping.getVespaName()));
+            b.append("\n");
+        }
+        return b.toString();
+    }
+
+}
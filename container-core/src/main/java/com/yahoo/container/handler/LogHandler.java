@@ -15,6 +15,7 @@ import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.logging.Level;
@@ -40,13 +41,17 @@ public class LogHandler extends ThreadedHttpRequestHandler {
         Instant to = Optional.ofNullable(request.getProperty("to"))
                              .map(Long::valueOf).map(Instant::ofEpochMilli).orElse(Instant.MAX);
         Optional<String> hostname = Optional.ofNullable(request.getProperty("hostname"));
+        Optional<String> component = Optional.ofNullable(request.getProperty("component"));
+        Set<String> levels = Optional.ofNullable(request.getProperty("level"))
+                                     .map(level -> Set.of(level.split(",")))
+                                     .orElse(Set.of());
 
         return new AsyncHttpResponse(200) {
             @Override
             public void render(OutputStream output, ContentChannel networkChannel, CompletionHandler handler) {
                 try {
                     OutputStream blockingOutput = new BlockingFlushContentChannelOutputStream(networkChannel);
-                    logReader.writeLogs(blockingOutput, from, to, hostname);
+                    logReader.writeLogs(blockingOutput, from, to, hostname, component, levels);
                     blockingOutput.close();
                 }
                 catch (Throwable t) {
@@ -2,11 +2,14 @@
 package com.yahoo.container.handler;
 
 import com.google.common.collect.Iterators;
+import com.yahoo.compress.BlockCompressedInputStream;
+import com.yahoo.concurrent.ThreadFactoryFactory;
 import com.yahoo.vespa.defaults.Defaults;
 import com.yahoo.yolean.Exceptions;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -25,11 +28,19 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -44,9 +55,14 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 class LogReader {
 
-    static final Pattern logArchivePathPattern = Pattern.compile("(\\d{4})/(\\d{2})/(\\d{2})/(\\d{2})-\\d+(.gz)?");
+    static final Pattern logArchivePathPattern = Pattern.compile("(\\d{4})/(\\d{2})/(\\d{2})/(\\d{2})-\\d+(\\.gz|\\.lz4)?");
     static final Pattern vespaLogPathPattern = Pattern.compile("vespa\\.log(?:-(\\d{4})-(\\d{2})-(\\d{2})\\.(\\d{2})-(\\d{2})-(\\d{2})(?:.gz)?)?");
 
+    /** The suffix of the time index files written next to archived log files by the log server */
+    static final String indexSuffix = ".idx";
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(ThreadFactoryFactory.getDaemonThreadFactory("log-reader"));
+
     private final Path logDirectory;
     private final Pattern logFilePattern;
 
@@ -60,17 +76,30 @@ class LogReader {
     }
 
     void writeLogs(OutputStream out, Instant from, Instant to, Optional<String> hostname) {
-        double fromSeconds = from.getEpochSecond() + from.getNano() / 1e9;
-        double toSeconds = to.getEpochSecond() + to.getNano() / 1e9;
-        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out));
-        for (List<Path> logs : getMatchingFiles(from, to)) {
-            List<LogLineIterator> logLineIterators = new ArrayList<>();
-            try {
-                // Logs in each sub-list contain entries covering the same time interval, so do a merge sort while reading
-                for (Path log : logs)
-                    logLineIterators.add(new LogLineIterator(log, fromSeconds, toSeconds, hostname));
+        writeLogs(out, from, to, hostname, Optional.empty(), Set.of());
+    }
+
+    /**
+     * Writes the log lines in the given time interval, with the given hostname and component, if present,
+     * and with any of the given levels, or any level if none are given.
+     * A component matches itself and all its sub-components.
+     */
+    void writeLogs(OutputStream out, Instant from, Instant to,
+                   Optional<String> hostname, Optional<String> component, Set<String> levels) {
+        LineFilter filter = new LineFilter(from, to, hostname, component, levels);
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+        List<List<Path>> matchingFiles = getMatchingFiles(from, to);
+        // Files are read and filtered in parallel: all files in the current group, and in the next one
+        List<List<PrefetchingIterator>> groups = new ArrayList<>();
+        try {
+            for (int i = 0; i < matchingFiles.size(); i++) {
+                while (groups.size() <= i + 1 && groups.size() < matchingFiles.size())
+                    groups.add(matchingFiles.get(groups.size()).stream()
+                                            .map(log -> new PrefetchingIterator(log, filter))
+                                            .collect(Collectors.toList()));
 
-                Iterator<LineWithTimestamp> lines = Iterators.mergeSorted(logLineIterators,
+                // Logs in each sub-list contain entries covering the same time interval, so do a merge sort while reading
+                Iterator<LineWithTimestamp> lines = Iterators.mergeSorted(groups.get(i),
                                                                           Comparator.comparingDouble(LineWithTimestamp::timestamp));
                 long linesWritten = 0;
                 while (lines.hasNext()) {
@@ -79,45 +108,146 @@ class LogReader {
                     if ((++linesWritten & ((1 << 16) - 1)) == 0)
                         writer.flush();
                 }
-            }
-            catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
-            finally {
-                for (LogLineIterator ll : logLineIterators) {
-                    try { ll.close(); } catch (IOException ignored) { }
-                }
                 Exceptions.uncheck(writer::flush);
             }
         }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            for (List<PrefetchingIterator> group : groups)
+                for (PrefetchingIterator iterator : group)
+                    iterator.close();
+            Exceptions.uncheck(writer::flush);
+        }
     }
 
-    private static class LogLineIterator implements Iterator<LineWithTimestamp>, AutoCloseable {
+    /** A filter on log lines, which inspects only the fields it needs, without splitting the line */
+    private static class LineFilter {
 
-        private final BufferedReader reader;
         private final double from;
         private final double to;
         private final Optional<String> hostname;
+        private final Optional<String> component;
+        private final Set<String> levels;
+
+        LineFilter(Instant from, Instant to, Optional<String> hostname, Optional<String> component, Set<String> levels) {
+            this.from = from.getEpochSecond() + from.getNano() / 1e9;
+            this.to = to.getEpochSecond() + to.getNano() / 1e9;
+            this.hostname = hostname;
+            this.component = component;
+            this.levels = levels;
+        }
+
+        /** Returns whether the given block of log lines, with timestamps in the given range, may contain matching lines */
+        boolean mayMatch(double minTimestamp, double maxTimestamp) {
+            return maxTimestamp >= from && minTimestamp <= to;
+        }
+
+    }
+
+    /** Reads and filters the lines of a log file in a separate thread, ahead of the consumer */
+    private static class PrefetchingIterator implements Iterator<LineWithTimestamp> {
+
+        private static final int chunkSize = 1 << 10;
+        private static final Object end = new Object();
+
+        private final BlockingQueue<Object> chunks = new ArrayBlockingQueue<>(4);
+        private final Future<?> reader;
+        private Iterator<LineWithTimestamp> current = Collections.emptyIterator();
+        private boolean done = false;
+
+        PrefetchingIterator(Path log, LineFilter filter) {
+            reader = executor.submit(() -> {
+                try {
+                    try (LogLineIterator lines = new LogLineIterator(log, filter)) {
+                        List<LineWithTimestamp> chunk = new ArrayList<>(chunkSize);
+                        while (lines.hasNext()) {
+                            chunk.add(lines.next());
+                            if (chunk.size() == chunkSize) {
+                                chunks.put(chunk);
+                                chunk = new ArrayList<>(chunkSize);
+                            }
+                        }
+                        if ( ! chunk.isEmpty())
+                            chunks.put(chunk);
+                        chunks.put(end);
+                    }
+                    catch (InterruptedException e) {
+                        throw e;
+                    }
+                    catch (Throwable t) {
+                        chunks.put(t);
+                    }
+                }
+                catch (InterruptedException ignored) { } // Closed by the consumer
+                return null;
+            });
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean hasNext() {
+            while ( ! current.hasNext() && ! done) {
+                Object chunk;
+                try {
+                    chunk = chunks.take();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for log lines", e);
+                }
+                if (chunk instanceof Throwable) {
+                    done = true;
+                    if (chunk instanceof IOException) throw new UncheckedIOException((IOException) chunk);
+                    if (chunk instanceof RuntimeException) throw (RuntimeException) chunk;
+                    throw new IllegalStateException("Failed reading logs", (Throwable) chunk);
+                }
+                if (chunk == end)
+                    done = true;
+                else
+                    current = ((List<LineWithTimestamp>) chunk).iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public LineWithTimestamp next() {
+            if ( ! hasNext()) throw new NoSuchElementException();
+            return current.next();
+        }
+
+        void close() {
+            reader.cancel(true);
+        }
+
+    }
+
+    private static class LogLineIterator implements Iterator<LineWithTimestamp>, AutoCloseable {
+
+        private final BufferedReader reader;
+        private final LineFilter filter;
         private LineWithTimestamp next;
 
-        private LogLineIterator(Path log, double from, double to, Optional<String> hostname) throws IOException {
-            boolean zipped = log.toString().endsWith(".gz");
+        private LogLineIterator(Path log, LineFilter filter) throws IOException {
+            String name = log.getFileName().toString();
+            String uncompressedName = name.replaceFirst("(\\.gz|\\.lz4)$", "");
             InputStream in = InputStream.nullInputStream();
-            try {
-                in = Files.newInputStream(log);
-            }
-            catch (NoSuchFileException e) {
-                if ( ! zipped)
-                    try {
-                        in = Files.newInputStream(Paths.get(log.toString() + ".gz"));
-                        zipped = true;
-                    }
-                    catch (NoSuchFileException ignored) { }
+            // The file may have been compressed since it was listed
+            for (String candidate : name.equals(uncompressedName) ? List.of(name, name + ".lz4", name + ".gz") : List.of(name)) {
+                try {
+                    in = Files.newInputStream(log.resolveSibling(candidate));
+                    if (candidate.endsWith(".gz")) in = new GZIPInputStream(in);
+                    if (candidate.endsWith(".lz4")) in = new BlockCompressedInputStream(in);
+                    break;
+                }
+                catch (NoSuchFileException ignored) { }
             }
-            this.reader = new BufferedReader(new InputStreamReader(zipped ? new GZIPInputStream(in) : in, UTF_8));
-            this.from = from;
-            this.to = to;
-            this.hostname = hostname;
+            Path index = log.resolveSibling(uncompressedName + indexSuffix);
+            List<Range> ranges = rangesToRead(index, filter);
+            if (ranges != null) in = new RangesInputStream(in, ranges);
+            this.reader = new BufferedReader(new InputStreamReader(in, UTF_8));
+            this.filter = filter;
             this.next = readNext();
         }
 
@@ -141,18 +271,30 @@ class LogReader {
         private LineWithTimestamp readNext() {
             try {
                 for (String line; (line = reader.readLine()) != null; ) {
-                    String[] parts = line.split("\t");
-                    if (parts.length != 7)
+                    // Fields are: timestamp, hostname, pid/tid, service, component, level, message
+                    int[] tabs = new int[6];
+                    int tabCount = 0;
+                    for (int i = line.indexOf('\t'); i >= 0; i = line.indexOf('\t', i + 1)) {
+                        if (tabCount == tabs.length) { tabCount = -1; break; }
+                        tabs[tabCount++] = i;
+                    }
+                    if (tabCount != tabs.length)
+                        continue;
+
+                    if (filter.hostname.isPresent() && ! fieldEquals(line, tabs[0] + 1, tabs[1], filter.hostname.get()))
+                        continue;
+
+                    if (filter.component.isPresent() && ! isComponent(line, tabs[3] + 1, tabs[4], filter.component.get()))
                         continue;
 
-                    if (hostname.map(host -> !host.equals(parts[1])).orElse(false))
+                    if ( ! filter.levels.isEmpty() && ! filter.levels.contains(line.substring(tabs[4] + 1, tabs[5])))
                         continue;
 
-                    double timestamp = Double.parseDouble(parts[0]);
-                    if (timestamp > to)
+                    double timestamp = Double.parseDouble(line.substring(0, tabs[0]));
+                    if (timestamp > filter.to)
                         return null;
 
-                    if (timestamp >= from)
+                    if (timestamp >= filter.from)
                         return new LineWithTimestamp(line, timestamp);
                 }
                 return null;
@@ -162,6 +304,78 @@ class LogReader {
             }
         }
 
+        private static boolean fieldEquals(String line, int start, int end, String value) {
+            return end - start == value.length() && line.startsWith(value, start);
+        }
+
+        /** Returns whether the field is the given component, or a sub-component of it */
+        private static boolean isComponent(String line, int start, int end, String component) {
+            if ( ! line.startsWith(component, start)) return false;
+            int length = end - start;
+            return length == component.length() || (length > component.length() && line.charAt(start + component.length()) == '.');
+        }
+
+        /**
+         * Returns the byte ranges of the log file which may contain matching lines, according to the given index,
+         * or null if the index does not exist, or is not readable, so the whole file must be read.
+         * Data which is not covered by the index is always read.
+         */
+        private static List<Range> rangesToRead(Path index, LineFilter filter) {
+            List<String> entries;
+            try {
+                entries = Files.readAllLines(index, UTF_8);
+            }
+            catch (IOException e) {
+                return null;
+            }
+
+            List<Range> blocks = new ArrayList<>();
+            for (String entry : entries) {
+                String[] parts = entry.split("\t");
+                if (parts.length != 4) continue; // Possibly a partially written entry
+                try {
+                    blocks.add(new Range(Long.parseLong(parts[0]),
+                                         Long.parseLong(parts[1]),
+                                         filter.mayMatch(Long.parseLong(parts[2]) / 1e6, Long.parseLong(parts[3]) / 1e6)));
+                }
+                catch (NumberFormatException ignored) { }
+            }
+            blocks.sort(Comparator.comparingLong(block -> block.start));
+
+            List<Range> ranges = new ArrayList<>();
+            long position = 0;
+            for (Range block : blocks) {
+                if (block.start > position)
+                    add(new Range(position, block.start, true), ranges);
+                if (block.end > position) {
+                    if (block.read)
+                        add(new Range(Math.max(position, block.start), block.end, true), ranges);
+                    position = block.end;
+                }
+            }
+            add(new Range(position, Long.MAX_VALUE, true), ranges);
+            return ranges;
+        }
+
+        /** Adds the given range to the given list of ordered ranges, merging it with the last one if they are adjacent */
+        private static void add(Range range, List<Range> ranges) {
+            if ( ! ranges.isEmpty() && ranges.get(ranges.size() - 1).end == range.start)
+                ranges.set(ranges.size() - 1, new Range(ranges.get(ranges.size() - 1).start, range.end, true));
+            else
+                ranges.add(range);
+        }
+
+    }
+
+    static class Range {
+        final long start;
+        final long end;
+        final boolean read;
+        Range(long start, long end, boolean read) {
+            this.start = start;
+            this.end = end;
+            this.read = read;
+        }
     }
 
     private static class LineWithTimestamp {
@@ -175,6 +389,72 @@ class LogReader {
         double timestamp() { return timestamp; }
     }
 
+    /** An input stream which returns only the given, ordered and disjoint, byte ranges of the underlying stream */
+    static class RangesInputStream extends FilterInputStream {
+
+        private final Iterator<Range> ranges;
+        private long position = 0;
+        private long end = -1;
+
+        RangesInputStream(InputStream in, List<Range> ranges) {
+            super(in);
+            this.ranges = ranges.iterator();
+        }
+
+        /** Skips to the next range if the current one is exhausted, and returns whether there is more data to read */
+        private boolean advance() throws IOException {
+            while (position >= end) {
+                if ( ! ranges.hasNext()) return false;
+                Range range = ranges.next();
+                while (position < range.start) {
+                    long skipped = in.skip(range.start - position);
+                    if (skipped <= 0) {
+                        if (in.read() < 0) return false;
+                        skipped = 1;
+                    }
+                    position += skipped;
+                }
+                end = range.end;
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if ( ! advance()) return -1;
+            int read = in.read();
+            if (read >= 0) position++;
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if ( ! advance()) return -1;
+            int read = in.read(b, off, (int) Math.min(len, end - position));
+            if (read > 0) position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            if (n <= 0 || ! advance()) return 0;
+            long skipped = in.skip(Math.min(n, end - position));
+            if (skipped > 0) position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (position >= end) return 0;
+            return (int) Math.min(in.available(), end - position);
+        }
+
+        @Override
+        public boolean markSupported() { return false; }
+
+    }
+
     /** Returns log files which may have relevant entries, grouped and sorted by {@link #extractTimestamp(Path)} — the first and last group must be filtered. */
     private List<List<Path>> getMatchingFiles(Instant from, Instant to) {
         List<Path> paths = new ArrayList<>();
@@ -189,6 +469,7 @@ class LogReader {
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
                     if (     logFilePattern.matcher(file.getFileName().toString()).matches()
+                        && isLogFile(file)
                         && ! attrs.lastModifiedTime().toInstant().isBefore(from))
                         paths.add(file);
 
@@ -220,6 +501,13 @@ class LogReader {
         return sorted;
     }
 
+    /** Returns whether the given path is a log file we know how to read, and not, e.g., an index or temporary file */
+    private boolean isLogFile(Path path) {
+        String relativePath = logDirectory.relativize(path).toString();
+        return    logArchivePathPattern.matcher(relativePath).matches()
+               || vespaLogPathPattern.matcher(relativePath).matches();
+    }
+
     /** Extracts a timestamp after all entries in the log file with the given path. */
     Instant extractTimestamp(Path path) {
         String relativePath = logDirectory.relativize(path).toString();
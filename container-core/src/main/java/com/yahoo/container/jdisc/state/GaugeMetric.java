@@ -22,13 +22,22 @@ public final class GaugeMetric extends MetricValue {
     private long count;
     private Optional<List<Tuple2<String, Double>>> percentiles;
 
+    /** The distribution of values in this, if percentiles should be computed from it */
+    private PercentileHistogram histogram;
+
     private GaugeMetric(double last, double max, double min, double sum, long count, Optional<List<Tuple2<String, Double>>> percentiles) {
+        this(last, max, min, sum, count, percentiles, null);
+    }
+
+    private GaugeMetric(double last, double max, double min, double sum, long count,
+                        Optional<List<Tuple2<String, Double>>> percentiles, PercentileHistogram histogram) {
         this.last = last;
         this.max = max;
         this.min = min;
         this.sum = sum;
         this.count = count;
         this.percentiles = percentiles;
+        this.histogram = histogram;
     }
 
     @Override
@@ -43,6 +52,8 @@ public final class GaugeMetric extends MetricValue {
         }
         sum += dval;
         ++count;
+        if (histogram != null)
+            histogram.add(dval);
     }
 
     @Override
@@ -57,6 +68,12 @@ public final class GaugeMetric extends MetricValue {
         }
         sum += rhs.sum;
         count += rhs.count;
+        if (rhs.histogram != null) {
+            if (histogram == null)
+                histogram = rhs.histogram.copy();
+            else
+                histogram.add(rhs.histogram);
+        }
     }
 
     /**
@@ -103,23 +120,31 @@ public final class GaugeMetric extends MetricValue {
         return count;
     }
 
-    /** Returns the 95th percentile value for this time interval */
+    /** Returns the 95th and 99th percentile values for this time interval, if they are tracked for this metric */
     public Optional<List<Tuple2<String, Double>>> getPercentiles() {
+        if (histogram != null && histogram.count() > 0)
+            return Optional.of(List.of(new Tuple2<>("95", percentile(95)), new Tuple2<>("99", percentile(99))));
         return percentiles;
     }
 
+    /** Returns the given percentile from the histogram of this, within the min and max values of this */
+    private double percentile(double percentile) {
+        return Math.max(min, Math.min(max, histogram.valueAtPercentile(percentile)));
+    }
+
     /**
      * Create a partial clone of this gauge where the value of 'last' is
      * carried over to the new gauge with all other fields left at defaults
      * (0 for count and sum, biggest possible double for min, smallest possible
      * double for max). Note that since count is 0, these extreme values will
      * never be output from the min/max getters as these will return 'last'
-     * in this case.
+     * in this case. A gauge tracking percentiles continues doing so, from an empty distribution.
      * @return A new gauge instance
      */
     public GaugeMetric newWithPreservedLastValue() {
         // min/max set to enforce update of these values on first call to add()
-        return new GaugeMetric(last, Double.MIN_VALUE, Double.MAX_VALUE, 0, 0, Optional.empty());
+        return new GaugeMetric(last, Double.MIN_VALUE, Double.MAX_VALUE, 0, 0, Optional.empty(),
+                               histogram != null ? new PercentileHistogram() : null);
     }
 
     public static GaugeMetric newSingleValue(Number val) {
@@ -127,6 +152,14 @@ public final class GaugeMetric extends MetricValue {
         return new GaugeMetric(dval, dval, dval, dval, 1, Optional.empty());
     }
 
+    /** Returns a gauge with a single value, which tracks the distribution of its values to provide percentiles */
+    static GaugeMetric newSingleValueWithPercentiles(Number val) {
+        double dval = val.doubleValue();
+        PercentileHistogram histogram = new PercentileHistogram();
+        histogram.add(dval);
+        return new GaugeMetric(dval, dval, dval, dval, 1, Optional.empty(), histogram);
+    }
+
     public static GaugeMetric newInstance(double last, double max, double min, double sum, long count) {
         return new GaugeMetric(last, max, min, sum, count, Optional.empty());
     }
@@ -39,11 +39,24 @@ public final class MetricSet implements Iterable<Map.Entry<String, MetricValue>>
     }
 
     void add(String key, Number val) {
-        add(key, CountMetric.newSingleValue(val));
+        MetricValue existingValue = data.get(key);
+        if (existingValue instanceof CountMetric)
+            existingValue.add(val);
+        else
+            add(key, CountMetric.newSingleValue(val));
     }
 
     void set(String key, Number val) {
-        add(key, GaugeMetric.newSingleValue(val));
+        set(key, val, false);
+    }
+
+    /** Sets a gauge value, and tracks the distribution of the values of this gauge if percentiles is true */
+    void set(String key, Number val, boolean percentiles) {
+        MetricValue existingValue = data.get(key);
+        if (existingValue instanceof GaugeMetric)
+            existingValue.add(val);
+        else
+            add(key, percentiles ? GaugeMetric.newSingleValueWithPercentiles(val) : GaugeMetric.newSingleValue(val));
     }
 
     void add(MetricSet metricSet) {
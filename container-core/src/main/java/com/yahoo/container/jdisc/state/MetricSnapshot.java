@@ -58,6 +58,10 @@ public final class MetricSnapshot implements Iterable<Map.Entry<MetricDimensions
         metricSet(dim).set(key, val);
     }
 
+    void set(MetricDimensions dim, String key, Number val, boolean percentiles) {
+        metricSet(dim).set(key, val, percentiles);
+    }
+
     void add(MetricSnapshot snapshot) {
         for (Map.Entry<MetricDimensions, MetricSet> entry : snapshot) {
             MetricSet metricSet = data.get(entry.getKey());
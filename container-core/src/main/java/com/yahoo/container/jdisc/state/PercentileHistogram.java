@@ -0,0 +1,138 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc.state;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of double values with logarithmic bucket boundaries, like HdrHistogram: Each power of two
+ * is divided into {@link #subBuckets} linear buckets, such that any percentile is accurate to about 3% of its value
+ * regardless of magnitude. Only buckets which have values are stored, so a histogram of values of similar
+ * magnitude is small.
+ *
+ * This is not thread safe.
+ *
+ * @author bratseth
+ */
+final class PercentileHistogram {
+
+    /** The number of linear buckets each power of two is divided into */
+    static final int subBuckets = 32;
+    private static final int subBucketBits = 5;
+    private static final int exponentOffset = 1100; // Math.getExponent returns at least -1023 for finite values
+
+    private static final int empty = Integer.MIN_VALUE;
+
+    private int[] keys = newKeys(16);
+    private long[] counts = new long[16];
+    private int size = 0;
+    private long totalCount = 0;
+
+    /** Adds a value to this */
+    void add(double value) {
+        add(key(value), 1);
+    }
+
+    /** Adds all the values of the given histogram to this */
+    void add(PercentileHistogram other) {
+        for (int i = 0; i < other.keys.length; i++)
+            if (other.keys[i] != empty)
+                add(other.keys[i], other.counts[i]);
+    }
+
+    /** Returns the number of values in this */
+    long count() { return totalCount; }
+
+    /**
+     * Returns the value at the given percentile, as the middle of the bucket it is in, or NaN if this is empty
+     *
+     * @param percentile a number between 0 and 100
+     */
+    double valueAtPercentile(double percentile) {
+        if (totalCount == 0) return Double.NaN;
+        int[] sortedKeys = new int[size];
+        int n = 0;
+        for (int key : keys)
+            if (key != empty)
+                sortedKeys[n++] = key;
+        Arrays.sort(sortedKeys);
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int key : sortedKeys) {
+            seen += counts[slot(key)];
+            if (seen >= rank) return value(key);
+        }
+        return value(sortedKeys[sortedKeys.length - 1]);
+    }
+
+    /** Returns a copy of this */
+    PercentileHistogram copy() {
+        PercentileHistogram copy = new PercentileHistogram();
+        copy.keys = keys.clone();
+        copy.counts = counts.clone();
+        copy.size = size;
+        copy.totalCount = totalCount;
+        return copy;
+    }
+
+    private void add(int key, long count) {
+        if ((size + 1) * 4 > keys.length * 3)
+            grow();
+        int slot = slot(key);
+        if (keys[slot] == empty) {
+            keys[slot] = key;
+            size++;
+        }
+        counts[slot] += count;
+        totalCount += count;
+    }
+
+    /** Returns the slot of the given key: The slot containing it, or the empty slot it should be inserted in */
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9) >>> 16 & mask;
+        while (keys[slot] != empty && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = newKeys(oldKeys.length * 2);
+        counts = new long[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == empty) continue;
+            int slot = slot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+
+    private static int[] newKeys(int length) {
+        int[] keys = new int[length];
+        Arrays.fill(keys, empty);
+        return keys;
+    }
+
+    /** Returns the key of the bucket of the given value. Keys are ordered like the values of their buckets. */
+    static int key(double value) {
+        if (value == 0 || Double.isNaN(value)) return 0;
+        double magnitude = Math.min(Math.abs(value), Double.MAX_VALUE);
+        int exponent = Math.getExponent(magnitude) + exponentOffset;
+        int subBucket = (int) (Double.doubleToRawLongBits(magnitude) >>> (52 - subBucketBits)) & (subBuckets - 1);
+        int key = exponent * subBuckets + subBucket + 1;
+        return value < 0 ? -key : key;
+    }
+
+    /** Returns the value in the middle of the bucket with the given key */
+    static double value(int key) {
+        if (key == 0) return 0;
+        int positiveKey = Math.abs(key) - 1;
+        int exponent = positiveKey / subBuckets - exponentOffset;
+        int subBucket = positiveKey % subBuckets;
+        double value = Math.scalb(1 + (subBucket + 0.5) / subBuckets, exponent);
+        return key < 0 ? -value : value;
+    }
+
+}
@@ -5,21 +5,58 @@ import com.yahoo.jdisc.Metric;
 import com.yahoo.jdisc.application.MetricConsumer;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
+ * A metric consumer which accumulates metrics in a number of stripes, each chosen by the updating thread,
+ * such that threads sharing this consumer rarely contend for the same lock. The stripes are swapped out and merged when a
+ * snapshot is created. Since stripes are merged in no particular order, the last value of a gauge set
+ * from multiple stripes in the same interval is the last value set in one of those stripes.
+ *
  * @author Simon Thoresen Hult
  */
 final class StateMetricConsumer implements MetricConsumer {
 
     final static Metric.Context NULL_CONTEXT = StateMetricContext.newInstance(null);
-    private final Object lock = new Object();
-    private MetricSnapshot metricSnapshot = new MetricSnapshot();
+
+    private static final int MAX_STRIPES = 64;
+
+    private final Stripe[] stripes;
+
+    /** The names of the gauges which should have percentiles */
+    private final Set<String> percentileMetrics;
+
+    /** The gauge values carried over from the previous snapshot */
+    private MetricSnapshot carriedOver = new MetricSnapshot();
+
+    StateMetricConsumer() {
+        this(Set.of());
+    }
+
+    StateMetricConsumer(Set<String> percentileMetrics) {
+        this(percentileMetrics, stripeCount(Runtime.getRuntime().availableProcessors()));
+    }
+
+    StateMetricConsumer(Set<String> percentileMetrics, int stripeCount) {
+        if (Integer.bitCount(stripeCount) != 1)
+            throw new IllegalArgumentException("Stripe count must be a power of two, not " + stripeCount);
+        this.percentileMetrics = Set.copyOf(percentileMetrics);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++)
+            stripes[i] = new Stripe();
+    }
+
+    /** Returns the smallest power of two which is at least twice the given processor count, capped at MAX_STRIPES */
+    static int stripeCount(int processors) {
+        int stripes = 1;
+        while (stripes < 2 * processors && stripes < MAX_STRIPES)
+            stripes <<= 1;
+        return stripes;
+    }
 
     @Override
     public void set(String key, Number val, Metric.Context ctx) {
-        synchronized (lock) {
-            metricSnapshot.set(dimensionsOrDefault(ctx), key, val);
-        }
+        stripe().set(dimensionsOrDefault(ctx), key, val, percentileMetrics.contains(key));
     }
 
     private MetricDimensions dimensionsOrDefault(Metric.Context ctx) {
@@ -28,9 +65,12 @@ final class StateMetricConsumer implements MetricConsumer {
 
     @Override
     public void add(String key, Number val, Metric.Context ctx) {
-        synchronized (lock) {
-            metricSnapshot.add(dimensionsOrDefault(ctx), key, val);
-        }
+        stripe().add(dimensionsOrDefault(ctx), key, val);
+    }
+
+    /** Returns the stripe of the current thread. Thread ids are assigned sequentially, so threads spread evenly. */
+    private Stripe stripe() {
+        return stripes[(int) (Thread.currentThread().getId() & (stripes.length - 1))];
     }
 
     @Override
@@ -38,13 +78,48 @@ final class StateMetricConsumer implements MetricConsumer {
         return StateMetricContext.newInstance(properties);
     }
 
-    MetricSnapshot createSnapshot() {
-        MetricSnapshot metricSnapshot;
-        synchronized (lock) {
-            metricSnapshot = this.metricSnapshot;
-            this.metricSnapshot = this.metricSnapshot.createSnapshot();
+    /**
+     * Returns the metrics accumulated since the last call to this, by all threads.
+     * The returned snapshot is not modified by later updates.
+     */
+    synchronized MetricSnapshot createSnapshot() {
+        MetricSnapshot snapshot = carriedOver;
+        for (Stripe stripe : stripes) {
+            MetricSnapshot stripeSnapshot = stripe.swap();
+            if (stripeSnapshot != null)
+                snapshot.add(stripeSnapshot);
+        }
+        carriedOver = snapshot.createSnapshot();
+        return snapshot;
+    }
+
+    /** Metrics accumulated by the threads mapped to one stripe, updated in place under the stripe's own lock */
+    private static final class Stripe {
+
+        /** The metrics of this stripe, or null if there are none, as most stripes of a consumer used by one thread */
+        private MetricSnapshot snapshot = null;
+
+        synchronized void set(MetricDimensions dimensions, String key, Number val, boolean percentiles) {
+            snapshot().set(dimensions, key, val, percentiles);
         }
-        return metricSnapshot;
+
+        synchronized void add(MetricDimensions dimensions, String key, Number val) {
+            snapshot().add(dimensions, key, val);
+        }
+
+        private MetricSnapshot snapshot() {
+            if (snapshot == null)
+                snapshot = new MetricSnapshot();
+            return snapshot;
+        }
+
+        /** Returns the metrics of this stripe, which are no longer updated, or null if none, and starts over */
+        synchronized MetricSnapshot swap() {
+            MetricSnapshot swapped = snapshot;
+            snapshot = null;
+            return swapped;
+        }
+
     }
 
 }
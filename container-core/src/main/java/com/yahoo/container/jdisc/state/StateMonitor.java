@@ -10,6 +10,7 @@ import com.yahoo.jdisc.core.SystemTimer;
 import java.util.logging.Level;
 
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadFactory;
@@ -38,6 +39,7 @@ public class StateMonitor extends AbstractComponent {
     private volatile MetricSnapshot snapshot;
     private volatile Status status;
     private final TreeSet<String> valueNames = new TreeSet<>();
+    private final Set<String> percentileMetrics;
     private final AtomicBoolean stopped = new AtomicBoolean(false);
 
     /** For testing */
@@ -59,12 +61,18 @@ public class StateMonitor extends AbstractComponent {
     StateMonitor(HealthMonitorConfig config, Timer timer, ThreadFactory threadFactory) {
         this((long)(config.snapshot_interval() * TimeUnit.SECONDS.toMillis(1)),
              Status.valueOf(config.initialStatus()),
+             Set.copyOf(config.percentiles()),
              timer, threadFactory);
     }
 
     /* Public for testing only */
     public StateMonitor(long snapshotIntervalMS, Status status, Timer timer, ThreadFactory threadFactory) {
+        this(snapshotIntervalMS, status, Set.of(), timer, threadFactory);
+    }
+
+    StateMonitor(long snapshotIntervalMS, Status status, Set<String> percentileMetrics, Timer timer, ThreadFactory threadFactory) {
         this.timer = timer;
+        this.percentileMetrics = percentileMetrics;
         this.snapshotIntervalMs = snapshotIntervalMS;
         this.lastSnapshotTimeMs = timer.currentTimeMillis();
         this.status = status;
@@ -74,7 +82,7 @@ public class StateMonitor extends AbstractComponent {
 
     /** Returns a metric consumer for jDisc which will write metrics back to this */
     public MetricConsumer newMetricConsumer() {
-        StateMetricConsumer consumer = new StateMetricConsumer();
+        StateMetricConsumer consumer = new StateMetricConsumer(percentileMetrics);
         consumers.add(consumer);
         return consumer;
     }
@@ -1,19 +1,25 @@
 // Copyright 2018 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.container.handler;
 
+import com.yahoo.compress.BlockCompressedOutputStream;
+import com.yahoo.compress.Compressor;
 import com.yahoo.vespa.test.file.TestFileSystem;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPOutputStream;
 
@@ -86,6 +92,80 @@ public class LogReaderTest {
         assertEquals(log101 + log100 + log200, baos.toString(UTF_8));
     }
 
+    @Test
+    public void logsAreFilteredOnLevelAndComponent() {
+        LogReader logReader = new LogReader(logDirectory, Pattern.compile(".*"));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        logReader.writeLogs(baos, Instant.EPOCH, Instant.EPOCH.plus(Duration.ofDays(2)), Optional.empty(), Optional.empty(), Set.of("warning"));
+        assertEquals(log110 + log200, baos.toString(UTF_8));
+
+        baos = new ByteArrayOutputStream();
+        logReader.writeLogs(baos, Instant.EPOCH, Instant.EPOCH.plus(Duration.ofDays(2)), Optional.of("node1.com"), Optional.of("stdout"), Set.of());
+        assertEquals(logv11 + logv, baos.toString(UTF_8));
+
+        baos = new ByteArrayOutputStream();
+        logReader.writeLogs(baos, Instant.EPOCH, Instant.EPOCH.plus(Duration.ofDays(2)), Optional.empty(), Optional.of("std"), Set.of());
+        assertEquals("", baos.toString(UTF_8));
+    }
+
+    @Test
+    public void indexedBlocksOutsideRangeAreSkipped() throws IOException {
+        String skipped = "172800.1\tnode3.com\t5480\tcontainer\tstdout\tinfo\tskipped\n";
+        String included = "172800.2\tnode3.com\t5480\tcontainer\tstdout\tinfo\tincluded\n";
+        String unindexed = "172800.3\tnode3.com\t5480\tcontainer\tstdout\tinfo\tunindexed\n";
+        int skippedLength = skipped.getBytes(UTF_8).length;
+        int includedLength = included.getBytes(UTF_8).length;
+        Files.createDirectories(logDirectory.resolve("1970/01/03"));
+        Files.write(logDirectory.resolve("1970/01/03/00-0"), (skipped + included + unindexed).getBytes(UTF_8));
+        // The first block claims to hold entries from long before the requested interval, and is therefore not read
+        Files.write(logDirectory.resolve("1970/01/03/00-0.idx"),
+                    ("0\t" + skippedLength + "\t100000000\t100000000\n" +
+                     skippedLength + "\t" + (skippedLength + includedLength) + "\t172800200000\t172800200000\n").getBytes(UTF_8));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        LogReader logReader = new LogReader(logDirectory, Pattern.compile(".*"));
+        logReader.writeLogs(baos, Instant.ofEpochSecond(172800), Instant.ofEpochSecond(172900), Optional.empty());
+
+        assertEquals(included + unindexed, baos.toString(UTF_8));
+    }
+
+    @Test
+    public void blockCompressedLogsAreRead() throws IOException {
+        String skipped = "172800.1\tnode3.com\t5480\tcontainer\tstdout\tinfo\tskipped\n";
+        String included = "172800.2\tnode3.com\t5480\tcontainer\tstdout\tinfo\tincluded\n";
+        int skippedLength = skipped.getBytes(UTF_8).length;
+        Files.createDirectories(logDirectory.resolve("1970/01/03"));
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new BlockCompressedOutputStream(compressed, new Compressor(), skippedLength)) {
+            out.write((skipped + included).getBytes(UTF_8));
+        }
+        Files.write(logDirectory.resolve("1970/01/03/00-0.lz4"), compressed.toByteArray());
+        Files.write(logDirectory.resolve("1970/01/03/00-0.idx"),
+                    ("0\t" + skippedLength + "\t100000000\t100000000\n").getBytes(UTF_8));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        LogReader logReader = new LogReader(logDirectory, Pattern.compile(".*"));
+        logReader.writeLogs(baos, Instant.ofEpochSecond(172800), Instant.ofEpochSecond(172900), Optional.empty());
+
+        assertEquals(included, baos.toString(UTF_8));
+    }
+
+    @Test
+    public void skippingStaysWithinTheRanges() throws IOException {
+        InputStream in = new LogReader.RangesInputStream(new ByteArrayInputStream("0123456789".getBytes(UTF_8)),
+                                                         List.of(new LogReader.Range(1, 4, true),
+                                                                 new LogReader.Range(6, 9, true)));
+        assertEquals('1', in.read());
+        assertEquals(2, in.skip(5)); // Only the rest of the current range is skipped
+        assertEquals('6', in.read());
+        assertEquals(0, in.skip(0));
+        assertEquals(2, in.skip(2));
+        assertEquals(0, in.available());
+        assertEquals(-1, in.read());
+        assertEquals(0, in.skip(1));
+    }
+
     private byte[] compress(String input) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         OutputStream zip = new GZIPOutputStream(baos);
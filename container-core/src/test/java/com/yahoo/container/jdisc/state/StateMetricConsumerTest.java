@@ -0,0 +1,146 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.container.jdisc.state;
+
+import com.yahoo.collections.Tuple2;
+import com.yahoo.jdisc.Metric;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author bratseth
+ */
+public class StateMetricConsumerTest {
+
+    @Test
+    public void metrics_from_all_threads_are_accumulated() throws InterruptedException {
+        StateMetricConsumer consumer = new StateMetricConsumer(Set.of(), 4);
+        Metric.Context context = consumer.createContext(Map.of("dim", "value"));
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 1; i <= 1000; i++) {
+                    consumer.add("count", 1, context);
+                    consumer.set("gauge", i, context);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads)
+            thread.join();
+
+        MetricSet metrics = consumer.createSnapshot().metricSet((MetricDimensions) context);
+        assertEquals(8000, ((CountMetric) metrics.get("count")).getCount());
+        GaugeMetric gauge = (GaugeMetric) metrics.get("gauge");
+        assertEquals(8000, gauge.getCount());
+        assertEquals(1, gauge.getMin(), 0);
+        assertEquals(1000, gauge.getMax(), 0);
+        assertEquals(1000, gauge.getLast(), 0);
+        assertEquals(500.5, gauge.getAverage(), 0.000001);
+        assertFalse(gauge.getPercentiles().isPresent());
+    }
+
+    @Test
+    public void stripe_count_is_a_bounded_power_of_two() {
+        assertEquals(2, StateMetricConsumer.stripeCount(1));
+        assertEquals(8, StateMetricConsumer.stripeCount(3));
+        assertEquals(16, StateMetricConsumer.stripeCount(8));
+        assertEquals(64, StateMetricConsumer.stripeCount(1000));
+        try {
+            new StateMetricConsumer(Set.of(), 3);
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Stripe count must be a power of two, not 3", e.getMessage());
+        }
+    }
+
+    @Test
+    public void gauges_are_carried_over_to_the_next_snapshot() {
+        StateMetricConsumer consumer = new StateMetricConsumer();
+        consumer.set("gauge", 7, null);
+        consumer.add("count", 3, null);
+        consumer.createSnapshot();
+
+        MetricSet metrics = consumer.createSnapshot().metricSet((MetricDimensions) StateMetricConsumer.NULL_CONTEXT);
+        assertNull(metrics.get("count"));
+        GaugeMetric gauge = (GaugeMetric) metrics.get("gauge");
+        assertEquals(0, gauge.getCount());
+        assertEquals(7, gauge.getLast(), 0);
+
+        consumer.set("gauge", 9, null);
+        gauge = (GaugeMetric) consumer.createSnapshot().metricSet((MetricDimensions) StateMetricConsumer.NULL_CONTEXT).get("gauge");
+        assertEquals(1, gauge.getCount());
+        assertEquals(9, gauge.getLast(), 0);
+    }
+
+    @Test
+    public void percentiles_are_computed_for_configured_gauges() {
+        StateMetricConsumer consumer = new StateMetricConsumer(Set.of("latency"));
+        for (int i = 1; i <= 1000; i++) {
+            consumer.set("latency", i, null);
+            consumer.set("other", i, null);
+        }
+
+        MetricSet metrics = consumer.createSnapshot().metricSet((MetricDimensions) StateMetricConsumer.NULL_CONTEXT);
+        Optional<List<Tuple2<String, Double>>> percentiles = ((GaugeMetric) metrics.get("latency")).getPercentiles();
+        assertTrue(percentiles.isPresent());
+        assertEquals("95", percentiles.get().get(0).first);
+        assertEquals(950, percentiles.get().get(0).second, 950 * 0.03);
+        assertEquals("99", percentiles.get().get(1).first);
+        assertEquals(990, percentiles.get().get(1).second, 990 * 0.03);
+        assertFalse(((GaugeMetric) metrics.get("other")).getPercentiles().isPresent());
+
+        GaugeMetric carriedOver = (GaugeMetric) consumer.createSnapshot().metricSet((MetricDimensions) StateMetricConsumer.NULL_CONTEXT).get("latency");
+        assertFalse(carriedOver.getPercentiles().isPresent());
+
+        consumer.set("latency", 5, null);
+        GaugeMetric next = (GaugeMetric) consumer.createSnapshot().metricSet((MetricDimensions) StateMetricConsumer.NULL_CONTEXT).get("latency");
+        assertTrue(next.getPercentiles().isPresent());
+        assertEquals(5, next.getPercentiles().get().get(1).second, 0);
+    }
+
+    @Test
+    public void updates_after_a_snapshot_do_not_change_it() {
+        StateMetricConsumer consumer = new StateMetricConsumer();
+        consumer.set("gauge", 7, null);
+        consumer.add("count", 3, null);
+        MetricSet metrics = consumer.createSnapshot().metricSet((MetricDimensions) StateMetricConsumer.NULL_CONTEXT);
+
+        consumer.set("gauge", 9, null);
+        consumer.add("count", 1, null);
+        assertEquals(7, ((GaugeMetric) metrics.get("gauge")).getLast(), 0);
+        assertEquals(1, ((GaugeMetric) metrics.get("gauge")).getCount());
+        assertEquals(3, ((CountMetric) metrics.get("count")).getCount());
+    }
+
+    @Test
+    public void histogram_percentiles_are_accurate_across_magnitudes() {
+        PercentileHistogram histogram = new PercentileHistogram();
+        for (int i = 1; i <= 100; i++)
+            histogram.add(i * 0.001);
+        PercentileHistogram other = new PercentileHistogram();
+        for (int i = 1; i <= 100; i++)
+            other.add(i * 1000);
+        histogram.add(other);
+
+        assertEquals(200, histogram.count());
+        assertEquals(0.05, histogram.valueAtPercentile(25), 0.05 * 0.03);
+        assertEquals(50000, histogram.valueAtPercentile(75), 50000 * 0.03);
+        assertEquals(100000, histogram.valueAtPercentile(100), 100000 * 0.03);
+        assertEquals(-3.0, PercentileHistogram.value(PercentileHistogram.key(-3.0)), 3.0 * 0.03);
+        assertEquals(0, PercentileHistogram.value(PercentileHistogram.key(0)), 0);
+        assertTrue(Double.isNaN(new PercentileHistogram().valueAtPercentile(50)));
+    }
+
+}
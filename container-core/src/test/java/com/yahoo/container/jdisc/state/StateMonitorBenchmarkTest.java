@@ -13,6 +13,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -20,6 +21,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -27,7 +29,7 @@ import static org.junit.Assert.assertTrue;
  */
 public class StateMonitorBenchmarkTest {
 
-    private final static int NUM_THREADS = 32;
+    private final static int NUM_THREADS = 64;
     private final static int NUM_UPDATES = 1000;//0000;
 
     @Test
@@ -44,6 +46,23 @@ public class StateMonitorBenchmarkTest {
         monitor.deconstruct();
     }
 
+    @Test
+    public void requireThatStripesReduceContentionOnASharedConsumer() throws Exception {
+        // A single stripe is equivalent to updating all metrics under one lock
+        StateMetricConsumer locked = new StateMetricConsumer(Set.of(), 1);
+        StateMetricConsumer striped = new StateMetricConsumer(Set.of(), StateMetricConsumer.stripeCount(NUM_THREADS / 2));
+        performUpdates(() -> locked, 8);
+        performUpdates(() -> striped, 8);
+        long lockedMillis = performUpdates(() -> locked, NUM_THREADS);
+        long stripedMillis = performUpdates(() -> striped, NUM_THREADS);
+        System.err.format("%2d threads sharing a consumer: %5d millis locked, %5d millis striped\n",
+                          NUM_THREADS, lockedMillis, stripedMillis);
+
+        MetricDimensions dimensions = (MetricDimensions) striped.createContext(Collections.emptyMap());
+        assertEquals(69L * (8 + NUM_THREADS) * NUM_UPDATES, // Each update adds 69
+                     ((CountMetric) striped.createSnapshot().metricSet(dimensions).get("foo")).getCount());
+    }
+
     private long performUpdates(Provider<MetricConsumer> metricProvider, int numThreads) throws Exception {
         ThreadFactory threadFactory = new ContainerThread.Factory(metricProvider);
         ExecutorService executor = Executors.newFixedThreadPool(numThreads, threadFactory);
@@ -54,6 +73,7 @@ public class StateMonitorBenchmarkTest {
         long before = System.nanoTime();
         List<Future<Boolean>> results = executor.invokeAll(tasks);
         long after = System.nanoTime();
+        executor.shutdown();
         for (Future<Boolean> result : results) {
             assertTrue(result.get());
         }
@@ -73,6 +93,7 @@ public class StateMonitorBenchmarkTest {
             Metric.Context ctx = metric.createContext(Collections.<String, Object>emptyMap());
             for (int i = 0; i < NUM_UPDATES; ++i) {
                 metric.add("foo", 69L, ctx);
+                metric.set("bar", i, ctx);
             }
             return true;
         }
@@ -15,10 +15,14 @@ import com.yahoo.search.query.Ranking;
 import com.yahoo.search.result.ErrorMessage;
 import com.yahoo.search.result.Hit;
 import com.yahoo.search.result.HitGroup;
+import com.yahoo.search.searchchain.AsyncExecution;
 import com.yahoo.search.searchchain.Execution;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.logging.Level;
 
 import static com.yahoo.container.util.Util.quote;
@@ -102,14 +106,47 @@ public class FastSearcher extends VespaBackEndSearcher {
         } catch (TimeoutException e) {
             return new Result(query,ErrorMessage.createTimeout(e.getMessage()));
         } catch (IOException e) {
-            Result result = new Result(query);
-            if (query.getTraceLevel() >= 1)
-                query.trace(getName() + " error response: " + result, false, 1);
-            result.hits().addError(ErrorMessage.createBackendCommunicationError(getName() + " failed: "+ e.getMessage()));
-            return result;
+            return communicationErrorResult(query, e);
         }
     }
 
+    /**
+     * Searches the content nodes without holding a thread while waiting for their responses.
+     * Queries which need a fill before returning are searched synchronously.
+     */
+    @Override
+    protected CompletionStage<Result> doSearchAsync(Query query, Execution execution) {
+        if (query.properties().getBoolean(Ranking.RANKFEATURES, false))
+            return super.doSearchAsync(query, execution);
+
+        if (dispatcher.searchCluster().groupSize() == 1)
+            forceSinglePassGrouping(query);
+        SearchInvoker invoker = getSearchInvoker(query);
+        return invoker.searchAsync(query, execution, AsyncExecution.executor())
+                      .handle((result, exception) -> {
+                          invoker.close();
+                          if (exception == null) {
+                              injectSource(result.hits());
+                              return result;
+                          }
+                          Throwable cause = exception instanceof CompletionException ? exception.getCause() : exception;
+                          if ( ! (cause instanceof UncheckedIOException))
+                              throw new CompletionException(cause);
+                          IOException e = ((UncheckedIOException) cause).getCause();
+                          if (e instanceof TimeoutException)
+                              return new Result(query, ErrorMessage.createTimeout(e.getMessage()));
+                          return communicationErrorResult(query, e);
+                      });
+    }
+
+    private Result communicationErrorResult(Query query, IOException e) {
+        Result result = new Result(query);
+        if (query.getTraceLevel() >= 1)
+            query.trace(getName() + " error response: " + result, false, 1);
+        result.hits().addError(ErrorMessage.createBackendCommunicationError(getName() + " failed: "+ e.getMessage()));
+        return result;
+    }
+
     /**
      * Perform a partial docsum fill for a temporary result
      * representing a partition of the complete fill request.
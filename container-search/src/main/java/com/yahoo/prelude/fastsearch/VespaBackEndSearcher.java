@@ -27,6 +27,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -74,6 +76,14 @@ public abstract class VespaBackEndSearcher extends PingableSearcher {
      */
     protected abstract Result doSearch2(Query query, Execution execution);
 
+    /**
+     * Searches the backend without holding a thread while waiting for the response, if this is supported.
+     * This default implementation completes synchronously by calling doSearch2.
+     */
+    protected CompletionStage<Result> doSearchAsync(Query query, Execution execution) {
+        return CompletableFuture.completedFuture(doSearch2(query, execution));
+    }
+
     protected abstract void doPartialFill(Result result, String summaryClass);
 
     private boolean hasLocation(Item tree) {
@@ -158,10 +168,26 @@ public abstract class VespaBackEndSearcher extends PingableSearcher {
     protected void transformQuery(Query query) { }
 
     public Result search(Query query, Execution execution) {
+        Optional<Result> emptyResult = prepareSearch(query);
+        if (emptyResult.isPresent()) return emptyResult.get();
+
+        return completeSearch(query, doSearch2(query, execution));
+    }
+
+    @Override
+    public CompletionStage<Result> searchAsync(Query query, Execution execution) {
+        Optional<Result> emptyResult = prepareSearch(query);
+        if (emptyResult.isPresent()) return CompletableFuture.completedFuture(emptyResult.get());
+
+        return doSearchAsync(query, execution).thenApply(result -> completeSearch(query, result));
+    }
+
+    /** Rewrites the query for the backend, and returns the result to return directly if there is nothing to search */
+    private Optional<Result> prepareSearch(Query query) {
         // query root should not be null here
         Item root = query.getModel().getQueryTree().getRoot();
         if (root == null || root instanceof NullItem) {
-            return new Result(query, ErrorMessage.createNullQuery(query.getHttpRequest().getUri().toString()));
+            return Optional.of(new Result(query, ErrorMessage.createNullQuery(query.getHttpRequest().getUri().toString())));
         }
 
         QueryRewrite.optimizeByRestrict(query);
@@ -170,7 +196,7 @@ public abstract class VespaBackEndSearcher extends PingableSearcher {
 
         root = query.getModel().getQueryTree().getRoot();
         if (root == null || root instanceof NullItem) // root can become null after optimization
-            return new Result(query);
+            return Optional.of(new Result(query));
 
         resolveDocumentDatabase(query);
         transformQuery(query);
@@ -178,9 +204,11 @@ public abstract class VespaBackEndSearcher extends PingableSearcher {
 
         root = query.getModel().getQueryTree().getRoot();
         if (root == null || root instanceof NullItem) // root can become null after resolving and transformation?
-            return new Result(query);
+            return Optional.of(new Result(query));
+        return Optional.empty();
+    }
 
-        Result result = doSearch2(query, execution);
+    private Result completeSearch(Query query, Result result) {
         if (isLoggingFine())
             getLogger().fine("Result NOT retrieved from cache");
 
@@ -6,6 +6,8 @@ import com.yahoo.processing.Processor;
 import com.yahoo.processing.Response;
 import com.yahoo.search.searchchain.Execution;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.logging.Logger;
 
 /**
@@ -127,6 +129,25 @@ public abstract class Searcher extends Processor {
      */
     public abstract Result search(Query query,Execution execution);
 
+    /**
+     * Returns the result of the given query as a completion stage, which is invoked through
+     * {@link Execution#searchAsync}.
+     * <p>
+     * Searchers which wait for other services should override this to return a stage which is completed
+     * when the response is available, such that no thread is held while waiting. Searchers which pass the
+     * query on should call execution.searchAsync and process the result in a dependent stage, and must not
+     * use the execution in that stage, as it may be used by others by then.
+     * Searchers overriding this must still implement {@link #search} for synchronous executions.
+     * <p>
+     * This default implementation completes synchronously by calling {@link #search}.
+     *
+     * @param query the query
+     * @return the result of making this query
+     */
+    public CompletionStage<Result> searchAsync(Query query, Execution execution) {
+        return CompletableFuture.completedFuture(search(query, execution));
+    }
+
     /** Use the search method in Searcher processors. This forwards to it. */
     @Override
     public final Response process(com.yahoo.processing.Request request, com.yahoo.processing.execution.Execution execution) {
@@ -21,6 +21,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -32,6 +33,8 @@ import static com.yahoo.container.handler.Coverage.DEGRADED_BY_TIMEOUT;
  * InterleavedSearchInvoker uses multiple {@link SearchInvoker} objects to interface with content
  * nodes in parallel. Operationally it first sends requests to all contained invokers and then
  * collects the results. The user of this class is responsible for merging the results if needed.
+ * When a monitor is set on this, it is notified when all the contained invokers have responded, so asynchronous
+ * searches wait for all nodes or the query timeout rather than for the adaptive timeout.
  *
  * @author ollivir
  */
@@ -43,6 +46,7 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
     private final SearchCluster searchCluster;
     private final LinkedBlockingQueue<SearchInvoker> availableForProcessing;
     private final Set<Integer> alreadyFailedNodes;
+    private final AtomicInteger pendingResponses = new AtomicInteger();
     private Query query;
 
     private boolean adaptiveTimeoutCalculated = false;
@@ -89,6 +93,9 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         query.setHits(q);
         query.setOffset(0);
 
+        if (pendingResponses.addAndGet(invokers.size()) == 0)
+            responseAvailable();
+
         Object context = null;
         for (SearchInvoker invoker : invokers) {
             context = invoker.sendSearchRequest(query, context);
@@ -312,11 +319,8 @@ public class InterleavedSearchInvoker extends SearchInvoker implements ResponseM
         if (availableForProcessing != null) {
             availableForProcessing.add(from);
         }
-    }
-
-    @Override
-    protected void setMonitor(ResponseMonitor<SearchInvoker> monitor) {
-        // never to be called
+        if (pendingResponses.decrementAndGet() == 0)
+            responseAvailable();
     }
 
     // For overriding in tests
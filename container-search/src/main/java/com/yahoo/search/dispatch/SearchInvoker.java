@@ -9,7 +9,11 @@ import com.yahoo.search.result.ErrorMessage;
 import com.yahoo.search.searchchain.Execution;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * SearchInvoker encapsulates an allocated connection for running a single search query.
@@ -33,6 +37,35 @@ public abstract class SearchInvoker extends CloseableInvoker {
      */
     public Result search(Query query, Execution execution) throws IOException {
         sendSearchRequest(query, null);
+        return completeSearch(execution);
+    }
+
+    /**
+     * Retrieve the hits for the given {@link Query} without holding a thread while waiting for the response.
+     * The returned future is completed by the given executor when the response is available or the query
+     * times out, and fails with an {@link UncheckedIOException} on communication errors.
+     */
+    public CompletableFuture<Result> searchAsync(Query query, Execution execution, Executor executor) {
+        CompletableFuture<SearchInvoker> response = new CompletableFuture<>();
+        setMonitor(response::complete);
+        try {
+            sendSearchRequest(query, null);
+        }
+        catch (IOException e) {
+            return CompletableFuture.failedFuture(new UncheckedIOException(e));
+        }
+        return response.completeOnTimeout(this, Math.max(0, query.getTimeLeft()), TimeUnit.MILLISECONDS)
+                       .thenApplyAsync(__ -> {
+                           try {
+                               return completeSearch(execution);
+                           }
+                           catch (IOException e) {
+                               throw new UncheckedIOException(e);
+                           }
+                       }, executor);
+    }
+
+    private Result completeSearch(Execution execution) throws IOException {
         InvokerResult result = getSearchResult(execution);
         setFinalStatus(result.getResult().hits().getError() == null);
         result.complete();
@@ -54,6 +87,7 @@ public abstract class SearchInvoker extends CloseableInvoker {
         this.monitor = monitor;
     }
 
+    /** Notifies the monitor of this, if any, that a response is available, such that getSearchResult will not block */
     protected void responseAvailable() {
         if (monitor != null) {
             monitor.responseAvailable(this);
@@ -20,9 +20,10 @@ import com.yahoo.search.result.ErrorMessage;
 import com.yahoo.search.result.Hit;
 import com.yahoo.slime.ArrayTraverser;
 import com.yahoo.slime.BinaryFormat;
-import com.yahoo.slime.Cursor;
-import com.yahoo.slime.Slime;
+import com.yahoo.slime.BinaryWriter;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +42,8 @@ import java.util.logging.Logger;
 public class RpcFillInvoker extends FillInvoker {
     private static final Logger log = Logger.getLogger(RpcFillInvoker.class.getName());
 
+    private static final ThreadLocal<RequestEncoder> encoders = ThreadLocal.withInitial(RequestEncoder::new);
+
     private final DocumentDatabase documentDb;
     private final RpcResourcePool resourcePool;
     private GetDocsumsResponseReceiver responseReceiver;
@@ -113,37 +116,77 @@ public class RpcFillInvoker extends FillInvoker {
 
         Query query = result.getQuery();
         String rankProfile = query.getRanking().getProfile();
-        byte[] serializedSlime = BinaryFormat
-                .encode(toSlime(rankProfile, summaryClass, query.getModel().getDocumentDb(),
-                                query.getSessionId(), query.getRanking().getLocation(), hits));
+        RequestEncoder encoder = encoders.get();
+        int size = encoder.encode(rankProfile, summaryClass, query.getModel().getDocumentDb(),
+                                  query.getSessionId(), query.getRanking().getLocation(), hits);
         double timeoutSeconds = ((double) query.getTimeLeft() - 3.0) / 1000.0;
-        Compressor.Compression compressionResult = resourcePool.compress(query, serializedSlime);
-        node.getDocsums(hits, compressionResult.type(), serializedSlime.length, compressionResult.data(), responseReceiver, timeoutSeconds);
+        Compressor.Compression compressionResult = resourcePool.compress(query, encoder.buffer(), size);
+        node.getDocsums(hits, compressionResult.type(), size, encoder.detach(compressionResult, size), responseReceiver, timeoutSeconds);
     }
 
-    static private Slime toSlime(String rankProfile, String summaryClass, String docType, SessionId sessionId, Location location, List<FastHit> hits) {
-        Slime slime = new Slime();
-        Cursor root = slime.setObject();
+    /** Encodes the request directly to Slime binary format, as it is only created to be sent */
+    static void encodeRequest(BinaryWriter writer, String rankProfile, String summaryClass, String docType,
+                              SessionId sessionId, Location location, List<FastHit> hits) {
+        int fields = 1 + count(summaryClass, sessionId, docType, rankProfile, location);
+        writer.beginObject(fields);
         if (summaryClass != null) {
-            root.setString("class", summaryClass);
+            writer.field("class").writeString(summaryClass);
         }
         if (sessionId != null) {
-            root.setData("sessionid", sessionId.asUtf8String().getBytes());
+            writer.field("sessionid").writeData(sessionId.asUtf8String().getBytes());
         }
         if (docType != null) {
-            root.setString("doctype", docType);
+            writer.field("doctype").writeString(docType);
         }
         if (rankProfile != null) {
-            root.setString("ranking", rankProfile);
+            writer.field("ranking").writeString(rankProfile);
         }
         if (location != null) {
-            root.setString("location", location.backendString());
+            writer.field("location").writeString(location.backendString());
         }
-        Cursor gids = root.setArray("gids");
+        writer.field("gids").beginArray(hits.size());
         for (FastHit hit : hits) {
-            gids.addData(hit.getRawGlobalId());
+            writer.writeData(hit.getRawGlobalId());
+        }
+    }
+
+    /**
+     * A writer and buffer getDocsums requests are encoded into, reused by all fills done in a thread
+     * such that only the (usually compressed) data which is sent is allocated per request.
+     */
+    static final class RequestEncoder {
+
+        private final BinaryWriter writer = new BinaryWriter();
+        private byte[] buffer = new byte[4096];
+
+        /** Encodes a request into the buffer of this and returns its size in bytes */
+        int encode(String rankProfile, String summaryClass, String docType, SessionId sessionId, Location location, List<FastHit> hits) {
+            encodeRequest(writer.reset(), rankProfile, summaryClass, docType, sessionId, location, hits);
+            int size = writer.size();
+            if (size > buffer.length)
+                buffer = new byte[Math.max(size, buffer.length * 2)];
+            writer.writeTo(ByteBuffer.wrap(buffer));
+            return size;
+        }
+
+        /** Returns the buffer holding the last encoded request, which is overwritten by the next */
+        byte[] buffer() { return buffer; }
+
+        /**
+         * Returns the data of the given compression of the last encoded request, copied out of the buffer of this
+         * if it was not compressed, as requests are sent asynchronously
+         */
+        byte[] detach(Compressor.Compression compression, int size) {
+            return compression.data() == buffer ? Arrays.copyOf(buffer, size) : compression.data();
         }
-        return slime;
+
+    }
+
+    private static int count(Object ... values) {
+        int count = 0;
+        for (Object value : values)
+            if (value != null) count++;
+        return count;
     }
 
     /** Receiver of the responses to a set of getDocsums requests */
@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 
 /**
@@ -66,8 +67,16 @@ public class RpcResourcePool extends AbstractComponent {
     }
 
     public Compression compress(Query query, byte[] payload) {
-        CompressionType compression = CompressionType.valueOf(query.properties().getString(dispatchCompression, "LZ4").toUpperCase());
-        return compressor.compress(compression, payload);
+        return compressor.compress(compressionType(query), payload);
+    }
+
+    /** Compresses the first size bytes of the given payload */
+    public Compression compress(Query query, byte[] payload, int size) {
+        return compressor.compress(compressionType(query), payload, Optional.of(size));
+    }
+
+    private static CompressionType compressionType(Query query) {
+        return CompressionType.valueOf(query.properties().getString(dispatchCompression, "LZ4").toUpperCase());
     }
 
     public NodeConnection getConnection(int nodeId) {
@@ -326,25 +326,24 @@ public class GroupingExecutor extends Searcher {
      * @return A map of merged grouping objects.
      */
     private Map<Integer, Grouping> mergeGroupingResults(Result result) {
-        Map<Integer, Grouping> ret = new HashMap<>();
+        Map<Integer, List<Grouping>> groupingsById = new HashMap<>();
         for (Iterator<Hit> i = result.hits().unorderedIterator(); i.hasNext(); ) {
             Hit hit = i.next();
             if (hit instanceof GroupingListHit) {
                 ContextInjector injector = new ContextInjector(hit);
                 for (Grouping grp : ((GroupingListHit)hit).getGroupingList()) {
                     grp.select(injector, injector);
-                    Grouping old = ret.get(grp.getId());
-                    if (old != null) {
-                        old.merge(grp);
-                    } else {
-                        ret.put(grp.getId(), grp);
-                    }
+                    groupingsById.computeIfAbsent(grp.getId(), id -> new ArrayList<>()).add(grp);
                 }
                 i.remove();
             }
         }
-        for (Grouping grouping : ret.values()) {
-            grouping.postMerge();
+        Map<Integer, Grouping> ret = new HashMap<>();
+        for (Map.Entry<Integer, List<Grouping>> entry : groupingsById.entrySet()) {
+            List<Grouping> groupings = entry.getValue();
+            Grouping merged = groupings.get(0);
+            merged.mergeAll(groupings.subList(1, groupings.size()));
+            ret.put(entry.getKey(), merged);
         }
         return ret;
     }
@@ -6,6 +6,7 @@ import com.yahoo.search.query.profile.compiled.CompiledQueryProfile;
 import com.yahoo.search.query.profile.compiled.CompiledQueryProfileRegistry;
 import com.yahoo.search.query.profile.compiled.DimensionalMap;
 import com.yahoo.search.query.profile.compiled.ValueWithSource;
+import com.yahoo.search.query.profile.compiled.VariantIndex;
 import com.yahoo.search.query.profile.types.QueryProfileType;
 
 import java.util.HashSet;
@@ -32,10 +33,11 @@ public class QueryProfileCompiler {
 
     public static CompiledQueryProfile compile(QueryProfile in, CompiledQueryProfileRegistry registry) {
         try {
-            DimensionalMap.Builder<ValueWithSource> values = new DimensionalMap.Builder<>();
-            DimensionalMap.Builder<QueryProfileType> types = new DimensionalMap.Builder<>();
-            DimensionalMap.Builder<Object> references = new DimensionalMap.Builder<>();
-            DimensionalMap.Builder<Object> unoverridables = new DimensionalMap.Builder<>();
+            VariantIndex variantIndex = new VariantIndex(); // shared such that a context can be bound once for all maps
+            DimensionalMap.Builder<ValueWithSource> values = new DimensionalMap.Builder<>(variantIndex);
+            DimensionalMap.Builder<QueryProfileType> types = new DimensionalMap.Builder<>(variantIndex);
+            DimensionalMap.Builder<Object> references = new DimensionalMap.Builder<>(variantIndex);
+            DimensionalMap.Builder<Object> unoverridables = new DimensionalMap.Builder<>(variantIndex);
 
             // Resolve values for each existing variant and combine into a single data structure
             Set<DimensionBindingForPath> variants = collectVariants(CompoundName.empty, in, DimensionBinding.nullBinding);
@@ -10,6 +10,7 @@ import com.yahoo.search.Query;
 import com.yahoo.search.query.Properties;
 import com.yahoo.search.query.profile.compiled.CompiledQueryProfile;
 import com.yahoo.search.query.profile.compiled.DimensionalValue;
+import com.yahoo.search.query.profile.compiled.VariantIndex;
 import com.yahoo.search.query.profile.types.FieldDescription;
 import com.yahoo.search.query.profile.types.QueryProfileFieldType;
 import com.yahoo.search.query.profile.types.QueryProfileType;
@@ -35,6 +36,9 @@ public class QueryProfileProperties extends Properties {
     /** Values which has been overridden at runtime, or null if none */
     private Map<CompoundName, Object> values = null;
 
+    /** True if the values map is shared with a clone, such that it must be copied before it is written */
+    private boolean valuesShared = false;
+
     /**
      * Query profile references which has been overridden at runtime, possibly to the null value to clear values,
      * or null if none (i.e this is lazy).
@@ -42,6 +46,12 @@ public class QueryProfileProperties extends Properties {
      */
     private List<Pair<CompoundName, CompiledQueryProfile>> references = null;
 
+    /** True if the references list is shared with a clone, such that it must be copied before it is written */
+    private boolean referencesShared = false;
+
+    /** The last context bound to the profile, or null if none. This is reused as long as the context is unchanged */
+    private VariantIndex.Context boundContext = null;
+
     /** Creates an instance from a profile, throws an exception if the given profile is null */
     public QueryProfileProperties(CompiledQueryProfile profile) {
         Validator.ensureNotNull("The profile wrapped by this cannot be null", profile);
@@ -67,7 +77,7 @@ public class QueryProfileProperties extends Properties {
                 return reference.getSecond().get(name.rest(reference.getFirst().size()), context, substitution); // even if null
         }
 
-        Object value = profile.get(name, context, substitution);
+        Object value = profile.get(name, bind(context), substitution);
         if (value != null)
             return value;
         return super.get(name, context, substitution);
@@ -87,7 +97,7 @@ public class QueryProfileProperties extends Properties {
             if (context == null)
                 context = Collections.emptyMap();
 
-            if ( ! profile.isOverridable(name, context)) return;
+            if ( ! profile.isOverridable(name, bind(context))) return;
 
             // Check runtime references
             Pair<CompoundName, CompiledQueryProfile> runtimeReference = findReference(name);
@@ -102,7 +112,7 @@ public class QueryProfileProperties extends Properties {
                     if (explicitTypeFromField != null)
                         type = explicitTypeFromField;
                     else
-                        type = profile.getType(name.first(i), context);
+                        type = profile.getType(name.first(i), bind(context));
                     if (type == null) continue;
 
                     String localName = name.get(i);
@@ -141,11 +151,13 @@ public class QueryProfileProperties extends Properties {
             if (value instanceof CompiledQueryProfile) { // this will be due to one of the two clauses above
                 if (references == null)
                     references = new ArrayList<>();
+                makeReferencesWritable();
                 references.add(0, new Pair<>(name, (CompiledQueryProfile)value)); // references set later has precedence - put first
             }
             else {
                 if (values == null)
                     values = new HashMap<>();
+                makeValuesWritable();
                 values.put(name, value);
             }
         }
@@ -158,10 +170,13 @@ public class QueryProfileProperties extends Properties {
     public void clearAll(CompoundName name, Map<String, String> context) {
         if (references == null)
             references = new ArrayList<>();
+        makeReferencesWritable();
         references.add(new Pair<>(name, null));
 
-        if (values != null)
+        if (values != null) {
+            makeValuesWritable();
             values.keySet().removeIf(key -> key.hasPrefix(name));
+        }
     }
 
     @Override
@@ -282,9 +297,10 @@ public class QueryProfileProperties extends Properties {
     CompoundName unalias(CompoundName name, Map<String,String> context) {
         if (profile.getTypes().isEmpty()) return name;
 
+        VariantIndex.Context boundContext = bind(context);
         CompoundName unaliasedName = name;
         for (int i = 0; i<name.size(); i++) {
-            QueryProfileType type = profile.getType(name.first(i), context);
+            QueryProfileType type = profile.getType(name.first(i), boundContext);
             if (type == null) continue;
             if (type.aliases() == null) continue; // TODO: Make never null
             if (type.aliases().isEmpty()) continue;
@@ -298,9 +314,41 @@ public class QueryProfileProperties extends Properties {
     @Override
     public QueryProfileProperties clone() {
         QueryProfileProperties clone = (QueryProfileProperties)super.clone();
-        if (this.values != null)
-            clone.values = PropertyMap.cloneMap(this.values);
+        if (this.values != null) {
+            if (PropertyMap.hasCloneableValues(this.values)) {
+                clone.values = PropertyMap.cloneMap(this.values);
+                clone.valuesShared = false;
+            }
+            else { // Values are immutable: Share until written
+                this.valuesShared = true;
+                clone.valuesShared = true;
+            }
+        }
+        if (this.references != null) {
+            this.referencesShared = true;
+            clone.referencesShared = true;
+        }
+        clone.boundContext = null; // not thread safe, so don't share it
         return clone;
     }
 
+    private void makeValuesWritable() {
+        if ( ! valuesShared) return;
+        values = new HashMap<>(values);
+        valuesShared = false;
+    }
+
+    private void makeReferencesWritable() {
+        if ( ! referencesShared) return;
+        references = new ArrayList<>(references);
+        referencesShared = false;
+    }
+
+    /** Returns the given context bound to the profile of this, reusing the last binding if the context is unchanged */
+    private VariantIndex.Context bind(Map<String, String> context) {
+        if (boundContext == null || ! boundContext.isBindingOf(context))
+            boundContext = profile.bind(context);
+        return boundContext;
+    }
+
 }
@@ -85,11 +85,33 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
         return unoverridables.get(name, context) == null;
     }
 
+    /** Same as {@link #isOverridable(CompoundName, Map)}, but with a context bound by {@link #bind} */
+    public final boolean isOverridable(CompoundName name, VariantIndex.Context context) {
+        return unoverridables.get(name, context) == null;
+    }
+
     /** Returns the type of a given prefix reachable from this profile, or null if none */
     public final QueryProfileType getType(CompoundName name, Map<String, String> context) {
         return types.get(name, context);
     }
 
+    /** Same as {@link #getType(CompoundName, Map)}, but with a context bound by {@link #bind} */
+    public final QueryProfileType getType(CompoundName name, VariantIndex.Context context) {
+        return types.get(name, context);
+    }
+
+    /**
+     * Binds a request context to this profile. Lookups using the returned context resolve which variants
+     * match the context once, rather than on each lookup, and are faster when many values are looked up
+     * in the same context. The returned context is not thread safe, and becomes stale if the dimension values
+     * of the given context change, which can be checked by {@link VariantIndex.Context#isBindingOf}.
+     *
+     * @param context the context to bind, or null if none
+     */
+    public VariantIndex.Context bind(Map<String, String> context) {
+        return entries.variants().bind(context);
+    }
+
     /** Returns the types reachable from this, or an empty map (never null) if none */
     public DimensionalMap<QueryProfileType> getTypes() { return types; }
 
@@ -180,10 +202,14 @@ public class CompiledQueryProfile extends AbstractComponent implements Cloneable
     public final Object get(CompoundName name, Map<String, String> context, Properties substitution) {
         ValueWithSource value = entries.get(name, context);
         if (value == null) return null;
-        if (name.last().equals("streams"))
-            System.out.println(value);
         return substitute(value.value(), context, substitution);
     }
+    /** Same as {@link #get(CompoundName, Map, Properties)}, but with a context bound by {@link #bind} */
+    public final Object get(CompoundName name, VariantIndex.Context context, Properties substitution) {
+        ValueWithSource value = entries.get(name, context);
+        if (value == null) return null;
+        return substitute(value.value(), context.context(), substitution);
+    }
 
     private Object substitute(Object value, Map<String, String> context, Properties substitution) {
         if (value == null) return value;
@@ -21,8 +21,11 @@ public class DimensionalMap<VALUE> {
 
     private final Map<CompoundName, DimensionalValue<VALUE>> values;
 
-    private DimensionalMap(Map<CompoundName, DimensionalValue<VALUE>> values) {
+    private final VariantIndex variants;
+
+    private DimensionalMap(Map<CompoundName, DimensionalValue<VALUE>> values, VariantIndex variants) {
         this.values = ImmutableMap.copyOf(values);
+        this.variants = variants;
     }
 
     /** Returns the value for this key matching a context, or null if none */
@@ -32,6 +35,16 @@ public class DimensionalMap<VALUE> {
         return variants.get(context);
     }
 
+    /** Returns the value for this key matching a bound context, or null if none */
+    public VALUE get(CompoundName key, VariantIndex.Context context) {
+        DimensionalValue<VALUE> variants = values.get(key);
+        if (variants == null) return null;
+        return variants.get(context);
+    }
+
+    /** Returns the index of the variants of this, which contexts must be bound to for lookups by bound contexts */
+    public VariantIndex variants() { return variants; }
+
     /** Returns the set of dimensional entries across all contexts. */
     public Set<Map.Entry<CompoundName, DimensionalValue<VALUE>>> entrySet() {
         return values.entrySet();
@@ -45,6 +58,16 @@ public class DimensionalMap<VALUE> {
     public static class Builder<VALUE> {
 
         private final Map<CompoundName, DimensionalValue.Builder<VALUE>> entries = new HashMap<>();
+        private final VariantIndex variants;
+
+        public Builder() {
+            this(new VariantIndex());
+        }
+
+        /** Creates a builder which indexes its variants in the given index, which may be shared with other maps */
+        public Builder(VariantIndex variants) {
+            this.variants = variants;
+        }
 
         // TODO: DimensionBinding -> Binding?
         public void put(CompoundName key, DimensionBinding binding, VALUE value) {
@@ -59,9 +82,9 @@ public class DimensionalMap<VALUE> {
         public DimensionalMap<VALUE> build() {
             Map<CompoundName, DimensionalValue<VALUE>> map = new HashMap<>();
             for (Map.Entry<CompoundName, DimensionalValue.Builder<VALUE>> entry : entries.entrySet()) {
-                map.put(entry.getKey(), entry.getValue().build(entries));
+                map.put(entry.getKey(), entry.getValue().build(entries, variants));
             }
-            return new DimensionalMap<>(map);
+            return new DimensionalMap<>(map, variants);
         }
 
     }
@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Contains the values a given key in a DimensionalMap may take for different dimensional contexts.
@@ -25,7 +26,20 @@ public class DimensionalValue<VALUE> {
     private final Map<Binding, VALUE> indexedVariants;
     private final List<BindingSpec> bindingSpecs;
 
-    private DimensionalValue(List<Value<VALUE>> variants) {
+    /** The variant index this is indexed in */
+    private final VariantIndex variantIndex;
+
+    /** The index in the variant index of each binding spec of this, in the order of bindingSpecs */
+    private final int[] specIndexes;
+
+    /** The sorted variant index ordinals of the bindings of each spec of this, in the order of bindingSpecs */
+    private final int[][] bindingOrdinals;
+
+    /** The values of the bindings in bindingOrdinals */
+    private final VALUE[][] bindingValues;
+
+    @SuppressWarnings("unchecked")
+    private DimensionalValue(List<Value<VALUE>> variants, VariantIndex variantIndex) {
         Collections.sort(variants);
 
         // If there are inconsistent definitions of the same property, we should pick the first in the sort order
@@ -39,6 +53,22 @@ public class DimensionalValue<VALUE> {
             if ( ! bindingSpecs.contains(spec))
                 bindingSpecs.add(spec);
         }
+
+        this.variantIndex = variantIndex;
+        this.specIndexes = new int[bindingSpecs.size()];
+        this.bindingOrdinals = new int[bindingSpecs.size()][];
+        this.bindingValues = (VALUE[][])new Object[bindingSpecs.size()][];
+        for (int i = 0; i < bindingSpecs.size(); i++) {
+            BindingSpec spec = bindingSpecs.get(i);
+            specIndexes[i] = variantIndex.indexOf(spec);
+            Map<Integer, VALUE> valuesByOrdinal = new TreeMap<>();
+            for (Map.Entry<Binding, VALUE> variant : indexedVariants.entrySet()) {
+                if (spec.equals(new BindingSpec(variant.getKey())))
+                    valuesByOrdinal.put(variantIndex.ordinalOf(specIndexes[i], variant.getKey()), variant.getValue());
+            }
+            bindingOrdinals[i] = valuesByOrdinal.keySet().stream().mapToInt(Integer::intValue).toArray();
+            bindingValues[i] = (VALUE[])valuesByOrdinal.values().toArray();
+        }
     }
 
     /** Returns the value matching this context, or null if none */
@@ -55,6 +85,24 @@ public class DimensionalValue<VALUE> {
         return null;
     }
 
+    /**
+     * Returns the value matching this bound context, or null if none.
+     * This is equivalent to, but faster than, calling {@link #get(Map)} with the bound context.
+     */
+    public VALUE get(VariantIndex.Context context) {
+        if (context.index() != variantIndex)
+            return get(context.context());
+
+        for (int i = 0; i < specIndexes.length; i++) {
+            int match = context.match(specIndexes[i]);
+            if (match < 0) continue;
+            int found = Arrays.binarySearch(bindingOrdinals[i], match);
+            if (found >= 0)
+                return bindingValues[i][found];
+        }
+        return null;
+    }
+
     public boolean isEmpty() { return indexedVariants.isEmpty(); }
 
     @Override
@@ -88,6 +136,12 @@ public class DimensionalValue<VALUE> {
         }
 
         public DimensionalValue<VALUE> build(Map<CompoundName, DimensionalValue.Builder<VALUE>> entries) {
+            return build(entries, new VariantIndex());
+        }
+
+        /** Builds this, indexing its variants in the given variant index */
+        public DimensionalValue<VALUE> build(Map<CompoundName, DimensionalValue.Builder<VALUE>> entries,
+                                             VariantIndex variantIndex) {
             List<Value<VALUE>> variants = new ArrayList<>();
             if (buildableVariants.size() == 1) {
                 // Compact size 1 as it is common and easy to do. To compact size > 1 we would need to
@@ -98,7 +152,7 @@ public class DimensionalValue<VALUE> {
             for (Value.Builder<VALUE> buildableVariant : buildableVariants.values()) {
                 variants.addAll(buildableVariant.build(entries));
             }
-            return new DimensionalValue<>(variants);
+            return new DimensionalValue<>(variants, variantIndex);
         }
 
     }
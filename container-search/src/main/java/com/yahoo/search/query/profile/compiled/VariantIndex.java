@@ -0,0 +1,127 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.query.profile.compiled;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An index of the distinct binding specs and bindings of the variants in the dimensional maps of a compiled
+ * query profile. This allows the variants matching a request context to be resolved once per request
+ * by {@link #bind}, after which looking up variant values does not hash any strings.
+ * <p>
+ * An index is added to while building dimensional maps, and is immutable after that.
+ *
+ * @author bratseth
+ */
+public class VariantIndex {
+
+    /** The distinct binding specs of this */
+    private final List<DimensionalValue.BindingSpec> specs = new ArrayList<>();
+    private final Map<DimensionalValue.BindingSpec, Integer> specIndexes = new HashMap<>();
+
+    /** The ordinals of the distinct bindings of each spec in this */
+    private final List<Map<Binding, Integer>> bindingOrdinals = new ArrayList<>();
+
+    /** All the dimensions of all the specs in this */
+    private final Set<String> dimensions = new LinkedHashSet<>();
+
+    /** Returns the index of the given spec in this, adding it if necessary */
+    int indexOf(DimensionalValue.BindingSpec spec) {
+        Integer index = specIndexes.get(spec);
+        if (index != null) return index;
+
+        specs.add(spec);
+        specIndexes.put(spec, specs.size() - 1);
+        bindingOrdinals.add(new HashMap<>());
+        dimensions.addAll(Arrays.asList(spec.dimensions()));
+        return specs.size() - 1;
+    }
+
+    /** Returns the ordinal of the given binding among those with the spec at the given index, adding it if necessary */
+    int ordinalOf(int specIndex, Binding binding) {
+        Map<Binding, Integer> ordinals = bindingOrdinals.get(specIndex);
+        return ordinals.computeIfAbsent(binding, __ -> ordinals.size());
+    }
+
+    /** Returns the ordinal of the binding matching the given context for the spec at the given index, or -1 if none */
+    private int resolve(int specIndex, Map<String, String> context) {
+        DimensionalValue.BindingSpec spec = specs.get(specIndex);
+        if ( ! spec.matches(context)) return -1;
+        Integer ordinal = bindingOrdinals.get(specIndex).get(new Binding(spec, context));
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Binds a request context to this. The returned context resolves matching variants lazily,
+     * and each of them only once.
+     *
+     * @param context the dimension values of a request, or null if none
+     */
+    public Context bind(Map<String, String> context) {
+        return new Context(this, context == null ? Collections.emptyMap() : context);
+    }
+
+    /**
+     * The bindings of this matching a request context. This is not thread safe.
+     */
+    public static class Context {
+
+        private static final int unresolved = -2;
+
+        private final VariantIndex index;
+        private final Map<String, String> context;
+
+        /** The values of the dimensions of the index in the context at the time of binding */
+        private final String[] dimensionValues;
+
+        /** The ordinal of the binding matching the context for each spec, or -1 if none, or unresolved */
+        private final int[] matches;
+
+        private Context(VariantIndex index, Map<String, String> context) {
+            this.index = index;
+            this.context = context;
+            this.dimensionValues = new String[index.dimensions.size()];
+            int i = 0;
+            for (String dimension : index.dimensions)
+                dimensionValues[i++] = context.get(dimension);
+            this.matches = new int[index.specs.size()];
+            Arrays.fill(matches, unresolved);
+        }
+
+        /** Returns the index this is bound to */
+        VariantIndex index() { return index; }
+
+        /** Returns the context this is a binding of */
+        public Map<String, String> context() { return context; }
+
+        /**
+         * Returns whether this is a binding of the given context in its current state: It must be the same instance,
+         * and the values of all dimensions must be unchanged.
+         */
+        public boolean isBindingOf(Map<String, String> context) {
+            if (context == null) context = Collections.emptyMap();
+            if (context != this.context) return false;
+            int i = 0;
+            for (String dimension : index.dimensions)
+                if ( ! Objects.equals(dimensionValues[i++], context.get(dimension))) return false;
+            return true;
+        }
+
+        /** Returns the ordinal of the binding matching this context for the spec at the given index, or -1 if none */
+        int match(int specIndex) {
+            int match = matches[specIndex];
+            if (match == unresolved)
+                matches[specIndex] = match = index.resolve(specIndex, context);
+            return match;
+        }
+
+    }
+
+}
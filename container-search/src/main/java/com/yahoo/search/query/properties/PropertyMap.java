@@ -10,7 +10,8 @@ import java.util.HashMap;
  * A Map backing of Properties.
  * <p>
  * When this is cloned it will deep copy not only the model object map, but also each
- * clonable member inside the map.
+ * clonable member inside the map. If there are no clonable members, the map is instead shared
+ * with the clone until either of them is written to.
  * <p>
  * Subclassing is supported, a hook can be implemented to provide conditional inclusion in the map.
  * By default - all properties are accepted, so set is never propagated.
@@ -26,7 +27,11 @@ public class PropertyMap extends Properties {
     /** The properties of this */
     private Map<CompoundName, Object> properties = new LinkedHashMap<>();
 
+    /** True if the properties map is shared with a clone, such that it must be copied before it is written */
+    private boolean shared = false;
+
     public void set(CompoundName name, Object value, Map<String, String> context) {
+        makeWritable();
         if (value == null) // Both clear and forward
             properties.remove(name);
 
@@ -53,13 +58,27 @@ public class PropertyMap extends Properties {
      * Returns a direct reference to the map containing the properties set in this instance.
      */
     public Map<CompoundName, Object> propertyMap() {
+        makeWritable(); // as the map may be modified by the caller
         return properties;
     }
 
+    private void makeWritable() {
+        if ( ! shared) return;
+        properties = new LinkedHashMap<>(properties);
+        shared = false;
+    }
+
     @Override
     public PropertyMap clone() {
         PropertyMap clone = (PropertyMap)super.clone();
+        if ( ! cloneHelper.hasCloneableValues(properties)) { // Values are immutable: Share until written
+            this.shared = true;
+            clone.shared = true;
+            return clone;
+        }
+
         clone.properties = new HashMap<>();
+        clone.shared = false;
         for (Map.Entry<CompoundName, Object> entry : this.properties.entrySet()) {
             Object cloneValue = cloneHelper.clone(entry.getValue());
             if (cloneValue == null)
@@ -6,11 +6,14 @@ import com.yahoo.concurrent.ThreadFactoryFactory;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
 import com.yahoo.search.Searcher;
+import com.yahoo.search.result.ErrorMessage;
+import com.yahoo.yolean.Exceptions;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.function.Function;
 
 /**
  * Provides asynchronous execution of searchchains.
@@ -121,6 +124,24 @@ public class AsyncExecution {
         return getFutureResult(() -> execution.search(query), query);
     }
 
+    /**
+     * Does an async search where the chain is executed through {@link Searcher#searchAsync}, such that
+     * no thread is held while searchers which support it are waiting for responses.
+     * The returned future is never completed exceptionally; exceptions are returned as results with errors.
+     * The same restriction on reuse of the query as for {@link #search} applies.
+     */
+    public CompletableFuture<Result> searchAsync(Query query) {
+        return CompletableFuture.supplyAsync(() -> execution.searchAsync(query), getExecutor())
+                                .thenCompose(Function.identity())
+                                .exceptionally(e -> new Result(query, createExecutionError(e)));
+    }
+
+    private ErrorMessage createExecutionError(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return ErrorMessage.createErrorInPluginSearcher("Error in '" + execution + "': " +
+                                                        Exceptions.toMessageString(cause), cause);
+    }
+
     public FutureResult searchAndFill(Query query) {
         return getFutureResult(() -> {
             Result result = execution.search(query);
@@ -133,6 +154,14 @@ public class AsyncExecution {
         return executorMain;
     }
 
+    /**
+     * Returns the executor used by async executions. Searchers which complete results asynchronously should
+     * complete them in this rather than in threads which are not meant to do such work, such as network threads.
+     */
+    public static Executor executor() {
+        return getExecutor();
+    }
+
     /**
      * The future of this functions returns the original Result
      *
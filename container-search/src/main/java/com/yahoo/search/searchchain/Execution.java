@@ -17,6 +17,9 @@ import com.yahoo.search.cluster.PingableSearcher;
 import com.yahoo.search.rendering.RendererRegistry;
 import com.yahoo.search.statistics.TimeTracker;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 import java.util.logging.Logger;
 
 /**
@@ -495,6 +498,43 @@ public class Execution extends com.yahoo.processing.execution.Execution {
         return (Result)super.process(query);
     }
 
+    /**
+     * Calls searchAsync on the next searcher in this chain, and returns the resulting stage,
+     * which may complete after this returns. If there is no next, an empty result is returned.
+     * The rest of the chain is invoked synchronously if the next processor is not a searcher.
+     */
+    public CompletionStage<Result> searchAsync(Query query) {
+        Processor next = next();
+        if ( ! (next instanceof Searcher))
+            return CompletableFuture.completedFuture(search(query));
+
+        timer.sampleSearch(nextIndex(), context.getDetailedDiagnostics());
+        query.getModel().setExecution(this);
+        trace().setTraceLevel(query.getTraceLevel());
+
+        CompletionStage<Result> result = null;
+        try {
+            nextProcessor();
+            onInvoking(query, next);
+            result = ((Searcher)next).searchAsync(query, this);
+            if (result == null)
+                throw new NullPointerException(next + " returned null, not a CompletionStage");
+            return result;
+        }
+        finally {
+            previousProcessor();
+            onReturning(query, next, completedResult(result));
+        }
+    }
+
+    /** Returns the result of the given stage if it is already completed normally, and null otherwise */
+    private static Result completedResult(CompletionStage<Result> stage) {
+        if (stage == null) return null;
+        CompletableFuture<Result> future = stage.toCompletableFuture();
+        if ( ! future.isDone() || future.isCompletedExceptionally()) return null;
+        return future.getNow(null);
+    }
+
     @Override
     protected void onInvoking(Request request, Processor processor) {
         super.onInvoking(request,processor);
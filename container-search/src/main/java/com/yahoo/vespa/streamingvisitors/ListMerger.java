@@ -1,9 +1,11 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespa.streamingvisitors;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.ArrayList;
+import java.util.PriorityQueue;
 
 /**
  * A list merger that merges two sorted lists.
@@ -104,4 +106,49 @@ public class ListMerger {
         return mergeIntoArrayList(l1, l2, Integer.MAX_VALUE);
     }
 
+    /**
+     * Merges any number of sorted lists into a new array list in one pass.
+     * Equal elements are ordered by the order of the lists containing them.
+     */
+    public static <T extends Comparable<? super T>> List<T> mergeAll(List<List<T>> lists, int maxEntryCount) {
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>(Math.max(1, lists.size()));
+        int size = 0;
+        for (int i = 0; i < lists.size(); i++) {
+            Iterator<T> iterator = lists.get(i).iterator();
+            if (iterator.hasNext())
+                heads.add(new Head<>(iterator.next(), iterator, i));
+            size += lists.get(i).size();
+        }
+
+        List<T> mergedList = new ArrayList<>(Math.min(size, maxEntryCount));
+        while ( ! heads.isEmpty() && mergedList.size() < maxEntryCount) {
+            Head<T> head = heads.poll();
+            mergedList.add(head.element);
+            if (head.rest.hasNext())
+                heads.add(new Head<>(head.rest.next(), head.rest, head.listIndex));
+        }
+        return mergedList;
+    }
+
+    /** The next element of one of the lists being merged */
+    private static class Head<T extends Comparable<? super T>> implements Comparable<Head<T>> {
+
+        final T element;
+        final Iterator<T> rest;
+        final int listIndex;
+
+        Head(T element, Iterator<T> rest, int listIndex) {
+            this.element = element;
+            this.rest = rest;
+            this.listIndex = listIndex;
+        }
+
+        @Override
+        public int compareTo(Head<T> other) {
+            int elementOrder = element.compareTo(other.element);
+            return elementOrder != 0 ? elementOrder : Integer.compare(listIndex, other.listIndex);
+        }
+
+    }
+
 }
@@ -35,12 +35,13 @@ import com.yahoo.vespa.objects.BufferSerializer;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
@@ -66,11 +67,25 @@ class VdsVisitor extends VisitorDataHandler implements Visitor {
 
     private static final Logger log = Logger.getLogger(VdsVisitor.class.getName());
     private final VisitorParameters params = new VisitorParameters("");
+    private final AtomicInteger totalHitCount = new AtomicInteger(0);
+
+    /** The max number of reply hit lists to buffer before they are merged, which bounds the memory used by the buffer */
+    static final int MAX_BUFFERED_REPLIES = 64;
+
+    /**
+     * The sorted hits of each reply, each limited to the hits requested. These are buffered as they arrive
+     * and merged into {@link #hits} when the hits are requested, or when {@link #MAX_BUFFERED_REPLIES} replies are
+     * buffered, such that replies are mostly received without contention.
+     */
+    private final Queue<List<SearchResult.Hit>> replyHits = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedReplies = new AtomicInteger(0);
     private List<SearchResult.Hit> hits = new ArrayList<>();
-    private int totalHitCount = 0;
 
-    private final Map<String, DocumentSummary.Summary> summaryMap = new HashMap<>();
-    private final Map<Integer, Grouping> groupingMap = new ConcurrentHashMap<>();
+    private final Map<String, DocumentSummary.Summary> summaryMap = new ConcurrentHashMap<>();
+
+    /** The groupings of each reply by grouping id, buffered as they arrive and merged when the groupings are requested */
+    private final Map<Integer, Queue<Grouping>> replyGroupings = new ConcurrentHashMap<>();
+    private final Map<Integer, Grouping> groupingMap = new LinkedHashMap<>();
     private Query query = null;
     private VisitorSessionFactory visitorSessionFactory;
     private final int traceLevelOverride;
@@ -397,23 +412,26 @@ class VdsVisitor extends VisitorDataHandler implements Visitor {
             log.log(Level.FINE, "Got SearchResult with " + hitCountTotal + " in total and " + hitCount + " hits in real for query with selection " + params.getDocumentSelection());
         }
 
-        List<SearchResult.Hit> newHits = new ArrayList<>(hitCount);
-        for (int i = 0; i < hitCount; i++) {
+        int newHitCount = Math.min(hitCount, query.getOffset() + query.getHits());
+        List<SearchResult.Hit> newHits = new ArrayList<>(newHitCount);
+        for (int i = 0; i < newHitCount; i++) {
             SearchResult.Hit hit = sr.getHit(i);
             newHits.add(hit);
         }
-        synchronized (this) {
-            totalHitCount += hitCountTotal;
-            hits = ListMerger.mergeIntoArrayList(hits, newHits, query.getOffset() + query.getHits());
+        totalHitCount.addAndGet(hitCountTotal);
+        if ( ! newHits.isEmpty()) {
+            replyHits.add(newHits);
+            if (bufferedReplies.incrementAndGet() >= MAX_BUFFERED_REPLIES)
+                mergeHits();
         }
 
         Map<Integer, byte []> newGroupingMap = sr.getGroupingList();
-        mergeGroupingMaps(newGroupingMap);
+        addGroupings(newGroupingMap);
     }
 
-    private void mergeGroupingMaps(Map<Integer, byte []> newGroupingMap) {
+    private void addGroupings(Map<Integer, byte []> newGroupingMap) {
         if (log.isLoggable(Level.FINEST)) {
-            log.log(Level.FINEST, "mergeGroupingMaps: newGroupingMap = " + newGroupingMap);
+            log.log(Level.FINEST, "addGroupings: newGroupingMap = " + newGroupingMap);
         }
         for(Integer key : newGroupingMap.keySet()) {
             byte [] value = newGroupingMap.get(key);
@@ -429,14 +447,7 @@ class VdsVisitor extends VisitorDataHandler implements Visitor {
                                                    "Position = " + buf.position() + ", limit = " + buf.getBuf().limit());
             }
 
-            synchronized (groupingMap) {
-                if (groupingMap.containsKey(key)) {
-                    Grouping grouping = groupingMap.get(key);
-                    grouping.merge(newGrouping);
-                } else {
-                    groupingMap.put(key, newGrouping);
-                }
-            }
+            replyGroupings.computeIfAbsent(key, __ -> new ConcurrentLinkedQueue<>()).add(newGrouping);
         }
     }
 
@@ -452,35 +463,66 @@ class VdsVisitor extends VisitorDataHandler implements Visitor {
         if (log.isLoggable(Level.FINE)) {
             log.log(Level.FINE, "Got DocumentSummary with " + summaryCount + " summaries for query with selection " + params.getDocumentSelection());
         }
-        synchronized (summaryMap) {
-            for (int i = 0; i < summaryCount; i++) {
-                DocumentSummary.Summary summary = ds.getSummary(i);
-                summaryMap.put(summary.getDocId(), summary);
-            }
+        for (int i = 0; i < summaryCount; i++) {
+            DocumentSummary.Summary summary = ds.getSummary(i);
+            summaryMap.put(summary.getDocId(), summary);
         }
     }
 
     @Override
     final public List<SearchResult.Hit> getHits() {
+        mergeHits();
         int fromIndex = Math.min(hits.size(), query.getOffset());
         int toIndex = Math.min(hits.size(), query.getOffset() + query.getHits());
         return hits.subList(fromIndex, toIndex);
     }
 
+    /** Returns the number of reply hit lists which are buffered and not yet merged */
+    int bufferedReplyCount() { return bufferedReplies.get(); }
+
     @Override
     final public Map<String, DocumentSummary.Summary> getSummaryMap() { return summaryMap; }
 
     @Override
-    final public int getTotalHitCount() { return totalHitCount; }
+    final public int getTotalHitCount() { return totalHitCount.get(); }
 
     @Override
     final public List<Grouping> getGroupings() {
-        Collection<Grouping> groupings = groupingMap.values();
-        for (Grouping g : groupings) {
-            g.postMerge();
+        mergeGroupings();
+        synchronized (groupingMap) {
+            return new ArrayList<>(groupingMap.values());
+        }
+    }
+
+    /** Merges the hits of the replies received since the last merge into the hits of this */
+    private synchronized void mergeHits() {
+        List<List<SearchResult.Hit>> lists = new ArrayList<>();
+        if ( ! hits.isEmpty())
+            lists.add(hits);
+        for (List<SearchResult.Hit> replyHitList; (replyHitList = replyHits.poll()) != null; ) {
+            lists.add(replyHitList);
+            bufferedReplies.decrementAndGet();
+        }
+        if (lists.size() == 1 && lists.get(0) == hits) return;
+        hits = ListMerger.mergeAll(lists, query.getOffset() + query.getHits());
+    }
+
+    /** Merges the groupings of the replies received since the last merge into the groupings of this, and post merges */
+    private void mergeGroupings() {
+        synchronized (groupingMap) {
+            for (Map.Entry<Integer, Queue<Grouping>> entry : replyGroupings.entrySet()) {
+                List<Grouping> groupings = new ArrayList<>();
+                for (Grouping grouping; (grouping = entry.getValue().poll()) != null; )
+                    groupings.add(grouping);
+                Grouping merged = groupingMap.get(entry.getKey());
+                if (merged == null) {
+                    if (groupings.isEmpty()) continue;
+                    merged = groupings.remove(0);
+                    groupingMap.put(entry.getKey(), merged);
+                }
+                merged.mergeAll(groupings);
+            }
         }
-        Grouping[] array = groupings.toArray(new Grouping[groupings.size()]);
-        return Arrays.asList(array);
     }
 
 }
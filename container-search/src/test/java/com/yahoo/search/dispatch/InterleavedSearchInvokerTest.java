@@ -297,6 +297,30 @@ public class InterleavedSearchInvokerTest {
         assertEquals(3, result.getQuery().getHits());
     }
 
+    @Test
+    public void requireThatAsyncSearchCompletesWhenAllInvokersHaveResponded() {
+        InterleavedSearchInvoker invoker = createInterLeavedTestInvoker(A5, B5);
+        query.setHits(12);
+        Result result = invoker.searchAsync(query, null, Runnable::run).join();
+        assertEquals(10, result.hits().size());
+        assertEquals(11.0, result.hits().get(0).getRelevance().getScore(), DELTA);
+        assertEquals(1.0, result.hits().get(9).getRelevance().getScore(), DELTA);
+    }
+
+    @Test
+    public void requireThatAsyncSearchIsNotCompletedBeforeAllInvokersHaveResponded() {
+        SearchCluster cluster = new MockSearchCluster("!", 1, 2);
+        List<SearchInvoker> invokers = List.of(createInvoker(A5, 0), createInvoker(B5, 1));
+        InterleavedSearchInvoker invoker = new InterleavedSearchInvoker(invokers, cluster, Collections.emptySet());
+        query.setHits(12);
+
+        var future = invoker.searchAsync(query, null, Runnable::run);
+        invoker.responseAvailable(invokers.get(0));
+        assertFalse(future.isDone());
+        invoker.responseAvailable(invokers.get(1));
+        assertEquals(10, future.join().hits().size());
+    }
+
     private static InterleavedSearchInvoker createInterLeavedTestInvoker(List<Double> a, List<Double> b) {
         SearchCluster cluster = new MockSearchCluster("!", 1, 2);
         List<SearchInvoker> invokers = new ArrayList<>();
@@ -1,6 +1,8 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.search.dispatch.rpc;
 
+import com.yahoo.compress.CompressionType;
+import com.yahoo.compress.Compressor;
 import com.yahoo.prelude.fastsearch.DocsumDefinition;
 import com.yahoo.prelude.fastsearch.DocsumDefinitionSet;
 import com.yahoo.prelude.fastsearch.DocsumField;
@@ -8,16 +10,22 @@ import com.yahoo.prelude.fastsearch.DocumentDatabase;
 import com.yahoo.prelude.fastsearch.FastHit;
 import com.yahoo.search.Query;
 import com.yahoo.search.Result;
+import com.yahoo.slime.BinaryFormat;
+import com.yahoo.slime.Inspector;
 
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 
 /**
@@ -183,6 +191,30 @@ public class FillTestCase {
         assertEquals("Could not fill hits from unknown node 1", result.hits().getError().getDetailedMessage());
     }
 
+    @Test
+    public void testEncodedRequestsAreDetachedFromTheReusedBuffer() {
+        Compressor compressor = new Compressor(CompressionType.LZ4, 5, 0.95, 1024);
+        RpcFillInvoker.RequestEncoder encoder = new RpcFillInvoker.RequestEncoder();
+
+        int firstSize = encoder.encode("default", "summaryClass1", null, null, null, List.of(createHit(0, 0)));
+        Compressor.Compression first = compressor.compress(CompressionType.NONE, encoder.buffer(), Optional.of(firstSize));
+        byte[] firstData = encoder.detach(first, firstSize);
+        Compressor.Compression incompressible = compressor.compress(CompressionType.LZ4, encoder.buffer(), Optional.of(firstSize));
+        assertEquals(CompressionType.INCOMPRESSIBLE, incompressible.type());
+        byte[] incompressibleData = encoder.detach(incompressible, firstSize);
+        assertNotSame(encoder.buffer(), incompressibleData);
+        assertArrayEquals(firstData, incompressibleData);
+
+        int secondSize = encoder.encode("other", "summaryClass2", null, null, null, List.of(createHit(0, 1), createHit(0, 2)));
+        Inspector firstRequest = BinaryFormat.decode(firstData).get();
+        assertEquals(firstSize, firstData.length);
+        assertEquals("summaryClass1", firstRequest.field("class").asString());
+        assertEquals(1, firstRequest.field("gids").entries());
+        Inspector secondRequest = BinaryFormat.decode(Arrays.copyOf(encoder.buffer(), secondSize)).get();
+        assertEquals("summaryClass2", secondRequest.field("class").asString());
+        assertEquals(2, secondRequest.field("gids").entries());
+    }
+
     private DocumentDatabase db() {
         List<DocsumField> fields = new ArrayList<>();
         fields.add(DocsumField.create("field1", "string"));
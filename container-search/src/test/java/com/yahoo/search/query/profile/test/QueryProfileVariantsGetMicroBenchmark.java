@@ -0,0 +1,76 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.search.query.profile.test;
+
+import com.yahoo.processing.request.CompoundName;
+import com.yahoo.search.query.profile.QueryProfile;
+import com.yahoo.search.query.profile.compiled.CompiledQueryProfile;
+import com.yahoo.search.query.profile.compiled.VariantIndex;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares looking up values in a compiled query profile with many variants by the context map
+ * with looking them up by a context bound to the profile once per query.
+ *
+ * @author bratseth
+ */
+public class QueryProfileVariantsGetMicroBenchmark {
+
+    private static final int keyCount = 100;
+
+    private final CompiledQueryProfile profile;
+    private final Map<String, String> context = new HashMap<>();
+    private final CompoundName[] keys = new CompoundName[keyCount];
+
+    public QueryProfileVariantsGetMicroBenchmark() {
+        QueryProfile main = new QueryProfile("main");
+        main.setDimensions(new String[] { "x", "y", "z" });
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = new CompoundName("a" + i % 10 + ".property" + i);
+            main.set(keys[i].toString(), "default" + i, null);
+            for (int x = 0; x < 4; x++) {
+                main.set(keys[i].toString(), "x" + i, new String[] { "x" + x }, null);
+                for (int y = 0; y < 4; y++)
+                    main.set(keys[i].toString(), "xy" + i, new String[] { "x" + x, "y" + y }, null);
+                if (i % 2 == 0)
+                    main.set(keys[i].toString(), "xz" + i, new String[] { "x" + x, null, "z" + x }, null);
+            }
+        }
+        main.freeze();
+        profile = main.compile(null);
+        context.put("x", "x1");
+        context.put("y", "y7"); // no match
+        context.put("z", "z1");
+    }
+
+    public void benchmark(int queries) {
+        getValues(10000, false); // warm-up
+        getValues(10000, true);
+        long startTime = System.currentTimeMillis();
+        getValues(queries, false);
+        long unboundTime = System.currentTimeMillis() - startTime;
+        startTime = System.currentTimeMillis();
+        getValues(queries, true);
+        long boundTime = System.currentTimeMillis() - startTime;
+        System.out.println("Getting " + keyCount + " values per query in " + queries + " queries");
+        System.out.println("By context map:     " + unboundTime + " ms (" + ((float)unboundTime * 1000 / queries) + " microsecond per query)");
+        System.out.println("By bound context:   " + boundTime + " ms (" + ((float)boundTime * 1000 / queries) + " microsecond per query)");
+    }
+
+    private void getValues(int queries, boolean bind) {
+        for (int i = 0; i < queries; i++) {
+            VariantIndex.Context boundContext = bind ? profile.bind(context) : null;
+            for (CompoundName key : keys) {
+                Object value = bind ? profile.get(key, boundContext, null) : profile.get(key, context, null);
+                if (value == null)
+                    throw new RuntimeException("Expected value");
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        new QueryProfileVariantsGetMicroBenchmark().benchmark(100000);
+    }
+
+}
@@ -30,6 +30,29 @@ import static org.junit.Assert.assertTrue;
  */
 public class QueryProfileVariantsTestCase {
 
+    @Test
+    public void testBoundContextFollowsChangesToTheContext() {
+        QueryProfile profile = new QueryProfile("a");
+        profile.setDimensions(new String[] {"x","y"});
+        profile.set("a","a.deflt", null);
+        profile.set("a","a.1.*", new String[] {"x1",null}, null);
+        profile.set("a","a.1.1", new String[] {"x1","y1"}, null);
+        profile.set("a","a.2.*", new String[] {"x2",null}, null);
+        CompiledQueryProfile cprofile = profile.compile(null);
+
+        QueryProfileProperties properties = new QueryProfileProperties(cprofile);
+        Map<String, String> context = new HashMap<>();
+        assertEquals("a.deflt", properties.get("a", context));
+        context.put("x", "x1");
+        assertEquals("a.1.*", properties.get("a", context));
+        context.put("y", "y1");
+        assertEquals("a.1.1", properties.get("a", context));
+        context.put("x", "x2");
+        assertEquals("a.2.*", properties.get("a", context));
+        assertEquals("a.1.1", properties.get("a", toMap("x=x1", "y=y1")));
+        assertEquals("a.deflt", properties.get("a", new HashMap<>()));
+    }
+
     @Test
     public void testSimple() {
         QueryProfile profile = new QueryProfile("a");
@@ -1251,6 +1274,9 @@ public class QueryProfileVariantsTestCase {
     private void assertGet(String expectedValue, String parameter, String[] dimensionValues, QueryProfile profile, CompiledQueryProfile cprofile) {
         Map<String,String> context=toMap(profile,dimensionValues);
         assertEquals("Looking up '" + parameter + "' for '" + Arrays.toString(dimensionValues) + "'",expectedValue,cprofile.get(parameter,context));
+        assertEquals("Looking up '" + parameter + "' for '" + Arrays.toString(dimensionValues) + "' in a bound context",
+                     expectedValue,
+                     cprofile.get(new CompoundName(parameter), cprofile.bind(context), new QueryProfileProperties(cprofile)));
     }
 
     public static Map<String,String> toMap(QueryProfile profile, String[] dimensionValues) {
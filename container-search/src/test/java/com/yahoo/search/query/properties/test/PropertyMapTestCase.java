@@ -1,13 +1,17 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.search.query.properties.test;
 
+import com.yahoo.processing.request.CompoundName;
 import com.yahoo.processing.request.properties.PropertyMap;
 import org.junit.Test;
 
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -36,6 +40,27 @@ public class PropertyMapTestCase {
         assertTrue(first(map.get("nonclonableArray")) == first(mapClone.get("nonclonableArray")));
     }
 
+    @Test
+    public void testCopyOnWriteCloning() {
+        com.yahoo.search.query.properties.PropertyMap map = new com.yahoo.search.query.properties.PropertyMap();
+        map.set("a", "a1");
+        map.set("b", 1);
+
+        com.yahoo.search.query.properties.PropertyMap clone = map.clone();
+        assertSame(map.propertyMap().get(new CompoundName("a")), clone.get("a"));
+        clone.set("a", "a2");
+        map.set("c", "c1");
+        assertEquals("a1", map.get("a"));
+        assertEquals("a2", clone.get("a"));
+        assertEquals("c1", map.get("c"));
+        assertNull(clone.get("c"));
+
+        com.yahoo.search.query.properties.PropertyMap secondClone = clone.clone();
+        secondClone.propertyMap().put(new CompoundName("b"), 2);
+        assertEquals(1, clone.get("b"));
+        assertEquals(2, secondClone.get("b"));
+    }
+
     private Object first(Object object) {
         if (object instanceof Object[])
             return ((Object[])object)[0];
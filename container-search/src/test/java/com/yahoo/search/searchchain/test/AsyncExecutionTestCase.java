@@ -15,9 +15,12 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -146,6 +149,64 @@ public class AsyncExecutionTestCase {
 
     }
 
+    @Test
+    public void testSearchAsyncHoldsNoThreadWhileWaiting() {
+        CompletableFuture<Void> backendResponse = new CompletableFuture<>();
+        Searcher source = new Searcher() {
+            @Override
+            public Result search(Query query, Execution execution) {
+                return searchAsync(query, execution).toCompletableFuture().join();
+            }
+
+            @Override
+            public CompletionStage<Result> searchAsync(Query query, Execution execution) {
+                return backendResponse.thenApply(__ -> {
+                    Result result = new Result(query);
+                    result.hits().add(new Hit("backend"));
+                    return result;
+                });
+            }
+        };
+        Searcher processor = new Searcher() {
+            @Override
+            public Result search(Query query, Execution execution) {
+                Result result = execution.search(query);
+                result.hits().add(new Hit("processor"));
+                return result;
+            }
+
+            @Override
+            public CompletionStage<Result> searchAsync(Query query, Execution execution) {
+                return execution.searchAsync(query).thenApply(result -> {
+                    result.hits().add(new Hit("processor"));
+                    return result;
+                });
+            }
+        };
+        Chain<Searcher> chain = new Chain<>(new ComponentId("async"), List.of(processor, source));
+
+        CompletableFuture<Result> future = new AsyncExecution(chain, Execution.Context.createContextStub()).searchAsync(new Query());
+        assertFalse(future.isDone());
+        backendResponse.complete(null);
+        Result result = future.join();
+        assertEquals(2, result.hits().size());
+        assertNotNull(result.hits().get("backend"));
+        assertNotNull(result.hits().get("processor"));
+    }
+
+    @Test
+    public void testSearchAsyncReturnsExceptionsAsErrors() {
+        Chain<Searcher> chain = new Chain<>(new Searcher() {
+            @Override
+            public Result search(Query query, Execution execution) {
+                throw new IllegalStateException("Failing");
+            }
+        });
+        Result result = new AsyncExecution(chain, Execution.Context.createContextStub()).searchAsync(new Query()).join();
+        assertNotNull(result.hits().getErrorHit());
+        assertTrue(result.hits().getError().getDetailedMessage().contains("Failing"));
+    }
+
     @Test
     public void testAsyncExecutionTimeout() {
         Chain<Searcher> chain = new Chain<>(new Searcher() {
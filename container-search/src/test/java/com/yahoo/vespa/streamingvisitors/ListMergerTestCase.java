@@ -3,6 +3,7 @@ package com.yahoo.vespa.streamingvisitors;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.LinkedList;
 
@@ -68,4 +69,21 @@ public class ListMergerTestCase {
         verifyList(list1, entryCount/2, padding);
     }
 
+    @Test
+    public void testMergeAll() {
+        int entryCount = 9;
+        int padding = (int)Math.log10(entryCount) + 1;
+
+        List<List<String>> lists = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            lists.add(new ArrayList<>());
+        lists.add(new ArrayList<>());
+        for (int i = 0; i < entryCount; i++)
+            lists.get(i % 3).add("String " + String.format("%0" + padding + "d", (i+1)));
+
+        verifyList(ListMerger.mergeAll(lists, Integer.MAX_VALUE), entryCount, padding);
+        verifyList(ListMerger.mergeAll(lists, entryCount/2), entryCount/2, padding);
+        verifyList(ListMerger.mergeAll(List.of(), entryCount), 0, padding);
+    }
+
 }
@@ -362,6 +362,29 @@ public class VdsVisitorTestCase {
         verifyVisitorFails(factory, qa, route, searchCluster);
     }
 
+    @Test
+    public void testBufferedReplyHitsAreMergedBeforeHitsAreRequested() throws Exception {
+        QueryArguments qa = new QueryArguments();
+        qa.hits = 5;
+        VdsVisitor visitor = new VdsVisitor(buildQuery(qa), "searchClusterConfigId", Route.parse("storageClusterRouteSpec"),
+                                            "mytype", new MockVisitorSessionFactory(loadTypeSet), 0);
+        visitor.doSearch();
+        int replyCount = 3 * VdsVisitor.MAX_BUFFERED_REPLIES + 1;
+        for (int i = 0; i < replyCount; i++) {
+            visitor.onMessage(createSRM("id:ns:type::" + i, i), null);
+            assertTrue(visitor.bufferedReplyCount() < VdsVisitor.MAX_BUFFERED_REPLIES);
+        }
+
+        assertEquals(2 * replyCount, visitor.getTotalHitCount());
+        List<SearchResult.Hit> hits = visitor.getHits();
+        assertEquals(0, visitor.bufferedReplyCount());
+        assertEquals(qa.hits, hits.size());
+        for (int i = 0; i < hits.size(); i++) {
+            assertEquals("id:ns:type::" + (replyCount - 1 - i), hits.get(i).getDocId());
+            assertEquals(replyCount - 1 - i, hits.get(i).getRank(), 0.01);
+        }
+    }
+
     private void verifyVisitorOk(MockVisitorSessionFactory factory, QueryArguments qa, Route route, String searchCluster) throws Exception {
         VdsVisitor visitor = new VdsVisitor(buildQuery(qa), searchCluster, route, "mytype", factory, 0);
         visitor.doSearch();
@@ -6,20 +6,28 @@ import com.yahoo.document.TensorDataType;
 import com.yahoo.document.serialization.FieldReader;
 import com.yahoo.document.serialization.FieldWriter;
 import com.yahoo.document.serialization.XmlStream;
+import com.yahoo.io.GrowableByteBuffer;
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.serialization.TypedBinaryFormat;
 
 import java.util.Optional;
 
 /**
  * Field value class that wraps a tensor.
+ * A tensor assigned in serialized form is kept in that form and decoded only when it is accessed,
+ * such that tensors which are just passed through are never decoded and encoded again.
  *
  * @author geirst
  */
 public class TensorFieldValue extends FieldValue {
 
+    /** The tensor of this, or null if it is not yet decoded from serializedTensor */
     private Optional<Tensor> tensor;
 
+    /** The serialized form of the tensor of this, or null if it is empty or not yet serialized */
+    private byte[] serializedTensor = null;
+
     private final TensorDataType dataType;
 
     /** Create an empty tensor field value */
@@ -34,10 +42,39 @@ public class TensorFieldValue extends FieldValue {
         this.tensor = Optional.of(tensor);
     }
 
+    /**
+     * Returns the tensor of this, or empty if none.
+     *
+     * @throws IllegalArgumentException if this holds a serialized tensor which is invalid or not of the type of this
+     */
     public Optional<Tensor> getTensor() {
+        if (tensor == null)
+            tensor = Optional.of(TypedBinaryFormat.decode(Optional.of(dataType.getTensorType()),
+                                                          GrowableByteBuffer.wrap(serializedTensor)));
         return tensor;
     }
 
+    /**
+     * Returns the tensor of this in the binary format of {@link TypedBinaryFormat}, or empty if none.
+     * The tensor is encoded only if it was not assigned in serialized form or encoded already.
+     * The returned array is owned by this and must not be modified.
+     */
+    public Optional<byte[]> getSerializedTensor() {
+        if (serializedTensor == null && tensor.isPresent())
+            serializedTensor = TypedBinaryFormat.encode(tensor.get());
+        return Optional.ofNullable(serializedTensor);
+    }
+
+    /**
+     * Assigns a tensor in the binary format of {@link TypedBinaryFormat} to this.
+     * It is decoded and validated against the type of this only when the tensor is accessed.
+     * This takes ownership of the given array, which must not be modified after this call.
+     */
+    public void assignSerializedTensor(byte[] serializedTensor) {
+        this.serializedTensor = serializedTensor;
+        this.tensor = null;
+    }
+
     @Override
     public TensorDataType getDataType() {
         return dataType;
@@ -45,8 +82,8 @@ public class TensorFieldValue extends FieldValue {
 
     @Override
     public String toString() {
-        if (tensor.isPresent()) {
-            return tensor.get().toString();
+        if (getTensor().isPresent()) {
+            return getTensor().get().toString();
         } else {
             return "null";
         }
@@ -60,6 +97,7 @@ public class TensorFieldValue extends FieldValue {
     @Override
     public void clear() {
         tensor = Optional.empty();
+        serializedTensor = null;
     }
 
     @Override
@@ -81,6 +119,7 @@ public class TensorFieldValue extends FieldValue {
             throw new IllegalArgumentException("Type mismatch: Cannot assign tensor of type " + tensor.get().type() +
                                                " to field of type " + dataType.getTensorType());
         this.tensor = tensor;
+        this.serializedTensor = null;
     }
 
     @Override
@@ -100,13 +139,13 @@ public class TensorFieldValue extends FieldValue {
 
         TensorFieldValue other = (TensorFieldValue)o;
         if ( ! dataType.getTensorType().equals(other.dataType.getTensorType())) return false;
-        if ( ! tensor.equals(other.tensor)) return false;
+        if ( ! getTensor().equals(other.getTensor())) return false;
         return true;
     }
 
     @Override
     public Object getWrappedValue() {
-        return tensor.orElse(null);
+        return getTensor().orElse(null);
     }
 
 }
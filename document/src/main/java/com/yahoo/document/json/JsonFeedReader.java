@@ -29,7 +29,7 @@ public class JsonFeedReader implements FeedReader {
 
     private final JsonReader reader;
     private InputStream stream;
-    private static final JsonFactory jsonFactory = new JsonFactory().disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES);
+    static final JsonFactory jsonFactory = new JsonFactory().disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES);
 
     public JsonFeedReader(InputStream stream, DocumentTypeManager docMan) {
         reader = new JsonReader(docMan, stream, jsonFactory);
@@ -44,7 +44,10 @@ public class JsonFeedReader implements FeedReader {
             stream.close();
             return FeedOperation.INVALID;
         }
+        return toFeedOperation(documentOperation);
+    }
 
+    static FeedOperation toFeedOperation(DocumentOperation documentOperation) {
         if (documentOperation instanceof DocumentUpdate) {
             return new DocumentUpdateFeedOperation((DocumentUpdate) documentOperation, documentOperation.getCondition());
         } else if (documentOperation instanceof DocumentRemove) {
@@ -0,0 +1,138 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Splits a JSON feed, which is an array of document operation objects, into the bytes of each operation,
+ * without parsing them. This only tracks nesting, strings and escapes, so it is much faster than parsing,
+ * and the operations it returns may be parsed independently by a {@link JsonReader}.
+ *
+ * This is not thread safe.
+ *
+ * @author bratseth
+ */
+class JsonFeedSplitter {
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private int position = 0;
+    private int limit = 0;
+
+    private boolean started = false;
+    private boolean ended = false;
+
+    /** The operation currently being split out */
+    private byte[] operation = new byte[1 << 10];
+    private int operationLength;
+
+    JsonFeedSplitter(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns the bytes of the next operation object in the feed, or null if there are no more
+     *
+     * @throws IllegalArgumentException if the feed is not an array of objects, or an object is not terminated
+     */
+    byte[] next() throws IOException {
+        if (ended) return null;
+        if ( ! started) {
+            int first = skipWhitespace();
+            if (first != '[')
+                throw new IllegalArgumentException("Expected start of array, got " + describe(first));
+            position++;
+            started = true;
+        }
+
+        int next = skipWhitespaceAndCommas();
+        if (next == ']' || next < 0) {
+            ended = true;
+            return null;
+        }
+        if (next != '{')
+            throw new IllegalArgumentException("Expected start of document operation, got " + describe(next));
+        return readObject();
+    }
+
+    /** Reads the object starting at the current position, and returns its bytes */
+    private byte[] readObject() throws IOException {
+        operationLength = 0;
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        while (true) {
+            if (position == limit && ! fill())
+                throw new IllegalArgumentException("Unexpected end of feed inside a document operation");
+            int start = position;
+            for (; position < limit; position++) {
+                byte b = buffer[position];
+                if (inString) {
+                    if (escaped)
+                        escaped = false;
+                    else if (b == '\\')
+                        escaped = true;
+                    else if (b == '"')
+                        inString = false;
+                }
+                else if (b == '"') {
+                    inString = true;
+                }
+                else if (b == '{' || b == '[') {
+                    depth++;
+                }
+                else if (b == '}' || b == ']') {
+                    if (--depth == 0) {
+                        position++;
+                        append(start, position);
+                        return Arrays.copyOf(operation, operationLength);
+                    }
+                }
+            }
+            append(start, position);
+        }
+    }
+
+    private void append(int start, int end) {
+        int length = end - start;
+        if (operationLength + length > operation.length)
+            operation = Arrays.copyOf(operation, Math.max(operation.length * 2, operationLength + length));
+        System.arraycopy(buffer, start, operation, operationLength, length);
+        operationLength += length;
+    }
+
+    /** Skips whitespace and returns the next byte without consuming it, or -1 at the end of input */
+    private int skipWhitespace() throws IOException {
+        return skip(false);
+    }
+
+    /** Skips whitespace and commas and returns the next byte without consuming it, or -1 at the end of input */
+    private int skipWhitespaceAndCommas() throws IOException {
+        return skip(true);
+    }
+
+    private int skip(boolean commas) throws IOException {
+        while (true) {
+            if (position == limit && ! fill()) return -1;
+            byte b = buffer[position];
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t' || (commas && b == ','))
+                position++;
+            else
+                return b;
+        }
+    }
+
+    /** Reads more input into the buffer, and returns whether there was any */
+    private boolean fill() throws IOException {
+        position = 0;
+        limit = Math.max(0, in.read(buffer));
+        return limit > 0;
+    }
+
+    private static String describe(int b) {
+        return b < 0 ? "end of input" : "'" + (char) b + "'";
+    }
+
+}
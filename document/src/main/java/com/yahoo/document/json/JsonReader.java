@@ -71,11 +71,7 @@ public class JsonReader {
             throw new IllegalArgumentException(e);
         }
         documentParseInfo.operationType = operationType;
-        VespaJsonDocumentReader vespaJsonDocumentReader = new VespaJsonDocumentReader();
-        DocumentOperation operation = vespaJsonDocumentReader.createDocumentOperation(
-                getDocumentTypeFromString(documentParseInfo.documentId.getDocType(), typeManager), documentParseInfo);
-        operation.setCondition(TestAndSetCondition.fromConditionString(documentParseInfo.condition));
-        return operation;
+        return createDocumentOperation(documentParseInfo);
     }
 
     /** Returns the next document operation, or null if we have reached the end */
@@ -103,11 +99,33 @@ public class JsonReader {
             state = END_OF_FEED;
             return null;
         }
+        return createDocumentOperation(documentParseInfo.get());
+    }
+
+    /**
+     * Reads a single operation, including its document id and operation type, which is not expected to be part
+     * of an array. This is used to parse operations which are already split out of a feed.
+     *
+     * @return the operation, or null if the input is empty
+     */
+    public DocumentOperation readOperation() {
+        Optional<DocumentParseInfo> documentParseInfo;
+        try {
+            documentParseInfo = parseDocument();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        } finally {
+            state = END_OF_FEED;
+        }
+        return documentParseInfo.map(this::createDocumentOperation).orElse(null);
+    }
+
+    private DocumentOperation createDocumentOperation(DocumentParseInfo documentParseInfo) {
         VespaJsonDocumentReader vespaJsonDocumentReader = new VespaJsonDocumentReader();
         DocumentOperation operation = vespaJsonDocumentReader.createDocumentOperation(
-                getDocumentTypeFromString(documentParseInfo.get().documentId.getDocType(), typeManager),
-                documentParseInfo.get());
-        operation.setCondition(TestAndSetCondition.fromConditionString(documentParseInfo.get().condition));
+                getDocumentTypeFromString(documentParseInfo.documentId.getDocType(), typeManager),
+                documentParseInfo);
+        operation.setCondition(TestAndSetCondition.fromConditionString(documentParseInfo.condition));
         return operation;
     }
 
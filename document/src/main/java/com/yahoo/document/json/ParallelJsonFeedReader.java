@@ -0,0 +1,122 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.vespaxmlparser.FeedOperation;
+import com.yahoo.vespaxmlparser.FeedReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A feed reader of JSON feeds which parses operations in parallel: The feed is split into the bytes of each
+ * operation on the reading thread, which is cheap, and the operations are parsed into documents and updates
+ * on an executor owned by the caller, which may be shared by many readers to bound the total number of
+ * parser threads.
+ *
+ * Operations are returned in the order they appear in the feed, as operations to the same document must
+ * be applied in order. Errors in single operations are thrown when that operation is read, like
+ * {@link JsonFeedReader}, such that the caller may choose to continue with the next one.
+ *
+ * The feed reader will take ownership of the input stream and close it when the
+ * last parseable document has been read. Readers which are not read to the end must be closed
+ * to cancel the operations read ahead and release the input stream.
+ *
+ * This is not thread safe.
+ *
+ * @author bratseth
+ */
+public class ParallelJsonFeedReader implements FeedReader, AutoCloseable {
+
+    /** The number of operations to read ahead per thread, to keep all threads busy */
+    private static final int readAheadPerThread = 64;
+
+    private final InputStream stream;
+    private final DocumentTypeManager typeManager;
+    private final JsonFeedSplitter splitter;
+    private final Executor executor;
+    private final int maxPending;
+
+    /** The operations which are split out of the feed but not yet returned, in feed order */
+    private final Deque<CompletableFuture<FeedOperation>> pending = new ArrayDeque<>();
+    private boolean endOfInput = false;
+    private boolean closed = false;
+
+    /**
+     * Creates a feed reader parsing on the given executor
+     *
+     * @param stream the feed to read, which is closed when the last operation is read
+     * @param typeManager the document types of the feed
+     * @param executor the executor to parse on, which is not shut down by this
+     * @param parallelism the number of threads this should keep busy, which bounds the operations read ahead,
+     *                    or 0 or less to use one per processor
+     */
+    public ParallelJsonFeedReader(InputStream stream, DocumentTypeManager typeManager, Executor executor, int parallelism) {
+        if (parallelism <= 0)
+            parallelism = Runtime.getRuntime().availableProcessors();
+        this.stream = stream;
+        this.typeManager = typeManager;
+        this.splitter = new JsonFeedSplitter(stream);
+        this.executor = executor;
+        this.maxPending = parallelism * readAheadPerThread;
+    }
+
+    @Override
+    public FeedOperation read() throws Exception {
+        while ( ! endOfInput && pending.size() < maxPending) {
+            try {
+                byte[] operation = splitter.next();
+                if (operation == null)
+                    endOfInput = true;
+                else
+                    pending.add(CompletableFuture.supplyAsync(() -> parse(operation), executor));
+            }
+            catch (Exception e) { // The feed is malformed: Return the operations before the error first
+                endOfInput = true;
+                pending.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        CompletableFuture<FeedOperation> next = pending.poll();
+        if (next == null) {
+            close();
+            return FeedOperation.INVALID;
+        }
+        try {
+            return next.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    private FeedOperation parse(byte[] operation) {
+        DocumentOperation documentOperation = new JsonReader(typeManager,
+                                                             new ByteArrayInputStream(operation),
+                                                             JsonFeedReader.jsonFactory).readOperation();
+        if (documentOperation == null)
+            throw new IllegalArgumentException("Missing a document operation ('put', 'update' or 'remove')");
+        return JsonFeedReader.toFeedOperation(documentOperation);
+    }
+
+    /** Cancels parsing of any operations read ahead and closes the input stream. Closing more than once has no effect. */
+    @Override
+    public void close() throws Exception {
+        if (closed) return;
+        closed = true;
+        endOfInput = true;
+        for (CompletableFuture<FeedOperation> operation : pending)
+            operation.cancel(false); // Operations which are not yet started are then skipped by the executor
+        pending.clear();
+        stream.close();
+    }
+
+}
@@ -2,9 +2,8 @@
 package com.yahoo.document.json;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
@@ -13,6 +12,11 @@ import com.google.common.base.Preconditions;
 /**
  * Helper class to enable lookahead in the token stream.
  *
+ * Tokens are stored as their type, name and the offset and length of their text in a single character buffer,
+ * such that buffering a token does not allocate objects. Token texts are only turned into strings when asked for,
+ * and numbers can be read directly from the buffer by {@link #currentInt()}, {@link #currentLong()} and
+ * {@link #currentDouble()}.
+ *
  * @author Steinar Knutsen
  */
 public class TokenBuffer {
@@ -29,17 +33,49 @@ public class TokenBuffer {
         }
     }
 
-    private Deque<Token> buffer;
+    /** The largest power of ten which is exactly representable as a double */
+    private static final int maxExactPowerOfTen = 22;
+    private static final double[] powersOfTen = new double[maxExactPowerOfTen + 1];
+
+    static {
+        powersOfTen[0] = 1;
+        for (int i = 1; i < powersOfTen.length; i++)
+            powersOfTen[i] = powersOfTen[i - 1] * 10;
+    }
+
+    private JsonToken[] tokens;
+    private String[] names;
+    private int[] textStarts;
+    private int[] textLengths;
+    private char[] text;
+    private int textLength = 0;
+
+    /** The index of the current token */
+    private int position = 0;
+    /** The index after the last token in this */
+    private int limit = 0;
     private int nesting = 0;
 
     public TokenBuffer() {
-        this(new ArrayDeque<>());
+        tokens = new JsonToken[16];
+        names = new String[16];
+        textStarts = new int[16];
+        textLengths = new int[16];
+        text = new char[256];
     }
 
-    private TokenBuffer(Deque<Token> buffer) {
-        this.buffer = buffer;
-        if (buffer.size() > 0) {
-            updateNesting(buffer.peekFirst().token);
+    /** Creates a buffer which is a read-only view of the given tokens of another */
+    private TokenBuffer(TokenBuffer other, int position, int limit) {
+        this.tokens = other.tokens;
+        this.names = other.names;
+        this.textStarts = other.textStarts;
+        this.textLengths = other.textLengths;
+        this.text = other.text;
+        this.textLength = other.textLength;
+        this.position = position;
+        this.limit = limit;
+        if (position < limit) {
+            updateNesting(tokens[position]);
         }
     }
 
@@ -47,42 +83,146 @@ public class TokenBuffer {
     public boolean isEmpty() { return size() == 0; }
 
     public JsonToken next() {
-        buffer.removeFirst();
-        Token t = buffer.peekFirst();
-        if (t == null) {
+        if (position == limit) throw new NoSuchElementException();
+        position++;
+        if (position == limit) {
             return null;
         }
-        updateNesting(t.token);
-        return t.token;
+        updateNesting(tokens[position]);
+        return tokens[position];
     }
 
     /** Returns the current token without changing position, or null if none */
     public JsonToken currentToken() {
-        Token token = buffer.peekFirst();
-        if (token == null) return null;
-        return token.token;
+        if (position == limit) return null;
+        return tokens[position];
     }
 
     /** Returns the current token name without changing position, or null if none */
     public String currentName() {
-        Token token = buffer.peekFirst();
-        if (token == null) return null;
-        return token.name;
+        if (position == limit) return null;
+        return names[position];
     }
 
     /** Returns the current token text without changing position, or null if none */
     public String currentText() {
-        Token token = buffer.peekFirst();
-        if (token == null) return null;
-        return token.text;
+        if (position == limit) return null;
+        return text(position);
+    }
+
+    /**
+     * Returns the current token text parsed as an int, as by {@link Integer#parseInt}
+     *
+     * @throws NumberFormatException if the current token text is not an int
+     */
+    public int currentInt() {
+        if (position == limit) throw new NumberFormatException("No current token");
+        int start = textStarts[position];
+        int length = textLengths[position];
+        boolean negative = length > 0 && text[start] == '-';
+        int digits = negative ? length - 1 : length;
+        if (digits < 1 || digits > 9) return Integer.parseInt(text(position)); // Fall back for exotic and large values
+        int value = 0;
+        for (int i = start + length - digits; i < start + length; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9) return Integer.parseInt(text(position));
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the current token text parsed as a long, as by {@link Long#parseLong}
+     *
+     * @throws NumberFormatException if the current token text is not a long
+     */
+    public long currentLong() {
+        if (position == limit) throw new NumberFormatException("No current token");
+        int start = textStarts[position];
+        int length = textLengths[position];
+        boolean negative = length > 0 && text[start] == '-';
+        int digits = negative ? length - 1 : length;
+        if (digits < 1 || digits > 18) return Long.parseLong(text(position)); // Fall back for exotic and large values
+        long value = 0;
+        for (int i = start + length - digits; i < start + length; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9) return Long.parseLong(text(position));
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the current token text parsed as a double, as by {@link Double#parseDouble}.
+     * Plain decimal numbers with at most 15 significant digits and a small exponent, which is most numbers
+     * in practice, are parsed directly from the buffer. As both the significand and the power of ten
+     * are exact doubles in this case, the single division or multiplication gives the correctly rounded result.
+     *
+     * @throws NumberFormatException if the current token text is not a double
+     */
+    public double currentDouble() {
+        if (position == limit) throw new NumberFormatException("No current token");
+        int i = textStarts[position];
+        int end = i + textLengths[position];
+        boolean negative = i < end && text[i] == '-';
+        if (negative) i++;
+
+        long significand = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+        for (; i < end && isDigit(text[i]) && significantDigits <= 15; i++, anyDigits = true) {
+            if (significantDigits > 0 || text[i] != '0') significantDigits++;
+            significand = significand * 10 + (text[i] - '0');
+        }
+        if (i < end && text[i] == '.') {
+            for (i++; i < end && isDigit(text[i]) && significantDigits <= 15; i++, anyDigits = true) {
+                if (significantDigits > 0 || text[i] != '0') significantDigits++;
+                significand = significand * 10 + (text[i] - '0');
+                exponent--;
+            }
+        }
+        if (anyDigits && i < end && (text[i] == 'e' || text[i] == 'E')) {
+            i++;
+            boolean negativeExponent = i < end && text[i] == '-';
+            if (i < end && (text[i] == '-' || text[i] == '+')) i++;
+            int explicitExponent = 0;
+            int exponentDigits = 0;
+            for (; i < end && isDigit(text[i]) && exponentDigits < 4; i++, exponentDigits++)
+                explicitExponent = explicitExponent * 10 + (text[i] - '0');
+            if (exponentDigits == 0) i = -1; // not a plain decimal number
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if ( ! anyDigits || i != end || significantDigits > 15 || exponent < -maxExactPowerOfTen || exponent > maxExactPowerOfTen)
+            return Double.parseDouble(text(position)); // Fall back for exotic, long and large values
+
+        double value = exponent < 0 ? significand / powersOfTen[-exponent] : significand * powersOfTen[exponent];
+        return negative ? -value : value;
     }
 
     public int size() {
-        return buffer.size();
+        return limit - position;
     }
 
-    private void add(JsonToken token, String name, String text) {
-        buffer.addLast(new Token(token, name, text));
+    private void add(JsonToken token, String name, char[] chars, int offset, int length) {
+        if (limit == tokens.length) {
+            int newLength = tokens.length * 2;
+            tokens = Arrays.copyOf(tokens, newLength);
+            names = Arrays.copyOf(names, newLength);
+            textStarts = Arrays.copyOf(textStarts, newLength);
+            textLengths = Arrays.copyOf(textLengths, newLength);
+        }
+        if (textLength + length > text.length)
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + length));
+        if (length > 0)
+            System.arraycopy(chars, offset, text, textLength, length);
+
+        tokens[limit] = token;
+        names[limit] = name;
+        textStarts[limit] = textLength;
+        textLengths[limit] = length;
+        textLength += length;
+        limit++;
     }
 
     public void bufferObject(JsonToken first, JsonParser tokens) {
@@ -126,7 +266,7 @@ public class TokenBuffer {
 
     private void addFromParser(JsonToken t, JsonParser tokens) {
         try {
-            add(t, tokens.getCurrentName(), tokens.getText());
+            add(t, tokens.getCurrentName(), tokens.getTextCharacters(), tokens.getTextOffset(), tokens.getTextLength());
         } catch (IOException e) {
             // TODO something sane
             throw new RuntimeException(e);
@@ -153,8 +293,8 @@ public class TokenBuffer {
     public String dumpContents() {
         StringBuilder b = new StringBuilder();
         b.append("[nesting: ").append(nesting()).append("\n");
-        for (Token t : buffer) {
-            b.append("(").append(t.token).append(", \"").append(t.name).append("\", \"").append(t.text).append("\")\n");
+        for (int i = position; i < limit; i++) {
+            b.append("(").append(tokens[i]).append(", \"").append(names[i]).append("\", \"").append(text(i)).append("\")\n");
         }
         b.append("]\n");
         return b.toString();
@@ -167,50 +307,54 @@ public class TokenBuffer {
         }
     }
 
+    /** Returns a buffer containing the current element, which shares the tokens of this without copying them */
     public TokenBuffer prefetchCurrentElement() {
-        Deque<Token> copy = new ArrayDeque<>();
-
-        if (currentToken().isScalarValue()) {
-            copy.add(buffer.peekFirst());
-        } else {
+        int end = position + 1;
+        if ( ! currentToken().isScalarValue()) {
             int localNesting = nesting();
             int nestingBarrier = localNesting;
-            for (Token t : buffer) {
-                copy.add(t);
-                localNesting += nestingOffset(t.token);
+            for (end = position; end < limit; ) {
+                localNesting += nestingOffset(tokens[end++]);
                 if (localNesting < nestingBarrier) {
                     break;
                 }
             }
         }
-        return new TokenBuffer(copy);
+        return new TokenBuffer(this, position, end);
     }
 
     public Token prefetchScalar(String name) {
         int localNesting = nesting();
         int nestingBarrier = localNesting;
-        Token toReturn = null;
-        Iterator<Token> i;
 
         if (name.equals(currentName()) && currentToken().isScalarValue()) {
-            toReturn = buffer.peekFirst();
-        } else {
-            i = buffer.iterator();
-            i.next(); // just ignore the first value, as we know it's not what
-                      // we're looking for, and it's nesting effect is already
-                      // included
-            while (i.hasNext()) {
-                Token t = i.next();
-                if (localNesting == nestingBarrier && name.equals(t.name) && t.token.isScalarValue()) {
-                    toReturn = t;
-                    break;
-                }
-                localNesting += nestingOffset(t.token);
-                if (localNesting < nestingBarrier) {
-                    break;
-                }
+            return token(position);
+        }
+        // just ignore the first value, as we know it's not what
+        // we're looking for, and it's nesting effect is already
+        // included
+        for (int i = position + 1; i < limit; i++) {
+            if (localNesting == nestingBarrier && name.equals(names[i]) && tokens[i].isScalarValue()) {
+                return token(i);
+            }
+            localNesting += nestingOffset(tokens[i]);
+            if (localNesting < nestingBarrier) {
+                break;
             }
         }
-        return toReturn;
+        return null;
     }
+
+    private Token token(int index) {
+        return new Token(tokens[index], names[index], text(index));
+    }
+
+    private String text(int index) {
+        return new String(text, textStarts[index], textLengths[index]);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
 }
@@ -6,7 +6,10 @@ import com.yahoo.document.DataType;
 import com.yahoo.document.DocumentId;
 import com.yahoo.document.PositionDataType;
 import com.yahoo.document.ReferenceDataType;
+import com.yahoo.document.datatypes.DoubleFieldValue;
 import com.yahoo.document.datatypes.FieldValue;
+import com.yahoo.document.datatypes.IntegerFieldValue;
+import com.yahoo.document.datatypes.LongFieldValue;
 import com.yahoo.document.json.TokenBuffer;
 import com.yahoo.document.update.ValueUpdate;
 
@@ -43,6 +46,8 @@ public class SingleValueReader {
 
     public static FieldValue readSingleValue(TokenBuffer buffer, DataType expectedType) {
         if (buffer.currentToken().isScalarValue()) {
+            if (buffer.currentToken().isNumeric())
+                return readNumeric(buffer, expectedType);
             return readAtomic(buffer.currentText(), expectedType);
         } else {
             FieldValue fieldValue = expectedType.createFieldValue();
@@ -63,16 +68,16 @@ public class SingleValueReader {
                 break;
             // double is silly, but it's what is used internally anyway
             case UPDATE_INCREMENT:
-                update = ValueUpdate.createIncrement(Double.valueOf(buffer.currentText()));
+                update = ValueUpdate.createIncrement(buffer.currentDouble());
                 break;
             case UPDATE_DECREMENT:
-                update = ValueUpdate.createDecrement(Double.valueOf(buffer.currentText()));
+                update = ValueUpdate.createDecrement(buffer.currentDouble());
                 break;
             case UPDATE_MULTIPLY:
-                update = ValueUpdate.createMultiply(Double.valueOf(buffer.currentText()));
+                update = ValueUpdate.createMultiply(buffer.currentDouble());
                 break;
             case UPDATE_DIVIDE:
-                update = ValueUpdate.createDivide(Double.valueOf(buffer.currentText()));
+                update = ValueUpdate.createDivide(buffer.currentDouble());
                 break;
             default:
                 throw new IllegalArgumentException("Operation '" + buffer.currentName() + "' not implemented.");
@@ -84,6 +89,17 @@ public class SingleValueReader {
         return arithmeticExpressionPattern.matcher(expression.trim());
     }
 
+    /** Reads a numeric token directly from the buffer if the expected type is a plain number type */
+    private static FieldValue readNumeric(TokenBuffer buffer, DataType expectedType) {
+        if (expectedType == DataType.INT)
+            return new IntegerFieldValue(buffer.currentInt());
+        if (expectedType == DataType.LONG)
+            return new LongFieldValue(buffer.currentLong());
+        if (expectedType == DataType.DOUBLE)
+            return new DoubleFieldValue(buffer.currentDouble());
+        return readAtomic(buffer.currentText(), expectedType);
+    }
+
     public static FieldValue readAtomic(String field, DataType expectedType) {
         if (expectedType.equals(DataType.RAW)) {
             return expectedType.createFieldValue(Base64.getMimeDecoder().decode(field));
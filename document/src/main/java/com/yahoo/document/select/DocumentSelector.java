@@ -1,13 +1,21 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.document.select;
 
+import com.yahoo.document.DocumentGet;
 import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentRemove;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentUpdate;
 import com.yahoo.document.select.parser.ParseException;
 import com.yahoo.document.select.parser.SelectInput;
 import com.yahoo.document.select.parser.SelectParser;
 import com.yahoo.document.select.parser.TokenMgrException;
 import com.yahoo.document.select.rule.ExpressionNode;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * <p>A document selector is a filter which accepts or rejects documents
  * based on their type and content. A document selector has a textual
@@ -19,8 +27,17 @@ import com.yahoo.document.select.rule.ExpressionNode;
  */
 public class DocumentSelector {
 
+    /** The max number of document types to cache specializations of this for */
+    private static final int maxSpecializations = 100;
+
     private ExpressionNode expression;
 
+    /** Specializations of this to document types, by document type name */
+    private final Map<String, Specialization> specializations = new ConcurrentHashMap<>();
+
+    /** Specializations of this to the document type in document ids, by document type name */
+    private final Map<String, TypeSpecializedExpression> idSpecializations = new ConcurrentHashMap<>();
+
     /**
      * Creates a document selector from a Document Selection Language string
      *
@@ -50,7 +67,44 @@ public class DocumentSelector {
      * @throws RuntimeException if the evaluation enters an illegal state
      */
     public Result accepts(DocumentOperation op) {
-        return accepts(new Context(op));
+        TypeSpecializedExpression specialized = specializedTo(op);
+        if (specialized == null) return accepts(new Context(op));
+        return specialized.accepts(op);
+    }
+
+    /**
+     * Returns this specialized to the document type of the given operation.
+     * Specializations are made once per type and reused.
+     */
+    private TypeSpecializedExpression specializedTo(DocumentOperation op) {
+        if (op instanceof DocumentPut)
+            return specializedTo(((DocumentPut)op).getDocument().getDataType());
+        if (op instanceof DocumentUpdate)
+            return specializedTo(((DocumentUpdate)op).getDocumentType());
+        if (op instanceof DocumentRemove || op instanceof DocumentGet)
+            return specializedTo(op.getId().getDocType());
+        return null;
+    }
+
+    private TypeSpecializedExpression specializedTo(DocumentType type) {
+        Specialization specialization = specializations.get(type.getName());
+        if (specialization != null && specialization.type == type) return specialization.expression;
+
+        // Types are matched by identity as specializations depend on inheritance, which is not part of the name
+        specialization = new Specialization(type, new TypeSpecializedExpression(expression, type::isA));
+        if (specializations.size() >= maxSpecializations)
+            specializations.clear();
+        specializations.put(type.getName(), specialization);
+        return specialization.expression;
+    }
+
+    private TypeSpecializedExpression specializedTo(String idType) {
+        TypeSpecializedExpression specialization = idSpecializations.get(idType);
+        if (specialization != null) return specialization;
+
+        if (idSpecializations.size() >= maxSpecializations)
+            idSpecializations.clear();
+        return idSpecializations.computeIfAbsent(idType, __ -> new TypeSpecializedExpression(expression, idType::equals));
     }
 
     /**
@@ -97,4 +151,16 @@ public class DocumentSelector {
         expression.accept(visitor);
     }
 
+    private static class Specialization {
+
+        final DocumentType type;
+        final TypeSpecializedExpression expression;
+
+        Specialization(DocumentType type, TypeSpecializedExpression expression) {
+            this.type = type;
+            this.expression = expression;
+        }
+
+    }
+
 }
@@ -0,0 +1,111 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.select;
+
+import com.yahoo.document.DocumentOperation;
+import com.yahoo.document.select.rule.DocumentNode;
+import com.yahoo.document.select.rule.EmbracedNode;
+import com.yahoo.document.select.rule.ExpressionNode;
+import com.yahoo.document.select.rule.LogicNode;
+import com.yahoo.document.select.rule.NegationNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A selection expression specialized to documents of a single type: Document type terms are folded into constants,
+ * and the logic expressions containing them are simplified accordingly. Selections which only depend on
+ * the document type, like most routing selections, are then resolved without evaluating anything.
+ * <p>
+ * Terms which cannot change the result of a logic expression are not evaluated, so evaluation errors in such terms
+ * are not raised by this.
+ *
+ * @author bratseth
+ */
+class TypeSpecializedExpression {
+
+    /** The constant result of this, or null if it must be evaluated */
+    private final Result constant;
+
+    /** The specialized expression to evaluate, or null if this is constant */
+    private final ExpressionNode expression;
+
+    /**
+     * Specializes an expression
+     *
+     * @param expression the expression to specialize
+     * @param isType returns whether the type of the documents this is specialized to is the given document type
+     */
+    TypeSpecializedExpression(ExpressionNode expression, Predicate<String> isType) {
+        Object specialized = specialize(expression, isType);
+        this.constant = specialized instanceof Result ? (Result)specialized : null;
+        this.expression = specialized instanceof Result ? null : (ExpressionNode)specialized;
+    }
+
+    /** Returns whether the given operation on a document of the type of this is accepted */
+    Result accepts(DocumentOperation op) {
+        if (constant != null) return constant;
+        return Result.toResult(expression.evaluate(new Context(op)));
+    }
+
+    /** Returns the specialized expression as a Result if it is constant, and an ExpressionNode otherwise */
+    private static Object specialize(ExpressionNode node, Predicate<String> isType) {
+        if (node instanceof DocumentNode)
+            return isType.test(((DocumentNode)node).getType()) ? Result.TRUE : Result.FALSE;
+        if (node instanceof EmbracedNode) {
+            Object inner = specialize(((EmbracedNode)node).getNode(), isType);
+            return inner instanceof Result ? inner : new EmbracedNode((ExpressionNode)inner);
+        }
+        if (node instanceof NegationNode) {
+            Object inner = specialize(((NegationNode)node).getNode(), isType);
+            return inner instanceof Result ? Result.invert((Result)inner) : new NegationNode((ExpressionNode)inner);
+        }
+        if (node instanceof LogicNode)
+            return specialize((LogicNode)node, isType);
+        return node;
+    }
+
+    /** A logic node is an or of ands, as and has higher precedence. This folds the constants of both levels. */
+    private static Object specialize(LogicNode node, Predicate<String> isType) {
+        List<List<ExpressionNode>> disjuncts = new ArrayList<>();
+        List<ExpressionNode> conjuncts = null;
+        boolean falseConjunct = false;
+        for (LogicNode.NodeItem item : node.getItems()) {
+            if (item.getOperator() != LogicNode.AND) { // NOP or OR: Start a new conjunction
+                if (conjuncts != null && ! falseConjunct) {
+                    if (conjuncts.isEmpty()) return Result.TRUE;
+                    disjuncts.add(conjuncts);
+                }
+                conjuncts = new ArrayList<>();
+                falseConjunct = false;
+            }
+            if (falseConjunct) continue;
+            Object specialized = specialize(item.getNode(), isType);
+            if (specialized == Result.FALSE)
+                falseConjunct = true;
+            else if (specialized != Result.TRUE)
+                conjuncts.add(specialized instanceof Result ? item.getNode() : (ExpressionNode)specialized);
+        }
+        if (conjuncts != null && ! falseConjunct) {
+            if (conjuncts.isEmpty()) return Result.TRUE;
+            disjuncts.add(conjuncts);
+        }
+
+        if (disjuncts.isEmpty()) return Result.FALSE;
+        if (disjuncts.size() == 1 && disjuncts.get(0).size() == 1) return disjuncts.get(0).get(0);
+        LogicNode specialized = new LogicNode();
+        for (List<ExpressionNode> disjunct : disjuncts) {
+            for (int i = 0; i < disjunct.size(); i++) {
+                String operator = specialized.getItems().isEmpty() ? null : i == 0 ? "or" : "and";
+                specialized.add(operator, disjunct.get(i));
+            }
+        }
+        return specialized;
+    }
+
+    @Override
+    public String toString() {
+        return constant != null ? constant.toString() : expression.toString();
+    }
+
+}
@@ -53,7 +53,6 @@ import com.yahoo.document.update.TensorModifyUpdate;
 import com.yahoo.document.update.TensorRemoveUpdate;
 import com.yahoo.document.update.ValueUpdate;
 import com.yahoo.io.GrowableByteBuffer;
-import com.yahoo.tensor.serialization.TypedBinaryFormat;
 import com.yahoo.vespa.objects.BufferSerializer;
 import com.yahoo.vespa.objects.FieldBase;
 
@@ -61,9 +60,9 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.yahoo.text.Utf8.calculateBytePositions;
 
@@ -77,6 +76,13 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
     private int spanNodeCounter = -1;
     private int[] bytePositions;
 
+    /**
+     * Buffers used to serialize the fields of structs before their lengths are written, by struct nesting level.
+     * These are reused for all the structs serialized by this.
+     */
+    private final List<GrowableByteBuffer> structBuffers = new ArrayList<>();
+    private int structLevel = 0;
+
     VespaDocumentSerializer6(GrowableByteBuffer buf) {
         super(buf);
     }
@@ -290,8 +296,9 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
 
     @Override
     public void write(FieldBase field, TensorFieldValue value) {
-        if (value.getTensor().isPresent()) {
-            byte[] encodedTensor = TypedBinaryFormat.encode(value.getTensor().get());
+        Optional<byte[]> serializedTensor = value.getSerializedTensor();
+        if (serializedTensor.isPresent()) {
+            byte[] encodedTensor = serializedTensor.get();
             buf.putInt1_4Bytes(encodedTensor.length);
             buf.put(encodedTensor);
         } else {
@@ -324,23 +331,25 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
         //keep the buffer we're serializing everything into:
         GrowableByteBuffer bigBuffer = buf;
 
-        //create a new buffer and serialize into that for a while:
-        GrowableByteBuffer buffer = new GrowableByteBuffer(4096, 2.0f);
+        //serialize into the buffer of this struct level for a while:
+        GrowableByteBuffer buffer = structBuffer(structLevel++);
         buf = buffer;
 
-        List<Integer> fieldIds = new LinkedList<>();
-        List<java.lang.Integer> fieldLengths = new LinkedList<>();
+        int[] fieldIds = new int[s.getFieldCount()];
+        int[] fieldLengths = new int[s.getFieldCount()];
 
+        int fieldIndex = 0;
         for (Map.Entry<Field, FieldValue> value : s.getFields()) {
 
             int startPos = buffer.position();
             value.getValue().serialize(value.getKey(), this);
 
-            fieldLengths.add(buffer.position() - startPos);
-            fieldIds.add(value.getKey().getId());
+            fieldLengths[fieldIndex] = buffer.position() - startPos;
+            fieldIds[fieldIndex++] = value.getKey().getId();
         }
 
         // Switch buffers again:
+        structLevel--;
         buffer.flip();
         buf = bigBuffer;
 
@@ -360,8 +369,8 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
         buf.putInt1_4Bytes(s.getFieldCount());
 
         for (int i = 0; i < s.getFieldCount(); ++i) {
-            putInt1_4Bytes(null, fieldIds.get(i));
-            putInt2_4_8Bytes(null, fieldLengths.get(i));
+            putInt1_4Bytes(null, fieldIds[i]);
+            putInt2_4_8Bytes(null, fieldLengths[i]);
         }
 
         int pos = buf.position();
@@ -378,6 +387,15 @@ public class VespaDocumentSerializer6 extends BufferSerializer implements Docume
         buf.position(posNow);
     }
 
+    /** Returns the cleared buffer to use for serializing struct fields at the given nesting level */
+    private GrowableByteBuffer structBuffer(int level) {
+        if (level == structBuffers.size())
+            structBuffers.add(new GrowableByteBuffer(4096, 2.0f));
+        GrowableByteBuffer buffer = structBuffers.get(level);
+        buffer.clear();
+        return buffer;
+    }
+
     /**
      * Write out the value of structured field
      *
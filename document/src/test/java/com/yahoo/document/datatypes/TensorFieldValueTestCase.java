@@ -3,11 +3,17 @@ package com.yahoo.document.datatypes;
 
 import com.yahoo.tensor.Tensor;
 import com.yahoo.tensor.TensorType;
+import com.yahoo.tensor.serialization.TypedBinaryFormat;
 import org.junit.Test;
 
+import java.util.Optional;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 
 /**
@@ -56,4 +62,38 @@ public class TensorFieldValueTestCase {
         TensorFieldValue field2 = new TensorFieldValue(TensorType.fromSpec("tensor(x{})"));
         assertEquals("null", field2.toString());
     }
+
+    @Test
+    public void requireThatSerializedTensorIsKeptAndDecodedOnAccess() {
+        Tensor tensor = Tensor.from("tensor<float>(x[3]):[1.0, 2.0, 3.0]");
+        byte[] serialized = TypedBinaryFormat.encode(tensor);
+
+        TensorFieldValue field = new TensorFieldValue(tensor.type());
+        field.assignSerializedTensor(serialized);
+        assertSame(serialized, field.getSerializedTensor().get());
+        assertEquals(tensor, field.getTensor().get());
+        assertSame("Serialized form is kept after decoding", serialized, field.getSerializedTensor().get());
+        assertTrue(field.equals(new TensorFieldValue(tensor)));
+
+        Tensor other = Tensor.from("tensor<float>(x[3]):[4.0, 5.0, 6.0]");
+        field.assignTensor(Optional.of(other));
+        assertArrayEquals(TypedBinaryFormat.encode(other), field.getSerializedTensor().get());
+
+        field.clear();
+        assertFalse(field.getSerializedTensor().isPresent());
+        assertFalse(field.getTensor().isPresent());
+    }
+
+    @Test
+    public void requireThatSerializedTensorIsValidatedOnAccess() {
+        TensorFieldValue field = new TensorFieldValue(TensorType.fromSpec("tensor<float>(x[3])"));
+        field.assignSerializedTensor(TypedBinaryFormat.encode(Tensor.from("tensor<float>(y[3]):[1.0, 2.0, 3.0]")));
+        try {
+            field.getTensor();
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException expected) {
+        }
+    }
+
 }
@@ -0,0 +1,185 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.yahoo.document.DataType;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.Field;
+import com.yahoo.text.Utf8;
+import com.yahoo.vespaxmlparser.FeedOperation;
+import com.yahoo.vespaxmlparser.FeedReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.yahoo.test.json.JsonTestHelper.inputJson;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author bratseth
+ */
+public class ParallelJsonFeedReaderTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private DocumentTypeManager types;
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Before
+    public void setUp() {
+        types = new DocumentTypeManager();
+        DocumentType x = new DocumentType("smoke");
+        x.addField(new Field("something", DataType.STRING));
+        x.addField(new Field("int1", DataType.INT));
+        types.registerDocumentType(x);
+    }
+
+    @Test
+    public void operations_are_read_in_feed_order_like_the_sequential_reader() throws Exception {
+        StringBuilder feed = new StringBuilder("[\n");
+        for (int i = 0; i < 1000; i++) {
+            if (i > 0) feed.append(",\n");
+            switch (i % 3) {
+                case 0:
+                    feed.append("{\"put\": \"id:unittest:smoke::doc" + i + "\", \"fields\": " +
+                                "{\"something\": \"{[\\\"tricky\\\\\\\" ]} " + i + "\", \"int1\": " + i + "}}");
+                    break;
+                case 1:
+                    feed.append("{\"update\": \"id:unittest:smoke::doc" + i + "\", \"condition\": \"smoke.int1 > 0\", " +
+                                "\"fields\": {\"int1\": {\"assign\": " + i + "}}}");
+                    break;
+                default:
+                    feed.append("{\"remove\": \"id:unittest:smoke::doc" + i + "\"}");
+            }
+        }
+        feed.append("\n]");
+
+        List<FeedOperation> expected = readAll(new JsonFeedReader(stream(feed.toString()), types));
+        List<FeedOperation> actual = readAll(new ParallelJsonFeedReader(stream(feed.toString()), types, executor, 4));
+        assertEquals(1000, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), actual.get(i).getType());
+            assertEquals(expected.get(i).getDocument(), actual.get(i).getDocument());
+            assertEquals(expected.get(i).getDocumentUpdate(), actual.get(i).getDocumentUpdate());
+            assertEquals(expected.get(i).getRemove(), actual.get(i).getRemove());
+            assertEquals(expected.get(i).getCondition().getSelection(), actual.get(i).getCondition().getSelection());
+        }
+        assertEquals("{[\"tricky\\\" ]} 0", actual.get(0).getDocument().getFieldValue("something").toString());
+    }
+
+    @Test
+    public void invalid_operations_fail_when_read_without_stopping_the_feed() throws Exception {
+        FeedReader reader = new ParallelJsonFeedReader(stream(inputJson("[",
+                                                                         "{ 'put': 'id:unittest:smoke::doc1', 'fields': { 'int1': 1 }},",
+                                                                         "{ 'put': 'id:unittest:nosuchtype::doc2', 'fields': {}},",
+                                                                         "{ 'remove': 'id:unittest:smoke::doc3' }",
+                                                                         "]")),
+                                                       types, executor, 2);
+        assertEquals(FeedOperation.Type.DOCUMENT, reader.read().getType());
+        try {
+            reader.read();
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Document type nosuchtype does not exist", e.getMessage());
+        }
+        assertEquals(FeedOperation.Type.REMOVE, reader.read().getType());
+        assertEquals(FeedOperation.Type.INVALID, reader.read().getType());
+    }
+
+    @Test
+    public void operations_before_a_malformed_part_of_the_feed_are_returned() throws Exception {
+        FeedReader reader = new ParallelJsonFeedReader(stream(inputJson("[",
+                                                                         "{ 'remove': 'id:unittest:smoke::doc1' },",
+                                                                         "{ 'remove': 'id:unittest:smoke::doc2' },",
+                                                                         "'not an operation'",
+                                                                         "]")),
+                                                       types, executor, 2);
+        assertEquals(FeedOperation.Type.REMOVE, reader.read().getType());
+        assertEquals(FeedOperation.Type.REMOVE, reader.read().getType());
+        try {
+            reader.read();
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Expected start of document operation, got '\"'", e.getMessage());
+        }
+        assertEquals(FeedOperation.Type.INVALID, reader.read().getType());
+    }
+
+    @Test
+    public void closing_a_partially_read_feed_closes_the_stream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        InputStream stream = new FilterInputStream(stream(inputJson("[",
+                                                                    "{ 'remove': 'id:unittest:smoke::doc1' },",
+                                                                    "{ 'remove': 'id:unittest:smoke::doc2' }",
+                                                                    "]"))) {
+            @Override
+            public void close() { closed.set(true); }
+        };
+        ParallelJsonFeedReader reader = new ParallelJsonFeedReader(stream, types, executor, 2);
+        assertEquals(FeedOperation.Type.REMOVE, reader.read().getType());
+        assertFalse(closed.get());
+        reader.close();
+        assertTrue(closed.get());
+        assertFalse("The executor is owned by the caller", executor.isShutdown());
+        reader.close();
+    }
+
+    @Test
+    public void splitter_returns_each_operation_and_handles_nesting_in_strings() throws Exception {
+        JsonFeedSplitter splitter = new JsonFeedSplitter(stream(" [ {\"a\": \"}\\\\\"}, {\"b\": [{}, \"\\\"{\"]} ,\n{}]"));
+        assertEquals("{\"a\": \"}\\\\\"}", Utf8.toString(splitter.next()));
+        assertEquals("{\"b\": [{}, \"\\\"{\"]}", Utf8.toString(splitter.next()));
+        assertEquals("{}", Utf8.toString(splitter.next()));
+        assertNull(splitter.next());
+        assertNull(splitter.next());
+
+        try {
+            new JsonFeedSplitter(stream("{}")).next();
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Expected start of array"));
+        }
+        try {
+            JsonFeedSplitter truncated = new JsonFeedSplitter(stream("[{\"a\": {}"));
+            truncated.next();
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Unexpected end of feed inside a document operation", e.getMessage());
+        }
+    }
+
+    private static List<FeedOperation> readAll(FeedReader reader) throws Exception {
+        List<FeedOperation> operations = new ArrayList<>();
+        for (FeedOperation operation = reader.read();
+             operation.getType() != FeedOperation.Type.INVALID;
+             operation = reader.read())
+            operations.add(operation);
+        return operations;
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(Utf8.toBytes(json));
+    }
+
+}
@@ -0,0 +1,125 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.document.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * @author bratseth
+ */
+public class TokenBufferTest {
+
+    private final JsonFactory factory = new JsonFactory();
+
+    @Test
+    public void tokens_are_buffered_and_views_share_them() throws IOException {
+        TokenBuffer buffer = buffer("{ \"a\": 1, \"b\": [ \"x\", { \"c\": null } ], \"d\": true }");
+        assertEquals(JsonToken.START_OBJECT, buffer.currentToken());
+        assertEquals(1, buffer.nesting());
+        assertEquals("true", buffer.prefetchScalar("d").text);
+        assertNull(buffer.prefetchScalar("c"));
+        assertEquals(JsonToken.VALUE_NUMBER_INT, buffer.next());
+        assertEquals("a", buffer.currentName());
+        assertEquals("1", buffer.currentText());
+        assertEquals(JsonToken.START_ARRAY, buffer.next());
+
+        TokenBuffer array = buffer.prefetchCurrentElement();
+        assertEquals("b", array.currentName());
+        assertEquals(JsonToken.VALUE_STRING, array.next());
+        assertEquals("x", array.currentText());
+        assertEquals(JsonToken.START_OBJECT, array.next());
+        assertEquals(2, array.nesting());
+
+        assertEquals("b", buffer.currentName()); // not moved by reading the view
+        buffer.fastForwardToEndObject();
+        assertEquals(JsonToken.END_ARRAY, buffer.next());
+        assertEquals(JsonToken.VALUE_TRUE, buffer.next());
+        assertEquals("d", buffer.currentName());
+        assertEquals(JsonToken.END_OBJECT, buffer.next());
+        assertNull(buffer.next());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void numbers_are_parsed_like_the_string_parsers() throws IOException {
+        String[] numbers = { "0", "-0", "7", "-123456789", "2147483647", "-2147483648", "1e22", "1e23",
+                             "123456789012345", "1234567890123456", "0.1", "-3.14159", "1.7976931348623157e308",
+                             "4.9e-324", "1.5E+3", "1e-22", "9007199254740993", "0.000000000000000000001" };
+        for (String number : numbers)
+            assertNumber(number);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            assertNumber(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+            assertNumber(random.nextInt(1000000) + "." + random.nextInt(100000));
+            assertNumber(String.valueOf(random.nextLong()));
+        }
+    }
+
+    @Test
+    public void strings_are_parsed_like_the_string_parsers() throws IOException {
+        for (String text : new String[] { "1.", ".5", "+5", "NaN", "-Infinity", " 1", "1d", "0x10", "", "-", "1e", "e5" })
+            assertNumber(text);
+    }
+
+    private void assertNumber(String number) throws IOException {
+        boolean isJsonNumber = number.matches("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][-+]?[0-9]+)?");
+        assertNumber(number, buffer(isJsonNumber ? "[" + number + "]" : "[\"" + number + "\"]"));
+        if (isJsonNumber)
+            assertNumber(number, buffer("[\"" + number + "\"]"));
+    }
+
+    private void assertNumber(String number, TokenBuffer buffer) {
+        buffer.next();
+        assertEquals(number, buffer.currentText());
+        try {
+            assertEquals(number, Double.doubleToRawLongBits(Double.parseDouble(number)),
+                         Double.doubleToRawLongBits(buffer.currentDouble()));
+        }
+        catch (NumberFormatException e) {
+            assertInvalid(() -> buffer.currentDouble(), number);
+        }
+        try {
+            assertEquals(number, Long.parseLong(number), buffer.currentLong());
+        }
+        catch (NumberFormatException e) {
+            assertInvalid(() -> buffer.currentLong(), number);
+        }
+        try {
+            assertEquals(number, Integer.parseInt(number), buffer.currentInt());
+        }
+        catch (NumberFormatException e) {
+            assertInvalid(() -> buffer.currentInt(), number);
+        }
+    }
+
+    private void assertInvalid(Runnable parse, String number) {
+        try {
+            parse.run();
+            fail("Expected '" + number + "' to be invalid");
+        }
+        catch (NumberFormatException expected) {
+        }
+    }
+
+    private TokenBuffer buffer(String json) throws IOException {
+        JsonParser parser = factory.createParser(json);
+        TokenBuffer buffer = new TokenBuffer();
+        JsonToken first = parser.nextToken();
+        if (first == JsonToken.START_ARRAY)
+            buffer.bufferArray(first, parser);
+        else
+            buffer.bufferObject(first, parser);
+        return buffer;
+    }
+
+}
@@ -777,6 +777,29 @@ public class DocumentSelectorTestCase {
         evaluate("test.my_imported_field.foo", documents.get(0));
     }
 
+    @Test
+    public void selections_specialized_to_document_types_evaluate_as_interpreted() throws ParseException {
+        DocumentType music = new DocumentType("music");
+        List<DocumentOperation> operations = new ArrayList<>(createDocs());
+        operations.add(new DocumentUpdate(manager.getDocumentType("test"), new DocumentId("id:myspace:test::anything")));
+        operations.add(new DocumentPut(new Document(music, new DocumentId("id:ns:music::1"))));
+        operations.add(createRemove("id:ns:test::1"));
+        operations.add(createRemove("id:ns:music::1"));
+        operations.add(createGet("id:ns:test::1"));
+        String[] selections = { "test", "music", "not test", "(test)", "test or music", "test and music",
+                                "music or test.hint == 24", "test and test.hint == 24", "not (music or test.hint > 20)",
+                                "test.hint == 24 and music or test.hstring == \"foo\" and test",
+                                "id.namespace == \"ns\" and (music or not test)", "true or music", "test and false" };
+        for (String selection : selections) {
+            DocumentSelector selector = new DocumentSelector(selection);
+            for (int i = 0; i < 2; i++) { // Second round uses the cached specializations
+                for (DocumentOperation operation : operations)
+                    assertEquals(selection + " on " + operation.getId(),
+                                 selector.accepts(new Context(operation)), selector.accepts(operation));
+            }
+        }
+    }
+
     @Test
     public void testTicket1769674() {
         assertParseError("music.uri=\"junk",
@@ -432,6 +432,15 @@ public class ProgressToken {
         this.bucketCursor = bucketCursor;
     }
 
+    /**
+     * Moves the bucket cursor past the given number of buckets without visiting them, counting them as finished.
+     * <em>For use by bucket sources only!</em>
+     */
+    protected synchronized void skipBuckets(long count) {
+        bucketCursor += count;
+        finishedBucketCount += count;
+    }
+
     public long getFinishedBucketCount() {
         return finishedBucketCount;
     }
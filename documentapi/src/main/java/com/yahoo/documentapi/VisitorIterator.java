@@ -10,6 +10,7 @@ import java.util.logging.Level;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.stream.Collectors;
 import java.util.logging.Logger;
 
 /**
@@ -81,12 +82,35 @@ public class VisitorIterator {
     protected static class DistributionRangeBucketSource implements BucketSource {
         private boolean flushActive = false;
         private int distributionBitCount;
+        private final int slices;
+        private final int sliceId;
         // Wouldn't need this if this were a non-static class, but do it for
         // the sake of keeping things identical in Java and C++
         private ProgressToken progressToken;
 
         public DistributionRangeBucketSource(int distributionBitCount,
                                              ProgressToken progress) {
+            this(distributionBitCount, progress, 1, 0);
+        }
+
+        /**
+         * Creates a source of only the superbuckets in the given slice of the bucket space: Those whose
+         * lowest log2(slices) bucket id bits equal the slice id. These bits are the same for a bucket and all
+         * the buckets it is split into, so each slice covers the same part of the bucket space when the
+         * distribution bit count changes. In iteration order, this part is a contiguous range of superbuckets.
+         * Slicing is not applied at 1 distribution bit, as that is only the starting point before the real
+         * distribution bit count is known.
+         *
+         * @param slices the number of slices, which must be a power of two
+         */
+        public DistributionRangeBucketSource(int distributionBitCount,
+                                             ProgressToken progress,
+                                             int slices,
+                                             int sliceId) {
+            if (Long.bitCount(slices) != 1)
+                throw new IllegalArgumentException("Number of slices must be a power of two, but was " + slices);
+            this.slices = slices;
+            this.sliceId = sliceId;
             progressToken = progress;
 
             // New progress token (could also be empty, in which this is a
@@ -109,6 +133,8 @@ public class VisitorIterator {
                 }
             }
 
+            requireSliceable(this.distributionBitCount);
+
             if (!progress.isFinished()) {
                 if (log.isLoggable(Level.FINE)) {
                     log.log(Level.FINE, "Importing unfinished progress token with " +
@@ -143,6 +169,7 @@ public class VisitorIterator {
                 }
                 progressToken.setFinishedBucketCount(progressToken.getBucketCursor() -
                         progressToken.getPendingBucketCount());
+                skipToSlice();
             } else {
                 assert(progressToken.getBucketCursor() == progressToken.getTotalBucketCount());
             }
@@ -315,6 +342,7 @@ public class VisitorIterator {
             long key = ProgressToken.makeNthBucketKey(currentPosition, distributionBitCount);
             ++currentPosition;
             progressToken.setBucketCursor(currentPosition);
+            skipToSlice();
             return new BucketProgress(
                     new BucketId(ProgressToken.keyToBucketId(key)),
                     new BucketId());
@@ -327,6 +355,7 @@ public class VisitorIterator {
         public void setDistributionBitCount(int distributionBitCount,
                                             ProgressToken progress)
         {
+            requireSliceable(distributionBitCount);
             this.distributionBitCount = distributionBitCount;
 
             // There might be a case where we're waiting for active buckets
@@ -373,10 +402,37 @@ public class VisitorIterator {
                 progressToken.setDistributionBitCount(distributionBitCount);
 
                 correctTruncatedBucketCursor();
+                skipToSlice();
                 progressToken.setInconsistentState(false);
             }
         }
 
+        /**
+         * Moves the bucket cursor to the start of the range of superbuckets in the slice of this,
+         * or to the end if it is past that range, marking the skipped superbuckets finished
+         */
+        private void skipToSlice() {
+            if (slices == 1 || distributionBitCount == 1) return;
+            int sliceBits = Integer.numberOfTrailingZeros(slices);
+            // The bucket id bits are reversed in the iteration order, so the slice id is the reversed prefix of the range
+            long sliceStart = (Long.reverse(sliceId) >>> (64 - sliceBits)) << (distributionBitCount - sliceBits);
+            long sliceEnd = sliceStart + (getTotalBucketCount() >>> sliceBits);
+            long cursor = progressToken.getBucketCursor();
+            if (cursor < sliceStart)
+                progressToken.skipBuckets(sliceStart - cursor);
+            else if (cursor >= sliceEnd && cursor < getTotalBucketCount())
+                progressToken.skipBuckets(getTotalBucketCount() - cursor);
+        }
+
+        /** Throws IllegalStateException if the bucket space cannot be divided into the slices of this */
+        private void requireSliceable(int distributionBitCount) {
+            if (slices == 1 || distributionBitCount == 1) return;
+            if (distributionBitCount < Integer.numberOfTrailingZeros(slices))
+                throw new IllegalStateException("Cannot visit " + slices + " slices with " + distributionBitCount +
+                                                " distribution bits: Use at most " + (1L << distributionBitCount) +
+                                                " slices");
+        }
+
         public void update(BucketId superbucket, BucketId progress,
                            ProgressToken token) {
             progressToken.updateProgress(superbucket, progress);
@@ -754,6 +810,31 @@ public class VisitorIterator {
             BucketIdFactory idFactory,
             int distributionBitCount,
             ProgressToken progress) throws ParseException {
+        return createFromDocumentSelection(documentSelection, idFactory, distributionBitCount, progress, 1, 0);
+    }
+
+    /**
+     * Create a new <code>VisitorIterator</code> instance based on the given document
+     * selection string, which iterates over only one slice of the buckets to visit.
+     * Visiting all the slices, for example concurrently, visits the same buckets as
+     * a single unsliced iterator.
+     *
+     * @param slices the number of slices to divide the buckets into, a power of two
+     * @param sliceId the slice to iterate over, in the range [0, slices)
+     * @see #createFromDocumentSelection(String, BucketIdFactory, int, ProgressToken)
+     * @throws ParseException if <code>documentSelection</code> fails to properly parse
+     */
+    public static VisitorIterator createFromDocumentSelection(
+            String documentSelection,
+            BucketIdFactory idFactory,
+            int distributionBitCount,
+            ProgressToken progress,
+            int slices,
+            int sliceId) throws ParseException {
+        if (Long.bitCount(slices) != 1)
+            throw new IllegalArgumentException("Number of slices must be a power of two, but was " + slices);
+        if (sliceId < 0 || sliceId >= slices)
+            throw new IllegalArgumentException("Slice id must be in [0, " + slices + "), but was " + sliceId);
         BucketSelector bucketSel = new BucketSelector(idFactory);
         Set<BucketId> rawBuckets = bucketSel.getBucketList(documentSelection);
         BucketSource src;
@@ -763,9 +844,13 @@ public class VisitorIterator {
         // bit-based range source
         if (rawBuckets == null) {
             // Range source
-            src = new DistributionRangeBucketSource(distributionBitCount, progress);
+            src = new DistributionRangeBucketSource(distributionBitCount, progress, slices, sliceId);
         } else {
             // Explicit source
+            if (slices > 1)
+                rawBuckets = rawBuckets.stream()
+                                       .filter(bucket -> (bucket.getId() & (slices - 1)) == sliceId)
+                                       .collect(Collectors.toSet());
             src = new ExplicitBucketSource(rawBuckets, distributionBitCount, progress);
         }
 
@@ -50,6 +50,8 @@ public class VisitorParameters extends Parameters {
     private int traceLevel = 0;
     private ThrottlePolicy throttlePolicy = null;
     private boolean skipBucketsOnFatalErrors = false;
+    private int slices = 1;
+    private int sliceId = 0;
 
     // Advanced parameter, only for internal use.
     Set<BucketId> bucketsToVisit = null;
@@ -101,6 +103,7 @@ public class VisitorParameters extends Parameters {
                 params.getDynamicMaxBucketsIncreaseFactor());
         setTraceLevel(params.getTraceLevel());
         skipBucketsOnFatalErrors(params.skipBucketsOnFatalErrors());
+        slice(params.getSlices(), params.getSliceId());
     }
 
     // Get functions
@@ -331,6 +334,29 @@ public class VisitorParameters extends Parameters {
 
     public void skipBucketsOnFatalErrors(boolean skipBucketsOnFatalErrors) { this.skipBucketsOnFatalErrors = skipBucketsOnFatalErrors; }
 
+    /**
+     * Sets this to visit only one slice of the buckets to visit, such that visiting is divided between
+     * multiple sessions, each visiting a separate slice, with its own progress.
+     *
+     * @param slices the number of slices to divide the buckets into, a power of two
+     * @param sliceId the slice to visit, in the range [0, slices)
+     * @throws IllegalArgumentException if the slice id is not valid for the given number of slices
+     */
+    public void slice(int slices, int sliceId) {
+        if (Integer.bitCount(slices) != 1)
+            throw new IllegalArgumentException("Number of slices must be a power of two, but was " + slices);
+        if (sliceId < 0 || sliceId >= slices)
+            throw new IllegalArgumentException("Slice id must be in [0, " + slices + "), but was " + sliceId);
+        this.slices = slices;
+        this.sliceId = sliceId;
+    }
+
+    /** Returns the number of slices the buckets to visit are divided into. Default is 1. */
+    public int getSlices() { return slices; }
+
+    /** Returns the slice of the buckets which is visited with these parameters. Default is 0. */
+    public int getSliceId() { return sliceId; }
+
     /**
      * Set whether or not max buckets per visitor value should be dynamically
      * increased when using orderdoc and visitors do not return at least half
@@ -385,6 +411,8 @@ public class VisitorParameters extends Parameters {
                     .append(dynamicMaxBucketsIncreaseFactor)
                     .append('\n');
         }
+        if (slices > 1)
+            sb.append("  Slice:              ").append(sliceId).append(" of ").append(slices).append('\n');
         sb.append(')');
 
         return sb.toString();
@@ -572,7 +572,9 @@ public class MessageBusVisitorSession implements VisitorSession {
                     params.getDocumentSelection(),
                     bucketIdFactory,
                     1,
-                    progressToken);
+                    progressToken,
+                    params.getSlices(),
+                    params.getSliceId());
         } else {
             if (log.isLoggable(Level.FINE)) {
                 log.log(Level.FINE, "parameters specify explicit bucket set " +
@@ -1067,6 +1069,10 @@ public class MessageBusVisitorSession implements VisitorSession {
                 // updated.
                 progress.getIterator().setDistributionBitCount(stateBits);
             }
+        } catch (IllegalStateException e) { // The new bucket space cannot be divided into the slices to visit
+            log.log(Level.SEVERE, sessionName + ": " + e.getMessage());
+            reportVisitorError(e.getMessage());
+            transitionTo(new StateDescription(State.FAILED, e.getMessage()));
         } catch (Exception e) {
             log.log(Level.SEVERE, "Failed to parse new system state string: "
                     + reply.getSystemState());
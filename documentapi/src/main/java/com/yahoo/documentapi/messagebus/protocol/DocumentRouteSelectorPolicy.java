@@ -137,10 +137,10 @@ public class DocumentRouteSelectorPolicy
         switch (msg.getType()) {
 
         case DocumentProtocol.MESSAGE_PUTDOCUMENT:
-            return selector.accepts(((PutDocumentMessage)msg).getDocumentPut()) == Result.TRUE;
+            return selector.accepts(((PutDocumentMessage)msg).getDocumentPutForReading()) == Result.TRUE;
 
         case DocumentProtocol.MESSAGE_UPDATEDOCUMENT:
-            return selector.accepts(((UpdateDocumentMessage)msg).getDocumentUpdate()) != Result.FALSE;
+            return selector.accepts(((UpdateDocumentMessage)msg).getDocumentUpdateForReading()) != Result.FALSE;
 
         case DocumentProtocol.MESSAGE_REMOVEDOCUMENT: {
             RemoveDocumentMessage removeMsg = (RemoveDocumentMessage)msg;
@@ -18,6 +18,9 @@ public class PutDocumentMessage extends TestAndSetMessage {
     private long time = 0;
     private LazyDecoder decoder = null;
 
+    /** The serialized content of this as received, as long as it is known to be unchanged, or null */
+    private ByteBuffer serialized = null;
+
     /**
      * Constructs a new message for deserialization.
      */
@@ -34,6 +37,7 @@ public class PutDocumentMessage extends TestAndSetMessage {
     public PutDocumentMessage(LazyDecoder decoder, DocumentDeserializer buffer) {
         this.decoder = decoder;
         this.buffer = buffer;
+        this.serialized = buffer.getBuf().getByteBuffer().slice();
     }
 
     /** Constructs a new document put message */
@@ -54,14 +58,29 @@ public class PutDocumentMessage extends TestAndSetMessage {
      */
     private void deserialize() {
         if (decoder != null && buffer != null) {
+            ByteBuffer serialized = this.serialized;
             decoder.decode(this, buffer);
             decoder = null;
             buffer = null;
+            this.serialized = serialized; // Decoding does not change the content
         }
     }
 
-    /** Returns the document put operation */
+    /**
+     * Returns the document put operation.
+     * As the returned operation may be modified, this will be serialized from it rather than from its received bytes.
+     */
     public DocumentPut getDocumentPut() {
+        deserialize();
+        serialized = null;
+        return put;
+    }
+
+    /**
+     * Returns the document put operation, which must not be modified.
+     * This does not prevent this from being forwarded as the serialized bytes it was received as.
+     */
+    DocumentPut getDocumentPutForReading() {
         deserialize();
         return put;
     }
@@ -70,6 +89,7 @@ public class PutDocumentMessage extends TestAndSetMessage {
     public void setDocumentPut(DocumentPut put) {
         buffer = null;
         decoder = null;
+        serialized = null;
         this.put = put;
     }
 
@@ -83,17 +103,20 @@ public class PutDocumentMessage extends TestAndSetMessage {
     public void setTimestamp(long time) {
         buffer = null;
         decoder = null;
+        serialized = null;
         this.time = time;
     }
 
     /**
-     * Returns the raw serialized buffer. This buffer is stored as the message is received from accross the network, and
-     * deserialized from as soon as a member is requested. This method will return null if the buffer has been decoded.
+     * Returns the raw serialized buffer. This buffer is stored as the message is received from accross the network,
+     * and is kept after deserialization as long as the content of this cannot have been changed, such that
+     * messages which are only forwarded are not serialized again. This method will return null if the content of this
+     * may have changed since it was received.
      *
-     * @return the buffer containing the serialized data for this message, or null
+     * @return a buffer containing the serialized data for this message, or null
      */
     ByteBuffer getSerializedBuffer() {
-        return buffer != null ? buffer.getBuf().getByteBuffer() : null; // TODO: very dirty. Must make interface.
+        return serialized != null ? serialized.duplicate() : null;
     }
 
     @Override
@@ -103,8 +126,8 @@ public class PutDocumentMessage extends TestAndSetMessage {
 
     @Override
     public int getApproxSize() {
-        if (buffer != null) {
-            return buffer.getBuf().remaining();
+        if (serialized != null) {
+            return serialized.remaining();
         }
         return put.getDocument().getApproxSize();
     }
@@ -133,6 +156,8 @@ public class PutDocumentMessage extends TestAndSetMessage {
 
     @Override
     public void setCondition(TestAndSetCondition condition) {
+        deserialize();
+        serialized = null;
         put.setCondition(condition);
     }
 
@@ -31,6 +31,12 @@ import java.util.logging.Logger;
 final class RoutableRepository {
 
     private static final Logger log = Logger.getLogger(RoutableRepository.class.getName());
+
+    /** Encode buffers larger than this are not kept for reuse, to avoid holding on to the memory of rare large ones */
+    private static final int maxReusedEncodeBufferSize = 1024 * 1024;
+
+    /** A buffer per thread to encode into, such that encoding does not allocate and grow a buffer each time */
+    private final ThreadLocal<GrowableByteBuffer> encodeBuffer = ThreadLocal.withInitial(() -> new GrowableByteBuffer(8192));
     private final CopyOnWriteHashMap<Integer, VersionMap> factoryTypes = new CopyOnWriteHashMap<>();
     private final CopyOnWriteHashMap<CacheKey, RoutableFactory> cache = new CopyOnWriteHashMap<>();
     private LoadTypeSet loadTypes;
@@ -97,18 +103,26 @@ final class RoutableRepository {
             log.log(Level.SEVERE,"Can not encode routable type " + type + " (version " + version + "). Only major version 5 and up supported.");
             return new byte[0];
         }
-        DocumentSerializer out= DocumentSerializerFactory.createHead(new GrowableByteBuffer(8192));
+        GrowableByteBuffer buffer = encodeBuffer.get();
+        buffer.clear();
+        try {
+            DocumentSerializer out = DocumentSerializerFactory.createHead(buffer);
 
-        out.putInt(null, type);
-        if (!factory.encode(obj, out)) {
-            log.log(Level.SEVERE, "Routable factory " + factory.getClass().getName() + " failed to serialize " +
-                                    "routable of type " + type + " (version " + version + ").");
-            return new byte[0];
+            out.putInt(null, type);
+            if (!factory.encode(obj, out)) {
+                log.log(Level.SEVERE, "Routable factory " + factory.getClass().getName() + " failed to serialize " +
+                                        "routable of type " + type + " (version " + version + ").");
+                return new byte[0];
+            }
+            byte[] ret = new byte[out.getBuf().position()];
+            out.getBuf().rewind();
+            out.getBuf().get(ret);
+            return ret;
+        }
+        finally {
+            if (buffer.capacity() > maxReusedEncodeBufferSize)
+                encodeBuffer.remove();
         }
-        byte[] ret = new byte[out.getBuf().position()];
-        out.getBuf().rewind();
-        out.getBuf().get(ret);
-        return ret;
     }
 
     /**
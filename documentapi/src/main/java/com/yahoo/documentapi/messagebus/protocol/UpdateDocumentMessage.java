@@ -19,6 +19,9 @@ public class UpdateDocumentMessage extends TestAndSetMessage {
     private long newTime = 0;
     private LazyDecoder decoder = null;
 
+    /** The serialized content of this as received, as long as it is known to be unchanged, or null */
+    private ByteBuffer serialized = null;
+
     /**
      * Constructs a new message for deserialization.
      */
@@ -34,6 +37,7 @@ public class UpdateDocumentMessage extends TestAndSetMessage {
     public UpdateDocumentMessage(LazyDecoder decoder, DocumentDeserializer buffer) {
         this.decoder = decoder;
         this.buffer = buffer;
+        this.serialized = buffer.getBuf().getByteBuffer().slice();
     }
 
     /**
@@ -59,18 +63,31 @@ public class UpdateDocumentMessage extends TestAndSetMessage {
      */
     private void deserialize() {
         if (decoder != null && buffer != null) {
+            ByteBuffer serialized = this.serialized;
             decoder.decode(this, buffer);
             decoder = null;
             buffer = null;
+            this.serialized = serialized; // Decoding does not change the content
         }
     }
 
     /**
      * Returns the document update to perform.
+     * As the returned update may be modified, this will be serialized from it rather than from its received bytes.
      *
      * @return The update.
      */
     public DocumentUpdate getDocumentUpdate() {
+        deserialize();
+        serialized = null;
+        return update;
+    }
+
+    /**
+     * Returns the document update to perform, which must not be modified.
+     * This does not prevent this from being forwarded as the serialized bytes it was received as.
+     */
+    DocumentUpdate getDocumentUpdateForReading() {
         deserialize();
         return update;
     }
@@ -86,6 +103,7 @@ public class UpdateDocumentMessage extends TestAndSetMessage {
         }
         buffer = null;
         decoder = null;
+        serialized = null;
         update = upd;
     }
 
@@ -107,6 +125,7 @@ public class UpdateDocumentMessage extends TestAndSetMessage {
     public void setOldTimestamp(long time) {
         buffer = null;
         decoder = null;
+        serialized = null;
         oldTime = time;
     }
 
@@ -128,17 +147,19 @@ public class UpdateDocumentMessage extends TestAndSetMessage {
     public void setNewTimestamp(long time) {
         buffer = null;
         decoder = null;
+        serialized = null;
         newTime = time;
     }
 
     /**
-     * Returns the raw serialized buffer. This buffer is stored as the message is received from accross the network, and
-     * deserialized from as soon as a member is requested. This method will return null if the buffer has been decoded.
+     * Returns the raw serialized buffer. This buffer is stored as the message is received from accross the network,
+     * and is kept after deserialization as long as the content of this cannot have been changed.
+     * This method will return null if the content of this may have changed since it was received.
      *
-     * @return The buffer containing the serialized data for this message, or null.
+     * @return A buffer containing the serialized data for this message, or null.
      */
     ByteBuffer getSerializedBuffer() {
-        return buffer != null ? buffer.getBuf().getByteBuffer() : null;
+        return serialized != null ? serialized.duplicate() : null;
     }
 
     @Override
@@ -170,6 +191,8 @@ public class UpdateDocumentMessage extends TestAndSetMessage {
 
     @Override
     public void setCondition(TestAndSetCondition condition) {
+        deserialize();
+        serialized = null;
         this.update.setCondition(condition);
     }
 }
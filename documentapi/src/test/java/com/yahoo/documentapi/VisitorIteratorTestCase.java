@@ -15,6 +15,7 @@ import java.util.Vector;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Tests for VisitorIterator and ProgressToken (kept in one test case because their
@@ -1557,6 +1558,89 @@ public class VisitorIteratorTestCase {
         assertTrue(caughtIt);
     }
 
+    @Test
+    public void testSlicesVisitAllBucketsOnce() throws ParseException {
+        int slices = 4;
+        Set<BucketId> visited = new TreeSet<>();
+        for (int sliceId = 0; sliceId < slices; sliceId++) {
+            ProgressToken progress = new ProgressToken();
+            VisitorIterator iter = VisitorIterator.createFromDocumentSelection(
+                    "id.group != \"yahoo.com\"", new BucketIdFactory(), 1, progress, slices, sliceId);
+            assertEquals(2, iter.getRemainingBucketCount()); // No slicing before the distribution bit count is known
+            iter.setDistributionBitCount(8);
+
+            // Visit half of the slice, then resume from serialized progress
+            for (int i = 0; i < 32; i++)
+                visitNext(iter, visited, sliceId, slices);
+            progress = new ProgressToken(progress.serialize());
+            iter = VisitorIterator.createFromDocumentSelection(
+                    "id.group != \"yahoo.com\"", new BucketIdFactory(), 1, progress, slices, sliceId);
+            while (iter.hasNext())
+                visitNext(iter, visited, sliceId, slices);
+            assertTrue(iter.isDone());
+            assertTrue(progress.isFinished());
+            assertEquals(100, progress.percentFinished(), 1e-9);
+        }
+        assertEquals(256, visited.size());
+    }
+
+    @Test
+    public void testSlicesVisitAllBucketsOnceWhenDistributionBitsChange() throws ParseException {
+        int slices = 4;
+        Set<BucketId> visited = new TreeSet<>();
+        for (int sliceId = 0; sliceId < slices; sliceId++) {
+            VisitorIterator iter = VisitorIterator.createFromDocumentSelection(
+                    "id.group != \"yahoo.com\"", new BucketIdFactory(), 1, new ProgressToken(), slices, sliceId);
+            iter.setDistributionBitCount(8);
+            for (int i = 0; i < 10; i++)
+                visitNext(iter, visited, sliceId, slices);
+            iter.setDistributionBitCount(10);
+            for (int i = 0; i < 10; i++)
+                visitNext(iter, visited, sliceId, slices);
+            iter.setDistributionBitCount(9);
+            while (iter.hasNext())
+                visitNext(iter, visited, sliceId, slices);
+            assertTrue(iter.isDone());
+        }
+
+        // Each bucket at the highest distribution bit count must be covered by exactly one visited bucket
+        int[] coverage = new int[1 << 10];
+        for (BucketId bucket : visited)
+            for (int id = 0; id < coverage.length; id++)
+                if ((id & ((1 << bucket.getUsedBits()) - 1)) == bucket.withoutCountBits())
+                    coverage[id]++;
+        for (int id = 0; id < coverage.length; id++)
+            assertEquals("Coverage of bucket " + id, 1, coverage[id]);
+    }
+
+    @Test
+    public void testSlicingRequiresEnoughDistributionBits() throws ParseException {
+        VisitorIterator iter = VisitorIterator.createFromDocumentSelection(
+                "id.group != \"yahoo.com\"", new BucketIdFactory(), 1, new ProgressToken(), 8, 3);
+        try {
+            iter.setDistributionBitCount(2);
+            fail("Expected exception");
+        }
+        catch (IllegalStateException e) {
+            assertEquals("Cannot visit 8 slices with 2 distribution bits: Use at most 4 slices", e.getMessage());
+        }
+        try {
+            VisitorIterator.createFromDocumentSelection(
+                    "id.group != \"yahoo.com\"", new BucketIdFactory(), 1, new ProgressToken(), 3, 0);
+            fail("Expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals("Number of slices must be a power of two, but was 3", e.getMessage());
+        }
+    }
+
+    private void visitNext(VisitorIterator iter, Set<BucketId> visited, int sliceId, int slices) {
+        VisitorIterator.BucketProgress bucket = iter.getNext();
+        assertEquals(sliceId, bucket.getSuperbucket().getId() & (slices - 1));
+        assertTrue("Visited " + bucket.getSuperbucket() + " once", visited.add(bucket.getSuperbucket()));
+        iter.update(bucket.getSuperbucket(), ProgressToken.FINISHED_BUCKET);
+    }
+
     @Test
     public void testBinaryProgressSerialization() {
         String input = "VDS bucket progress file (48.828125% completed)\n" +
@@ -0,0 +1,82 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.documentapi.messagebus.protocol;
+
+import com.yahoo.component.Version;
+import com.yahoo.document.DataType;
+import com.yahoo.document.Document;
+import com.yahoo.document.DocumentId;
+import com.yahoo.document.DocumentPut;
+import com.yahoo.document.DocumentType;
+import com.yahoo.document.DocumentTypeManager;
+import com.yahoo.document.DocumentUpdate;
+import com.yahoo.document.datatypes.StringFieldValue;
+import com.yahoo.document.update.FieldUpdate;
+import com.yahoo.documentapi.messagebus.loadtypes.LoadTypeSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests that messages which are only forwarded are encoded from the bytes they were received as.
+ *
+ * @author bratseth
+ */
+public class MessageForwardingTest {
+
+    private static final Version version = new Version(6, 221, 0);
+
+    private final DocumentTypeManager manager = new DocumentTypeManager();
+    private final DocumentType type = new DocumentType("music");
+    private final DocumentProtocol protocol;
+
+    public MessageForwardingTest() {
+        type.addField("title", DataType.STRING);
+        manager.registerDocumentType(type);
+        protocol = new DocumentProtocol(manager, null, new LoadTypeSet());
+    }
+
+    @Test
+    public void put_is_forwarded_as_received_unless_it_may_have_changed() {
+        Document document = new Document(type, new DocumentId("id:ns:music::1"));
+        document.setFieldValue("title", new StringFieldValue("foo"));
+        byte[] data = protocol.encode(version, new PutDocumentMessage(new DocumentPut(document)));
+
+        PutDocumentMessage message = (PutDocumentMessage)protocol.decode(version, data);
+        message.getSequenceId();
+        assertEquals("foo", message.getDocumentPutForReading().getDocument().getFieldValue("title").toString());
+        assertNotNull(message.getSerializedBuffer());
+        assertArrayEquals(data, protocol.encode(version, message));
+        assertArrayEquals("Can be encoded repeatedly", data, protocol.encode(version, message));
+
+        message.getDocumentPut().getDocument().setFieldValue("title", new StringFieldValue("bar"));
+        assertNull(message.getSerializedBuffer());
+        PutDocumentMessage forwarded = (PutDocumentMessage)protocol.decode(version, protocol.encode(version, message));
+        assertEquals("bar", forwarded.getDocumentPut().getDocument().getFieldValue("title").toString());
+
+        message = (PutDocumentMessage)protocol.decode(version, data);
+        message.setTimestamp(7);
+        assertNull(message.getSerializedBuffer());
+        assertEquals(7, ((PutDocumentMessage)protocol.decode(version, protocol.encode(version, message))).getTimestamp());
+    }
+
+    @Test
+    public void update_is_forwarded_as_received_unless_it_may_have_changed() {
+        DocumentUpdate update = new DocumentUpdate(type, new DocumentId("id:ns:music::1"));
+        update.addFieldUpdate(FieldUpdate.createAssign(type.getField("title"), new StringFieldValue("foo")));
+        byte[] data = protocol.encode(version, new UpdateDocumentMessage(update));
+
+        UpdateDocumentMessage message = (UpdateDocumentMessage)protocol.decode(version, data);
+        message.getSequenceId();
+        assertEquals(1, message.getDocumentUpdateForReading().fieldUpdates().size());
+        assertNotNull(message.getSerializedBuffer());
+        assertArrayEquals(data, protocol.encode(version, message));
+
+        message.getDocumentUpdate();
+        assertNull(message.getSerializedBuffer());
+        assertArrayEquals(data, protocol.encode(version, message));
+    }
+
+}
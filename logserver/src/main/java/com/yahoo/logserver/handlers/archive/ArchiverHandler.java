@@ -173,7 +173,7 @@ public class ArchiverHandler extends AbstractLogHandler {
     public boolean doHandle(LogMessage msg) {
         try {
             LogWriter logWriter = getLogWriter(msg);
-            logWriter.write(msg.toString());
+            logWriter.write(msg.toString(), msg.getTimestamp());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
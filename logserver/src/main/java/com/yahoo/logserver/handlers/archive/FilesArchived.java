@@ -2,21 +2,30 @@
 
 package com.yahoo.logserver.handlers.archive;
 
+import com.yahoo.compress.BlockCompressedOutputStream;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
-import java.util.zip.GZIPOutputStream;
 
 
 /**
  * This class holds information about all (log) files contained
  * in the logarchive directory hierarchy.  It also has functionality
  * for compressing log files and deleting older files.
+ * <p>
+ * Log files are compressed by a background thread shortly after they are closed, into
+ * independently LZ4 compressed blocks (see {@link BlockCompressedOutputStream}), such
+ * that readers can decompress only the parts of a file they need.
  *
  * @author Arne Juul
  */
@@ -31,9 +40,15 @@ public class FilesArchived {
     private final Object mutex = new Object();
 
     // known-existing files inside the archive directory
-    private List<LogFile> knownFiles;
+    private volatile List<LogFile> knownFiles;
+
+    // files currently open for writing, which must not be compressed
+    private final Set<File> openFiles = ConcurrentHashMap.newKeySet();
 
-    public static final long compressAfterMillis = 2L * 3600 * 1000;
+    public static final String compressedSuffix = ".lz4";
+    private static final String temporarySuffix = ".tmp";
+
+    public static final long compressAfterMillis = 10L * 60 * 1000;
     private static final long maxAgeDays = 30; // GDPR rules: max 30 days
     private static final long sizeLimit = 30L * (1L << 30); // 30 GB
 
@@ -73,7 +88,7 @@ public class FilesArchived {
         return FilesArchived.class.getName() + ": root=" + root;
     }
 
-    public synchronized int highestGen(String prefix) {
+    public int highestGen(String prefix) {
         int gen = 0;
         for (LogFile lf : knownFiles) {
             if (prefix.equals(lf.prefix)) {
@@ -83,6 +98,18 @@ public class FilesArchived {
         return gen;
     }
 
+    /** Marks the given file as being written to, which prevents it from being compressed until it is {@link #closed} */
+    void opened(File file) {
+        synchronized (openFiles) {
+            openFiles.add(file.getAbsoluteFile());
+        }
+    }
+
+    /** Marks the given file as no longer being written to */
+    void closed(File file) {
+        openFiles.remove(file.getAbsoluteFile());
+    }
+
     public void triggerMaintenance() {
         synchronized (mutex) {
             mutex.notifyAll();
@@ -92,6 +119,10 @@ public class FilesArchived {
     synchronized boolean maintenance() {
         boolean action = false;
         rescan();
+        if (removeTemporaryFiles()) {
+            action = true;
+            rescan();
+        }
         if (removeOlderThan(maxAgeDays)) {
             action = true;
             rescan();
@@ -139,36 +170,55 @@ public class FilesArchived {
         return action;
     }
 
+    // returns true if any temporary files left by interrupted compression were removed
+    private boolean removeTemporaryFiles() {
+        boolean action = false;
+        for (LogFile lf : knownFiles) {
+            if (lf.temporary) {
+                lf.path.delete();
+                log.info("Deleted: "+lf.path);
+                action = true;
+            }
+        }
+        return action;
+    }
+
     // returns true if any files were compressed
     private boolean compressOldFiles() {
         long now = System.currentTimeMillis();
         int count = 0;
         for (LogFile lf : knownFiles) {
             // avoid compressing entire archive at once
-            if (lf.canCompress(now) && (count++ < 5)) {
+            if (lf.canCompress(now) && ! openFiles.contains(lf.path.getAbsoluteFile()) && (count++ < 5)) {
                 compress(lf.path);
             }
         }
         return count > 0;
     }
 
+    // compresses to a temporary file which is renamed when complete, so readers never see a partial file
     private void compress(File oldFile) {
-        File gzippedFile = new File(oldFile.getPath() + ".gz");
-        try (GZIPOutputStream compressor = new GZIPOutputStream(new FileOutputStream(gzippedFile), 0x100000);
-             FileInputStream inputStream = new FileInputStream(oldFile))
-        {
+        File compressedFile = new File(oldFile.getPath() + compressedSuffix);
+        File temporaryFile = new File(compressedFile.getPath() + temporarySuffix);
+        try {
             long mtime = oldFile.lastModified();
-            byte [] buffer = new byte[0x100000];
-
-            for (int read = inputStream.read(buffer); read > 0; read = inputStream.read(buffer)) {
-                compressor.write(buffer, 0, read);
+            try (BlockCompressedOutputStream compressor = new BlockCompressedOutputStream(new FileOutputStream(temporaryFile));
+                 FileInputStream inputStream = new FileInputStream(oldFile))
+            {
+                inputStream.transferTo(compressor);
+            }
+            temporaryFile.setLastModified(mtime);
+            synchronized (openFiles) {
+                if (openFiles.contains(oldFile.getAbsoluteFile())) { // resumed by a writer while we compressed it
+                    temporaryFile.delete();
+                    return;
+                }
+                Files.move(temporaryFile.toPath(), compressedFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                oldFile.delete();
             }
-            compressor.finish();
-            compressor.flush();
-            oldFile.delete();
-            gzippedFile.setLastModified(mtime);
-            log.info("Compressed: "+gzippedFile);
+            log.info("Compressed: "+compressedFile);
         } catch (IOException e) {
+            temporaryFile.delete();
             log.warning("Got '" + e + "' while compressing '" + oldFile.getPath() + "'.");
         }
     }
@@ -214,9 +264,13 @@ public class FilesArchived {
         public final String prefix;
         public final int generation;
         public final boolean zsuff;
+        public final boolean index;
+        public final boolean temporary;
 
         public boolean canCompress(long now) {
             if (zsuff) return false; // already compressed
+            if (index) return false; // time index, kept uncompressed for its log file
+            if (temporary) return false; // partial result of compression
             if (! path.isFile()) return false; // not a file
             long diff = now - path.lastModified();
             if (diff < compressAfterMillis) return false; // too new
@@ -245,6 +299,7 @@ public class FilesArchived {
         }
         private static boolean zSuffix(String name) {
             if (name.endsWith(".gz")) return true;
+            if (name.endsWith(compressedSuffix)) return true;
             // add other compression suffixes here
             return false;
         }
@@ -254,9 +309,11 @@ public class FilesArchived {
             this.prefix = prefixOf(name);
             this.generation = generationOf(name);
             this.zsuff = zSuffix(name);
+            this.index = name.endsWith(LogWriter.indexSuffix);
+            this.temporary = name.endsWith(temporarySuffix);
         }
         public String toString() {
-            return "FilesArchived.LogFile{name="+path+" prefix="+prefix+" gen="+generation+" z="+zsuff+"}";
+            return "FilesArchived.LogFile{name="+path+" prefix="+prefix+" gen="+generation+" z="+zsuff+" index="+index+"}";
         }
     }
 }
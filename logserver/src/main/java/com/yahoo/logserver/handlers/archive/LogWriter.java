@@ -1,15 +1,29 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.logserver.handlers.archive;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.time.Instant;
 import java.util.logging.Logger;
 
 import java.util.logging.Level;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
+ * Writes log lines to rotated files in the archive, and a sparse time index next to each file.
+ * <p>
+ * The index of a file has the name of the file with the suffix {@link #indexSuffix}, and a line for each
+ * block of about {@link #indexBlockSize} bytes written to the file: The byte offset of the start and end
+ * of the block, and the smallest and largest timestamp, in microseconds, of the log lines in it, separated by tabs.
+ * Blocks always start and end at line boundaries. Data which is not covered by the index, e.g., the block
+ * currently being written, must be scanned by readers.
+ * <p>
  * This class is not thread-safe.
  *
  * @author Bjorn Borud
@@ -23,7 +37,19 @@ public class LogWriter {
     private final int resumeLimit = 95;
     private final int resumeLimitSize = (maxSize * resumeLimit / 100);
     private File currentFile;
-    private Writer writer;
+    private OutputStream writer;
+    private Writer indexWriter;
+
+    /** The number of bytes covered by each index entry */
+    static final int indexBlockSize = 1 << 16;
+
+    /** The suffix of index files, which is appended to the name of the log file they index */
+    public static final String indexSuffix = ".idx";
+
+    private long blockStart;
+    private long blockMinMicros;
+    private long blockMaxMicros;
+    private int blockLines = 0;
     private final String prefix;
     private final FilesArchived archive;
 
@@ -45,7 +71,7 @@ public class LogWriter {
      * <LI> when we have filled the file and want to rotate it
      * </UL>
      */
-    private Writer nextWriter() throws IOException {
+    private OutputStream nextWriter() throws IOException {
         close();
         int maxAttempts = 1000;
         while (maxAttempts-- > 0) {
@@ -60,16 +86,15 @@ public class LogWriter {
 
             // if compressed version exists we skip it
             if ((new File(name + ".gz").exists())
-                    || (new File(name + ".bz2").exists())) {
+                    || (new File(name + ".bz2").exists())
+                    || (new File(name + FilesArchived.compressedSuffix).exists())) {
                 continue;
             }
 
             // if file does not exist we have a winner
             if (! f.exists()) {
                 log.log(Level.FINE, "nextWriter, new file: " + name);
-                currentFile = f;
-                bytesWritten = 0;
-                return new FileWriter(f, true);
+                return open(f, 0);
             }
 
             // just skip over directories for now
@@ -81,9 +106,7 @@ public class LogWriter {
             // if the size is < resumeSizeLimit then we open it
             if (f.length() < resumeLimitSize) {
                 log.fine("nextWriter, resuming " + name + ", length was " + f.length());
-                currentFile = f;
-                bytesWritten = f.length();
-                return new FileWriter(f, true);
+                return open(f, f.length());
             } else {
 
                 log.fine("nextWriter, not resuming " + name
@@ -96,14 +119,38 @@ public class LogWriter {
         throw new RuntimeException("Unable to create next log file");
     }
 
-    public void write(String str) throws IOException {
+    private OutputStream open(File f, long length) throws IOException {
+        archive.opened(f);
+        currentFile = f;
+        bytesWritten = length;
+        blockStart = length;
+        blockLines = 0;
+        indexWriter = new FileWriter(f.getPath() + indexSuffix, UTF_8, true);
+        return new BufferedOutputStream(new FileOutputStream(f, true));
+    }
+
+    /** Writes the given log line, which must be terminated by a newline, and which has the given timestamp */
+    public void write(String str, Instant timestamp) throws IOException {
         if (writer == null) {
             writer = nextWriter();
             archive.triggerMaintenance();
         }
 
-        bytesWritten += str.length();
-        writer.write(str, 0, str.length());
+        byte[] bytes = str.getBytes(UTF_8);
+        bytesWritten += bytes.length;
+        writer.write(bytes);
+
+        long micros = timestamp.getEpochSecond() * 1_000_000 + timestamp.getNano() / 1000;
+        if (blockLines++ == 0) {
+            blockMinMicros = micros;
+            blockMaxMicros = micros;
+        }
+        else {
+            blockMinMicros = Math.min(blockMinMicros, micros);
+            blockMaxMicros = Math.max(blockMaxMicros, micros);
+        }
+        if (bytesWritten - blockStart >= indexBlockSize)
+            writeIndexEntry();
 
         if (bytesWritten >= maxSize) {
             log.fine("logfile '"
@@ -118,6 +165,7 @@ public class LogWriter {
     public synchronized void flush() throws IOException {
         if (writer != null) {
             writer.flush();
+            indexWriter.flush();
         }
     }
 
@@ -126,6 +174,18 @@ public class LogWriter {
             writer.flush();
             writer.close();
             writer = null;
+            writeIndexEntry();
+            indexWriter.close();
+            indexWriter = null;
+            archive.closed(currentFile);
         }
     }
+
+    /** Adds an entry for the current block to the index, if the block is non-empty, and starts a new block */
+    private void writeIndexEntry() throws IOException {
+        if (blockLines == 0) return;
+        indexWriter.write(blockStart + "\t" + bytesWritten + "\t" + blockMinMicros + "\t" + blockMaxMicros + "\n");
+        blockStart = bytesWritten;
+        blockLines = 0;
+    }
 }
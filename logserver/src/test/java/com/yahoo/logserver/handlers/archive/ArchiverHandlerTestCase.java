@@ -12,7 +12,10 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -201,6 +204,35 @@ public class ArchiverHandlerTestCase {
 
     }
 
+    /**
+     * Make sure a time index covering all the written lines is written next to the log file
+     */
+    @Test
+    public void testIndex() throws IOException {
+        File tmpDir = temporaryFolder.newFolder();
+
+        ArchiverHandler a = new ArchiverHandler(tmpDir.getAbsolutePath(), 1 << 20);
+        int messageLength = msg[0].toString().length();
+        int messageCount = 2 * LogWriter.indexBlockSize / messageLength + 2; // Two full blocks and a partial one
+        for (int i = 0; i < messageCount; i++)
+            a.handle(msg[0]);
+        a.close();
+
+        String name = a.getPrefix(msg[0]) + "-0";
+        List<String> entries = Files.readAllLines(Paths.get(name + LogWriter.indexSuffix));
+        assertEquals(3, entries.size());
+        long position = 0;
+        for (String entry : entries) {
+            String[] parts = entry.split("\t");
+            assertEquals(position, Long.parseLong(parts[0]));
+            assertEquals(0, (Long.parseLong(parts[1]) - position) % messageLength);
+            assertEquals(1095159244095000L, Long.parseLong(parts[2]));
+            assertEquals(1095159244095000L, Long.parseLong(parts[3]));
+            position = Long.parseLong(parts[1]);
+        }
+        assertEquals(new File(name).length(), position);
+    }
+
     @Test
     public void testCacheEldestEntry() throws IOException {
         LogWriterLRUCache cache = new LogWriterLRUCache(5, (float) 0.75);
@@ -2,16 +2,22 @@
 
 package com.yahoo.logserver.handlers.archive;
 
+import com.yahoo.compress.BlockCompressedInputStream;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 
@@ -81,25 +87,25 @@ public class FilesArchivedTestCase {
         dumpFiles("after archive maintenance");
         checkExist("foo/bar");
         checkExist("2018/12/31/17-0");
-        checkExist("2018/12/31/16-0");
-        checkExist("2018/12/31/14-0.gz");
-        checkExist("2018/12/28/13-0.gz");
-        checkExist("2018/12/29/13-0.gz");
-        checkExist("2018/12/30/13-0.gz");
+        checkExist("2018/12/31/16-0.lz4");
+        checkExist("2018/12/31/14-0.lz4");
+        checkExist("2018/12/28/13-0.lz4");
+        checkExist("2018/12/29/13-0.lz4");
+        checkExist("2018/12/30/13-0.lz4");
 
-        checkNoExist("2018/12/31/17-0.gz");
-        checkNoExist("2018/12/31/16-0.gz");
+        checkNoExist("2018/12/31/17-0.lz4");
+        checkNoExist("2018/12/31/16-0");
         checkNoExist("2018/12/31/14-0");
         checkNoExist("2018/12/28/13-0");
         checkNoExist("2018/12/29/13-0");
         checkNoExist("2018/12/30/13-0");
 
         checkNoExist("2018/11/20/13-0");
-        checkNoExist("2018/11/20/13-0.gz");
+        checkNoExist("2018/11/20/13-0.lz4");
         checkNoExist("2018/11/21/13-0");
-        checkNoExist("2018/11/21/13-0.gz");
+        checkNoExist("2018/11/21/13-0.lz4");
 
-        makeLogfile("2018/12/31/16-0", 3);
+        makeLogfile("2018/12/31/16-1", 3);
         makeLogfile("2018/12/31/17-0", 3);
         makeLogfile("2018/12/31/17-1", 1);
         makeLogfile("2018/12/31/17-2", 0);
@@ -109,15 +115,54 @@ public class FilesArchivedTestCase {
         dumpFiles("after second archive maintenance");
 
         checkExist("2018/12/31/17-2");
-        checkExist("2018/12/31/17-1");
-        checkExist("2018/12/31/16-0.gz");
-        checkExist("2018/12/31/17-0.gz");
+        checkExist("2018/12/31/17-1.lz4");
+        checkExist("2018/12/31/16-1.lz4");
+        checkExist("2018/12/31/17-0.lz4");
 
-        checkNoExist("2018/12/31/16-0");
+        checkNoExist("2018/12/31/17-1");
+        checkNoExist("2018/12/31/16-1");
         checkNoExist("2018/12/31/17-0");
         checkExist("foo/bar");
     }
 
+    @Test
+    public void testOpenFilesAreNotCompressed() throws IOException {
+        tmpDir = temporaryFolder.newFolder();
+
+        makeLogfile("2018/12/31/15-0", 3);
+        FilesArchived a = new FilesArchived(tmpDir);
+        a.opened(new File(tmpDir, "2018/12/31/15-0"));
+        a.maintenance();
+        checkExist("2018/12/31/15-0");
+        checkNoExist("2018/12/31/15-0.lz4");
+
+        a.closed(new File(tmpDir, "2018/12/31/15-0"));
+        a.maintenance();
+        checkNoExist("2018/12/31/15-0");
+        checkExist("2018/12/31/15-0.lz4");
+    }
+
+    @Test
+    public void testCompressedFilesCanBeRead() throws IOException {
+        tmpDir = temporaryFolder.newFolder();
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10000; i++)
+            content.append(i).append("\thost\t1/2\tservice\tcomponent\tinfo\tpayload").append(i).append("\n");
+        File f = new File(tmpDir, "2018/12/31/15-0");
+        f.getParentFile().mkdirs();
+        Files.write(f.toPath(), content.toString().getBytes(UTF_8));
+        f.setLastModified(System.currentTimeMillis() - 3600 * 1000);
+
+        new FilesArchived(tmpDir).maintenance();
+        checkNoExist("2018/12/31/15-0");
+        File compressed = new File(tmpDir, "2018/12/31/15-0.lz4");
+        assertTrue(compressed.length() < content.length() / 2);
+        try (InputStream in = new BlockCompressedInputStream(new FileInputStream(compressed))) {
+            assertEquals(content.toString(), new String(in.readAllBytes(), UTF_8));
+        }
+    }
+
     private void dumpFiles(String header) {
         System.out.println(">>> " + header + " >>> :");
         List<String> seen = scanDir(tmpDir);
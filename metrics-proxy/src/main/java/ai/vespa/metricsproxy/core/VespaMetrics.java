@@ -11,6 +11,8 @@ import ai.vespa.metricsproxy.metric.model.ConsumerId;
 import ai.vespa.metricsproxy.metric.model.DimensionId;
 import ai.vespa.metricsproxy.metric.model.MetricsPacket;
 import ai.vespa.metricsproxy.service.VespaService;
+import com.yahoo.component.AbstractComponent;
+import com.yahoo.concurrent.DaemonThreadFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -21,6 +23,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import static ai.vespa.metricsproxy.metric.dimensions.PublicDimensions.INTERNAL_SERVICE_ID;
@@ -32,7 +37,7 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 /**
  * @author gjoranv
  */
-public class VespaMetrics {
+public class VespaMetrics extends AbstractComponent {
 
     public static final ConsumerId vespaMetricsConsumerId = toConsumerId("Vespa");
 
@@ -43,10 +48,22 @@ public class VespaMetrics {
 
     private static final MetricsFormatter formatter = new MetricsFormatter(false, false);
 
+    /** The max number of services to fetch metrics from concurrently */
+    private static final int MAX_CONCURRENT_FETCHES = 32;
+
+    private final ExecutorService fetchExecutor =
+            Executors.newFixedThreadPool(MAX_CONCURRENT_FETCHES, new DaemonThreadFactory("vespa-metrics-fetcher-"));
+
     public VespaMetrics(MetricsConsumers metricsConsumers) {
         this.metricsConsumers = metricsConsumers;
     }
 
+    @Override
+    public void deconstruct() {
+        fetchExecutor.shutdownNow();
+        super.deconstruct();
+    }
+
     public List<MetricsPacket> getHealthMetrics(List<VespaService> services) {
         List<MetricsPacket> result = new ArrayList<>();
         for (VespaService s : services) {
@@ -71,15 +88,26 @@ public class VespaMetrics {
         List<MetricsPacket.Builder> metricsPackets = new ArrayList<>();
 
         Map<ConsumersConfig.Consumer.Metric, List<ConsumerId>> consumersByMetric = metricsConsumers.getConsumersByMetric();
+        Set<String> configuredMetricNames = consumersByMetric.keySet().stream()
+                .map(ConsumersConfig.Consumer.Metric::name)
+                .collect(Collectors.toSet());
+
+        // Fetch from all services in parallel, skipping metrics no consumer wants while parsing
+        List<CompletableFuture<Metrics>> fetchedMetrics = services.stream()
+                .map(service -> CompletableFuture.supplyAsync(() -> service.getMetrics(configuredMetricNames::contains),
+                                                              fetchExecutor))
+                .collect(Collectors.toList());
 
-        for (VespaService service : services) {
+        for (int i = 0; i < services.size(); i++) {
+            VespaService service = services.get(i);
             // One metrics packet for system metrics
             Optional<MetricsPacket.Builder> systemCheck = getSystemMetrics(service);
             systemCheck.ifPresent(metricsPackets::add);
 
-            Metrics allServiceMetrics = service.getMetrics();
+            Metrics allServiceMetrics = fetchedMetrics.get(i).join();
 
-            if (! allServiceMetrics.getMetrics().isEmpty()) {
+            // Decide on whether the service returned any metrics, not on whether any are configured for a consumer
+            if (allServiceMetrics.hasMetricsBeforeFiltering()) {
                 Metrics serviceMetrics = getServiceMetrics(allServiceMetrics, consumersByMetric);
 
                 // One metrics packet per set of metrics that share the same dimensions+consumers
@@ -8,8 +8,14 @@ import ai.vespa.metricsproxy.metric.model.MetricsPacket;
 import ai.vespa.metricsproxy.metric.model.json.JsonRenderingException;
 import ai.vespa.metricsproxy.service.VespaServices;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -26,21 +32,102 @@ public class ValuesFetcher {
 
     public static final ConsumerId defaultMetricsConsumerId = toConsumerId("default");
 
+    /** How long a rendered response may be reused for further requests by the same consumer */
+    static final Duration RENDERED_VALUES_MAX_AGE = Duration.ofSeconds(10);
+
     private final MetricsManager metricsManager;
     private final VespaServices vespaServices;
     private final MetricsConsumers metricsConsumers;
+    private final Clock clock;
+
+    /** The latest rendered values, or the values being rendered, per consumer */
+    private final Map<ConsumerId, CompletableFuture<RenderedValues>> renderedValues = new ConcurrentHashMap<>();
 
     public ValuesFetcher(MetricsManager metricsManager,
                   VespaServices vespaServices,
                   MetricsConsumers metricsConsumers) {
+        this(metricsManager, vespaServices, metricsConsumers, Clock.systemUTC());
+    }
+
+    ValuesFetcher(MetricsManager metricsManager,
+                  VespaServices vespaServices,
+                  MetricsConsumers metricsConsumers,
+                  Clock clock) {
         this.metricsManager = metricsManager;
         this.vespaServices = vespaServices;
         this.metricsConsumers = metricsConsumers;
+        this.clock = clock;
     }
 
-    public List<MetricsPacket> fetch(String requestedConsumer) throws JsonRenderingException {
+    /**
+     * Returns the metrics for the given consumer, rendered by the given renderer. The rendered values are
+     * reused for requests by the same consumer for a short while, such that concurrent and frequent requests,
+     * e.g. from several scrapers, do not each fetch metrics from all services and render them.
+     * Each fetcher must only be used with a single renderer.
+     */
+    public String fetchRendered(String requestedConsumer, Renderer renderer) {
         ConsumerId consumer = getConsumerOrDefault(requestedConsumer, metricsConsumers);
+        while (true) {
+            CompletableFuture<RenderedValues> rendering = new CompletableFuture<>();
+            CompletableFuture<RenderedValues> current = renderedValues.putIfAbsent(consumer, rendering);
+            if (current == null) // Fetch and render outside the map, such that other consumers are not blocked
+                return render(consumer, renderer, rendering);
+            if ( ! current.isDone()) // Another request is rendering these values: Wait for it
+                return join(current).values;
+
+            RenderedValues values = current.join(); // Failed renderings are never left in the map
+            if (values.renderedAt.plus(RENDERED_VALUES_MAX_AGE).isAfter(clock.instant())) return values.values;
+            renderedValues.remove(consumer, current);
+        }
+    }
+
+    private String render(ConsumerId consumer, Renderer renderer, CompletableFuture<RenderedValues> rendering) {
+        try {
+            Instant now = clock.instant();
+            rendering.complete(new RenderedValues(now, renderer.render(fetch(consumer))));
+            return rendering.join().values;
+        }
+        catch (RuntimeException | Error e) {
+            renderedValues.remove(consumer, rendering);
+            rendering.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static RenderedValues join(CompletableFuture<RenderedValues> rendering) {
+        try {
+            return rendering.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    public interface Renderer {
+
+        String render(List<MetricsPacket> metrics);
+
+    }
+
+    private static class RenderedValues {
+
+        private final Instant renderedAt;
+        private final String values;
+
+        RenderedValues(Instant renderedAt, String values) {
+            this.renderedAt = renderedAt;
+            this.values = values;
+        }
+
+    }
+
+    public List<MetricsPacket> fetch(String requestedConsumer) throws JsonRenderingException {
+        return fetch(getConsumerOrDefault(requestedConsumer, metricsConsumers));
+    }
 
+    private List<MetricsPacket> fetch(ConsumerId consumer) {
         return fetchAllMetrics()
                 .stream()
                 .filter(metricsPacket -> metricsPacket.consumers().contains(consumer))
@@ -4,7 +4,6 @@ package ai.vespa.metricsproxy.http.metrics;
 import ai.vespa.metricsproxy.core.MetricsConsumers;
 import ai.vespa.metricsproxy.core.MetricsManager;
 import ai.vespa.metricsproxy.http.ValuesFetcher;
-import ai.vespa.metricsproxy.metric.model.MetricsPacket;
 import ai.vespa.metricsproxy.service.VespaServices;
 import com.google.inject.Inject;
 import com.yahoo.container.handler.metrics.ErrorResponse;
@@ -53,8 +52,8 @@ public class MetricsV1Handler extends HttpHandlerBase {
 
     private JsonResponse valuesResponse(String consumer) {
         try {
-            List<MetricsPacket> metrics =  valuesFetcher.fetch(consumer);
-            return new JsonResponse(OK, toGenericJsonModel(metrics).serialize());
+            String values = valuesFetcher.fetchRendered(consumer, metrics -> toGenericJsonModel(metrics).serialize());
+            return new JsonResponse(OK, values);
         } catch (Exception e) {
             log.log(Level.WARNING, "Got exception when rendering metrics:", e);
             return new ErrorResponse(INTERNAL_SERVER_ERROR, e.getMessage());
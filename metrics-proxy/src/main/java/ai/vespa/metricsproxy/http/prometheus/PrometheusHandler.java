@@ -5,7 +5,6 @@ import ai.vespa.metricsproxy.core.MetricsConsumers;
 import ai.vespa.metricsproxy.core.MetricsManager;
 import ai.vespa.metricsproxy.http.TextResponse;
 import ai.vespa.metricsproxy.http.ValuesFetcher;
-import ai.vespa.metricsproxy.metric.model.MetricsPacket;
 import ai.vespa.metricsproxy.service.VespaServices;
 import com.google.inject.Inject;
 import com.yahoo.container.handler.metrics.HttpHandlerBase;
@@ -50,8 +49,8 @@ public class PrometheusHandler extends HttpHandlerBase {
 
     private TextResponse valuesResponse(String consumer) {
         try {
-            List<MetricsPacket> metrics =  valuesFetcher.fetch(consumer);
-            return new TextResponse(OK, toPrometheusModel(metrics).serialize());
+            String values = valuesFetcher.fetchRendered(consumer, metrics -> toPrometheusModel(metrics).serialize());
+            return new TextResponse(OK, values);
         } catch (Exception e) {
             log.log(Level.WARNING, "Got exception when rendering metrics:", e);
             return new TextResponse(INTERNAL_SERVER_ERROR, e.getMessage());
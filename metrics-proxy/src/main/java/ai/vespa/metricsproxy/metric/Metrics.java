@@ -16,6 +16,7 @@ public class Metrics {
     private final List<Metric> metrics = new ArrayList<>();
     private long timestamp;
     private boolean isFrozen = false;
+    private boolean skippedMetrics = false;
 
     public Metrics() {
         this(System.currentTimeMillis() / 1000L);
@@ -79,6 +80,17 @@ public class Metrics {
         return Collections.unmodifiableList(metrics);
     }
 
+    /** Records that the service returned metrics which were skipped by a filter when creating this */
+    public void setSkippedMetrics() {
+        ensureNotFrozen();
+        this.skippedMetrics = true;
+    }
+
+    /** Returns whether the service returned any metrics, including any skipped by a filter when creating this */
+    public boolean hasMetricsBeforeFiltering() {
+        return skippedMetrics || ! metrics.isEmpty();
+    }
+
 
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -3,6 +3,8 @@ package ai.vespa.metricsproxy.service;
 
 import ai.vespa.metricsproxy.metric.Metrics;
 
+import java.util.function.Predicate;
+
 /**
  * Dummy class used for getting health status for a vespa service that has no HTTP service
  * for getting metrics
@@ -21,7 +23,8 @@ public class DummyMetricsFetcher extends RemoteMetricsFetcher {
     /**
      * Connect to remote service over http and fetch metrics
      */
-    public Metrics getMetrics(int fetchCount) {
+    @Override
+    public Metrics getMetrics(int fetchCount, Predicate<String> metricFilter) {
         return new Metrics();
     }
 }
@@ -4,12 +4,18 @@ package ai.vespa.metricsproxy.service;
 import ai.vespa.util.http.VespaHttpClientBuilder;
 import java.util.logging.Level;
 import com.yahoo.yolean.Exceptions;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.HttpResponseException;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.BasicResponseHandler;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.logging.Logger;
 
@@ -26,6 +32,9 @@ public abstract class HttpMetricFetcher {
     // The call to apache will do 3 retries. As long as we check the services in series, we can't have this too high.
     public static int CONNECTION_TIMEOUT = 5000;
     private final static int SOCKET_TIMEOUT = 60000;
+    // Services are polled in parallel, see VespaMetrics
+    private final static int MAX_CONNECTIONS_PER_SERVICE = 2;
+    private final static int MAX_CONNECTIONS = 128;
     private final URI url;
     protected final VespaService service;
     private static final CloseableHttpClient httpClient = createHttpClient();
@@ -48,6 +57,23 @@ public abstract class HttpMetricFetcher {
         return httpClient.execute(new HttpGet(url), new BasicResponseHandler());
     }
 
+    /** Fetches the response and passes its content as a stream to the given handler, without buffering it */
+    <T> T getJson(ContentHandler<T> contentHandler) throws IOException {
+        log.log(Level.FINE, "Connecting to url " + url + " for service '" + service + "'");
+        return httpClient.execute(new HttpGet(url), response -> {
+            StatusLine status = response.getStatusLine();
+            HttpEntity entity = response.getEntity();
+            if (status.getStatusCode() >= 300) {
+                EntityUtils.consume(entity);
+                throw new HttpResponseException(status.getStatusCode(), status.getReasonPhrase());
+            }
+            if (entity == null) throw new ClientProtocolException("Response contains no content");
+            try (InputStream content = entity.getContent()) {
+                return contentHandler.handle(content);
+            }
+        });
+    }
+
     public String toString() {
         return this.getClass().getSimpleName() + " using " + url;
     }
@@ -57,6 +83,13 @@ public abstract class HttpMetricFetcher {
                 Exceptions.toMessageString(e);
     }
 
+    /** Handles the content of a response */
+    interface ContentHandler<T> {
+
+        T handle(InputStream content) throws IOException;
+
+    }
+
     void handleException(Exception e, String data, int timesFetched) {
         logMessage("Unable to parse json '" + data + "' for service '" + service + "': " +
                            Exceptions.toMessageString(e), timesFetched);
@@ -81,6 +114,8 @@ public abstract class HttpMetricFetcher {
     private static CloseableHttpClient createHttpClient() {
         return VespaHttpClientBuilder.create()
                 .setUserAgent("metrics-proxy-http-client")
+                .setMaxConnPerRoute(MAX_CONNECTIONS_PER_SERVICE)
+                .setMaxConnTotal(MAX_CONNECTIONS)
                 .setDefaultRequestConfig(RequestConfig.custom()
                                                  .setConnectTimeout(CONNECTION_TIMEOUT)
                                                  .setSocketTimeout(SOCKET_TIMEOUT)
@@ -4,20 +4,27 @@ package ai.vespa.metricsproxy.service;
 import ai.vespa.metricsproxy.metric.Metric;
 import ai.vespa.metricsproxy.metric.Metrics;
 import ai.vespa.metricsproxy.metric.model.DimensionId;
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
 import static ai.vespa.metricsproxy.metric.model.DimensionId.toDimensionId;
 
 /**
- * Fetch metrics for a given vespa service
+ * Fetch metrics for a given vespa service.
+ * The response is parsed as a stream, and only metrics accepted by the given filter are created.
  *
  * @author Jo Kristian Bergum
  */
@@ -25,6 +32,8 @@ public class RemoteMetricsFetcher extends HttpMetricFetcher {
 
     final static String METRICS_PATH = STATE_PATH + "metrics";
 
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
     RemoteMetricsFetcher(VespaService service, int port) {
         super(service, port, METRICS_PATH);
     }
@@ -33,23 +42,33 @@ public class RemoteMetricsFetcher extends HttpMetricFetcher {
      * Connect to remote service over http and fetch metrics
      */
     public Metrics getMetrics(int fetchCount) {
-        String data = "{}";
+        return getMetrics(fetchCount, metricName -> true);
+    }
+
+    /**
+     * Connect to remote service over http and fetch the metrics whose full name (including aggregator)
+     * is accepted by the given filter
+     */
+    public Metrics getMetrics(int fetchCount, Predicate<String> metricFilter) {
         try {
-            data = getJson();
+            return getJson(content -> createMetrics(content, metricFilter, fetchCount));
         } catch (IOException e) {
             logMessageNoResponse(errMsgNoResponse(e), fetchCount);
+            return new Metrics();
         }
-
-        return createMetrics(data, fetchCount);
     }
 
     /**
-     * Connect to remote service over http and fetch metrics
+     * Parses the given metrics response
      */
     Metrics createMetrics(String data, int fetchCount) {
+        return createMetrics(data, metricName -> true, fetchCount);
+    }
+
+    Metrics createMetrics(String data, Predicate<String> metricFilter, int fetchCount) {
         Metrics remoteMetrics = new Metrics();
-        try {
-            remoteMetrics = parse(data);
+        try (JsonParser parser = jsonFactory.createParser(data)) {
+            remoteMetrics = parse(parser, metricFilter);
         } catch (Exception e) {
             handleException(e, data, fetchCount);
         }
@@ -57,69 +76,161 @@ public class RemoteMetricsFetcher extends HttpMetricFetcher {
         return remoteMetrics;
     }
 
-    private Metrics parse(String data) throws JSONException {
-        JSONObject o = new JSONObject(data);
-        if (!(o.has("metrics"))) {
-            return new Metrics(); //empty
+    private Metrics createMetrics(InputStream data, Predicate<String> metricFilter, int fetchCount) {
+        Metrics remoteMetrics = new Metrics();
+        try (JsonParser parser = jsonFactory.createParser(data)) {
+            remoteMetrics = parse(parser, metricFilter);
+        } catch (Exception e) {
+            handleException(e, "<streamed response>", fetchCount);
         }
 
-        JSONObject metrics = o.getJSONObject("metrics");
-        JSONArray values;
-        long timestamp;
+        return remoteMetrics;
+    }
 
-        try {
-            JSONObject snapshot = metrics.getJSONObject("snapshot");
-            timestamp = (long) snapshot.getDouble("to");
-            values = metrics.getJSONArray("values");
-        } catch (JSONException e) {
-            // snapshot might not have been produced. Do not throw exception into log
-            return new Metrics();
+    private Metrics parse(JsonParser parser, Predicate<String> metricFilter) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT)
+            throw new JsonParseException(parser, "Expected a json object");
+
+        Long timestamp = null;
+        List<MetricValue> values = null;
+        AtomicBoolean skippedMetrics = new AtomicBoolean(false);
+        Predicate<String> recordingFilter = metricName -> {
+            if (metricFilter.test(metricName)) return true;
+            skippedMetrics.set(true);
+            return false;
+        };
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ( ! field.equals("metrics") || parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String metricsField = parser.getCurrentName();
+                parser.nextToken();
+                if (metricsField.equals("snapshot") && parser.currentToken() == JsonToken.START_OBJECT)
+                    timestamp = parseSnapshotEnd(parser);
+                else if (metricsField.equals("values") && parser.currentToken() == JsonToken.START_ARRAY)
+                    values = parseValues(parser, recordingFilter);
+                else
+                    parser.skipChildren();
+            }
         }
+
+        // snapshot might not have been produced. Do not throw exception into log
+        if (timestamp == null || values == null) return new Metrics();
+
         long now = System.currentTimeMillis() / 1000;
-        timestamp = Metric.adjustTime(timestamp, now);
-        Metrics m = new Metrics(timestamp);
+        long adjustedTimestamp = Metric.adjustTime(timestamp, now);
+        Metrics m = new Metrics(adjustedTimestamp);
+        for (MetricValue value : values)
+            m.add(new Metric(value.name, value.value, adjustedTimestamp, value.dimensions, value.description));
+        if (skippedMetrics.get())
+            m.setSkippedMetrics();
+        return m;
+    }
 
+    private static Long parseSnapshotEnd(JsonParser parser) throws IOException {
+        Long to = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if (field.equals("to") && parser.currentToken().isNumeric())
+                to = (long) parser.getDoubleValue();
+            else
+                parser.skipChildren();
+        }
+        return to;
+    }
+
+    private static List<MetricValue> parseValues(JsonParser parser, Predicate<String> metricFilter) throws IOException {
+        List<MetricValue> values = new ArrayList<>();
         Map<DimensionId, String> noDims = Collections.emptyMap();
-        Map<String, Map<DimensionId, String>> uniqueDimensions = new HashMap<>();
-        for (int i = 0; i < values.length(); i++) {
-            JSONObject metric = values.getJSONObject(i);
-            String name = metric.getString("name");
+        Map<Map<String, String>, Map<DimensionId, String>> uniqueDimensions = new HashMap<>();
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String name = null;
             String description = "";
-
-            if (metric.has("description")) {
-                description = metric.getString("description");
-            }
-
-            Map<DimensionId, String> dim = noDims;
-            if (metric.has("dimensions")) {
-                JSONObject dimensions = metric.getJSONObject("dimensions");
-                StringBuilder sb = new StringBuilder();
-                for (Iterator<?> it = dimensions.keys(); it.hasNext(); ) {
-                    String k = (String) it.next();
-                    String v = dimensions.getString(k);
-                    sb.append(toDimensionId(k)).append(v);
+            Map<DimensionId, String> dimensions = noDims;
+            Map<String, Number> aggregates = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "name":
+                        name = parser.getValueAsString();
+                        break;
+                    case "description":
+                        description = parser.getValueAsString();
+                        break;
+                    case "dimensions":
+                        dimensions = parseDimensions(parser, uniqueDimensions);
+                        break;
+                    case "values":
+                        aggregates = parseAggregates(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
                 }
-                if ( ! uniqueDimensions.containsKey(sb.toString())) {
-                    dim = new HashMap<>();
-                    for (Iterator<?> it = dimensions.keys(); it.hasNext(); ) {
-                        String k = (String) it.next();
-                        String v = dimensions.getString(k);
-                        dim.put(toDimensionId(k), v);
-                    }
-                    uniqueDimensions.put(sb.toString(), Collections.unmodifiableMap(dim));
-                }
-                dim = uniqueDimensions.get(sb.toString());
             }
+            if (name == null) throw new JsonParseException(parser, "Metric without a name");
+            if (aggregates == null) throw new JsonParseException(parser, "Metric '" + name + "' without values");
 
-            JSONObject aggregates = metric.getJSONObject("values");
-            for (Iterator<?> it = aggregates.keys(); it.hasNext(); ) {
-                String aggregator = (String) it.next();
-                Number value = (Number) aggregates.get(aggregator);
-                StringBuilder metricName = (new StringBuilder()).append(name).append(".").append(aggregator);
-                m.add(new Metric(metricName.toString(), value, timestamp, dim, description));
+            for (Map.Entry<String, Number> aggregate : aggregates.entrySet()) {
+                String metricName = name + "." + aggregate.getKey();
+                if (metricFilter.test(metricName))
+                    values.add(new MetricValue(metricName, aggregate.getValue(), dimensions, description));
             }
         }
+        return values;
+    }
 
-        return m;
+    private static Map<DimensionId, String> parseDimensions(JsonParser parser,
+                                                            Map<Map<String, String>, Map<DimensionId, String>> uniqueDimensions) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT)
+            throw new JsonParseException(parser, "Expected dimensions to be an object");
+
+        Map<String, String> dimensions = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            parser.nextToken();
+            dimensions.put(key, parser.getValueAsString());
+        }
+        return uniqueDimensions.computeIfAbsent(dimensions, key -> {
+            Map<DimensionId, String> dim = new HashMap<>();
+            key.forEach((name, value) -> dim.put(toDimensionId(name), value));
+            return Collections.unmodifiableMap(dim);
+        });
     }
+
+    private static Map<String, Number> parseAggregates(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT)
+            throw new JsonParseException(parser, "Expected values to be an object");
+
+        Map<String, Number> aggregates = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String aggregator = parser.getCurrentName();
+            if ( ! parser.nextToken().isNumeric())
+                throw new JsonParseException(parser, "Value of '" + aggregator + "' is not a number");
+            aggregates.put(aggregator, parser.getNumberValue());
+        }
+        return aggregates;
+    }
+
+    private static class MetricValue {
+
+        private final String name;
+        private final Number value;
+        private final Map<DimensionId, String> dimensions;
+        private final String description;
+
+        MetricValue(String name, Number value, Map<DimensionId, String> dimensions, String description) {
+            this.name = name;
+            this.value = value;
+            this.dimensions = dimensions;
+            this.description = description;
+        }
+
+    }
+
 }
@@ -8,6 +8,7 @@ import ai.vespa.metricsproxy.metric.model.DimensionId;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 
 /**
@@ -138,7 +139,18 @@ public class VespaService implements Comparable<VespaService> {
      * @return the non-system metrics
      */
     public Metrics getMetrics() {
-        Metrics remoteMetrics = remoteMetricsFetcher.getMetrics(metricsFetchCount.get());
+        return getMetrics(metricName -> true);
+    }
+
+    /**
+     * Get the Metrics registered for this service which are accepted by the given filter.
+     * Metrics not accepted are skipped while parsing the response from the service.
+     *
+     * @param metricFilter a filter on the full metric name, including the aggregator
+     * @return the non-system metrics accepted by the filter
+     */
+    public Metrics getMetrics(Predicate<String> metricFilter) {
+        Metrics remoteMetrics = remoteMetricsFetcher.getMetrics(metricsFetchCount.get(), metricFilter);
         metricsFetchCount.getAndIncrement();
         return remoteMetrics;
     }
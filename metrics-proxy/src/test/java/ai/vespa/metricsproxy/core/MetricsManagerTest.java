@@ -25,6 +25,7 @@ import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import static ai.vespa.metricsproxy.core.MetricsManager.VESPA_VERSION;
 import static ai.vespa.metricsproxy.core.VespaMetrics.METRIC_TYPE_DIMENSION_ID;
@@ -77,6 +78,24 @@ public class MetricsManagerTest {
         assertThat(packets.get(0).dimensions().get(toDimensionId("global")), is("value"));
     }
 
+    @Test
+    public void service_with_only_unconfigured_metrics_has_no_health_packet() {
+        var service = new DownService(HealthMetric.getDown("No response")) {
+            @Override
+            public Metrics getMetrics(Predicate<String> metricFilter) {
+                Metrics metrics = new Metrics();
+                metrics.setSkippedMetrics();
+                return metrics;
+            }
+        };
+        List<VespaService> testServices = Collections.singletonList(service);
+        MetricsManager metricsManager = TestUtil.createMetricsManager(new VespaServices(testServices),
+                                                                      getMetricsConsumers(), getApplicationDimensions(), getNodeDimensions());
+
+        List<MetricsPacket> packets = metricsManager.getMetrics(testServices, Instant.EPOCH);
+        assertTrue(packets.isEmpty());
+    }
+
     @Test
     public void each_service_gets_separate_metrics_packets() {
         List<MetricsPacket> packets = metricsManager.getMetrics(testServices, Instant.EPOCH);
@@ -44,6 +44,7 @@ public class IntegrationTester implements  AutoCloseable {
     private final RpcConnector connector;
     private final MockHttpServer mockHttpServer;
     private final VespaServices vespaServices;
+    private final VespaMetrics vespaMetrics;
 
     static {
         HttpMetricFetcher.CONNECTION_TIMEOUT = 60000; // 60 secs in unit tests
@@ -58,7 +59,7 @@ public class IntegrationTester implements  AutoCloseable {
 
         vespaServices = new VespaServices(servicesConfig(), monitoringConfig(), null);
         MetricsConsumers consumers = new MetricsConsumers(consumersConfig());
-        VespaMetrics vespaMetrics = new VespaMetrics(consumers);
+        vespaMetrics = new VespaMetrics(consumers);
         ExternalMetrics externalMetrics = new ExternalMetrics(consumers);
         ApplicationDimensions appDimensions = new ApplicationDimensions(applicationDimensionsConfig());
         NodeDimensions nodeDimensions = new NodeDimensions(nodeDimensionsConfig());
@@ -78,6 +79,7 @@ public class IntegrationTester implements  AutoCloseable {
     public void close() {
         mockHttpServer.close();
         this.connector.stop();
+        vespaMetrics.deconstruct();
     }
 
     private RpcConnectorConfig rpcConnectorConfig() {
@@ -4,6 +4,8 @@ package ai.vespa.metricsproxy.service;
 import ai.vespa.metricsproxy.metric.HealthMetric;
 import ai.vespa.metricsproxy.metric.Metrics;
 
+import java.util.function.Predicate;
+
 /**
  * @author gjoranv
  */
@@ -18,7 +20,7 @@ public class DownService extends VespaService {
     }
 
     @Override
-    public Metrics getMetrics() {
+    public Metrics getMetrics(Predicate<String> metricFilter) {
         return new Metrics();
     }
 
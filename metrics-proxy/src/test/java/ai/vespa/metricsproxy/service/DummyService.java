@@ -4,6 +4,8 @@ package ai.vespa.metricsproxy.service;
 import ai.vespa.metricsproxy.metric.Metric;
 import ai.vespa.metricsproxy.metric.Metrics;
 
+import java.util.function.Predicate;
+
 /**
  * @author Unknown
  */
@@ -20,7 +22,7 @@ public class DummyService extends VespaService {
     }
 
     @Override
-    public Metrics getMetrics() {
+    public Metrics getMetrics(Predicate<String> metricFilter) {
         Metrics m = new Metrics();
 
         long timestamp = System.currentTimeMillis() / 1000;
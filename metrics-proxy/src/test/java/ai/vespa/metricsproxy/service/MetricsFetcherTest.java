@@ -5,8 +5,12 @@ import ai.vespa.metricsproxy.TestUtil;
 import ai.vespa.metricsproxy.metric.Metrics;
 import org.junit.Test;
 
+import java.util.Set;
+
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 /**
  */
@@ -25,12 +29,33 @@ public class MetricsFetcherTest {
         assertThat(metrics.getTimeStamp(), is(1334134700L));
     }
 
+    @Test
+    public void testMetricsAreFilteredWhileParsing() {
+        String jsonData = TestUtil.getFileContents("metrics-state.json");
+        RemoteMetricsFetcher fetcher = new RemoteMetricsFetcher(new DummyService(0, "dummy/id/0"), port);
+        Metrics metrics = fetcher.createMetrics(jsonData, Set.of("query_hits.count", "queries.rate")::contains, 0);
+        assertThat(metrics.size(), is(2));
+        assertThat(metrics.getMetric("query_hits.count").getValue().intValue(), is(28));
+        assertThat(metrics.getMetric("queries.rate").getValue().doubleValue(), is(0.4667));
+        assertThat(metrics.getTimeStamp(), is(1334134700L));
+    }
+
+    @Test
+    public void testAllMetricsFilteredOut() {
+        String jsonData = TestUtil.getFileContents("metrics-state.json");
+        RemoteMetricsFetcher fetcher = new RemoteMetricsFetcher(new DummyService(0, "dummy/id/0"), port);
+        Metrics metrics = fetcher.createMetrics(jsonData, metricName -> false, 0);
+        assertThat(metrics.size(), is(0));
+        assertTrue(metrics.hasMetricsBeforeFiltering());
+    }
+
     @Test
     public void testEmptyJson() {
         String  jsonData = "{}";
         RemoteMetricsFetcher fetcher = new RemoteMetricsFetcher(new DummyService(0, "dummy/id/0"), port);
         Metrics metrics = fetcher.createMetrics(jsonData, 0);
         assertThat("Wrong number of metrics", metrics.size(), is(0));
+        assertFalse(metrics.hasMetricsBeforeFiltering());
     }
 
     @Test
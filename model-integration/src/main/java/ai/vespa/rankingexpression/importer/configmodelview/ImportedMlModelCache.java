@@ -0,0 +1,120 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.rankingexpression.importer.configmodelview;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A cache of imported models shared by all imports in this process, such that models which are unchanged
+ * since they were last imported, in this or another application package, are reused rather than imported again.
+ * Models are identified by the importer importing them, their name and a hash of their content.
+ * Models from importers which may read content outside the model path are not cached.
+ * As models may be large, cached models are softly referenced, such that they are dropped when memory is needed.
+ *
+ * @author bratseth
+ */
+class ImportedMlModelCache {
+
+    private static final int maxSize = 1000;
+
+    private final Map<Key, SoftReference<ImportedMlModel>> models = new ConcurrentHashMap<>();
+
+    /** Returns the model at the given path imported by the given importer, either from this cache or by importing it */
+    ImportedMlModel importModel(MlModelImporter importer, String modelName, File modelPath) {
+        if ( ! importer.importsModelPathOnly()) return importer.importModel(modelName, modelPath);
+
+        Key key = new Key(importer.getClass(), modelName, hashOf(modelPath));
+        SoftReference<ImportedMlModel> cached = models.get(key);
+        ImportedMlModel model = cached == null ? null : cached.get();
+        if (model != null) return model;
+
+        model = importer.importModel(modelName, modelPath);
+        if (models.size() >= maxSize)
+            models.values().removeIf(reference -> reference.get() == null);
+        if (models.size() >= maxSize)
+            models.clear();
+        models.put(key, new SoftReference<>(model));
+        return model;
+    }
+
+    /** Returns the number of models in this, including those which are dropped but not yet removed */
+    int size() { return models.size(); }
+
+    /** Returns a hash of the content of the given file, or of the names and content of all files below a directory */
+    private static String hashOf(File modelPath) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Path root = modelPath.toPath();
+            for (Path file : filesBelow(root)) {
+                digest.update(root.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte)0);
+                try (InputStream in = Files.newInputStream(file)) {
+                    byte[] buffer = new byte[65536];
+                    for (int read; (read = in.read(buffer)) >= 0; )
+                        digest.update(buffer, 0, read);
+                }
+            }
+            return toHex(digest.digest());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Could not read model at " + modelPath, e);
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Path> filesBelow(Path path) throws IOException {
+        if ( ! Files.isDirectory(path)) return List.of(path);
+        try (Stream<Path> files = Files.walk(path)) {
+            return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder b = new StringBuilder(bytes.length * 2);
+        for (byte value : bytes)
+            b.append(Character.forDigit((value >> 4) & 0xf, 16)).append(Character.forDigit(value & 0xf, 16));
+        return b.toString();
+    }
+
+    private static class Key {
+
+        private final Class<?> importer;
+        private final String modelName;
+        private final String contentHash;
+
+        Key(Class<?> importer, String modelName, String contentHash) {
+            this.importer = importer;
+            this.modelName = modelName;
+            this.contentHash = contentHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if ( ! (o instanceof Key)) return false;
+            Key other = (Key)o;
+            return importer == other.importer && modelName.equals(other.modelName) && contentHash.equals(other.contentHash);
+        }
+
+        @Override
+        public int hashCode() { return Objects.hash(importer, modelName, contentHash); }
+
+    }
+
+}
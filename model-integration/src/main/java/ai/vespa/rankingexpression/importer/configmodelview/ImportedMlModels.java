@@ -20,6 +20,9 @@ import java.util.Optional;
  */
 public class ImportedMlModels {
 
+    /** Models imported earlier in this process, which are reused if they are unchanged */
+    private static final ImportedMlModelCache cache = new ImportedMlModelCache();
+
     /** All imported models, indexed by their names */
     private final Map<String, ImportedMlModel> importedModels;
 
@@ -66,7 +69,7 @@ public class ImportedMlModels {
                 if (existing != null)
                     throw new IllegalArgumentException("The models in " + child + " and " + existing.source() +
                                                        " both resolve to the model name '" + name + "'");
-                models.put(name, importer.get().importModel(name, child));
+                models.put(name, cache.importModel(importer.get(), name, child));
             }
             else {
                 importRecursively(child, models, importers);
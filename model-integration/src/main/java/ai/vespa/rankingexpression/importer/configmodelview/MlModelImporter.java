@@ -14,4 +14,10 @@ public interface MlModelImporter {
 
     ImportedMlModel importModel(String modelName, File modelPath);
 
+    /**
+     * Returns whether the models imported by this are given by the content of the model path alone,
+     * such that an imported model can be reused as long as that content is unchanged.
+     */
+    default boolean importsModelPathOnly() { return false; }
+
 }
@@ -24,6 +24,9 @@ public class LightGBMImporter extends ModelImporter {
         return modelFile.toString().endsWith(".json") && probe(modelFile);
     }
 
+    @Override
+    public boolean importsModelPathOnly() { return true; }
+
     /**
      * Returns true if the give file looks like a LightGBM json file.
      * Currently, we just check if the json has an element called "tree_info"
@@ -26,6 +26,9 @@ public class OnnxImporter extends ModelImporter {
         return modelFile.toString().endsWith(".onnx");
     }
 
+    @Override
+    public boolean importsModelPathOnly() { return true; }
+
     @Override
     public ImportedModel importModel(String modelName, String modelPath) {
         try (FileInputStream inputStream = new FileInputStream(modelPath)) {
@@ -43,6 +43,9 @@ public class TensorFlowImporter extends ModelImporter {
         return false;
     }
 
+    @Override
+    public boolean importsModelPathOnly() { return true; }
+
     /**
      * Imports a saved TensorFlow model from a directory.
      * The model should be saved as a .pbtxt or .pb file.
@@ -27,6 +27,9 @@ public class XGBoostImporter extends ModelImporter {
         return modelFile.toString().endsWith(".json") && probe(modelFile);
     }
 
+    @Override
+    public boolean importsModelPathOnly() { return true; }
+
     /**
      * Returns true if the give file looks like an XGBoost json file.
      * Currently, we just check if the file has an array on the top level.
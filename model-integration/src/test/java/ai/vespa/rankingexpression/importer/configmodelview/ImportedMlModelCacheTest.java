@@ -0,0 +1,134 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package ai.vespa.rankingexpression.importer.configmodelview;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author bratseth
+ */
+public class ImportedMlModelCacheTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testModelsAreReusedWhileUnchanged() throws IOException {
+        ImportedMlModelCache cache = new ImportedMlModelCache();
+        CountingImporter importer = new CountingImporter(true);
+        File file = tempFolder.newFile("model.test");
+        Files.writeString(file.toPath(), "content");
+
+        ImportedMlModel model = cache.importModel(importer, "model", file);
+        assertSame(model, cache.importModel(importer, "model", file));
+        assertEquals(1, importer.imports);
+
+        File copy = new File(tempFolder.newFolder("other"), "model.test");
+        Files.writeString(copy.toPath(), "content");
+        assertSame("Same content in another location is reused", model, cache.importModel(importer, "model", copy));
+
+        assertNotSame(model, cache.importModel(importer, "other_model", file));
+        assertEquals(2, importer.imports);
+
+        Files.writeString(file.toPath(), "changed content");
+        assertNotSame(model, cache.importModel(importer, "model", file));
+        assertEquals(3, importer.imports);
+    }
+
+    @Test
+    public void testDirectoryModels() throws IOException {
+        ImportedMlModelCache cache = new ImportedMlModelCache();
+        CountingImporter importer = new CountingImporter(true);
+        File directory = tempFolder.newFolder("model");
+        Files.writeString(new File(directory, "a").toPath(), "a");
+        Files.writeString(new File(directory, "b").toPath(), "b");
+
+        ImportedMlModel model = cache.importModel(importer, "model", directory);
+        assertSame(model, cache.importModel(importer, "model", directory));
+
+        Files.writeString(new File(directory, "c").toPath(), "");
+        assertNotSame(model, cache.importModel(importer, "model", directory));
+        assertEquals(2, importer.imports);
+    }
+
+    @Test
+    public void testModelsFromImportersReadingOtherContentAreNotCached() throws IOException {
+        ImportedMlModelCache cache = new ImportedMlModelCache();
+        CountingImporter importer = new CountingImporter(false);
+        File file = tempFolder.newFile("model.test");
+
+        cache.importModel(importer, "model", file);
+        cache.importModel(importer, "model", file);
+        assertEquals(2, importer.imports);
+        assertEquals(0, cache.size());
+    }
+
+    private static class CountingImporter implements MlModelImporter {
+
+        private final boolean importsModelPathOnly;
+        int imports = 0;
+
+        CountingImporter(boolean importsModelPathOnly) {
+            this.importsModelPathOnly = importsModelPathOnly;
+        }
+
+        @Override
+        public boolean canImport(String modelPath) { return true; }
+
+        @Override
+        public boolean importsModelPathOnly() { return importsModelPathOnly; }
+
+        @Override
+        public ImportedMlModel importModel(String modelName, File modelPath) {
+            imports++;
+            return new TestModel(modelName, modelPath.toString());
+        }
+
+    }
+
+    private static class TestModel implements ImportedMlModel {
+
+        private final String name;
+        private final String source;
+
+        TestModel(String name, String source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        @Override
+        public String name() { return name; }
+
+        @Override
+        public String source() { return source; }
+
+        @Override
+        public Optional<String> inputTypeSpec(String input) { return Optional.empty(); }
+
+        @Override
+        public Map<String, String> smallConstants() { return Map.of(); }
+
+        @Override
+        public Map<String, String> largeConstants() { return Map.of(); }
+
+        @Override
+        public Map<String, String> functions() { return Map.of(); }
+
+        @Override
+        public List<ImportedMlFunction> outputExpressions() { return List.of(); }
+
+    }
+
+}
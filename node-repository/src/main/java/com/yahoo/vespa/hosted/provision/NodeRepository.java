@@ -297,6 +297,7 @@ public class NodeRepository extends AbstractComponent {
     }
 
     public List<Node> getNodes(ApplicationId id, State ... inState) { return db.readNodes(id, inState); }
+    public List<Node> getChildNodes(String hostname, State ... inState) { return db.readChildNodes(hostname, inState); }
     public List<Node> getInactive() { return db.readNodes(State.inactive); }
     public List<Node> getFailed() { return db.readNodes(State.failed); }
 
@@ -554,7 +555,7 @@ public class NodeRepository extends AbstractComponent {
 
         List<Node> nodesToDirty =
                 (nodeToDirty.type().isHost() ?
-                        Stream.concat(list().childrenOf(hostname).asList().stream(), Stream.of(nodeToDirty)) :
+                        Stream.concat(getChildNodes(hostname).stream(), Stream.of(nodeToDirty)) :
                         Stream.of(nodeToDirty))
                 .filter(node -> node.state() != State.dirty)
                 .collect(Collectors.toList());
@@ -621,7 +622,7 @@ public class NodeRepository extends AbstractComponent {
     }
 
     private List<Node> moveRecursively(String hostname, State toState, Agent agent, Optional<String> reason) {
-        List<Node> moved = list().childrenOf(hostname).asList().stream()
+        List<Node> moved = getChildNodes(hostname).stream()
                                          .map(child -> move(child, toState, agent, reason))
                                          .collect(Collectors.toList());
 
@@ -693,7 +694,7 @@ public class NodeRepository extends AbstractComponent {
             requireRemovable(node, false, force);
 
             if (node.type().isHost()) {
-                List<Node> children = list().childrenOf(node).asList();
+                List<Node> children = getChildNodes(node.hostname());
                 children.forEach(child -> requireRemovable(child, true, force));
                 db.removeNodes(children);
                 List<Node> removed = new ArrayList<>(children);
@@ -0,0 +1,339 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.hosted.provision.autoscale;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compressed series of (timestamp, value) measurements, stored in columnar blocks of bits.
+ * Timestamps are stored as deltas of deltas and values as the XOR with the previous value,
+ * both with variable bit lengths, such that a regular series of slowly changing values uses
+ * a few bits per measurement.
+ *
+ * Thread model: Writers must synchronize on this (done by the add methods). Readers never lock:
+ * Each write publishes a new immutable view of the content, and blocks only write words which
+ * are not yet visible to readers.
+ *
+ * @author bratseth
+ */
+class MeasurementSeries {
+
+    /** The max number of measurements in a block. Old data is removed one block at the time. */
+    static final int maxBlockSize = 256;
+
+    /** The sealed blocks and the block currently written to */
+    private volatile Content content = new Content(new Block.View[0], null, Long.MIN_VALUE);
+
+    /** The block currently written to, or null if none */
+    private Block openBlock = null;
+
+    /** Adds a measurement to this. The view returned by {@link #content()} is not updated until {@link #publish} is called. */
+    synchronized void add(long timestamp, float value) {
+        if (openBlock == null)
+            openBlock = new Block();
+        openBlock.add(timestamp, value);
+        if (openBlock.count == maxBlockSize) {
+            Content current = content;
+            Block.View[] sealed = Arrays.copyOf(current.sealed, current.sealed.length + 1);
+            sealed[sealed.length - 1] = openBlock.view();
+            content = new Content(sealed, null, current.oldestTimestamp);
+            openBlock = null;
+        }
+    }
+
+    /** Makes all measurements added so far visible to readers */
+    synchronized void publish() {
+        Content current = content;
+        content = new Content(current.sealed, openBlock == null ? null : openBlock.view(), current.oldestTimestamp);
+    }
+
+    /** Removes all measurements older than the given timestamp from this */
+    synchronized void removeOlderThan(long oldestTimestamp) {
+        Content current = content;
+        List<Block.View> retained = new ArrayList<>();
+        for (Block.View block : current.sealed)
+            if (block.lastTimestamp >= oldestTimestamp)
+                retained.add(block);
+        Block.View open = current.open;
+        if (openBlock != null && openBlock.lastTimestamp < oldestTimestamp) {
+            openBlock = null;
+            open = null;
+        }
+        content = new Content(retained.toArray(new Block.View[0]), open,
+                              Math.max(oldestTimestamp, current.oldestTimestamp));
+    }
+
+    /** Returns whether this holds no measurements, including any which are not yet published */
+    synchronized boolean isEmpty() {
+        return openBlock == null && content.sealed.length == 0;
+    }
+
+    /** Returns a consistent view of the measurements in this */
+    Content content() { return content; }
+
+    /** An immutable view of the content of a series */
+    static class Content {
+
+        private final Block.View[] sealed;
+        private final Block.View open;
+
+        /** Measurements before this timestamp are removed and must be ignored */
+        private final long oldestTimestamp;
+
+        private Content(Block.View[] sealed, Block.View open, long oldestTimestamp) {
+            this.sealed = sealed;
+            this.open = open;
+            this.oldestTimestamp = oldestTimestamp;
+        }
+
+        boolean isEmpty() { return sealed.length == 0 && open == null; }
+
+        /** Returns the timestamp of the newest measurement in this, or Long.MIN_VALUE if it is empty */
+        long lastTimestamp() {
+            if (open != null) return open.lastTimestamp;
+            if (sealed.length > 0) return sealed[sealed.length - 1].lastTimestamp;
+            return Long.MIN_VALUE;
+        }
+
+        /** Passes all measurements at or after the given timestamp to the given consumer, in the order they were added */
+        void forEachAfter(long startTimestamp, MeasurementConsumer consumer) {
+            long start = Math.max(startTimestamp, oldestTimestamp);
+            for (Block.View block : sealed)
+                if (block.lastTimestamp >= start)
+                    block.forEachAfter(start, consumer);
+            if (open != null && open.lastTimestamp >= start)
+                open.forEachAfter(start, consumer);
+        }
+
+    }
+
+    interface MeasurementConsumer {
+
+        void accept(long timestamp, float value);
+
+    }
+
+    /** A block of compressed measurements. The first measurement is stored raw, the rest relative to the previous one. */
+    private static class Block {
+
+        private long[] words = new long[16];
+
+        /** The number of words in the words array which are completely written */
+        private int completeWords = 0;
+
+        /** The word currently written to, left aligned */
+        private long currentWord = 0;
+
+        /** The number of bits written to the current word */
+        private int currentBits = 0;
+
+        private int count = 0;
+        private long lastTimestamp = Long.MIN_VALUE;
+
+        // Encoder state
+        private long previousTimestamp;
+        private long previousDelta;
+        private int previousValueBits;
+        private int previousLeadingZeros = -1;
+        private int previousTrailingZeros;
+
+        void add(long timestamp, float value) {
+            int valueBits = Float.floatToRawIntBits(value);
+            if (count == 0) {
+                write(timestamp, 64);
+                write(valueBits, 32);
+            }
+            else {
+                long delta = timestamp - previousTimestamp;
+                writeDeltaOfDelta(delta - previousDelta);
+                writeXor(valueBits ^ previousValueBits);
+                previousDelta = delta;
+            }
+            previousTimestamp = timestamp;
+            previousValueBits = valueBits;
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+            count++;
+        }
+
+        private void writeDeltaOfDelta(long deltaOfDelta) {
+            long zigzag = (deltaOfDelta << 1) ^ (deltaOfDelta >> 63);
+            if (zigzag == 0) {
+                write(0b0, 1);
+            }
+            else if (zigzag < 1L << 7) {
+                write(0b10, 2);
+                write(zigzag, 7);
+            }
+            else if (zigzag < 1L << 12) {
+                write(0b110, 3);
+                write(zigzag, 12);
+            }
+            else if (zigzag < 1L << 20) {
+                write(0b1110, 4);
+                write(zigzag, 20);
+            }
+            else {
+                write(0b1111, 4);
+                write(zigzag, 64);
+            }
+        }
+
+        private void writeXor(int xor) {
+            if (xor == 0) {
+                write(0b0, 1);
+                return;
+            }
+            write(0b1, 1);
+            int leadingZeros = Math.min(Integer.numberOfLeadingZeros(xor), 31);
+            int trailingZeros = Integer.numberOfTrailingZeros(xor);
+            if (previousLeadingZeros >= 0 && leadingZeros >= previousLeadingZeros && trailingZeros >= previousTrailingZeros) {
+                write(0b0, 1);
+                write(xor >>> previousTrailingZeros, 32 - previousLeadingZeros - previousTrailingZeros);
+            }
+            else {
+                int length = 32 - leadingZeros - trailingZeros;
+                write(0b1, 1);
+                write(leadingZeros, 5);
+                write(length - 1, 5);
+                write(xor >>> trailingZeros, length);
+                previousLeadingZeros = leadingZeros;
+                previousTrailingZeros = trailingZeros;
+            }
+        }
+
+        /** Writes the given number of lowest bits of the given value */
+        private void write(long value, int bits) {
+            if (bits < 64)
+                value &= (1L << bits) - 1;
+            int free = 64 - currentBits;
+            if (bits < free) {
+                currentWord |= value << (free - bits);
+                currentBits += bits;
+            }
+            else {
+                int remaining = bits - free;
+                currentWord |= value >>> remaining;
+                completeWord();
+                if (remaining > 0) {
+                    currentWord = value << (64 - remaining);
+                    currentBits = remaining;
+                }
+            }
+        }
+
+        private void completeWord() {
+            if (completeWords == words.length)
+                words = Arrays.copyOf(words, words.length * 2);
+            words[completeWords++] = currentWord;
+            currentWord = 0;
+            currentBits = 0;
+        }
+
+        View view() {
+            return new View(words, completeWords, currentWord, currentBits, count, lastTimestamp);
+        }
+
+        /**
+         * An immutable view of the content of a block at some point. This is safe to use while the block
+         * is written to, as the block never changes complete words which are visible in a view, and
+         * the current word is copied into the view.
+         */
+        private static class View {
+
+            private final long[] words;
+            private final int completeWords;
+            private final long currentWord;
+            private final int currentBits;
+            private final int count;
+            private final long lastTimestamp;
+
+            View(long[] words, int completeWords, long currentWord, int currentBits, int count, long lastTimestamp) {
+                this.words = words;
+                this.completeWords = completeWords;
+                this.currentWord = currentWord;
+                this.currentBits = currentBits;
+                this.count = count;
+                this.lastTimestamp = lastTimestamp;
+            }
+
+            void forEachAfter(long startTimestamp, MeasurementConsumer consumer) {
+                Reader reader = new Reader();
+                long timestamp = reader.read(64);
+                int valueBits = (int)reader.read(32);
+                long delta = 0;
+                int leadingZeros = 0;
+                int trailingZeros = 0;
+                for (int i = 0; i < count; i++) {
+                    if (i > 0) {
+                        delta += readDeltaOfDelta(reader);
+                        timestamp += delta;
+                        if (reader.read(1) == 1) {
+                            if (reader.read(1) == 1) {
+                                leadingZeros = (int)reader.read(5);
+                                int length = (int)reader.read(5) + 1;
+                                trailingZeros = 32 - leadingZeros - length;
+                            }
+                            valueBits ^= (int)reader.read(32 - leadingZeros - trailingZeros) << trailingZeros;
+                        }
+                    }
+                    if (timestamp >= startTimestamp)
+                        consumer.accept(timestamp, Float.intBitsToFloat(valueBits));
+                }
+            }
+
+            private static long readDeltaOfDelta(Reader reader) {
+                long zigzag;
+                if (reader.read(1) == 0)
+                    zigzag = 0;
+                else if (reader.read(1) == 0)
+                    zigzag = reader.read(7);
+                else if (reader.read(1) == 0)
+                    zigzag = reader.read(12);
+                else if (reader.read(1) == 0)
+                    zigzag = reader.read(20);
+                else
+                    zigzag = reader.read(64);
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+
+            /** Reads bits from this view in the order they were written */
+            private class Reader {
+
+                private int wordIndex = 0;
+                private int bitIndex = 0;
+
+                /** Reads the given number of bits, and returns them as the lowest bits of the returned value */
+                long read(int bits) {
+                    if (bits == 0) return 0;
+                    int available = 64 - bitIndex;
+                    long value;
+                    if (bits <= available) {
+                        value = (word(wordIndex) << bitIndex) >>> (64 - bits);
+                        bitIndex += bits;
+                    }
+                    else {
+                        int remaining = bits - available;
+                        value = ((word(wordIndex) << bitIndex) >>> (64 - available)) << remaining;
+                        value |= word(wordIndex + 1) >>> (64 - remaining);
+                        wordIndex++;
+                        bitIndex = remaining;
+                    }
+                    if (bitIndex == 64) {
+                        wordIndex++;
+                        bitIndex = 0;
+                    }
+                    return value;
+                }
+
+                private long word(int index) {
+                    return index < completeWords ? words[index] : currentWord;
+                }
+
+            }
+
+        }
+
+    }
+
+}
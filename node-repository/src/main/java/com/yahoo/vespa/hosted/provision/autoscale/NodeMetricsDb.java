@@ -7,19 +7,20 @@ import com.yahoo.vespa.hosted.provision.NodeRepository;
 
 import java.time.Clock;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
  * An in-memory time-series "database" of node metrics.
- * Thread model: One writer, many readers.
+ * Measurements are stored compressed in one series per node and resource, see {@link MeasurementSeries}.
+ * Thread model: Writers lock the series they write to, readers never lock.
  *
  * @author bratseth
  */
@@ -27,11 +28,8 @@ public class NodeMetricsDb {
 
     private final NodeRepository nodeRepository;
 
-    /** Measurements by key. Each list of measurements is sorted by increasing timestamp */
-    private final Map<NodeMeasurementsKey, NodeMeasurements> db = new HashMap<>();
-
-    /** Lock all access for now since we modify lists inside a map */
-    private final Object lock = new Object();
+    /** Measurements by key */
+    private final Map<NodeMeasurementsKey, NodeMeasurements> db = new ConcurrentHashMap<>();
 
     public NodeMetricsDb(NodeRepository nodeRepository) {
         this.nodeRepository = nodeRepository;
@@ -39,38 +37,39 @@ public class NodeMetricsDb {
 
     /** Add measurements to this */
     public void add(Collection<NodeMetrics.MetricValue> metricValues) {
-        synchronized (lock) {
-            for (var value : metricValues) {
-                Resource resource =  Resource.fromMetric(value.name());
-                NodeMeasurementsKey key = new NodeMeasurementsKey(value.hostname(), resource);
+        Set<NodeMeasurements> changed = new HashSet<>();
+        for (var value : metricValues) {
+            Resource resource =  Resource.fromMetric(value.name());
+            NodeMeasurementsKey key = new NodeMeasurementsKey(value.hostname(), resource);
+            while (true) {
                 NodeMeasurements measurements = db.get(key);
                 if (measurements == null) { // new node
                     Optional<Node> node = nodeRepository.getNode(value.hostname());
-                    if (node.isEmpty()) continue;
-                    if (node.get().allocation().isEmpty()) continue;
-                    measurements = new NodeMeasurements(value.hostname(),
-                                                        resource,
-                                                        node.get().allocation().get().membership().cluster().type());
-                    db.put(key, measurements);
+                    if (node.isEmpty()) break;
+                    if (node.get().allocation().isEmpty()) break;
+                    measurements = db.computeIfAbsent(key, k -> new NodeMeasurements(value.hostname(),
+                                                                                     resource,
+                                                                                     node.get().allocation().get().membership().cluster().type()));
+                }
+                if (measurements.add(value.timestampSecond() * 1000, (float)resource.valueFromMetric(value.value()))) {
+                    changed.add(measurements);
+                    break;
                 }
-                measurements.add(new Measurement(value.timestampSecond() * 1000,
-                                                 (float)resource.valueFromMetric(value.value())));
+                // else these measurements were removed by gc after we looked them up: Add to new ones
             }
         }
+        changed.forEach(measurements -> measurements.series.publish());
     }
 
     /** Must be called intermittently (as long as add is called) to gc old measurements */
     public void gc(Clock clock) {
-        synchronized (lock) {
-            // Each measurement is Object + long + float = 16 + 8 + 4 = 28 bytes
-            // 12 hours with 1k nodes and 3 resources and 1 measurement/sec is about 5Gb
-
-            for (Iterator<NodeMeasurements> i = db.values().iterator(); i.hasNext(); ) {
-                var measurements = i.next();
-                measurements.removeOlderThan(clock.instant().minus(Autoscaler.scalingWindow(measurements.type)).toEpochMilli());
-                if (measurements.isEmpty())
-                    i.remove();
-            }
+        // Measurements are stored in about 2 bytes for regular timestamps and values that change slowly,
+        // so 12 hours with 1k nodes and 3 resources and 1 measurement/sec is about 250Mb
+        for (NodeMeasurementsKey key : db.keySet()) {
+            db.computeIfPresent(key, (k, measurements) -> {
+                long oldestTimestamp = clock.instant().minus(Autoscaler.scalingWindow(measurements.type)).toEpochMilli();
+                return measurements.removeOlderThan(oldestTimestamp) ? null : measurements;
+            });
         }
     }
 
@@ -90,50 +89,41 @@ public class NodeMetricsDb {
         }
 
         public int measurementCount() {
-            synchronized (lock) {
-                int count = 0;
-                for (NodeMeasurementsKey key : keys) {
-                    NodeMeasurements measurements = db.get(key);
-                    if (measurements == null) continue;
-                    count += measurements.after(startTime).size();
-                }
-                return count;
+            int[] count = new int[1];
+            for (NodeMeasurementsKey key : keys) {
+                NodeMeasurements measurements = db.get(key);
+                if (measurements == null) continue;
+                measurements.series.content().forEachAfter(startTime, (timestamp, value) -> count[0]++);
             }
+            return count[0];
         }
 
         /** Returns the count of hostnames which have measurements in this window */
         public int hostnames() {
-            synchronized (lock) {
-                int count = 0;
-                for (NodeMeasurementsKey key : keys) {
-                    NodeMeasurements measurements = db.get(key);
-                    if (measurements == null || measurements.isEmpty()) continue;
-
-                    if (measurements.get(measurements.size() - 1).timestamp >= startTime)
-                        count++;
-                }
-                return count;
+            int count = 0;
+            for (NodeMeasurementsKey key : keys) {
+                NodeMeasurements measurements = db.get(key);
+                if (measurements == null) continue;
+
+                if (measurements.series.content().lastTimestamp() >= startTime)
+                    count++;
             }
+            return count;
         }
 
         public double average() {
-            synchronized (lock) {
-                double sum = 0;
-                int count = 0;
-                for (NodeMeasurementsKey key : keys) {
-                    NodeMeasurements measurements = db.get(key);
-                    if (measurements == null) continue;
-
-                    int index = measurements.size() - 1;
-                    while (index >= 0 && measurements.get(index).timestamp >= startTime) {
-                        sum += measurements.get(index).value;
-                        count++;
-
-                        index--;
-                    }
-                }
-                return sum / count;
+            double[] sum = new double[1];
+            int[] count = new int[1];
+            for (NodeMeasurementsKey key : keys) {
+                NodeMeasurements measurements = db.get(key);
+                if (measurements == null) continue;
+
+                measurements.series.content().forEachAfter(startTime, (timestamp, value) -> {
+                    sum[0] += value;
+                    count[0]++;
+                });
             }
+            return sum[0] / count[0];
         }
 
     }
@@ -173,7 +163,10 @@ public class NodeMetricsDb {
         private final String hostname;
         private final Resource resource;
         private final ClusterSpec.Type type;
-        private final List<Measurement> measurements = new ArrayList<>();
+        private final MeasurementSeries series = new MeasurementSeries();
+
+        /** Whether these measurements are removed from the db, guarded by the series lock */
+        private boolean removed = false;
 
         public NodeMeasurements(String hostname, Resource resource, ClusterSpec.Type type) {
             this.hostname = hostname;
@@ -181,43 +174,24 @@ public class NodeMetricsDb {
             this.type = type;
         }
 
-        void removeOlderThan(long oldestTimestamp) {
-            while (!measurements.isEmpty() && measurements.get(0).timestamp < oldestTimestamp)
-                measurements.remove(0);
-        }
-
-        boolean isEmpty() { return measurements.isEmpty(); }
-
-        int size() { return measurements.size(); }
-
-        Measurement get(int index) { return measurements.get(index); }
-
-        void add(Measurement measurement) { measurements.add(measurement); }
-
-        public List<Measurement> after(long oldestTimestamp) {
-            return measurements.stream()
-                               .filter(measurement -> measurement.timestamp >= oldestTimestamp)
-                               .collect(Collectors.toList());
+        /** Adds a measurement and returns true, or returns false if these measurements are removed from the db */
+        boolean add(long timestamp, float value) {
+            synchronized (series) {
+                if (removed) return false;
+                series.add(timestamp, value);
+                return true;
+            }
         }
 
-    }
-
-    private static class Measurement {
-
-        /** The time of this measurement in epoch millis */
-        private final long timestamp;
-
-        /** The measured value */
-        private final float value;
-
-        public Measurement(long timestamp, float value) {
-            this.timestamp = timestamp;
-            this.value = value;
+        /** Removes measurements older than the given timestamp, and returns whether these are now empty, and removed */
+        boolean removeOlderThan(long oldestTimestamp) {
+            synchronized (series) {
+                series.removeOlderThan(oldestTimestamp);
+                removed = series.isEmpty();
+                return removed;
+            }
         }
 
-        @Override
-        public String toString() { return "measurement at " + timestamp + ": " + value; }
-
     }
 
 }
@@ -145,6 +145,9 @@ public class CuratorDatabase {
             this.curator = curator;
         }
 
+        @Override
+        public long generation() { return generation; }
+
         @Override
         public List<String> getChildren(Path path) { 
             return children.computeIfAbsent(path, key -> ImmutableList.copyOf(curator.getChildren(path)));
@@ -172,6 +175,9 @@ public class CuratorDatabase {
 
     interface Session {
 
+        /** Returns the generation of the database this is reading from */
+        long generation();
+
         /**
          * Returns the children of this path, which may be empty.
          */
@@ -32,9 +32,11 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -78,6 +80,8 @@ public class CuratorDatabaseClient {
     private final Zone zone;
     private final CuratorCounter provisionIndexCounter;
     private final boolean logStackTracesOnLockTimeout;
+    private final boolean useCache;
+    private final NodeCache nodeCache = new NodeCache();
 
     public CuratorDatabaseClient(NodeFlavors flavors, Curator curator, Clock clock, Zone zone, boolean useCache, boolean logStackTracesOnLockTimeout) {
         this.nodeSerializer = new NodeSerializer(flavors);
@@ -86,6 +90,7 @@ public class CuratorDatabaseClient {
         this.clock = clock;
         this.provisionIndexCounter = new CuratorCounter(curator, root.append("provisionIndexCounter").getAbsolute());
         this.logStackTracesOnLockTimeout = logStackTracesOnLockTimeout;
+        this.useCache = useCache;
         initZK();
     }
 
@@ -266,10 +271,12 @@ public class CuratorDatabaseClient {
      * If no states are given this returns all nodes.
      */
     public List<Node> readNodes(Node.State ... states) {
+        CuratorDatabase.Session session = db.getSession();
+        if (useCache) return snapshot(session).nodes(states);
+
         List<Node> nodes = new ArrayList<>();
         if (states.length == 0)
             states = Node.State.values();
-        CuratorDatabase.Session session = db.getSession();
         for (Node.State state : states) {
             for (String hostname : session.getChildren(toPath(state))) {
                 Optional<Node> node = readNode(session, hostname, state);
@@ -284,22 +291,42 @@ public class CuratorDatabaseClient {
      * If no states are given this returns all nodes.
      */
     public List<Node> readNodes(ApplicationId applicationId, Node.State ... states) {
+        if (useCache) return snapshot(db.getSession()).nodes(applicationId, states);
+
         List<Node> nodes = readNodes(states);
         nodes.removeIf(node -> ! node.allocation().isPresent() || ! node.allocation().get().owner().equals(applicationId));
         return nodes;
     }
 
+    /**
+     * Returns all nodes having the given host as parent which are in one of the given states.
+     * If no states are given this returns all child nodes of the host.
+     */
+    public List<Node> readChildNodes(String parentHostname, Node.State ... states) {
+        if (useCache) return snapshot(db.getSession()).childNodes(parentHostname, states);
+
+        List<Node> nodes = readNodes(states);
+        nodes.removeIf(node -> ! node.parentHostname().equals(Optional.of(parentHostname)));
+        return nodes;
+    }
+
     /**
      * Returns a particular node, or empty if this noe is not in any of the given states.
      * If no states are given this returns the node if it is present in any state.
      */
     public Optional<Node> readNode(CuratorDatabase.Session session, String hostname, Node.State ... states) {
+        if (useCache) {
+            Optional<NodeCache.Snapshot> snapshot = nodeCache.snapshot(session.generation());
+            if (snapshot.isPresent()) return snapshot.get().node(hostname, states);
+        }
+
         if (states.length == 0)
             states = Node.State.values();
         for (Node.State state : states) {
-            Optional<byte[]> nodeData = session.getData(toPath(state, hostname));
+            Path path = toPath(state, hostname);
+            Optional<byte[]> nodeData = session.getData(path);
             if (nodeData.isPresent())
-                return nodeData.map((data) -> nodeSerializer.fromJson(state, data));
+                return nodeData.map((data) -> deserialize(path, state, data));
         }
         return Optional.empty();
     }
@@ -312,6 +339,30 @@ public class CuratorDatabaseClient {
         return readNode(db.getSession(), hostname, states);
     }
 
+    /** Returns the indexed snapshot of all nodes at the generation of the given session, creating it if necessary */
+    private NodeCache.Snapshot snapshot(CuratorDatabase.Session session) {
+        Optional<NodeCache.Snapshot> snapshot = nodeCache.snapshot(session.generation());
+        if (snapshot.isPresent()) return snapshot.get();
+
+        List<Node> nodes = new ArrayList<>();
+        Set<Path> paths = new HashSet<>();
+        for (Node.State state : Node.State.values()) {
+            for (String hostname : session.getChildren(toPath(state))) {
+                Path path = toPath(state, hostname);
+                session.getData(path).ifPresent(data -> { // node might disappear between getChildren and getData
+                    nodes.add(deserialize(path, state, data));
+                    paths.add(path);
+                });
+            }
+        }
+        return nodeCache.putSnapshot(session.generation(), nodes, paths);
+    }
+
+    private Node deserialize(Path path, Node.State state, byte[] data) {
+        if ( ! useCache) return nodeSerializer.fromJson(state, data);
+        return nodeCache.get(path, state, data, nodeSerializer::fromJson);
+    }
+
     private Path toPath(Node.State nodeState) { return root.append(toDir(nodeState)); }
 
     private Path toPath(Node node) {
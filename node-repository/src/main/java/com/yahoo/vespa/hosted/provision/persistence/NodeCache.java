@@ -0,0 +1,146 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.hosted.provision.persistence;
+
+import com.yahoo.config.provision.ApplicationId;
+import com.yahoo.path.Path;
+import com.yahoo.vespa.hosted.provision.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * A cache of deserialized nodes, kept across changes to the curator database.
+ *
+ * Node objects are immutable, so a node read from a path can be reused for as long as the data stored
+ * at that path is unchanged. This is invalidated per path: a cached node is only returned if the data
+ * read at the current generation of the database is identical to the data it was deserialized from.
+ * Comparing bytes is much cheaper than parsing them, so a change to a single node only causes that
+ * node to be deserialized again.
+ *
+ * In addition this keeps a {@link Snapshot} of all nodes, indexed by state, application and parent host,
+ * for the latest database generation it was asked for.
+ *
+ * @author bratseth
+ */
+class NodeCache {
+
+    /** The deserialized nodes, and the data they were read from, by their path */
+    private final Map<Path, Entry> nodes = new ConcurrentHashMap<>();
+
+    /** The latest complete snapshot of nodes which has been created */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Returns the node stored with the given data at the given path, deserializing it using the given
+     * deserializer only if it is not already cached for this data.
+     */
+    Node get(Path path, Node.State state, byte[] data, BiFunction<Node.State, byte[], Node> deserializer) {
+        Entry entry = nodes.get(path);
+        if (entry != null && Arrays.equals(entry.data, data)) return entry.node;
+
+        Node node = deserializer.apply(state, data);
+        nodes.put(path, new Entry(data, node));
+        return node;
+    }
+
+    /** Returns the snapshot created for the given generation, if it is the latest one created */
+    Optional<Snapshot> snapshot(long generation) {
+        Snapshot current = snapshot.get();
+        if (current == null || current.generation != generation) return Optional.empty();
+        return Optional.of(current);
+    }
+
+    /**
+     * Stores a snapshot of the given nodes, read at the given generation, and removes cached nodes
+     * at all paths which are not in the given set of current paths.
+     */
+    Snapshot putSnapshot(long generation, List<Node> nodes, Set<Path> currentPaths) {
+        Snapshot newSnapshot = new Snapshot(generation, nodes);
+        snapshot.updateAndGet(current -> current == null || current.generation <= generation ? newSnapshot : current);
+        this.nodes.keySet().retainAll(currentPaths);
+        return newSnapshot;
+    }
+
+    private static class Entry {
+
+        private final byte[] data;
+        private final Node node;
+
+        private Entry(byte[] data, Node node) {
+            this.data = data;
+            this.node = node;
+        }
+
+    }
+
+    /** An immutable, indexed snapshot of all nodes at a given database generation */
+    static class Snapshot {
+
+        private final long generation;
+        private final Map<Node.State, List<Node>> byState = new EnumMap<>(Node.State.class);
+        private final Map<ApplicationId, List<Node>> byApplication = new HashMap<>();
+        private final Map<String, List<Node>> byParentHostname = new HashMap<>();
+        private final Map<String, Node> byHostname = new HashMap<>();
+
+        private Snapshot(long generation, List<Node> nodes) {
+            this.generation = generation;
+            for (Node node : nodes) {
+                byState.computeIfAbsent(node.state(), key -> new ArrayList<>()).add(node);
+                node.allocation().ifPresent(allocation -> byApplication.computeIfAbsent(allocation.owner(), key -> new ArrayList<>())
+                                                                       .add(node));
+                node.parentHostname().ifPresent(parent -> byParentHostname.computeIfAbsent(parent, key -> new ArrayList<>())
+                                                                          .add(node));
+                byHostname.put(node.hostname(), node);
+            }
+        }
+
+        /** Returns the nodes in any of the given states, in the order of the given states, or all nodes if none are given */
+        List<Node> nodes(Node.State ... states) {
+            if (states.length == 0) states = Node.State.values();
+            List<Node> nodes = new ArrayList<>();
+            for (Node.State state : states)
+                nodes.addAll(byState.getOrDefault(state, List.of()));
+            return nodes;
+        }
+
+        /** Returns the nodes allocated to the given application in any of the given states, or in any state if none are given */
+        List<Node> nodes(ApplicationId application, Node.State ... states) {
+            return inStates(byApplication.getOrDefault(application, List.of()), states);
+        }
+
+        /** Returns the nodes having the given host as parent in any of the given states, or in any state if none are given */
+        List<Node> childNodes(String parentHostname, Node.State ... states) {
+            return inStates(byParentHostname.getOrDefault(parentHostname, List.of()), states);
+        }
+
+        /** Returns the node with the given hostname if it is in any of the given states, or in any state if none are given */
+        Optional<Node> node(String hostname, Node.State ... states) {
+            Node node = byHostname.get(hostname);
+            if (node == null) return Optional.empty();
+            if (states.length == 0 || Arrays.asList(states).contains(node.state())) return Optional.of(node);
+            return Optional.empty();
+        }
+
+        private static List<Node> inStates(Collection<Node> nodes, Node.State ... states) {
+            if (states.length == 0) return new ArrayList<>(nodes);
+            List<Node> nodesInStates = new ArrayList<>();
+            for (Node.State state : states)
+                for (Node node : nodes)
+                    if (node.state() == state)
+                        nodesInStates.add(node);
+            return nodesInStates;
+        }
+
+    }
+
+}
@@ -52,4 +52,29 @@ public class NodeMetricsDbTest {
         assertEquals( 0, db.getWindow(clock.instant().minus(Duration.ofHours(6)), Resource.memory, List.of(node0)).measurementCount());
     }
 
+    @Test
+    public void testMeasurementsAreAddedAfterAllAreRemoved() {
+        ProvisioningTester tester = new ProvisioningTester.Builder().build();
+        tester.makeReadyHosts(10, new NodeResources(10, 100, 1000, 10))
+              .activateTenantHosts();
+        ApplicationId app1 = tester.makeApplicationId("app1");
+        var hosts =
+                tester.activate(app1,
+                                ClusterSpec.request(ClusterSpec.Type.container, ClusterSpec.Id.from("test")).vespaVersion("7.0").build(),
+                                Capacity.from(new ClusterResources(2, 1, new NodeResources(1, 4, 10, 1))));
+        String node0 = hosts.iterator().next().hostname();
+
+        ManualClock clock = tester.clock();
+        NodeMetricsDb db = new NodeMetricsDb(tester.nodeRepository());
+        db.add(List.of(new NodeMetrics.MetricValue(node0, "cpu.util", clock.instant().getEpochSecond(), 0.9f)));
+        clock.advance(Duration.ofDays(1));
+        db.gc(clock);
+        assertEquals(0, db.getWindow(clock.instant().minus(Duration.ofDays(2)), Resource.cpu, List.of(node0)).measurementCount());
+
+        db.add(List.of(new NodeMetrics.MetricValue(node0, "cpu.util", clock.instant().getEpochSecond(), 50f)));
+        db.gc(clock);
+        assertEquals(1, db.getWindow(clock.instant().minus(Duration.ofHours(1)), Resource.cpu, List.of(node0)).measurementCount());
+        assertEquals(0.5, db.getWindow(clock.instant().minus(Duration.ofHours(1)), Resource.cpu, List.of(node0)).average(), 0.000001);
+    }
+
 }
@@ -11,13 +11,17 @@ import com.yahoo.vespa.curator.Curator;
 import com.yahoo.vespa.curator.Lock;
 import com.yahoo.vespa.curator.mock.MockCurator;
 import com.yahoo.vespa.hosted.provision.Node;
+import com.yahoo.vespa.hosted.provision.node.Agent;
 import com.yahoo.vespa.hosted.provision.provisioning.FlavorConfigBuilder;
 import org.junit.Test;
 
 import java.time.Clock;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 /**
  * @author mpolden
@@ -38,6 +42,28 @@ public class CuratorDatabaseClientTest {
         assertEquals(NodeType.host, allocatedNodes.get(0).type());
     }
 
+    @Test
+    public void unchanged_nodes_are_not_deserialized_again_after_writes() throws Exception {
+        String host1 = "{\"hostname\":\"host1\",\"ipAddresses\":[\"127.0.0.1\"],\"openStackId\":\"id1\",\"flavor\":\"default\",\"created\":1421054425159, \"type\":\"host\"}";
+        String host2 = "{\"hostname\":\"host2\",\"ipAddresses\":[\"127.0.0.2\"],\"openStackId\":\"id2\",\"flavor\":\"default\",\"created\":1421054425159, \"type\":\"host\"}";
+        curator.framework().create().creatingParentsIfNeeded().forPath("/provision/v1/ready/host1", host1.getBytes());
+        curator.framework().create().creatingParentsIfNeeded().forPath("/provision/v1/ready/host2", host2.getBytes());
+
+        Node node1 = zkClient.readNode("host1").get();
+        Node node2 = zkClient.readNode("host2").get();
+        assertSame("Nodes are reused when there are no writes", node1, zkClient.readNodes(Node.State.ready).get(0));
+
+        zkClient.writeTo(Node.State.dirty, node2, Agent.system, Optional.empty());
+        assertSame("Unchanged nodes are reused after writes", node1, zkClient.readNode("host1").get());
+        assertEquals(Node.State.dirty, zkClient.readNode("host2").get().state());
+        assertEquals(List.of("host1"), hostnames(zkClient.readNodes(Node.State.ready)));
+        assertEquals(List.of("host2"), hostnames(zkClient.readNodes(Node.State.dirty)));
+    }
+
+    private static List<String> hostnames(List<Node> nodes) {
+        return nodes.stream().map(Node::hostname).collect(Collectors.toList());
+    }
+
     @Test
     public void locks_can_be_acquired_and_released() {
         ApplicationId app = ApplicationId.from(TenantName.from("testTenant"), ApplicationName.from("testApp"), InstanceName.from("testInstance"));
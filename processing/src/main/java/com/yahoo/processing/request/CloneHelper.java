@@ -107,6 +107,17 @@ public class CloneHelper {
         }
     }
 
+    /**
+     * Returns whether any value in the given map is cloneable, that is, would be deep cloned by {@link #cloneMap}.
+     * If not, a map may be shared by clones until it is written to.
+     */
+    public boolean hasCloneableValues(Map<CompoundName, Object> map) {
+        for (Object value : map.values()) {
+            if (value instanceof Cloneable) return true;
+        }
+        return false;
+    }
+
     /**
      * Clones a map by deep cloning each value which is cloneable and shallow copying all other values.
      */
@@ -626,6 +626,14 @@ public class Properties implements Cloneable {
         return cloneHelper.cloneMap(map);
     }
 
+    /**
+     * Returns whether any value in the given map is cloneable, that is, would be deep cloned by {@link #cloneMap}.
+     * If not, a map may be shared by clones until it is written to.
+     */
+    public static boolean hasCloneableValues(Map<CompoundName, Object> map) {
+        return cloneHelper.hasCloneableValues(map);
+    }
+
     /** Clones this object if it is clonable, and the clone is public. Returns null if not */
     public static Object clone(Object object) {
         return cloneHelper.clone(object);
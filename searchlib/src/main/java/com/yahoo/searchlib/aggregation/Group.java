@@ -7,6 +7,8 @@ import com.yahoo.searchlib.expression.ResultNode;
 import com.yahoo.vespa.objects.*;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 public class Group extends Identifiable {
 
@@ -40,6 +42,12 @@ public class Group extends Identifiable {
      * @param rhs          The group to merge with.
      */
     public void merge(int firstLevel, int currentLevel, Group rhs) {
+        mergeSelf(firstLevel, currentLevel, rhs);
+        mergeChildren(firstLevel, currentLevel, rhs);
+    }
+
+    /** Merges the rank and aggregation results of the given group into this, but not its children */
+    private void mergeSelf(int firstLevel, int currentLevel, Group rhs) {
         if (rhs.rank > rank) {
             rank = rhs.rank; // keep highest rank
         }
@@ -48,8 +56,13 @@ public class Group extends Identifiable {
                 aggregationResults.get(i).merge(rhs.aggregationResults.get(i));
             }
         }
+    }
 
-        ArrayList<Group> merged = new ArrayList<>();
+    private void mergeChildren(int firstLevel, int currentLevel, Group rhs) {
+        if (rhs.children.isEmpty()) {
+            return;
+        }
+        ArrayList<Group> merged = new ArrayList<>(children.size() + rhs.children.size());
         Iterator<Group> lhsChild = children.iterator(), rhsChild = rhs.children.iterator();
         if (lhsChild.hasNext() && rhsChild.hasNext()) {
             Group lhsGroup = lhsChild.next();
@@ -101,6 +114,17 @@ public class Group extends Identifiable {
      * @param currentLevel The current level.
      */
     public void postMerge(List<GroupingLevel> levels, int firstLevel, int currentLevel) {
+        postMergeSelf(firstLevel, currentLevel);
+        if (currentLevel < levels.size()) {
+            pruneChildren(levels.get(currentLevel));
+            for (Group group : children) {
+                group.postMerge(levels, firstLevel, currentLevel + 1);
+            }
+        }
+
+    }
+
+    private void postMergeSelf(int firstLevel, int currentLevel) {
         if (currentLevel >= firstLevel) {
             for (AggregationResult result : aggregationResults) {
                 result.postMerge();
@@ -109,20 +133,157 @@ public class Group extends Identifiable {
                 result.execute();
             }
         }
-        if (currentLevel < levels.size()) {
-            int maxGroups = (int)levels.get(currentLevel).getMaxGroups();
-            for (Group group : children) {
-                group.executeOrderBy();
+    }
+
+    private void pruneChildren(GroupingLevel level) {
+        int maxGroups = (int)level.getMaxGroups();
+        for (Group group : children) {
+            group.executeOrderBy();
+        }
+        if (maxGroups >= 0 && children.size() > maxGroups) {
+            // prune groups
+            sortChildrenByRank();
+            children = children.subList(0, maxGroups);
+            sortChildrenById();
+        }
+    }
+
+    /**
+     * Merges the given groups <b>into</b> this and prunes the result. This has the same outcome as calling
+     * {@link #merge(int, int, Group)} with each of the groups in order followed by
+     * {@link #postMerge(java.util.List, int, int)}, but the children of all the groups are merged in a single pass
+     * per level, and each level is pruned before the level below it is merged, such that the subtrees of pruned
+     * groups are never merged. The subtrees of the remaining groups are merged in parallel.
+     *
+     * @param levels       The specs of all grouping levels.
+     * @param firstLevel   The first level to merge.
+     * @param currentLevel The current level.
+     * @param others       The groups to merge with.
+     */
+    public void mergeAll(List<GroupingLevel> levels, int firstLevel, int currentLevel, List<Group> others) {
+        for (Group other : others) {
+            mergeSelf(firstLevel, currentLevel, other);
+        }
+        new MergeTask(this, others, levels, firstLevel, currentLevel).invoke();
+    }
+
+    /**
+     * Merges the children of a group with those of the groups it is merged with, and post merges the result,
+     * given that the rank and aggregation results of the group itself are already merged.
+     */
+    private static class MergeTask extends RecursiveAction {
+
+        private final Group target;
+        private final List<Group> others;
+        private final List<GroupingLevel> levels;
+        private final int firstLevel;
+        private final int currentLevel;
+
+        MergeTask(Group target, List<Group> others, List<GroupingLevel> levels, int firstLevel, int currentLevel) {
+            this.target = target;
+            this.others = others;
+            this.levels = levels;
+            this.firstLevel = firstLevel;
+            this.currentLevel = currentLevel;
+        }
+
+        @Override
+        protected void compute() {
+            target.postMergeSelf(firstLevel, currentLevel);
+            if (currentLevel >= levels.size()) { // nothing is pruned or post merged below this
+                for (Group other : others) {
+                    target.mergeChildren(firstLevel, currentLevel, other);
+                }
+                return;
             }
-            if (maxGroups >= 0 && children.size() > maxGroups) {
-                // prune groups
-                sortChildrenByRank();
-                children = children.subList(0, maxGroups);
-                sortChildrenById();
+
+            Map<Group, List<Group>> othersOfChild = mergeChildrenOfAll();
+            target.pruneChildren(levels.get(currentLevel));
+
+            List<MergeTask> subtasks = new ArrayList<>(target.children.size());
+            for (Group child : target.children) {
+                subtasks.add(new MergeTask(child, othersOfChild.getOrDefault(child, List.of()),
+                                           levels, firstLevel, currentLevel + 1));
             }
-            for (Group group : children) {
-                group.postMerge(levels, firstLevel, currentLevel + 1);
+            if (subtasks.size() > 1 && currentLevel + 1 < levels.size()) {
+                ForkJoinTask.invokeAll(subtasks);
+            } else {
+                for (MergeTask subtask : subtasks) {
+                    subtask.compute();
+                }
+            }
+        }
+
+        /**
+         * Merges the child lists of the target and the others, which are sorted by id, into the target, and merges the
+         * rank and aggregation results of children with the same id into the first of them.
+         *
+         * @return the children each child of the target should have its children merged with
+         */
+        private Map<Group, List<Group>> mergeChildrenOfAll() {
+            List<List<Group>> childLists = new ArrayList<>(others.size() + 1);
+            childLists.add(target.children);
+            for (Group other : others) {
+                childLists.add(other.children);
+            }
+
+            PriorityQueue<ChildCursor> cursors = new PriorityQueue<>(childLists.size());
+            int size = 0;
+            for (int i = 0; i < childLists.size(); i++) {
+                if ( ! childLists.get(i).isEmpty()) {
+                    cursors.add(new ChildCursor(childLists.get(i), i));
+                    size += childLists.get(i).size();
+                }
+            }
+
+            Map<Group, List<Group>> othersOfChild = new IdentityHashMap<>();
+            ArrayList<Group> merged = new ArrayList<>(size);
+            Group current = null;
+            while ( ! cursors.isEmpty()) {
+                ChildCursor cursor = cursors.poll();
+                Group child = cursor.current();
+                if (current != null && current.getId().compareTo(child.getId()) == 0) {
+                    current.mergeSelf(firstLevel, currentLevel + 1, child);
+                    othersOfChild.computeIfAbsent(current, __ -> new ArrayList<>()).add(child);
+                } else {
+                    merged.add(child);
+                    current = child;
+                }
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
             }
+            target.children = merged;
+            return othersOfChild;
+        }
+
+    }
+
+    /** A position in a list of children sorted by id, ordered by the id at the position and then the list index */
+    private static class ChildCursor implements Comparable<ChildCursor> {
+
+        private final List<Group> children;
+        private final int listIndex;
+        private int position = 0;
+
+        ChildCursor(List<Group> children, int listIndex) {
+            this.children = children;
+            this.listIndex = listIndex;
+        }
+
+        Group current() {
+            return children.get(position);
+        }
+
+        /** Moves to the next child and returns whether there is one */
+        boolean advance() {
+            return ++position < children.size();
+        }
+
+        @Override
+        public int compareTo(ChildCursor other) {
+            int cmp = current().getId().compareTo(other.current().getId());
+            return cmp != 0 ? cmp : Integer.compare(listIndex, other.listIndex);
         }
 
     }
@@ -81,6 +81,21 @@ public class Grouping extends Identifiable {
         root.postMerge(groupingLevels, firstLevel, 0);
     }
 
+    /**
+     * <p>Merges the content of the given groupings <b>into</b> this and post merges the result. This has the same
+     * outcome as calling {@link #merge(Grouping)} with each of them followed by {@link #postMerge()}, but is faster
+     * for many groupings as groups which are pruned are not merged further, and subtrees are merged in parallel.</p>
+     *
+     * @param others The groupings to merge with.
+     */
+    public void mergeAll(List<Grouping> others) {
+        List<Group> roots = new ArrayList<>(others.size());
+        for (Grouping other : others) {
+            roots.add(other.root);
+        }
+        root.mergeAll(groupingLevels, firstLevel, 0, roots);
+    }
+
     /**
      * <p>Returns the client id of this grouping request.</p>
      *
@@ -0,0 +1,107 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.searchlib.aggregation;
+
+import com.yahoo.searchlib.expression.AttributeNode;
+import com.yahoo.searchlib.expression.IntegerResultNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Compares merging the grouping results of many content nodes pairwise followed by post merging,
+ * with merging them all at once.
+ *
+ * @author bratseth
+ */
+public class GroupingMergeBenchmark {
+
+    private static final int nodes = 100;
+    private static final int[] groupsPerNode = { 30, 10, 5 };
+    private static final int[] distinctGroups = { 500, 50, 20 };
+    private static final int maxGroups = 10;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        Grouping request = createRequest(groupsPerNode.length, maxGroups);
+        List<Grouping> results = new ArrayList<>();
+        for (int i = 0; i < nodes; i++)
+            results.add(createNodeResult(request, random, groupsPerNode, distinctGroups));
+
+        for (int i = 0; i < 10; i++) { // warmup
+            mergePairwise(copy(results));
+            mergeAll(copy(results));
+        }
+        System.out.printf("Pairwise merge: %.1f ms\n", averageMillis(results, false));
+        System.out.printf("Merge all:      %.1f ms\n", averageMillis(results, true));
+    }
+
+    private static double averageMillis(List<Grouping> results, boolean all) {
+        int iterations = 20;
+        long totalNanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            List<Grouping> copy = copy(results);
+            System.gc(); // don't measure collection of the garbage of copying
+            long startTime = System.nanoTime();
+            if (all)
+                mergeAll(copy);
+            else
+                mergePairwise(copy);
+            totalNanos += System.nanoTime() - startTime;
+        }
+        return totalNanos / 1_000_000.0 / iterations;
+    }
+
+    static Grouping mergePairwise(List<Grouping> results) {
+        Grouping merged = results.get(0);
+        for (int i = 1; i < results.size(); i++)
+            merged.merge(results.get(i));
+        merged.postMerge();
+        return merged;
+    }
+
+    static Grouping mergeAll(List<Grouping> results) {
+        Grouping merged = results.get(0);
+        merged.mergeAll(results.subList(1, results.size()));
+        return merged;
+    }
+
+    static List<Grouping> copy(List<Grouping> results) {
+        List<Grouping> copy = new ArrayList<>(results.size());
+        for (Grouping result : results)
+            copy.add(result.clone());
+        return copy;
+    }
+
+    static Grouping createRequest(int levels, int maxGroups) {
+        Grouping request = new Grouping().setFirstLevel(0).setLastLevel(levels);
+        for (int level = 0; level < levels; level++)
+            request.addLevel(new GroupingLevel().setMaxGroups(maxGroups).setExpression(new AttributeNode("attr" + level)));
+        return request;
+    }
+
+    /**
+     * Creates the grouping result of a content node, with the given number of groups at each level, taken from
+     * the given number of distinct groups at each level, such that results from different nodes overlap partially.
+     */
+    static Grouping createNodeResult(Grouping request, Random random, int[] groupsPerNode, int[] distinctGroups) {
+        return request.clone().setRoot(createGroup(random, 0, 0, groupsPerNode, distinctGroups));
+    }
+
+    private static Group createGroup(Random random, int id, int level, int[] groupsPerNode, int[] distinctGroups) {
+        Group group = new Group().setId(new IntegerResultNode(id))
+                                 .setRank(random.nextInt(1000))
+                                 .setTag(level)
+                                 .addAggregationResult(new CountAggregationResult(1 + random.nextInt(100)));
+        if (level < groupsPerNode.length) {
+            TreeSet<Integer> childIds = new TreeSet<>();
+            while (childIds.size() < groupsPerNode[level])
+                childIds.add(random.nextInt(distinctGroups[level]));
+            for (int childId : childIds)
+                group.addChild(createGroup(random, childId, level + 1, groupsPerNode, distinctGroups));
+        }
+        return group;
+    }
+
+}
@@ -13,8 +13,10 @@ import com.yahoo.searchlib.expression.MultiplyFunctionNode;
 import com.yahoo.searchlib.expression.StringResultNode;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 
@@ -724,6 +726,23 @@ public class MergeTestCase {
         assertMerge(request, rhs, lhs, expect);
     }
 
+    // Merge results from many nodes with deep trees, where groups must be pruned on every level.
+    @Test
+    public void testMergeAllIsEquivalentToPairwiseMerge() {
+        Random random = new Random(1);
+        for (int maxGroups : new int[] { -1, 1, 5 }) {
+            Grouping request = GroupingMergeBenchmark.createRequest(3, maxGroups);
+            List<Grouping> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++)
+                results.add(GroupingMergeBenchmark.createNodeResult(request, random, new int[] { 8, 5, 3 }, new int[] { 20, 10, 5 }));
+
+            Group expected = GroupingMergeBenchmark.mergePairwise(GroupingMergeBenchmark.copy(results)).getRoot();
+            Group actual = GroupingMergeBenchmark.mergeAll(GroupingMergeBenchmark.copy(results)).getRoot();
+            assertEquals(expected.toString(), actual.toString());
+            assertEquals(expected, actual);
+        }
+    }
+
     private static void assertMerge(Grouping request, Group lhs, Group rhs, Group expect) {
         assertMerge(Arrays.asList(request.clone().setRoot(lhs.clone()),
                                   request.clone().setRoot(rhs.clone())),
@@ -742,6 +761,12 @@ public class MergeTestCase {
     }
 
     private static void assertMerge(List<Grouping> groupingList, Group expect) {
+        List<Grouping> others = new ArrayList<>();
+        for (int i = 1; i < groupingList.size(); ++i) {
+            others.add(groupingList.get(i).clone());
+        }
+        Grouping all = groupingList.get(0).clone();
+
         Grouping tmp = groupingList.get(0).clone();
         for (int i = 1; i < groupingList.size(); ++i) {
             tmp.merge(groupingList.get(i));
@@ -749,6 +774,10 @@ public class MergeTestCase {
         tmp.postMerge();
         assertEquals(expect.toString(), tmp.getRoot().toString());
         assertEquals(expect, tmp.getRoot());
+
+        all.mergeAll(others);
+        assertEquals(expect.toString(), all.getRoot().toString());
+        assertEquals(expect, all.getRoot());
     }
 
 }
@@ -4,6 +4,8 @@ package com.yahoo.vespa.service.health;
 import com.google.inject.Inject;
 import com.yahoo.config.model.api.ApplicationInfo;
 import com.yahoo.config.provision.ApplicationId;
+import com.yahoo.jdisc.Metric;
+import com.yahoo.jdisc.Timer;
 import com.yahoo.vespa.applicationmodel.ClusterId;
 import com.yahoo.vespa.applicationmodel.ConfigId;
 import com.yahoo.vespa.applicationmodel.ServiceStatus;
@@ -13,6 +15,7 @@ import com.yahoo.vespa.service.duper.DuperModelManager;
 import com.yahoo.vespa.service.executor.RunletExecutorImpl;
 import com.yahoo.vespa.service.manager.HealthMonitorApi;
 import com.yahoo.vespa.service.manager.MonitorManager;
+import com.yahoo.vespa.service.model.ServiceMonitorMetrics;
 import com.yahoo.vespa.service.monitor.ServiceId;
 
 import java.time.Duration;
@@ -39,28 +42,27 @@ public class HealthMonitorManager implements MonitorManager, HealthMonitorApi {
     //  - 3 config host admins
     //  - 3 config servers
     // for a total of E = 327 endpoints
+    //
+    // Probes are asynchronous, so the threads only start probes and do not wait for their responses,
+    // which makes N an upper bound for what is needed.
     private static final int MAX_ENDPOINTS = 500;
     private static final Duration HEALTH_REQUEST_TIMEOUT = Duration.ofSeconds(1);
     private static final Duration TARGET_HEALTH_STALENESS = Duration.ofSeconds(10);
     private static final Duration MAX_HEALTH_STALENESS = Duration.ofSeconds(60);
     static final int THREAD_POOL_SIZE = (int) Math.ceil(MAX_ENDPOINTS * HEALTH_REQUEST_TIMEOUT.toMillis() / (double) MAX_HEALTH_STALENESS.toMillis());
 
-    // Keep connections alive 60 seconds (>=MAX_HEALTH_STALENESS) if a keep-alive value has not be
-    // explicitly set by the server.
-    private static final Duration KEEP_ALIVE = Duration.ofSeconds(60);
-
     private final ConcurrentHashMap<ApplicationId, ApplicationHealthMonitor> healthMonitors = new ConcurrentHashMap<>();
     private final DuperModelManager duperModel;
     private final ApplicationHealthMonitorFactory applicationHealthMonitorFactory;
 
     @Inject
-    public HealthMonitorManager(DuperModelManager duperModel) {
+    public HealthMonitorManager(DuperModelManager duperModel, Metric metric, Timer timer) {
         this(duperModel,
                 new StateV1HealthModel(
                         TARGET_HEALTH_STALENESS,
                         HEALTH_REQUEST_TIMEOUT,
-                        KEEP_ALIVE,
-                        new RunletExecutorImpl(THREAD_POOL_SIZE)));
+                        new RunletExecutorImpl(THREAD_POOL_SIZE),
+                        new ServiceMonitorMetrics(metric, timer)));
     }
 
     private HealthMonitorManager(DuperModelManager duperModel, StateV1HealthModel healthModel) {
@@ -16,8 +16,7 @@ import static com.yahoo.yolean.Exceptions.uncheck;
 class StateV1HealthEndpoint implements HealthEndpoint {
     private final ServiceId serviceId;
     private final URL url;
-    private final Duration requestTimeout;
-    private final Duration connectionKeepAlive;
+    private final StateV1HealthProber prober;
     private final Duration delay;
     private final RunletExecutor executor;
 
@@ -25,15 +24,13 @@ class StateV1HealthEndpoint implements HealthEndpoint {
                           HostName hostname,
                           int port,
                           Duration delay,
-                          Duration requestTimeout,
-                          Duration connectionKeepAlive,
+                          StateV1HealthProber prober,
                           RunletExecutor executor) {
         this.serviceId = serviceId;
         this.delay = delay;
         this.executor = executor;
         this.url = uncheck(() -> new URL("http", hostname.value(), port, "/state/v1/health"));
-        this.requestTimeout = requestTimeout;
-        this.connectionKeepAlive = connectionKeepAlive;
+        this.prober = prober;
     }
 
     @Override
@@ -43,7 +40,7 @@ class StateV1HealthEndpoint implements HealthEndpoint {
 
     @Override
     public HealthMonitor startMonitoring() {
-        StateV1HealthUpdater updater = new StateV1HealthUpdater(url, requestTimeout, connectionKeepAlive);
+        StateV1HealthUpdater updater = new StateV1HealthUpdater(url, prober);
         return new StateV1HealthMonitor(updater, executor, delay);
     }
 
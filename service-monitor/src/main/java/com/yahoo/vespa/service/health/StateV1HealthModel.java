@@ -8,6 +8,7 @@ import com.yahoo.config.model.api.ServiceInfo;
 import com.yahoo.config.provision.HostName;
 import com.yahoo.vespa.service.executor.RunletExecutor;
 import com.yahoo.vespa.service.model.ApplicationInstanceGenerator;
+import com.yahoo.vespa.service.model.ServiceMonitorMetrics;
 import com.yahoo.vespa.service.monitor.ServiceId;
 
 import java.time.Duration;
@@ -27,18 +28,16 @@ public class StateV1HealthModel implements AutoCloseable {
     /** Port tags implying /state/v1/health is served on HTTP. */
     public static final List<String> HTTP_HEALTH_PORT_TAGS = List.of(PORT_TAG_HTTP, PORT_TAG_STATE);
     private final Duration targetHealthStaleness;
-    private final Duration requestTimeout;
-    private final Duration connectionKeepAlive;
     private final RunletExecutor executor;
+    private final StateV1HealthProber prober;
 
     StateV1HealthModel(Duration targetHealthStaleness,
                        Duration requestTimeout,
-                       Duration connectionKeepAlive,
-                       RunletExecutor executor) {
+                       RunletExecutor executor,
+                       ServiceMonitorMetrics metrics) {
         this.targetHealthStaleness = targetHealthStaleness;
-        this.requestTimeout = requestTimeout;
-        this.connectionKeepAlive = connectionKeepAlive;
         this.executor = executor;
+        this.prober = new StateV1HealthProber(requestTimeout, metrics);
     }
 
     Map<ServiceId, HealthEndpoint> extractHealthEndpoints(ApplicationInfo application) {
@@ -55,8 +54,7 @@ public class StateV1HealthModel implements AutoCloseable {
                                 hostname,
                                 portInfo.getPort(),
                                 targetHealthStaleness,
-                                requestTimeout,
-                                connectionKeepAlive,
+                                prober,
                                 executor);
                         endpoints.put(serviceId, endpoint);
                         break; // Avoid >1 endpoints per serviceId
@@ -83,5 +81,6 @@ public class StateV1HealthModel implements AutoCloseable {
     @Override
     public void close() {
         executor.close();
+        prober.close();
     }
 }
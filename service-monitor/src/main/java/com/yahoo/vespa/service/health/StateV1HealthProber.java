@@ -0,0 +1,153 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.service.health;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yahoo.concurrent.DaemonThreadFactory;
+import com.yahoo.security.tls.MixedMode;
+import com.yahoo.security.tls.TlsContext;
+import com.yahoo.security.tls.TransportSecurityUtils;
+import com.yahoo.vespa.service.model.LatencyMeasurement;
+import com.yahoo.vespa.service.model.ServiceMonitorMetrics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Probes /state/v1/health endpoints without blocking a thread while waiting for the response.
+ * All endpoints are probed through a single HTTP client, which keeps connections alive
+ * and reuses them between consecutive probes of the same endpoint.
+ *
+ * Host names are verified as configured for Vespa TLS: The JDK client always asks for HTTPS endpoint
+ * identification, but the trust manager of Vespa TLS contexts overrides this in each handshake, and skips it
+ * when hostname validation is disabled. This is the same trust manager which did all verification
+ * behind the no-op hostname verifier of the Apache client used before.
+ *
+ * @author bratseth
+ */
+class StateV1HealthProber implements AutoCloseable {
+
+    private static final long MAX_CONTENT_LENGTH = 1L << 20; // 1 MB
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Duration requestTimeout;
+    private final ServiceMonitorMetrics metrics;
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final boolean useHttps;
+
+    StateV1HealthProber(Duration requestTimeout, ServiceMonitorMetrics metrics) {
+        this(requestTimeout, metrics, TransportSecurityUtils.createTlsContext(),
+             TransportSecurityUtils.getInsecureMixedMode() != MixedMode.PLAINTEXT_CLIENT_MIXED_SERVER);
+    }
+
+    /** Creates a prober which uses the given TLS context, and rewrites requests to https if useHttps is also true */
+    StateV1HealthProber(Duration requestTimeout, ServiceMonitorMetrics metrics, Optional<TlsContext> tlsContext, boolean useHttps) {
+        this.requestTimeout = requestTimeout;
+        this.metrics = metrics;
+        this.executor = Executors.newFixedThreadPool(2, new DaemonThreadFactory("health-prober-"));
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                                               .version(HttpClient.Version.HTTP_1_1)
+                                               .connectTimeout(requestTimeout)
+                                               .followRedirects(HttpClient.Redirect.NEVER)
+                                               .executor(executor);
+        tlsContext.ifPresent(context -> builder.sslContext(context.context()).sslParameters(context.parameters()));
+        this.client = builder.build();
+        this.useHttps = tlsContext.isPresent() && useHttps;
+    }
+
+    /**
+     * Starts a probe of the given endpoint and returns the health info it will complete with.
+     * The returned future always completes normally, within the request timeout.
+     */
+    CompletableFuture<HealthInfo> probe(URL url) {
+        HttpRequest request = HttpRequest.newBuilder(toUri(url))
+                                         .header("User-Agent", "service-monitor")
+                                         .timeout(requestTimeout)
+                                         .GET()
+                                         .build();
+        LatencyMeasurement latency = metrics.startHealthProbeLatencyMeasurement();
+        return client.sendAsync(request, StateV1HealthProber::bodyHandler)
+                     .orTimeout(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                     .handle((response, exception) -> {
+                         latency.close();
+                         return exception == null ? toHealthInfo(response) : HealthInfo.fromException(unwrap(exception, url));
+                     });
+    }
+
+    private URI toUri(URL url) {
+        return toUri(url, useHttps);
+    }
+
+    /** Returns the URI to request for the given URL, which is rewritten to https if useHttps is true */
+    static URI toUri(URL url, boolean useHttps) {
+        String uri = url.toString();
+        if (useHttps && uri.startsWith("http:"))
+            uri = "https:" + uri.substring("http:".length());
+        return URI.create(uri);
+    }
+
+    /** Discards bodies which are too large instead of reading them into memory */
+    private static HttpResponse.BodySubscriber<byte[]> bodyHandler(HttpResponse.ResponseInfo responseInfo) {
+        if (contentLength(responseInfo.headers()) > MAX_CONTENT_LENGTH)
+            return HttpResponse.BodySubscribers.replacing(null);
+        return HttpResponse.BodySubscribers.ofByteArray();
+    }
+
+    private static HealthInfo toHealthInfo(HttpResponse<byte[]> response) {
+        int httpStatusCode = response.statusCode();
+        if (httpStatusCode < 200 || httpStatusCode >= 300) {
+            return HealthInfo.fromBadHttpStatusCode(httpStatusCode);
+        }
+
+        try {
+            if (response.body() == null) {
+                throw new IllegalArgumentException("Content too long: " + contentLength(response.headers()) + " bytes");
+            }
+            return toHealthInfo(response.body());
+        } catch (Exception e) {
+            return HealthInfo.fromException(e);
+        }
+    }
+
+    /** Returns the health info in the given /state/v1/health response body */
+    static HealthInfo toHealthInfo(byte[] body) throws IOException {
+        HealthResponse healthResponse = MAPPER.readValue(body, HealthResponse.class);
+        if (healthResponse.status == null || healthResponse.status.code == null) {
+            return HealthInfo.fromHealthStatusCode(HealthResponse.Status.DEFAULT_STATUS);
+        } else {
+            return HealthInfo.fromHealthStatusCode(healthResponse.status.code);
+        }
+    }
+
+    private static long contentLength(HttpHeaders headers) {
+        return headers.firstValueAsLong("Content-Length").orElse(-1);
+    }
+
+    private Exception unwrap(Throwable exception, URL url) {
+        if (exception instanceof CompletionException && exception.getCause() != null)
+            exception = exception.getCause();
+        if (exception instanceof TimeoutException)
+            return new TimeoutException("No response from " + url + " within " + requestTimeout.toMillis() + " ms");
+        return exception instanceof Exception ? (Exception) exception : new RuntimeException(exception);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+}
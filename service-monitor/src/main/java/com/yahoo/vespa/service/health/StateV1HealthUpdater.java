@@ -5,9 +5,11 @@ import com.yahoo.vespa.applicationmodel.ServiceStatus;
 import com.yahoo.vespa.applicationmodel.ServiceStatusInfo;
 
 import java.net.URL;
-import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -22,17 +24,22 @@ class StateV1HealthUpdater implements HealthUpdater {
 
 
     private final String endpoint;
-    private final StateV1HealthClient healthClient;
+    private final Supplier<CompletableFuture<HealthInfo>> probe;
+
+    /** Whether a probe has been started and has not yet completed */
+    private final AtomicBoolean probing = new AtomicBoolean(false);
 
     private volatile ServiceStatusInfo serviceStatusInfo = new ServiceStatusInfo(ServiceStatus.NOT_CHECKED);
 
-    StateV1HealthUpdater(URL url, Duration requestTimeout, Duration connectionKeepAlive) {
-        this(url.toString(), new StateV1HealthClient(url, requestTimeout, connectionKeepAlive));
+    /** Creates an updater probing the given endpoint asynchronously through a prober shared with other updaters */
+    StateV1HealthUpdater(URL url, StateV1HealthProber prober) {
+        this(url.toString(), () -> prober.probe(url));
     }
 
-    StateV1HealthUpdater(String endpoint, StateV1HealthClient healthClient) {
+    /** Creates an updater getting the health of the given endpoint from the given probe */
+    StateV1HealthUpdater(String endpoint, Supplier<CompletableFuture<HealthInfo>> probe) {
         this.endpoint = endpoint;
-        this.healthClient = healthClient;
+        this.probe = probe;
     }
 
     @Override
@@ -40,18 +47,38 @@ class StateV1HealthUpdater implements HealthUpdater {
         return serviceStatusInfo;
     }
 
+    /**
+     * Starts a probe of the endpoint, whose result is published when it completes.
+     * This returns without probing if the previous probe is still in progress, such that slow endpoints
+     * are probed less frequently rather than accumulating outstanding requests.
+     */
     @Override
     public void run() {
+        if ( ! probing.compareAndSet(false, true)) return;
+
         // Get time before fetching rather than after, to make the resulting age be an upper limit.
         Instant now = Instant.now();
 
-        HealthInfo healthInfo;
+        CompletableFuture<HealthInfo> result;
         try {
-            healthInfo = healthClient.get();
-        } catch (Exception e) {
-            healthInfo = HealthInfo.fromException(e);
+            result = probe.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.completedFuture(HealthInfo.fromException(e));
         }
 
+        result.whenComplete((healthInfo, exception) -> {
+            try {
+                if (exception != null)
+                    healthInfo = HealthInfo.fromException(exception instanceof Exception ? (Exception) exception
+                                                                                          : new RuntimeException(exception));
+                update(now, healthInfo);
+            } finally {
+                probing.set(false);
+            }
+        });
+    }
+
+    private void update(Instant now, HealthInfo healthInfo) {
         ServiceStatus newServiceStatus = healthInfo.isHealthy() ? ServiceStatus.UP : ServiceStatus.DOWN;
 
         final Optional<Instant> newSince;
@@ -71,8 +98,6 @@ class StateV1HealthUpdater implements HealthUpdater {
     }
 
     @Override
-    public void close() {
-        healthClient.close();
-    }
+    public void close() { }
 
 }
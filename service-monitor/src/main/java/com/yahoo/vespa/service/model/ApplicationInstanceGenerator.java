@@ -25,8 +25,10 @@ import com.yahoo.vespa.service.duper.ConfigServerApplication;
 import com.yahoo.vespa.service.monitor.ServiceId;
 import com.yahoo.vespa.service.monitor.ServiceStatusProvider;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -44,6 +46,9 @@ public class ApplicationInstanceGenerator {
     private final ApplicationInfo applicationInfo;
     private final Zone zone;
 
+    /** The services of the application, in the order of its hosts and their services, or null if not yet listed */
+    private volatile List<Service> services = null;
+
     // This is cheating a bit, but we don't expect DuperModel's config server application ID to be different.
     // We do this to avoid passing through the ID through multiple levels.
     private static final ApplicationId configServerApplicationId = new ConfigServerApplication().getApplicationId();
@@ -57,6 +62,49 @@ public class ApplicationInstanceGenerator {
         return makeApplicationInstanceLimitedToHosts(serviceStatusProvider, hostname -> true);
     }
 
+    /** Returns the application this generates instances of */
+    ApplicationInfo applicationInfo() { return applicationInfo; }
+
+    /** Returns the current status of each service of this application, in a stable order */
+    List<ServiceStatusInfo> serviceStatuses(ServiceStatusProvider serviceStatusProvider) {
+        List<Service> services = services();
+        List<ServiceStatusInfo> statuses = new ArrayList<>(services.size());
+        for (Service service : services)
+            statuses.add(serviceStatusProvider.getStatus(applicationInfo.getApplicationId(),
+                                                         service.clusterKey.clusterId(),
+                                                         service.clusterKey.serviceType(),
+                                                         service.configId));
+        return statuses;
+    }
+
+    /**
+     * Makes an application instance where the services have the given statuses.
+     *
+     * @param statuses the status of each service, as returned by {@link #serviceStatuses}
+     */
+    ApplicationInstance makeApplicationInstance(List<ServiceStatusInfo> statuses) {
+        List<Service> services = services();
+        Map<ServiceClusterKey, Set<ServiceInstance>> groupedServiceInstances = new HashMap<>();
+        for (int i = 0; i < services.size(); i++) {
+            Service service = services.get(i);
+            groupedServiceInstances.computeIfAbsent(service.clusterKey, key -> new HashSet<>())
+                                   .add(new ServiceInstance(service.configId, service.hostName, statuses.get(i)));
+        }
+        return toApplicationInstance(groupedServiceInstances);
+    }
+
+    private List<Service> services() {
+        if (services != null) return services;
+
+        List<Service> services = new ArrayList<>();
+        for (HostInfo host : applicationInfo.getModel().getHosts()) {
+            HostName hostName = new HostName(host.getHostname());
+            for (ServiceInfo serviceInfo : host.getServices())
+                services.add(new Service(toServiceClusterKey(serviceInfo), toConfigId(serviceInfo), hostName));
+        }
+        return this.services = List.copyOf(services);
+    }
+
     public ApplicationInstanceReference toApplicationInstanceReference() {
         return toApplicationInstanceReference(applicationInfo.getApplicationId(), zone);
     }
@@ -130,6 +178,10 @@ public class ApplicationInstanceGenerator {
             }
         }
 
+        return toApplicationInstance(groupedServiceInstances);
+    }
+
+    private ApplicationInstance toApplicationInstance(Map<ServiceClusterKey, Set<ServiceInstance>> groupedServiceInstances) {
         Set<ServiceCluster> serviceClusters = groupedServiceInstances.entrySet().stream()
                 .map(entry -> new ServiceCluster(
                         entry.getKey().clusterId(),
@@ -204,4 +256,19 @@ public class ApplicationInstanceGenerator {
     private static ConfigId toConfigId(ServiceInfo serviceInfo) {
         return new ConfigId(serviceInfo.getConfigId());
     }
+
+    private static class Service {
+
+        private final ServiceClusterKey clusterKey;
+        private final ConfigId configId;
+        private final HostName hostName;
+
+        Service(ServiceClusterKey clusterKey, ConfigId configId, HostName hostName) {
+            this.clusterKey = clusterKey;
+            this.configId = configId;
+            this.hostName = hostName;
+        }
+
+    }
+
 }
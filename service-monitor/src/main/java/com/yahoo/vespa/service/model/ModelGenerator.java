@@ -7,23 +7,34 @@ import com.yahoo.config.provision.Zone;
 import com.yahoo.vespa.applicationmodel.ApplicationInstance;
 import com.yahoo.vespa.applicationmodel.ApplicationInstanceReference;
 import com.yahoo.vespa.applicationmodel.HostName;
+import com.yahoo.vespa.applicationmodel.ServiceStatusInfo;
 import com.yahoo.vespa.service.monitor.ServiceModel;
 import com.yahoo.vespa.service.monitor.ServiceStatusProvider;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
- * Util to make ServiceModel and its related application model classes
+ * Util to make ServiceModel and its related application model classes.
+ *
+ * <p>The instance made for each application is reused for as long as the application and the status
+ * of all its services are unchanged, and the service model is reused when all its applications are.</p>
  */
 public class ModelGenerator {
     public static final String CLUSTER_ID_PROPERTY_NAME = "clustername";
 
     private final Zone zone;
 
+    /** The last instance made of each application */
+    private final Map<ApplicationId, GeneratedInstance> instances = new ConcurrentHashMap<>();
+
+    /** The last service model made, or null if none */
+    private volatile ServiceModel serviceModel = null;
+
     public ModelGenerator(Zone zone) {
         this.zone = zone;
     }
@@ -35,13 +46,22 @@ public class ModelGenerator {
      */
     public ServiceModel toServiceModel(List<ApplicationInfo> allApplicationInfos,
                                        ServiceStatusProvider serviceStatusProvider) {
-        Map<ApplicationInstanceReference, ApplicationInstance> applicationInstances =
-                allApplicationInfos.stream()
-                        .map(info -> new ApplicationInstanceGenerator(info, zone)
-                                .makeApplicationInstance(serviceStatusProvider))
-                        .collect(Collectors.toMap(ApplicationInstance::reference, Function.identity()));
+        ServiceModel previous = serviceModel;
+        boolean changed = previous == null || previous.getAllApplicationInstances().size() != allApplicationInfos.size();
+        Map<ApplicationInstanceReference, ApplicationInstance> applicationInstances = new HashMap<>();
+        for (ApplicationInfo info : allApplicationInfos) {
+            ApplicationInstance instance = toApplicationInstance(info, serviceStatusProvider);
+            if (applicationInstances.put(instance.reference(), instance) != null)
+                throw new IllegalStateException("Duplicate application instance " + instance.reference());
+            if ( ! changed)
+                changed = previous.getApplicationInstance(instance.reference()).orElse(null) != instance;
+        }
+        if (instances.size() > allApplicationInfos.size())
+            instances.keySet().retainAll(allApplicationInfos.stream().map(ApplicationInfo::getApplicationId)
+                                                            .collect(Collectors.toSet()));
+        if ( ! changed) return previous;
 
-        return new ServiceModel(applicationInstances);
+        return serviceModel = new ServiceModel(applicationInstances);
     }
 
     public Set<ApplicationInstanceReference> toApplicationInstanceReferenceSet(List<ApplicationInfo> infos) {
@@ -52,8 +72,17 @@ public class ModelGenerator {
 
     public ApplicationInstance toApplicationInstance(ApplicationInfo applicationInfo,
                                                      ServiceStatusProvider serviceStatusProvider) {
-        var generator = new ApplicationInstanceGenerator(applicationInfo, zone);
-        return generator.makeApplicationInstance(serviceStatusProvider);
+        GeneratedInstance previous = instances.get(applicationInfo.getApplicationId());
+        var generator = previous != null && previous.generator.applicationInfo() == applicationInfo
+                        ? previous.generator
+                        : new ApplicationInstanceGenerator(applicationInfo, zone);
+        List<ServiceStatusInfo> statuses = generator.serviceStatuses(serviceStatusProvider);
+        if (previous != null && previous.generator == generator && previous.statuses.equals(statuses))
+            return previous.instance;
+
+        var instance = generator.makeApplicationInstance(statuses);
+        instances.put(applicationInfo.getApplicationId(), new GeneratedInstance(generator, statuses, instance));
+        return instance;
     }
 
     /**
@@ -71,4 +100,20 @@ public class ModelGenerator {
     public ApplicationInstanceReference toApplicationInstanceReference(ApplicationId applicationId) {
         return ApplicationInstanceGenerator.toApplicationInstanceReference(applicationId, zone);
     }
+
+    /** An application instance and what it was generated from */
+    private static class GeneratedInstance {
+
+        private final ApplicationInstanceGenerator generator;
+        private final List<ServiceStatusInfo> statuses;
+        private final ApplicationInstance instance;
+
+        GeneratedInstance(ApplicationInstanceGenerator generator, List<ServiceStatusInfo> statuses, ApplicationInstance instance) {
+            this.generator = generator;
+            this.statuses = statuses;
+            this.instance = instance;
+        }
+
+    }
+
 }
@@ -24,6 +24,13 @@ public class ServiceMonitorMetrics {
         return new LatencyMeasurement(timer, atCompletion).start();
     }
 
+    /** Measures the time from a health probe is sent until its response is received, or it fails */
+    public LatencyMeasurement startHealthProbeLatencyMeasurement() {
+        Consumer<Double> atCompletion = elapsedSeconds ->
+                setValue(metricKey("healthProbe.latency"), elapsedSeconds);
+        return new LatencyMeasurement(timer, atCompletion).start();
+    }
+
     private static String metricKey(String suffix) {
         return SERVICE_MODEL_METRIC_PREFIX + suffix;
     }
@@ -32,8 +32,8 @@ public class ServiceModel {
 
     private final Map<ApplicationInstanceReference, ApplicationInstance> applicationsByReference;
 
-    private Map<HostName, ApplicationInstance> applicationsByHostName = null;
-    private Map<HostName, List<ServiceInstance>> servicesByHostName = null;
+    private volatile Map<HostName, ApplicationInstance> applicationsByHostName = null;
+    private volatile Map<HostName, List<ServiceInstance>> servicesByHostName = null;
 
     public ServiceModel(Map<ApplicationInstanceReference, ApplicationInstance> applicationsByReference) {
         this.applicationsByReference = Collections.unmodifiableMap(Map.copyOf(applicationsByReference));
@@ -63,7 +63,10 @@ public class ServiceModel {
         return servicesByHostName;
     }
 
-    private void fillMaps() {
+    /** Fills the host indices. This is synchronized as service models may be shared between threads. */
+    private synchronized void fillMaps() {
+        if (applicationsByHostName != null) return;
+
         Map<HostName, ApplicationInstance> applicationInstances = new HashMap<>();
         Map<HostName, List<ServiceInstance>> serviceInstances = new HashMap<>();
 
@@ -84,8 +87,8 @@ public class ServiceModel {
             }
         }
 
-        applicationsByHostName = Collections.unmodifiableMap(applicationInstances);
         servicesByHostName = Collections.unmodifiableMap(serviceInstances);
+        applicationsByHostName = Collections.unmodifiableMap(applicationInstances);
     }
 
 }
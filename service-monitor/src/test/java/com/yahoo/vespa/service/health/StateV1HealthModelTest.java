@@ -12,6 +12,7 @@ import com.yahoo.vespa.applicationmodel.ServiceType;
 import com.yahoo.vespa.service.duper.ProxyHostApplication;
 import com.yahoo.vespa.service.executor.Cancellable;
 import com.yahoo.vespa.service.executor.RunletExecutor;
+import com.yahoo.vespa.service.model.ServiceMonitorMetrics;
 import com.yahoo.vespa.service.monitor.ServiceId;
 import org.junit.Test;
 
@@ -36,12 +37,11 @@ public class StateV1HealthModelTest {
     private RunletExecutor executor = mock(RunletExecutor.class);
     private Duration healthStaleness = Duration.ofSeconds(1);
     private Duration requestTimeout = Duration.ofSeconds(2);
-    private Duration keepAlive = Duration.ofSeconds(3);
     private final ProxyHostApplication proxyHostApplication = new ProxyHostApplication();
     private final List<HostName> hostnames = Stream.of("host1", "host2").map(HostName::from).collect(Collectors.toList());
     private final ApplicationInfo proxyHostApplicationInfo = proxyHostApplication.makeApplicationInfo(hostnames);
 
-    private final StateV1HealthModel model = new StateV1HealthModel(healthStaleness, requestTimeout, keepAlive, executor);
+    private final StateV1HealthModel model = new StateV1HealthModel(healthStaleness, requestTimeout, executor, mock(ServiceMonitorMetrics.class));
 
     @Test
     public void test() {
@@ -7,27 +7,28 @@ import com.yahoo.vespa.service.executor.RunletExecutorImpl;
 import org.junit.Test;
 
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 public class StateV1HealthMonitorTest {
     @Test
     public void downThenUpThenDown() throws Exception {
-        StateV1HealthClient client = mock(StateV1HealthClient.class);
+        AtomicReference<HealthInfo> health = new AtomicReference<>(HealthInfo.fromException(new IllegalStateException("not yet")));
 
-        StateV1HealthUpdater updater = new StateV1HealthUpdater("https://foo/state/v1/health", client);
+        StateV1HealthUpdater updater = new StateV1HealthUpdater("https://foo/state/v1/health",
+                                                                () -> CompletableFuture.completedFuture(health.get()));
         RunletExecutor executor = new RunletExecutorImpl(2);
         try (StateV1HealthMonitor monitor = new StateV1HealthMonitor(updater, executor, Duration.ofMillis(10))) {
             assertEquals(ServiceStatus.NOT_CHECKED, monitor.getStatus().serviceStatus());
 
-            when(client.get()).thenReturn(HealthInfo.fromHealthStatusCode(HealthInfo.UP_STATUS_CODE));
+            health.set(HealthInfo.fromHealthStatusCode(HealthInfo.UP_STATUS_CODE));
             while (monitor.getStatus().serviceStatus() != ServiceStatus.UP) {
                 try { Thread.sleep(2); } catch (InterruptedException ignored) { }
             }
 
-            when(client.get()).thenReturn(HealthInfo.fromException(new IllegalStateException("foo")));
+            health.set(HealthInfo.fromException(new IllegalStateException("foo")));
             while (monitor.getStatus().serviceStatus() != ServiceStatus.DOWN) {
                 try { Thread.sleep(2); } catch (InterruptedException ignored) { }
             }
@@ -0,0 +1,228 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.service.health;
+
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import com.yahoo.jdisc.Metric;
+import com.yahoo.security.KeyUtils;
+import com.yahoo.security.X509CertificateBuilder;
+import com.yahoo.security.tls.AuthorizationMode;
+import com.yahoo.security.tls.DefaultTlsContext;
+import com.yahoo.security.tls.HostnameVerification;
+import com.yahoo.security.tls.PeerAuthentication;
+import com.yahoo.security.tls.TlsContext;
+import com.yahoo.security.tls.policy.AuthorizedPeers;
+import com.yahoo.text.Utf8;
+import com.yahoo.vespa.service.model.ServiceMonitorMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.security.KeyPair;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import javax.security.auth.x500.X500Principal;
+
+import static com.yahoo.security.KeyAlgorithm.EC;
+import static com.yahoo.security.SignatureAlgorithm.SHA256_WITH_ECDSA;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests probing a /state/v1/health endpoint served by a local HTTP server
+ *
+ * @author bratseth
+ */
+public class StateV1HealthProberTest {
+
+    private final CountDownLatch stopHandling = new CountDownLatch(1);
+    private HttpServer server;
+    private StateV1HealthProber prober;
+
+    private volatile int responseStatus = 200;
+    private volatile byte[] responseBody = new byte[0];
+    private volatile boolean respond = true;
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serveHealth(server);
+        server.start();
+        prober = new StateV1HealthProber(Duration.ofSeconds(1), metrics());
+    }
+
+    private void serveHealth(HttpServer server) {
+        server.createContext("/state/v1/health", exchange -> {
+            try {
+                if ( ! respond)
+                    stopHandling.await();
+                exchange.sendResponseHeaders(responseStatus, responseBody.length == 0 ? -1 : responseBody.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(responseBody);
+                }
+            }
+            catch (InterruptedException | IOException e) {
+                // Client is gone
+            }
+            finally {
+                exchange.close();
+            }
+        });
+    }
+
+    @After
+    public void stopServer() {
+        stopHandling.countDown();
+        prober.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void upResponse() {
+        HealthInfo info = probe(200, "{\n" +
+                                     "    \"metrics\": {\n" +
+                                     "        \"snapshot\": {\n" +
+                                     "            \"from\": 1.528789829249E9,\n" +
+                                     "            \"to\": 1.528789889249E9\n" +
+                                     "        }\n" +
+                                     "    },\n" +
+                                     "    \"status\": {\"code\": \"up\"},\n" +
+                                     "    \"time\": 1528789889364\n" +
+                                     "}");
+        assertTrue(info.isHealthy());
+        assertFalse(info.getErrorDescription().isPresent());
+    }
+
+    @Test
+    public void notUpResponse() {
+        HealthInfo info = probe(200, "{\"status\": {\"code\": \"initializing\"}}");
+        assertFalse(info.isHealthy());
+        assertEquals("Bad health status code 'initializing'", info.toString());
+    }
+
+    @Test
+    public void noCodeInResponse() {
+        assertEquals("Bad health status code 'down'", probe(200, "{\"status\": {\"foo\": \"bar\"}}").toString());
+    }
+
+    @Test
+    public void noStatusInResponse() {
+        assertEquals("Bad health status code 'down'", probe(200, "{\"time\": 1528789889364}").toString());
+    }
+
+    @Test
+    public void badJson() {
+        assertTrue(probe(200, "} foo bar").toString().startsWith("Exception: Unexpected close marker '}': "));
+    }
+
+    @Test
+    public void badHttpResponseCode() {
+        HealthInfo info = probe(500, "{\"status\": {\"code\": \"up\"}}");
+        assertFalse(info.isHealthy());
+        assertEquals("Bad HTTP response status code 500", info.toString());
+    }
+
+    @Test
+    public void tooLargeResponse() {
+        StringBuilder body = new StringBuilder("{\"status\": {\"code\": \"up\"}, \"padding\": \"");
+        while (body.length() <= (1 << 20))
+            body.append("0123456789abcdef");
+        body.append("\"}");
+        HealthInfo info = probe(200, body.toString());
+        assertFalse(info.isHealthy());
+        assertEquals("Exception: Content too long: " + Utf8.toBytes(body.toString()).length + " bytes", info.toString());
+    }
+
+    @Test
+    public void noResponseWithinTimeout() {
+        respond = false;
+        HealthInfo info = prober.probe(url()).join();
+        assertFalse(info.isHealthy());
+        assertEquals("Exception: No response from " + url() + " within 1000 ms", info.toString());
+    }
+
+    @Test
+    public void noServer() {
+        server.stop(0);
+        HealthInfo info = prober.probe(url()).join();
+        assertFalse(info.isHealthy());
+        assertTrue(info.toString().startsWith("Exception: "));
+    }
+
+    @Test
+    public void httpIsRewrittenToHttpsOnlyWhenUsingHttps() throws IOException {
+        URL url = new URL("http://host.com:19071/state/v1/health");
+        assertEquals("https://host.com:19071/state/v1/health", StateV1HealthProber.toUri(url, true).toString());
+        assertEquals("http://host.com:19071/state/v1/health", StateV1HealthProber.toUri(url, false).toString());
+        assertEquals("https://host.com:19071/state/v1/health",
+                     StateV1HealthProber.toUri(new URL("https://host.com:19071/state/v1/health"), false).toString());
+    }
+
+    @Test
+    public void hostnamesAreVerifiedAsConfiguredForVespaTls() throws IOException {
+        KeyPair keyPair = KeyUtils.generateKeypair(EC);
+        X509Certificate certificate = X509CertificateBuilder
+                .fromKeypair(keyPair, new X500Principal("CN=some.other.host"), Instant.EPOCH, Instant.now().plus(Duration.ofDays(1)),
+                             SHA256_WITH_ECDSA, X509CertificateBuilder.generateRandomSerialNumber())
+                .addSubjectAlternativeName("some.other.host")
+                .build();
+        HttpsServer httpsServer = HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpsServer.setHttpsConfigurator(new HttpsConfigurator(tlsContext(certificate, keyPair, HostnameVerification.DISABLED).context()));
+        serveHealth(httpsServer);
+        httpsServer.start();
+        responseBody = Utf8.toBytes("{\"status\": {\"code\": \"up\"}}");
+        URL url = new URL("http", httpsServer.getAddress().getHostString(), httpsServer.getAddress().getPort(), "/state/v1/health");
+        try (StateV1HealthProber disabled = new StateV1HealthProber(Duration.ofSeconds(5), metrics(),
+                                                                    Optional.of(tlsContext(certificate, keyPair, HostnameVerification.DISABLED)),
+                                                                    true);
+             StateV1HealthProber enabled = new StateV1HealthProber(Duration.ofSeconds(5), metrics(),
+                                                                   Optional.of(tlsContext(certificate, keyPair, HostnameVerification.ENABLED)),
+                                                                   true)) {
+            assertEquals("Trusted certificate, and no hostname verification", "up", disabled.probe(url).join().toString());
+            HealthInfo info = enabled.probe(url).join();
+            assertFalse("Trusted certificate for another host: " + info, info.isHealthy());
+        }
+        finally {
+            httpsServer.stop(0);
+        }
+    }
+
+    private static TlsContext tlsContext(X509Certificate certificate, KeyPair keyPair, HostnameVerification hostnameVerification) {
+        return new DefaultTlsContext(List.of(certificate), keyPair.getPrivate(), List.of(certificate), new AuthorizedPeers(Set.of()),
+                                     AuthorizationMode.DISABLE, PeerAuthentication.WANT, hostnameVerification);
+    }
+
+    private static ServiceMonitorMetrics metrics() {
+        return new ServiceMonitorMetrics(mock(Metric.class), System::currentTimeMillis);
+    }
+
+    private HealthInfo probe(int status, String body) {
+        responseStatus = status;
+        responseBody = Utf8.toBytes(body);
+        return prober.probe(url()).join();
+    }
+
+    private URL url() {
+        try {
+            return new URL("http", server.getAddress().getHostString(), server.getAddress().getPort(), "/state/v1/health");
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
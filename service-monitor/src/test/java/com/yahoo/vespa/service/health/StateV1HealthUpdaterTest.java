@@ -3,168 +3,99 @@ package com.yahoo.vespa.service.health;
 
 import com.yahoo.vespa.applicationmodel.ServiceStatus;
 import com.yahoo.vespa.applicationmodel.ServiceStatusInfo;
-import org.apache.http.HttpEntity;
-import org.apache.http.StatusLine;
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.conn.ConnectTimeoutException;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.junit.Before;
 import org.junit.Test;
 
-import java.io.IOException;
-import java.net.URL;
-import java.util.function.Function;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 public class StateV1HealthUpdaterTest {
-    private URL url;
 
-    @Before
-    public void setUp() throws Exception{
-        url = new URL("http://host.com:19071");
-    }
+    private static final String endpoint = "http://host.com:19071/state/v1/health";
 
     @Test
-    public void successfulRequestResponse() throws IOException {
-        ServiceStatusInfo info = getServiceStatusInfoFromJsonResponse("{\n" +
-                "    \"metrics\": {\n" +
-                "        \"snapshot\": {\n" +
-                "            \"from\": 1.528789829249E9,\n" +
-                "            \"to\": 1.528789889249E9\n" +
-                "        }\n" +
-                "    },\n" +
-                "    \"status\": {\"code\": \"up\"},\n" +
-                "    \"time\": 1528789889364\n" +
-                "}");
+    public void healthyProbe() {
+        ServiceStatusInfo info = statusAfterProbing(CompletableFuture.completedFuture(HealthInfo.fromHealthStatusCode("up")));
         assertEquals(ServiceStatus.UP, info.serviceStatus());
         assertNull(info.errorOrNull());
+        assertEquals(endpoint, info.endpointOrNull());
     }
 
     @Test
-    public void notUpResponse() throws IOException {
-        ServiceStatusInfo info = getServiceStatusInfoFromJsonResponse("{\n" +
-                "    \"metrics\": {\n" +
-                "        \"snapshot\": {\n" +
-                "            \"from\": 1.528789829249E9,\n" +
-                "            \"to\": 1.528789889249E9\n" +
-                "        }\n" +
-                "    },\n" +
-                "    \"status\": {\"code\": \"initializing\"},\n" +
-                "    \"time\": 1528789889364\n" +
-                "}");
+    public void unhealthyProbe() {
+        ServiceStatusInfo info = statusAfterProbing(CompletableFuture.completedFuture(HealthInfo.fromHealthStatusCode("initializing")));
         assertEquals(ServiceStatus.DOWN, info.serviceStatus());
         assertEquals("Bad health status code 'initializing'", info.errorOrNull());
     }
 
     @Test
-    public void noCodeInResponse() throws IOException {
-        ServiceStatusInfo info = getServiceStatusInfoFromJsonResponse("{\n" +
-                "    \"metrics\": {\n" +
-                "        \"snapshot\": {\n" +
-                "            \"from\": 1.528789829249E9,\n" +
-                "            \"to\": 1.528789889249E9\n" +
-                "        }\n" +
-                "    },\n" +
-                "    \"status\": {\"foo\": \"bar\"},\n" +
-                "    \"time\": 1528789889364\n" +
-                "}");
+    public void failedProbe() {
+        ServiceStatusInfo info = statusAfterProbing(CompletableFuture.failedFuture(new IllegalStateException("exception string")));
         assertEquals(ServiceStatus.DOWN, info.serviceStatus());
-        assertEquals("Bad health status code 'down'", info.errorOrNull());
+        assertEquals("Exception: exception string", info.errorOrNull());
     }
 
     @Test
-    public void noStatusInResponse() throws IOException {
-        ServiceStatusInfo info = getServiceStatusInfoFromJsonResponse("{\n" +
-                "    \"metrics\": {\n" +
-                "        \"snapshot\": {\n" +
-                "            \"from\": 1.528789829249E9,\n" +
-                "            \"to\": 1.528789889249E9\n" +
-                "        }\n" +
-                "    },\n" +
-                "    \"time\": 1528789889364\n" +
-                "}");
-        assertEquals(ServiceStatus.DOWN, info.serviceStatus());
-        assertEquals("Bad health status code 'down'", info.errorOrNull());
+    public void probeThrowing() {
+        try (StateV1HealthUpdater updater = new StateV1HealthUpdater(endpoint, () -> { throw new IllegalStateException("exception string"); })) {
+            updater.run();
+            assertEquals(ServiceStatus.DOWN, updater.getServiceStatusInfo().serviceStatus());
+            assertEquals("Exception: exception string", updater.getServiceStatusInfo().errorOrNull());
+        }
     }
 
     @Test
-    public void badJson() throws IOException {
-        ServiceStatusInfo info = getServiceStatusInfoFromJsonResponse("} foo bar");
-        assertEquals(ServiceStatus.DOWN, info.serviceStatus());
-        assertTrue(info.errorOrNull().startsWith("Exception: Unexpected close marker '}': "));
-    }
-
-    private ServiceStatusInfo getServiceStatusInfoFromJsonResponse(String content)
-            throws IOException {
-        CloseableHttpClient client = mock(CloseableHttpClient.class);
-
-        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
-        when(client.execute(any())).thenReturn(response);
-
-        StatusLine statusLine = mock(StatusLine.class);
-        when(response.getStatusLine()).thenReturn(statusLine);
-
-        when(statusLine.getStatusCode()).thenReturn(200);
+    public void noNewProbeIsStartedWhileOneIsInFlight() {
+        AtomicInteger probes = new AtomicInteger();
+        AtomicReference<CompletableFuture<HealthInfo>> result = new AtomicReference<>();
+        try (StateV1HealthUpdater updater = new StateV1HealthUpdater(endpoint, () -> {
+            probes.incrementAndGet();
+            result.set(new CompletableFuture<>());
+            return result.get();
+        })) {
+            updater.run();
+            updater.run();
+            assertEquals(1, probes.get());
+            assertEquals(ServiceStatus.NOT_CHECKED, updater.getServiceStatusInfo().serviceStatus());
 
-        HttpEntity httpEntity = mock(HttpEntity.class);
-        when(response.getEntity()).thenReturn(httpEntity);
+            result.get().complete(HealthInfo.fromHealthStatusCode("up"));
+            assertEquals(ServiceStatus.UP, updater.getServiceStatusInfo().serviceStatus());
+            updater.run();
+            assertEquals(2, probes.get());
 
-        try (StateV1HealthUpdater updater = makeUpdater(client, entry -> content)) {
-            when(httpEntity.getContentLength()).thenReturn((long) content.length());
+            result.get().complete(HealthInfo.fromHealthStatusCode("up"));
             updater.run();
-            return updater.getServiceStatusInfo();
+            assertEquals(3, probes.get());
         }
     }
 
     @Test
-    public void testRequestException() throws IOException {
-        CloseableHttpClient client = mock(CloseableHttpClient.class);
-
-        when(client.execute(any())).thenThrow(new ConnectTimeoutException("exception string"));
+    public void sinceIsKeptWhileTheStatusIsUnchanged() {
+        AtomicReference<HealthInfo> health = new AtomicReference<>(HealthInfo.fromHealthStatusCode("up"));
+        try (StateV1HealthUpdater updater = new StateV1HealthUpdater(endpoint, () -> CompletableFuture.completedFuture(health.get()))) {
+            updater.run();
+            ServiceStatusInfo first = updater.getServiceStatusInfo();
+            updater.run();
+            assertEquals(first.since(), updater.getServiceStatusInfo().since());
 
-        try (StateV1HealthUpdater updater = makeUpdater(client, entry -> "")) {
+            health.set(HealthInfo.fromBadHttpStatusCode(500));
             updater.run();
-            ServiceStatusInfo info = updater.getServiceStatusInfo();
-            assertEquals(ServiceStatus.DOWN, info.serviceStatus());
-            assertEquals("Exception: exception string", info.errorOrNull());
+            ServiceStatusInfo down = updater.getServiceStatusInfo();
+            assertEquals(ServiceStatus.DOWN, down.serviceStatus());
+            assertTrue( ! down.since().get().isBefore(first.since().get()));
+            assertEquals("Bad HTTP response status code 500", down.errorOrNull());
         }
     }
 
-    @Test
-    public void testBadHttpResponseCode()
-            throws IOException {
-        CloseableHttpClient client = mock(CloseableHttpClient.class);
-
-        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
-        when(client.execute(any())).thenReturn(response);
-
-        StatusLine statusLine = mock(StatusLine.class);
-        when(response.getStatusLine()).thenReturn(statusLine);
-
-        when(statusLine.getStatusCode()).thenReturn(500);
-
-        HttpEntity httpEntity = mock(HttpEntity.class);
-        when(response.getEntity()).thenReturn(httpEntity);
-
-        String content = "{}";
-        try (HealthUpdater updater = makeUpdater(client, entry -> content)) {
-            when(httpEntity.getContentLength()).thenReturn((long) content.length());
+    private ServiceStatusInfo statusAfterProbing(CompletableFuture<HealthInfo> result) {
+        try (StateV1HealthUpdater updater = new StateV1HealthUpdater(endpoint, () -> result)) {
             updater.run();
-            ServiceStatusInfo info = updater.getServiceStatusInfo();
-            assertEquals(ServiceStatus.DOWN, info.serviceStatus());
-            assertEquals("Bad HTTP response status code 500", info.errorOrNull());
+            return updater.getServiceStatusInfo();
         }
     }
 
-    private StateV1HealthUpdater makeUpdater(CloseableHttpClient client, Function<HttpEntity, String> getContentFunction) {
-        ApacheHttpClient apacheHttpClient = new ApacheHttpClient(url, client);
-        StateV1HealthClient healthClient = new StateV1HealthClient(apacheHttpClient, getContentFunction);
-        return new StateV1HealthUpdater(url.toString(), healthClient);
-    }
-}
\ No newline at end of file
+}
@@ -25,6 +25,8 @@ import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -73,6 +75,40 @@ public class ModelGeneratorTest {
         }
     }
 
+    @Test
+    public void unchangedApplicationsAreReused() {
+        ModelGenerator modelGenerator = new ModelGenerator(new Zone(Environment.from(ENVIRONMENT), RegionName.from(REGION)));
+        SlobrokMonitorManagerImpl slobrokMonitorManager = mock(SlobrokMonitorManagerImpl.class);
+        when(slobrokMonitorManager.getStatus(any(), any(), any(), any()))
+                .thenReturn(new ServiceStatusInfo(ServiceStatus.UP));
+        List<ApplicationInfo> applicationInfos = getExampleApplicationInfos();
+
+        ServiceModel serviceModel = modelGenerator.toServiceModel(applicationInfos, slobrokMonitorManager);
+        assertSame(serviceModel, modelGenerator.toServiceModel(applicationInfos, slobrokMonitorManager));
+
+        when(slobrokMonitorManager.getStatus(any(), any(), any(), any()))
+                .thenReturn(new ServiceStatusInfo(ServiceStatus.DOWN));
+        ServiceModel changedStatusModel = modelGenerator.toServiceModel(applicationInfos, slobrokMonitorManager);
+        assertNotSame(serviceModel, changedStatusModel);
+        changedStatusModel.getServiceInstancesByHostName().values().stream().flatMap(List::stream)
+                          .forEach(instance -> assertEquals(ServiceStatus.DOWN, instance.serviceStatus()));
+
+        ApplicationInfo redeployedConfigServer = ConfigserverUtil.makeExampleConfigServer();
+        List<ApplicationInfo> redeployedInfos = List.of(redeployedConfigServer, applicationInfos.get(1));
+        ServiceModel redeployedModel = modelGenerator.toServiceModel(redeployedInfos, slobrokMonitorManager);
+        assertNotSame(changedStatusModel, redeployedModel);
+        ApplicationInstance other = modelGenerator.toApplicationInstance(applicationInfos.get(1), slobrokMonitorManager);
+        assertSame(changedStatusModel.getApplicationInstance(other.reference()).get(),
+                   redeployedModel.getApplicationInstance(other.reference()).get());
+        ApplicationInstance configServer = modelGenerator.toApplicationInstance(redeployedConfigServer, slobrokMonitorManager);
+        assertNotSame(changedStatusModel.getApplicationInstance(configServer.reference()).get(),
+                      redeployedModel.getApplicationInstance(configServer.reference()).get());
+
+        ServiceModel removedModel = modelGenerator.toServiceModel(List.of(applicationInfos.get(1)), slobrokMonitorManager);
+        assertEquals(1, removedModel.getAllApplicationInstances().size());
+        assertSame(other, removedModel.getApplicationInstance(other.reference()).get());
+    }
+
     private List<ApplicationInfo> getExampleApplicationInfos() {
         List<ApplicationInfo> applicationInfos = new ArrayList<>();
         ConfigserverConfig config = ConfigserverUtil.createExampleConfigserverConfig();
@@ -26,4 +26,19 @@ public class ServiceMonitorMetricsTest {
         verify(metric).set("serviceModel.snapshot.latency", 0.5, null);
     }
 
+    @Test
+    public void testHealthProbeLatency() {
+        Metric metric = mock(Metric.class);
+        Timer timer = mock(Timer.class);
+        ServiceMonitorMetrics metrics = new ServiceMonitorMetrics(metric, timer);
+
+        when(timer.currentTimeMillis()).thenReturn(Long.valueOf(1000), Long.valueOf(1250));
+
+        LatencyMeasurement measurement = metrics.startHealthProbeLatencyMeasurement();
+        measurement.close();
+        measurement.close();
+
+        verify(metric).set("serviceModel.healthProbe.latency", 0.25, null);
+    }
+
 }
\ No newline at end of file
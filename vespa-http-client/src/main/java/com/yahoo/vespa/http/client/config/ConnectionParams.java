@@ -26,6 +26,25 @@ import java.util.concurrent.TimeUnit;
  */
 public final class ConnectionParams {
 
+    /** The compressions which may be applied to document operations sent to the server */
+    public enum Compression {
+        NONE(null),
+        /** Compresses with gzip. This is supported by all servers. */
+        GZIP("gzip"),
+        /** Compresses with the LZ4 frame format, which is faster than gzip but compresses less */
+        LZ4("lz4");
+
+        private final String contentEncoding;
+
+        Compression(String contentEncoding) {
+            this.contentEncoding = contentEncoding;
+        }
+
+        /** Returns the HTTP content encoding name of this, or null if none */
+        public String contentEncoding() { return contentEncoding; }
+
+    }
+
     /**
      * Builder for {@link ConnectionParams}.
      */
@@ -38,7 +57,7 @@ public final class ConnectionParams {
         private int numPersistentConnectionsPerEndpoint = 1;
         private String proxyHost = null;
         private int proxyPort = 8080;
-        private boolean useCompression = false;
+        private Compression compression = Compression.NONE;
         private int maxRetries = 100;
         private long minTimeBetweenRetriesMs = 700;
         private boolean dryRun = false;
@@ -176,7 +195,19 @@ public final class ConnectionParams {
          * @return pointer to builder.
          */
         public Builder setUseCompression(boolean useCompression) {
-            this.useCompression = useCompression;
+            this.compression = useCompression ? Compression.GZIP : Compression.NONE;
+            return this;
+        }
+
+        /**
+         * Set how to compress document operations during communication to server. If the server does not
+         * support the given compression, gzip is used instead. Default is no compression.
+         *
+         * @param compression the compression to use
+         * @return pointer to builder.
+         */
+        public Builder setCompression(Compression compression) {
+            this.compression = compression;
             return this;
         }
 
@@ -278,7 +309,7 @@ public final class ConnectionParams {
                     numPersistentConnectionsPerEndpoint,
                     proxyHost,
                     proxyPort,
-                    useCompression,
+                    compression,
                     maxRetries,
                     minTimeBetweenRetriesMs,
                     dryRun,
@@ -352,7 +383,7 @@ public final class ConnectionParams {
     private final int numPersistentConnectionsPerEndpoint;
     private final String proxyHost;
     private final int proxyPort;
-    private final boolean useCompression;
+    private final Compression compression;
     private final int maxRetries;
     private final long minTimeBetweenRetriesMs;
     private final boolean dryRun;
@@ -372,7 +403,7 @@ public final class ConnectionParams {
             int numPersistentConnectionsPerEndpoint,
             String proxyHost,
             int proxyPort,
-            boolean useCompression,
+            Compression compression,
             int maxRetries,
             long minTimeBetweenRetriesMs,
             boolean dryRun,
@@ -394,7 +425,7 @@ public final class ConnectionParams {
         this.numPersistentConnectionsPerEndpoint = numPersistentConnectionsPerEndpoint;
         this.proxyHost = proxyHost;
         this.proxyPort = proxyPort;
-        this.useCompression = useCompression;
+        this.compression = compression;
         this.maxRetries = maxRetries;
         this.minTimeBetweenRetriesMs = minTimeBetweenRetriesMs;
         this.dryRun = dryRun;
@@ -435,7 +466,11 @@ public final class ConnectionParams {
     }
 
     public boolean getUseCompression() {
-        return useCompression;
+        return compression != Compression.NONE;
+    }
+
+    public Compression getCompression() {
+        return compression;
     }
 
     public int getMaxRetries() {
@@ -25,6 +25,8 @@ public final class Headers {
     public static final String SHARDING_KEY = "X-Yahoo-Feed-Sharding-Key";
     public static final String PRIORITY = "X-Yahoo-Feed-Priority";
     public static final String TRACE_LEVEL = "X-Yahoo-Feed-Trace-Level";
+    // The content encodings the server accepts for request data, as a comma-separated list
+    public static final String CONTENT_ENCODINGS = "X-Yahoo-Feed-Content-Encodings";
 
     public static final int HTTP_NOT_ACCEPTABLE = 406;
 
@@ -29,11 +29,13 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -74,6 +76,9 @@ class ApacheGatewayConnection implements GatewayConnection {
     private final HttpClientFactory httpClientFactory;
     private final String shardingKey = UUID.randomUUID().toString().substring(0, 5);
     private final Clock clock;
+    /** The content encodings the server has told us it accepts */
+    private volatile List<String> serverContentEncodings = Collections.emptyList();
+    private long bytesWritten = 0;
 
     ApacheGatewayConnection(Endpoint endpoint,
                             FeedParams feedParams,
@@ -103,13 +108,13 @@ class ApacheGatewayConnection implements GatewayConnection {
 
     @Override
     public InputStream write(List<Document> docs) throws ServerResponseException, IOException {
-        return write(docs, false, connectionParams.getUseCompression());
+        return write(docs, false, compression());
     }
 
     @Override
     public InputStream poll() throws ServerResponseException, IOException {
         lastPollTime = clock.instant();
-        return write(Collections.<Document>emptyList(), false, false);
+        return write(Collections.<Document>emptyList(), false, ConnectionParams.Compression.NONE);
     }
 
     @Override
@@ -117,7 +122,7 @@ class ApacheGatewayConnection implements GatewayConnection {
 
     @Override
     public InputStream drain() throws ServerResponseException, IOException {
-        return write(Collections.<Document>emptyList(), true, false);
+        return write(Collections.<Document>emptyList(), true, ConnectionParams.Compression.NONE);
     }
 
     @Override
@@ -133,39 +138,68 @@ class ApacheGatewayConnection implements GatewayConnection {
     @Override
     public Instant connectionTime() { return connectionTime; }
 
+    @Override
+    public long bytesWritten() { return bytesWritten; }
+
+    /**
+     * Returns the compression to use for document operations: The one requested, or gzip
+     * if the server has not told us it accepts the requested compression, or it is lz4
+     * and the lz4 library is not on the classpath.
+     */
+    private ConnectionParams.Compression compression() {
+        ConnectionParams.Compression compression = connectionParams.getCompression();
+        if (compression == ConnectionParams.Compression.NONE || compression == ConnectionParams.Compression.GZIP)
+            return compression;
+        if (compression == ConnectionParams.Compression.LZ4 && ! Lz4Compression.isAvailable())
+            return ConnectionParams.Compression.GZIP;
+        if (serverContentEncodings.contains(compression.contentEncoding()))
+            return compression;
+        return ConnectionParams.Compression.GZIP;
+    }
+
     // Protected for easier testing only.
     protected static InputStreamEntity zipAndCreateEntity(final InputStream inputStream) throws IOException {
+        return compressAndCreateEntity(inputStream, ConnectionParams.Compression.GZIP);
+    }
+
+    // Protected for easier testing only.
+    protected static InputStreamEntity compressAndCreateEntity(InputStream inputStream,
+                                                               ConnectionParams.Compression compression) throws IOException {
         byte[] buffer = new byte[4096];
-        GZIPOutputStream gzos = null;
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try {
-            gzos = new GZIPOutputStream(baos);
-            while (inputStream.available() > 0) {
-                int length = inputStream.read(buffer);
-                gzos.write(buffer, 0,length);
-            }
-        } finally {
-            if (gzos != null)  {
-                gzos.close();
+        try (OutputStream compressed = compression == ConnectionParams.Compression.LZ4
+                                       ? Lz4Compression.compress(baos)
+                                       : new GZIPOutputStream(baos)) {
+            int length;
+            while ((length = inputStream.read(buffer)) > 0) {
+                compressed.write(buffer, 0, length);
             }
         }
-        byte[] fooGzippedBytes = baos.toByteArray();
-        return new InputStreamEntity(new ByteArrayInputStream(fooGzippedBytes), -1);
+        return new InputStreamEntity(new ByteArrayInputStream(baos.toByteArray()), baos.size());
     }
 
-    private InputStream write(List<Document> docs, boolean drain, boolean useCompression)
+    private InputStream write(List<Document> docs, boolean drain, ConnectionParams.Compression compression)
             throws ServerResponseException, IOException {
-        HttpPost httpPost = createPost(drain, useCompression, false);
+        HttpPost httpPost = createPost(drain, compression, false);
 
         ByteBuffer[] buffers = getDataWithStartAndEndOfFeed(docs, negotiatedVersion);
         InputStream inputStream = new ByteBufferInputStream(buffers);
-        InputStreamEntity reqEntity = useCompression ? zipAndCreateEntity(inputStream)
-                                                     : new InputStreamEntity(inputStream, -1);
+        InputStreamEntity reqEntity = compression != ConnectionParams.Compression.NONE
+                                      ? compressAndCreateEntity(inputStream, compression)
+                                      : new InputStreamEntity(inputStream, size(buffers));
+        bytesWritten += reqEntity.getContentLength();
         reqEntity.setChunked(true);
         httpPost.setEntity(reqEntity);
         return executePost(httpPost);
     }
 
+    private static long size(ByteBuffer[] buffers) {
+        long size = 0;
+        for (ByteBuffer buffer : buffers)
+            size += buffer.remaining();
+        return size;
+    }
+
     private ByteBuffer[] getDataWithStartAndEndOfFeed(List<Document> docs, int version) {
         List<ByteBuffer> data = new ArrayList<>();
         if (version == 3) {
@@ -187,7 +221,7 @@ class ApacheGatewayConnection implements GatewayConnection {
         return data.toArray(new ByteBuffer[data.size()]);
     }
 
-    private HttpPost createPost(boolean drain, boolean useCompression, boolean isHandshake) {
+    private HttpPost createPost(boolean drain, ConnectionParams.Compression compression, boolean isHandshake) {
         HttpPost httpPost = new HttpPost(createUri());
 
         for (int v : supportedVersions) {
@@ -239,8 +273,8 @@ class ApacheGatewayConnection implements GatewayConnection {
             httpPost.addHeader(headerName, headerValue);
         });
 
-        if (useCompression) {
-            httpPost.setHeader("Content-Encoding", "gzip");
+        if (compression != ConnectionParams.Compression.NONE) {
+            httpPost.setHeader("Content-Encoding", compression.contentEncoding());
         }
         return httpPost;
     }
@@ -259,6 +293,7 @@ class ApacheGatewayConnection implements GatewayConnection {
             verifyServerResponseCode(response);
             verifyServerVersion(response.getFirstHeader(Headers.VERSION));
             verifySessionHeader(response.getFirstHeader(Headers.SESSION_ID));
+            readContentEncodings(response.getFirstHeader(Headers.CONTENT_ENCODINGS));
         } catch (ServerResponseException e) {
             httpPost.abort();
             throw e;
@@ -318,6 +353,11 @@ class ApacheGatewayConnection implements GatewayConnection {
         }
     }
 
+    private void readContentEncodings(Header serverHeader) {
+        if (serverHeader == null) return; // Older servers do not send this, but all accept gzip
+        serverContentEncodings = Arrays.asList(serverHeader.getValue().replace(" ", "").split(","));
+    }
+
     private void verifyServerVersion(Header serverHeader) throws ServerResponseException {
         if (serverHeader == null) {
             throw new ServerResponseException("Got bad protocol version from server.");
@@ -357,10 +397,9 @@ class ApacheGatewayConnection implements GatewayConnection {
 
     @Override
     public void handshake() throws ServerResponseException, IOException {
-        boolean useCompression = false;
         boolean drain = false;
         boolean handshake = true;
-        HttpPost httpPost = createPost(drain, useCompression, handshake);
+        HttpPost httpPost = createPost(drain, ConnectionParams.Compression.NONE, handshake);
 
         String oldSessionID = sessionId;
         sessionId = null;
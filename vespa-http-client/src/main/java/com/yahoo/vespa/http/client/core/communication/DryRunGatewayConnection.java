@@ -38,6 +38,7 @@ public class DryRunGatewayConnection implements GatewayConnection {
 
     /** If this is set, all write operations will throw this exception */
     private IOException throwThisOnWrite = null;
+    private long bytesWritten = 0;
 
     public DryRunGatewayConnection(Endpoint endpoint, Clock clock) {
         this.endpoint = endpoint;
@@ -49,6 +50,9 @@ public class DryRunGatewayConnection implements GatewayConnection {
         if (throwThisOnWrite != null)
             throw throwThisOnWrite;
 
+        for (Document doc : docs)
+            bytesWritten += doc.size();
+
         if (hold) {
             held.addAll(docs);
             return new ByteArrayInputStream("".getBytes(StandardCharsets.UTF_8));
@@ -64,6 +68,9 @@ public class DryRunGatewayConnection implements GatewayConnection {
         }
     }
 
+    @Override
+    public long bytesWritten() { return bytesWritten; }
+
     @Override
     public InputStream poll() throws IOException {
         lastPollTime = clock.instant();
@@ -19,6 +19,9 @@ public interface GatewayConnection {
 
     InputStream write(List<Document> docs) throws ServerResponseException, IOException;
 
+    /** Returns the number of bytes of document operations written over the network by this, after any compression */
+    long bytesWritten();
+
     /** Returns any operation results that are ready now */
     InputStream poll() throws ServerResponseException, IOException;
 
@@ -26,6 +26,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -38,6 +39,10 @@ public class IOThread implements Runnable, AutoCloseable {
 
     private static final Logger log = Logger.getLogger(IOThread.class.getName());
 
+    /** The bounds of the time to wait before polling again when the window of operations in flight is full */
+    private static final long minFullWindowWaitMillis = 1;
+    private static final long maxFullWindowWaitMillis = 300;
+
     private final Endpoint endpoint;
     private final GatewayConnectionFactory connectionFactory;
     private final DocumentQueue documentQueue;
@@ -60,6 +65,7 @@ public class IOThread implements Runnable, AutoCloseable {
 
     private GatewayConnection currentConnection;
     private ConnectionState connectionState = ConnectionState.DISCONNECTED;
+    private long fullWindowWaitMillis = minFullWindowWaitMillis;
 
     private enum ConnectionState { DISCONNECTED, CONNECTED, SESSION_SYNCED };
     private final AtomicInteger wrongSessionDetectedCounter = new AtomicInteger(0);
@@ -71,6 +77,8 @@ public class IOThread implements Runnable, AutoCloseable {
     private final AtomicInteger pendingDocumentStatusCount = new AtomicInteger(0);
     private final AtomicInteger successfulHandshakes = new AtomicInteger(0);
     private final AtomicInteger lastGatewayProcessTimeMillis = new AtomicInteger(0);
+    private final AtomicLong documentBytesSentCounter = new AtomicLong(0);
+    private final AtomicLong bytesWrittenCounter = new AtomicLong(0);
 
     IOThread(ThreadGroup ioThreadGroup,
              Endpoint endpoint,
@@ -138,7 +146,9 @@ public class IOThread implements Runnable, AutoCloseable {
                 statusReceivedCounter.get(),
                 pendingDocumentStatusCount.get(),
                 successfulHandshakes.get(),
-                lastGatewayProcessTimeMillis.get());
+                lastGatewayProcessTimeMillis.get(),
+                documentBytesSentCounter.get(),
+                bytesWrittenCounter.get());
     }
 
     @Override
@@ -240,7 +250,12 @@ public class IOThread implements Runnable, AutoCloseable {
     private InputStream sendAndReceive(List<Document> docs) throws IOException, ServerResponseException {
         try {
             // Post the new docs and get async responses for other posts.
-            return currentConnection.write(docs);
+            long bytesWrittenBefore = currentConnection.bytesWritten();
+            InputStream response = currentConnection.write(docs);
+            for (Document doc : docs)
+                documentBytesSentCounter.addAndGet(doc.size());
+            bytesWrittenCounter.addAndGet(currentConnection.bytesWritten() - bytesWrittenBefore);
+            return response;
         } catch (ServerResponseException ser) {
             markDocumentAsFailed(docs, ser);
             throw ser;
@@ -310,13 +325,14 @@ public class IOThread implements Runnable, AutoCloseable {
         log.finest("Awaiting " + pendingResultQueueSize + " results.");
         ProcessResponse processResponse = feedDocumentAndProcessResults(nextDocsForFeeding);
 
-        if (pendingResultQueueSize > maxInFlightRequests && processResponse.processResultsCount == 0) {
-            try {
-                // Max outstanding document operations, no more results on server side, wait a bit before asking again
-                Thread.sleep(300);
-            } catch (InterruptedException e) {
-                // Ignore
-            }
+        if (processResponse.processResultsCount > 0) {
+            fullWindowWaitMillis = minFullWindowWaitMillis;
+        }
+        else if (pendingResultQueueSize > maxInFlightRequests) {
+            // Max outstanding document operations, no more results on server side: Wait before asking again,
+            // backing off exponentially as long as no results arrive
+            awaitNextPoll(fullWindowWaitMillis);
+            fullWindowWaitMillis = Math.min(fullWindowWaitMillis * 2, maxFullWindowWaitMillis);
         }
         return processResponse;
     }
@@ -413,6 +429,31 @@ public class IOThread implements Runnable, AutoCloseable {
         }
     }
 
+    /**
+     * Waits the given time before polling for results again. This wakes up immediately on close, but once closed,
+     * the stop signal no longer delays the polling done while draining, so then this sleeps the full time.
+     */
+    void awaitNextPoll(long millis) {
+        if (stopSignal.getCount() > 0) {
+            awaitStop(stopSignal, millis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // Ignore
+        }
+    }
+
+    /** Waits until the given timeout or the stop signal, whichever comes first, and returns whether it was stopped */
+    private static boolean awaitStop(CountDownLatch stopSignal, long timeout, TimeUnit unit) {
+        try {
+            return stopSignal.await(timeout, unit);
+        } catch (InterruptedException e) {
+            return stopSignal.getCount() == 0;
+        }
+    }
+
     @Override
     public void run() {
         while (stopSignal.getCount() > 0 || !documentQueue.isEmpty())
@@ -480,6 +521,10 @@ public class IOThread implements Runnable, AutoCloseable {
         public final int pendingDocumentStatusCount;
         public final int successfullHandshakes;
         public final int lastGatewayProcessTimeMillis;
+        /** The size of the document operations sent */
+        public final long documentBytesSentCounter;
+        /** The bytes written over the network to send document operations, which is less when compressing */
+        public final long bytesWrittenCounter;
 
         ConnectionStats(int wrongSessionDetectedCounter,
                         int wrongVersionDetectedCounter,
@@ -489,7 +534,9 @@ public class IOThread implements Runnable, AutoCloseable {
                         int statusReceivedCounter,
                         int pendingDocumentStatusCount,
                         int successfullHandshakes,
-                        int lastGatewayProcessTimeMillis) {
+                        int lastGatewayProcessTimeMillis,
+                        long documentBytesSentCounter,
+                        long bytesWrittenCounter) {
             this.wrongSessionDetectedCounter = wrongSessionDetectedCounter;
             this.wrongVersionDetectedCounter = wrongVersionDetectedCounter;
             this.problemStatusCodeFromServerCounter = problemStatusCodeFromServerCounter;
@@ -499,6 +546,8 @@ public class IOThread implements Runnable, AutoCloseable {
             this.pendingDocumentStatusCount = pendingDocumentStatusCount;
             this.successfullHandshakes = successfullHandshakes;
             this.lastGatewayProcessTimeMillis = lastGatewayProcessTimeMillis;
+            this.documentBytesSentCounter = documentBytesSentCounter;
+            this.bytesWrittenCounter = bytesWrittenCounter;
         }
     }
 
@@ -511,6 +560,9 @@ public class IOThread implements Runnable, AutoCloseable {
     /** For testing */
     public EndpointResultQueue resultQueue() { return resultQueue; }
 
+    /** For testing. Returns the time to wait before the next poll if the window is full and no results arrive. */
+    long fullWindowWaitMillis() { return fullWindowWaitMillis; }
+
     /**
      * We need to drain results on the connection where they were sent to make sure we request results on
      * the node which received the operation also when going through a VIP.
@@ -560,14 +612,9 @@ public class IOThread implements Runnable, AutoCloseable {
 
         @Override
         public void run() {
-            while (stopSignal.getCount() > 0) {
+            do {
                 checkOldConnections();
-                try {
-                    Thread.sleep(pollIntervalUS/1000);
-                }
-                catch (InterruptedException e) {
-                }
-            }
+            } while ( ! awaitStop(stopSignal, pollIntervalUS, TimeUnit.MICROSECONDS));
         }
 
         public void checkOldConnections() {
@@ -0,0 +1,40 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.vespa.http.client.core.communication;
+
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Wraps streams in lz4 compression. This is kept separate from the rest of the client such that
+ * the optional lz4 dependency is only loaded when lz4 compression is actually used.
+ *
+ * @author bratseth
+ */
+class Lz4Compression {
+
+    private static final boolean available = isOnClasspath();
+
+    private Lz4Compression() {}
+
+    /** Returns whether the lz4 library is present, such that lz4 compression can be used */
+    static boolean isAvailable() { return available; }
+
+    /** Returns a stream writing the lz4 frame format to the given stream */
+    static OutputStream compress(OutputStream out) throws IOException {
+        // Use the smallest lz4 block size, as the default allocates 4Mb buffers for each request
+        return new LZ4FrameOutputStream(out, LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB);
+    }
+
+    private static boolean isOnClasspath() {
+        try {
+            Class.forName("net.jpountz.lz4.LZ4FrameOutputStream", false, Lz4Compression.class.getClassLoader());
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -75,6 +75,9 @@ public class CommandLineArguments {
         if (cmdArgs.priorityArg != null && ! checkPriorityFlag(cmdArgs.priorityArg)) {
             return null;
         }
+        if (cmdArgs.compressionArg != null && ! checkCompressionFlag(cmdArgs.compressionArg)) {
+            return null;
+        }
 
         for (String header : cmdArgs.headers) {
             try {
@@ -120,6 +123,18 @@ public class CommandLineArguments {
         }
     }
 
+    private static boolean checkCompressionFlag(String compressionArg) {
+        switch (compressionArg) {
+            case "none":
+            case "gzip":
+            case "lz4":
+                return true;
+            default:
+                System.err.println("Not valid value for compression. Allowed values are none, gzip and lz4.");
+                return false;
+        }
+    }
+
     // TODO Don't duplicate default values from ConnectionParams.Builder. Some defaults are already inconsistent.
 
     @Inject
@@ -160,6 +175,11 @@ public class CommandLineArguments {
             description = "Use compression over network.")
     private boolean useCompressionArg = false;
 
+    @Option(name = {"--compression"},
+            description = "Compression to use over network: none, gzip or lz4. lz4 uses less CPU, " +
+                          "but compresses less than gzip. Overrides --useCompression.")
+    private String compressionArg = null;
+
     @Option(name = {"--useDynamicThrottling"},
             description = "Try to maximize throughput by using dynamic throttling.")
     private boolean useDynamicThrottlingArg = false;
@@ -253,6 +273,12 @@ public class CommandLineArguments {
 
     public boolean getAddRootElementToXml() { return addRootElementToXml; }
 
+    private ConnectionParams.Compression compression() {
+        if (compressionArg != null)
+            return ConnectionParams.Compression.valueOf(compressionArg.toUpperCase());
+        return useCompressionArg ? ConnectionParams.Compression.GZIP : ConnectionParams.Compression.NONE;
+    }
+
     SessionParams createSessionParams(boolean useJson) {
         int minThrottleValue = useDynamicThrottlingArg ? 10 : 0;
         Path privateKeyPath = Optional.ofNullable(this.privateKeyPath).map(Paths::get).orElse(null);
@@ -279,7 +305,7 @@ public class CommandLineArguments {
                         connectionParamsBuilder
                                 .setHostnameVerifier(insecure ? NoopHostnameVerifier.INSTANCE :
                                         SSLConnectionSocketFactory.getDefaultHostnameVerifier())
-                                .setUseCompression(useCompressionArg)
+                                .setCompression(compression())
                                 .setMaxRetries(noRetryArg ? 0 : 100)
                                 .setMinTimeBetweenRetries(retrydelayArg, TimeUnit.SECONDS)
                                 .setDryRun(validateArg)
@@ -8,6 +8,7 @@ import com.yahoo.vespa.http.client.Result;
 import com.yahoo.vespa.http.client.config.Cluster;
 import com.yahoo.vespa.http.client.config.ConnectionParams;
 import com.yahoo.vespa.http.client.config.Endpoint;
+import com.yahoo.vespa.http.client.config.FeedParams;
 import com.yahoo.vespa.http.client.config.SessionParams;
 import com.yahoo.vespa.http.client.core.communication.ClusterConnection;
 import com.yahoo.vespa.http.client.core.communication.IOThread;
@@ -35,8 +36,14 @@ public class OperationProcessorTester {
     private final OperationProcessor operationProcessor;
 
     public OperationProcessorTester() {
+        this(new FeedParams.Builder().build().getMaxInFlightRequests());
+    }
+
+    /** Creates a tester where the given number of operations may be in flight before waiting for results */
+    public OperationProcessorTester(int maxInFlightRequests) {
         endpoint = Endpoint.create("test-endpoint");
         SessionParams.Builder params = new SessionParams.Builder();
+        params.setFeedParams(new FeedParams.Builder().setMaxInFlightRequests(maxInFlightRequests).build());
         Cluster.Builder clusterParams = new Cluster.Builder();
         clusterParams.addEndpoint(endpoint);
         params.addCluster(clusterParams.build());
@@ -8,6 +8,7 @@ import com.yahoo.vespa.http.client.config.FeedParams;
 import com.yahoo.vespa.http.client.core.Document;
 import com.yahoo.vespa.http.client.core.Headers;
 import com.yahoo.vespa.http.client.core.ServerResponseException;
+import net.jpountz.lz4.LZ4FrameInputStream;
 import org.apache.http.Header;
 import org.apache.http.HeaderElement;
 import org.apache.http.HttpEntity;
@@ -25,17 +26,20 @@ import org.junit.rules.ExpectedException;
 import org.mockito.stubbing.Answer;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -210,6 +214,48 @@ public class ApacheGatewayConnectionTest {
         apacheGatewayConnection.write(documents);
     }
 
+    @Test
+    public void lz4_is_used_when_the_server_accepts_it_and_gzip_otherwise() throws Exception {
+        ConnectionParams connectionParams = new ConnectionParams.Builder().setCompression(ConnectionParams.Compression.LZ4).build();
+        String vespaDocContent = "Hello, I am the document data.";
+        Document doc = createDoc("42", vespaDocContent, false);
+        String expectedContent = doc.getOperationId() + " 38\n<vespafeed>\n" + vespaDocContent + "\n</vespafeed>\n";
+
+        List<String> contentEncodings = new ArrayList<>();
+        AtomicInteger requestsReceived = new AtomicInteger(0);
+        ApacheGatewayConnection.HttpClientFactory mockFactory = mockHttpClientFactory(post -> {
+            Header header = post.getFirstHeader("Content-Encoding");
+            if (header != null) {
+                contentEncodings.add(header.getValue());
+                InputStream content = post.getEntity().getContent();
+                String rawContent = header.getValue().equals("lz4")
+                                    ? new String(readAll(new LZ4FrameInputStream(content)), StandardCharsets.UTF_8)
+                                    : TestUtils.zipStreamToString(content);
+                assertEquals(expectedContent, rawContent);
+            }
+            HttpResponse response = httpResponse("clientId", "3");
+            if (requestsReceived.incrementAndGet() > 1) // Accept lz4 from after the first write
+                addMockedHeader(response, Headers.CONTENT_ENCODINGS, "gzip,lz4", null);
+            return response;
+        });
+
+        ApacheGatewayConnection apacheGatewayConnection =
+                new ApacheGatewayConnection(
+                        Endpoint.create("localhost", 666, false),
+                        new FeedParams.Builder().setDataFormat(FeedParams.DataFormat.XML_UTF8).build(),
+                        "",
+                        connectionParams,
+                        mockFactory,
+                        "clientId",
+                        Clock.systemUTC());
+        apacheGatewayConnection.connect();
+        apacheGatewayConnection.handshake();
+        apacheGatewayConnection.write(Collections.singletonList(doc));
+        apacheGatewayConnection.write(Collections.singletonList(doc));
+        assertEquals(Arrays.asList("gzip", "lz4"), contentEncodings);
+        assertTrue(apacheGatewayConnection.bytesWritten() > 0);
+    }
+
     @Test
     public void dynamic_headers_are_added_to_the_response() throws IOException, ServerResponseException {
         ConnectionParams.HeaderProvider headerProvider = mock(ConnectionParams.HeaderProvider.class);
@@ -352,4 +398,13 @@ public class ApacheGatewayConnectionTest {
         return response;
     }
 
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int length;
+        while ((length = in.read(buffer)) > 0)
+            out.write(buffer, 0, length);
+        return out.toByteArray();
+    }
+
 }
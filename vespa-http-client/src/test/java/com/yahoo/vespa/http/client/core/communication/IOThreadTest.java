@@ -7,9 +7,13 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * TODO: Migrate IOThreadTests here.
@@ -137,6 +141,49 @@ public class IOThreadTest {
         assertEquals("Old connection is eventually removed", 0, ioThread.oldConnections().size());
     }
 
+    @Test
+    public void testFullWindowBackoffIsBoundedAndResetWhenResultsArrive() {
+        OperationProcessorTester tester = new OperationProcessorTester(1);
+        IOThread ioThread = tester.getSingleIOThread();
+        DryRunGatewayConnection connection = (DryRunGatewayConnection)ioThread.currentConnection();
+        connection.hold(true);
+        tester.send("doc1");
+        tester.send("doc2");
+        tester.tick(4); // connect, sync, and send each document, filling the window
+        assertEquals(2, ioThread.resultQueue().getPendingSize());
+        assertEquals(1, ioThread.fullWindowWaitMillis());
+
+        for (long expectedWait : new long[] { 2, 4, 8, 16, 32, 64, 128, 256, 300, 300 }) {
+            tester.tick(1); // poll without getting results
+            assertEquals(expectedWait, ioThread.fullWindowWaitMillis());
+        }
+
+        connection.hold(false);
+        tester.tick(1);
+        assertEquals(2, tester.success());
+        assertEquals("Reset when results arrive", 1, ioThread.fullWindowWaitMillis());
+    }
+
+    @Test
+    public void testWaitingForTheNextPollWakesUpOnClose() throws InterruptedException {
+        OperationProcessorTester tester = new OperationProcessorTester();
+        IOThread ioThread = tester.getSingleIOThread();
+        CountDownLatch waited = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            ioThread.awaitNextPoll(TimeUnit.MINUTES.toMillis(10));
+            waited.countDown();
+        });
+        waiter.start();
+        assertFalse(waited.await(10, TimeUnit.MILLISECONDS));
+        ioThread.close();
+        assertTrue("Woke up on close", waited.await(1, TimeUnit.MINUTES));
+
+        long startNanos = System.nanoTime();
+        ioThread.awaitNextPoll(20);
+        assertTrue("Sleeps the full time when draining after close",
+                   System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
     private void assertLastPollTimeWhenAdvancing(int lastPollTimeSeconds,
                                                  int advanceSeconds,
                                                  DryRunGatewayConnection connection,
@@ -2,6 +2,7 @@
 package com.yahoo.vespa.http.client.runner;
 
 import com.yahoo.vespa.http.client.config.Cluster;
+import com.yahoo.vespa.http.client.config.ConnectionParams;
 import com.yahoo.vespa.http.client.config.FeedParams;
 import com.yahoo.vespa.http.client.config.SessionParams;
 import org.junit.Test;
@@ -70,6 +71,21 @@ public class CommandLineArgumentsTest {
         assertThat(CommandLineArguments.build(asArray()), is(nullValue()));
     }
 
+    @Test
+    public void testBadCompression() {
+        addMinimum();
+        add("compression", "zip");
+        assertThat(CommandLineArguments.build(asArray()), is(nullValue()));
+    }
+
+    @Test
+    public void testCompression() {
+        addMinimum();
+        add("compression", "lz4");
+        assertThat(CommandLineArguments.build(asArray()).createSessionParams(false).getConnectionParams().getCompression(),
+                   is(ConnectionParams.Compression.LZ4));
+    }
+
     @Test
     public void testOkPriority() {
         addMinimum();
@@ -135,7 +135,7 @@ class FeederParams {
     FeederParams parseArgs(String... args) throws ParseException, FileNotFoundException {
         Options opts = new Options();
         opts.addOption("s", "serial", false, "use serial transfer mode, at most 1 pending operation and a single thread");
-        opts.addOption("n", "numthreads", true, "Number of clients for sending messages. Anything, but 1 will bypass sequencing by document id.");
+        opts.addOption("n", "numthreads", true, "Number of clients for parsing JSON and sending messages. Anything, but 1 will bypass sequencing by document id.");
         opts.addOption("m", "maxpending", true, "Max number of inflights messages. Default is auto.");
         opts.addOption("r", "route", true, "Route for sending messages. default is 'default'....");
         opts.addOption("b", "mode", true, "Mode for benchmarking.");
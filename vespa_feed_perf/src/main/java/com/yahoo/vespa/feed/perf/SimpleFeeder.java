@@ -10,6 +10,7 @@ import com.yahoo.document.DocumentUpdate;
 import com.yahoo.document.TestAndSetCondition;
 import com.yahoo.document.json.JsonFeedReader;
 import com.yahoo.document.json.JsonWriter;
+import com.yahoo.document.json.ParallelJsonFeedReader;
 import com.yahoo.document.serialization.DocumentDeserializer;
 import com.yahoo.document.serialization.DocumentDeserializerFactory;
 import com.yahoo.document.serialization.DocumentSerializer;
@@ -49,6 +50,7 @@ import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -97,17 +99,23 @@ public class SimpleFeeder implements ReplyHandler {
 
         long feed() throws Throwable {
             long numMessages = 0;
-            while ((failure.get() == null) && (numMessages < messagesToSend)) {
-                FeedOperation op = reader.read();
-                if (op.getType() == FeedOperation.Type.INVALID) {
-                    break;
+            try {
+                while ((failure.get() == null) && (numMessages < messagesToSend)) {
+                    FeedOperation op = reader.read();
+                    if (op.getType() == FeedOperation.Type.INVALID) {
+                        break;
+                    }
+                    if (executor != null) {
+                        executor.execute(() -> sendOperation(op));
+                    } else {
+                        sendOperation(op);
+                    }
+                    ++numMessages;
                 }
-                if (executor != null) {
-                    executor.execute(() -> sendOperation(op));
-                } else {
-                    sendOperation(op);
+            } finally {
+                if (reader instanceof AutoCloseable) {
+                    ((AutoCloseable) reader).close();
                 }
-                ++numMessages;
             }
             return numMessages;
         }
@@ -360,7 +368,7 @@ public class SimpleFeeder implements ReplyHandler {
     }
 
     SourceSession getSourceSession() { return session; }
-    private FeedReader createFeedReader(InputStream in) throws Exception {
+    private FeedReader createFeedReader(InputStream in, Executor parserExecutor) throws Exception {
         in.mark(8);
         byte [] b = new byte[2];
         int numRead = readExact(in, b);
@@ -369,7 +377,8 @@ public class SimpleFeeder implements ReplyHandler {
             throw new IllegalArgumentException("Need to read " + b.length + " bytes to detect format. Got " + numRead + " bytes.");
         }
         if (b[0] == '[') {
-            return new JsonFeedReader(in, docTypeMgr);
+            return (numThreads > 1) ? new ParallelJsonFeedReader(in, docTypeMgr, parserExecutor, numThreads)
+                                    : new JsonFeedReader(in, docTypeMgr);
         } else if ((b[0] == 'V') && (b[1] == '1')) {
             return new VespaV1FeedReader(in, docTypeMgr);
         } else {
@@ -395,11 +404,20 @@ public class SimpleFeeder implements ReplyHandler {
                                          ThreadFactoryFactory.getDaemonThreadFactory("perf-feeder"),
                                          new RetryExecutionhandler())
                 : null;
+        ExecutorService parserExecutor = (numThreads > 1)
+                ? Executors.newFixedThreadPool(numThreads, ThreadFactoryFactory.getDaemonThreadFactory("perf-feeder-parser"))
+                : null;
         printHeader(out);
         long numMessagesSent = 0;
-        for (InputStream in : inputStreams) {
-            Metrics m = new Metrics(destination, createFeedReader(in), executor, failure, numMessagesToSend);
-            numMessagesSent += m.feed();
+        try {
+            for (InputStream in : inputStreams) {
+                Metrics m = new Metrics(destination, createFeedReader(in, parserExecutor), executor, failure, numMessagesToSend);
+                numMessagesSent += m.feed();
+            }
+        } finally {
+            if (parserExecutor != null) {
+                parserExecutor.shutdownNow();
+            }
         }
         while (failure.get() == null && numReplies.get() < numMessagesSent) {
             Thread.sleep(100);
@@ -28,7 +28,6 @@ import java.util.List;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.zip.GZIPInputStream;
 
 /**
  * Accept feeds from outside of the Vespa cluster.
@@ -138,12 +137,7 @@ public class FeedHandler extends LoggingRequestHandler {
     // Protected for testing
     protected static InputStream unzipStreamIfNeeded(InputStream inputStream, HttpRequest httpRequest)
             throws IOException {
-        String contentEncodingHeader = httpRequest.getHeader("content-encoding");
-        if ("gzip".equals(contentEncodingHeader)) {
-            return new GZIPInputStream(inputStream);
-        } else {
-            return inputStream;
-        }
+        return StreamReaderV3.decompressIfNeeded(inputStream, httpRequest.getHeader("content-encoding"));
     }
 
     @Override
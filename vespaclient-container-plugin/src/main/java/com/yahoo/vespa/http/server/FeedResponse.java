@@ -47,6 +47,7 @@ public class FeedResponse extends HttpResponse {
         headers().add(Headers.VERSION, Integer.toString(protocolVersion));
         headers().add(Headers.OUTSTANDING_REQUESTS, Integer.toString(outstandingClientOperations));
         headers().add(Headers.HOSTNAME, hostName);
+        headers().add(Headers.CONTENT_ENCODINGS, StreamReaderV3.contentEncodings);
     }
 
     @Override
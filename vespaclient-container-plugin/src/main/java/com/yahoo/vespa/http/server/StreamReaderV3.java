@@ -7,6 +7,7 @@ import com.yahoo.vespa.http.client.core.Encoder;
 import com.yahoo.vespa.http.server.util.ByteLimitedInputStream;
 import com.yahoo.vespaxmlparser.FeedOperation;
 import com.yahoo.vespaxmlparser.FeedReader;
+import net.jpountz.lz4.LZ4FrameInputStream;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -22,6 +23,9 @@ public class StreamReaderV3 {
 
     protected static final Logger log = Logger.getLogger(StreamReaderV3.class.getName());
 
+    /** The content encodings of request data which are accepted by this */
+    static final String contentEncodings = "gzip,lz4";
+
     private final FeedReaderFactory feedReaderFactory;
     private final DocumentTypeManager docTypeManager;
 
@@ -74,11 +78,17 @@ public class StreamReaderV3 {
 
     public static InputStream unzipStreamIfNeeded(final HttpRequest httpRequest)
             throws IOException {
-        final String contentEncodingHeader = httpRequest.getHeader("content-encoding");
-        if ("gzip".equals(contentEncodingHeader)) {
-            return new GZIPInputStream(httpRequest.getData());
+        return decompressIfNeeded(httpRequest.getData(), httpRequest.getHeader("content-encoding"));
+    }
+
+    /** Returns a stream which decompresses the given stream as it is read, if it has a supported content encoding */
+    static InputStream decompressIfNeeded(InputStream inputStream, String contentEncoding) throws IOException {
+        if ("gzip".equals(contentEncoding)) {
+            return new GZIPInputStream(inputStream);
+        } else if ("lz4".equals(contentEncoding)) {
+            return new LZ4FrameInputStream(inputStream);
         } else {
-            return httpRequest.getData();
+            return inputStream;
         }
     }
 
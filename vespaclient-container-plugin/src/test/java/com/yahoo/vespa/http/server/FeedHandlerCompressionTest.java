@@ -2,6 +2,7 @@
 package com.yahoo.vespa.http.server;
 
 import com.yahoo.container.jdisc.HttpRequest;
+import net.jpountz.lz4.LZ4FrameOutputStream;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
@@ -45,6 +46,20 @@ public class FeedHandlerCompressionTest {
         assertThat(processedInput.toString(), is(testData));
     }
 
+    @Test
+    public void testDecompressLz4StreamIfNeeded() throws Exception {
+        final String testData = "foo bar";
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (LZ4FrameOutputStream lz4OutputStream = new LZ4FrameOutputStream(byteArrayOutputStream)) {
+            lz4OutputStream.write(testData.getBytes());
+        }
+        InputStream inputStream = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
+        HttpRequest httpRequest = mock(HttpRequest.class);
+        when(httpRequest.getHeader("content-encoding")).thenReturn("lz4");
+        InputStream decompressedStream = FeedHandler.unzipStreamIfNeeded(inputStream, httpRequest);
+        assertThat(new String(decompressedStream.readAllBytes()), is(testData));
+    }
+
     /**
      * Test by setting encoding, but not compressing data.
      * @throws Exception
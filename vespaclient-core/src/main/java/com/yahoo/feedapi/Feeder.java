@@ -78,34 +78,44 @@ public abstract class Feeder {
             return errors;
         }
 
-        while (!sender.isAborted()) {
-            try {
-                FeedOperation op = reader.read();
-                if (createIfNonExistent && op.getDocumentUpdate() != null) {
-                    op.getDocumentUpdate().setCreateIfNonExistent(true);
-                }
-
-                // Done feeding.
-                if (op.getType() == FeedOperation.Type.INVALID) {
+        try (AutoCloseable closeable = closeable(reader)) {
+            while (!sender.isAborted()) {
+                try {
+                    FeedOperation op = reader.read();
+                    if (createIfNonExistent && op.getDocumentUpdate() != null) {
+                        op.getDocumentUpdate().setCreateIfNonExistent(true);
+                    }
+
+                    // Done feeding.
+                    if (op.getType() == FeedOperation.Type.INVALID) {
+                        break;
+                    } else {
+                        sender.sendOperation(op);
+                    }
+                } catch (XMLStreamException e) {
+                    addException(e);
                     break;
-                } else {
-                    sender.sendOperation(op);
-                }
-            } catch (XMLStreamException e) {
-                addException(e);
-                break;
-            } catch (NullPointerException e) {
-                addException(e);
-                break;
-            } catch (Exception e) {
-                addException(e);
-                if (doAbort) {
+                } catch (NullPointerException e) {
+                    addException(e);
                     break;
+                } catch (Exception e) {
+                    addException(e);
+                    if (doAbort) {
+                        break;
+                    }
                 }
             }
+        } catch (Exception e) { // From closing the reader
+            addException(e);
         }
 
         return errors;
     }
 
+    /** Returns the reader if it holds resources to release also when it is not read to the end, or a no-op otherwise */
+    private static AutoCloseable closeable(FeedReader reader) {
+        if (reader instanceof AutoCloseable) return (AutoCloseable) reader;
+        return () -> { };
+    }
+
 }
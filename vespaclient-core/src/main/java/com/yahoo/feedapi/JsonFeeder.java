@@ -2,9 +2,11 @@
 package com.yahoo.feedapi;
 
 import java.io.InputStream;
+import java.util.concurrent.Executor;
 
 import com.yahoo.document.DocumentTypeManager;
 import com.yahoo.document.json.JsonFeedReader;
+import com.yahoo.document.json.ParallelJsonFeedReader;
 import com.yahoo.vespaxmlparser.FeedReader;
 
 /**
@@ -13,12 +15,30 @@ import com.yahoo.vespaxmlparser.FeedReader;
  * @author steinar
  */
 public class JsonFeeder extends Feeder {
+
+    private final Executor parserExecutor;
+    private final int numParserThreads;
+
     public JsonFeeder(DocumentTypeManager docMan, SimpleFeedAccess sender, InputStream stream) {
+        this(docMan, sender, stream, null, 1);
+    }
+
+    /**
+     * Creates a feeder parsing the stream on the given number of threads of the given executor,
+     * or on one thread per processor if this is 0 or less. The executor is owned by the caller
+     * and may be shared between feeders. It is not used if the number of threads is 1.
+     */
+    public JsonFeeder(DocumentTypeManager docMan, SimpleFeedAccess sender, InputStream stream,
+                      Executor parserExecutor, int numParserThreads) {
         super(docMan, new VespaFeedSender(sender), stream);
+        this.parserExecutor = parserExecutor;
+        this.numParserThreads = numParserThreads;
     }
 
     @Override
     protected FeedReader createReader() throws Exception {
-        return new JsonFeedReader(stream, docMan);
+        if (numParserThreads == 1)
+            return new JsonFeedReader(stream, docMan);
+        return new ParallelJsonFeedReader(stream, docMan, parserExecutor, numParserThreads);
     }
 }
@@ -2,6 +2,7 @@
 package com.yahoo.feedhandler;
 
 import com.yahoo.clientmetrics.RouteMetricSet;
+import com.yahoo.concurrent.DaemonThreadFactory;
 import com.yahoo.container.jdisc.HttpRequest;
 import com.yahoo.container.protect.Error;
 import com.yahoo.feedapi.FeedContext;
@@ -13,18 +14,27 @@ import com.yahoo.feedapi.SingleSender;
 import com.yahoo.feedapi.XMLFeeder;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 
 /**
  * Feed documents from a com.yahoo.container.handler.Request.
  *
+ * JSON feeds are parsed on a pool of threads shared by all requests to this handler, which bounds the total
+ * number of parser threads. This pool is owned by the handler, which must be closed when no longer used.
+ *
  * @author Thomas Gundersen
  * @author steinar
  */
-public final class VespaFeedHandler extends VespaFeedHandlerBase {
+public final class VespaFeedHandler extends VespaFeedHandlerBase implements AutoCloseable {
 
     public static final String JSON_INPUT = "jsonInput";
 
+    private final ExecutorService parserExecutor =
+            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                         new DaemonThreadFactory("json-feed-parser-"));
+
     private VespaFeedHandler(FeedContext context) {
         super(context);
     }
@@ -42,7 +52,7 @@ public final class VespaFeedHandler extends VespaFeedHandlerBase {
         SingleSender sender = new SingleSender(response, getSharedSender(route));
         sender.addMessageProcessor(properties);
         ThreadedFeedAccess feedAccess = new ThreadedFeedAccess(numThreads, sender);
-        Feeder feeder = createFeeder(feedAccess, request);
+        Feeder feeder = createFeeder(feedAccess, request, numThreads);
         feeder.setAbortOnDocumentError(properties.getAbortOnDocumentError());
         feeder.setCreateIfNonExistent(properties.getCreateIfNonExistent());
         response.setAbortOnFeedError(properties.getAbortOnFeedError());
@@ -64,12 +74,18 @@ public final class VespaFeedHandler extends VespaFeedHandlerBase {
 
     }
 
-    private Feeder createFeeder(SimpleFeedAccess sender, HttpRequest request) {
+    private Feeder createFeeder(SimpleFeedAccess sender, HttpRequest request, int numThreads) {
         if (Boolean.valueOf(request.getProperty(JSON_INPUT))) {
-            return new JsonFeeder(getDocumentTypeManager(), sender, getRequestInputStream(request));
+            return new JsonFeeder(getDocumentTypeManager(), sender, getRequestInputStream(request), parserExecutor, numThreads);
         } else {
             return new XMLFeeder(getDocumentTypeManager(), sender, getRequestInputStream(request));
         }
     }
 
+    /** Stops the threads parsing feeds. Requests must not be handled after this is called. */
+    @Override
+    public void close() {
+        parserExecutor.shutdownNow();
+    }
+
 }
@@ -80,7 +80,7 @@ public class Arguments {
                 "                                feeding them.\n" +
                 "  --dumpDocuments <filename>    Specify a file where documents in the put are serialized.\n" +
                 "  --priority arg                Specify priority of sent messages (see documentation for priority values)\n" +
-                "  --numthreads arg              Specify how many threads to use for sending. Default is 1.\n" +
+                "  --numthreads arg              Specify how many threads to use for parsing JSON and sending. Default is 1.\n" +
                 "  --create-if-non-existent      Enable setting of create-if-non-existent to true on all document updates in the given xml feed.\n" +
                 "  -v [ --verbose ]              Enable verbose output of progress.\n");
     }
@@ -73,33 +73,33 @@ public class VespaFeeder {
         FeedContext context = new FeedContext(args.getPropertyProcessor(), args.getSessionFactory(), manager);
 
         final BufferedInputStream input = new BufferedInputStream(stdin);
-        VespaFeedHandler handler = VespaFeedHandler.createFromContext(context);
-
-        if (args.getFiles().isEmpty()) {
-            InputStreamRequest req = new InputStreamRequest(input);
-            setProperties(req, input);
-            FeedResponse response = handler.handle(req.toRequest(), createProgressCallback(output), args.getNumThreads());
-            if ( ! response.isSuccess()) {
-                throw renderErrors(response.getErrorList());
-            }
-        } else {
-            if (args.isVerbose()) {
-                for (String fileName : args.getFiles()) {
-                    long thisSize = new File(fileName).length();
-                    output.println("Size of file '" + fileName + "' is " + thisSize + " B.");
-                }
-            }
-
-            for (String fileName : args.getFiles()) {
-                File f = new File(fileName);
-                FileRequest req = new FileRequest(f);
-                final BufferedInputStream inputSnooper = new BufferedInputStream(new FileInputStream(fileName));
-                setProperties(req, inputSnooper);
-                inputSnooper.close();
+        try (VespaFeedHandler handler = VespaFeedHandler.createFromContext(context)) {
+            if (args.getFiles().isEmpty()) {
+                InputStreamRequest req = new InputStreamRequest(input);
+                setProperties(req, input);
                 FeedResponse response = handler.handle(req.toRequest(), createProgressCallback(output), args.getNumThreads());
-                if (!response.isSuccess()) {
+                if ( ! response.isSuccess()) {
                     throw renderErrors(response.getErrorList());
                 }
+            } else {
+                if (args.isVerbose()) {
+                    for (String fileName : args.getFiles()) {
+                        long thisSize = new File(fileName).length();
+                        output.println("Size of file '" + fileName + "' is " + thisSize + " B.");
+                    }
+                }
+
+                for (String fileName : args.getFiles()) {
+                    File f = new File(fileName);
+                    FileRequest req = new FileRequest(f);
+                    final BufferedInputStream inputSnooper = new BufferedInputStream(new FileInputStream(fileName));
+                    setProperties(req, inputSnooper);
+                    inputSnooper.close();
+                    FeedResponse response = handler.handle(req.toRequest(), createProgressCallback(output), args.getNumThreads());
+                    if (!response.isSuccess()) {
+                        throw renderErrors(response.getErrorList());
+                    }
+                }
             }
         }
     }
@@ -38,8 +38,10 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
     private boolean printIds;
     private boolean indentXml;
     private int processTimeMilliSecs;
-    private PrintStream out;
+    private final Output output;
+    private final PrintStream out;
     private final boolean jsonOutput;
+    private final boolean doStatistics;
 
     private VisitorDataHandler dataHandler;
 
@@ -59,10 +61,36 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
         this.indentXml = indentXml;
         this.processTimeMilliSecs = processtime;
         this.jsonOutput = jsonOutput;
+        this.doStatistics = doStatistics;
+        this.output = new Output();
         this.out = out;
         this.dataHandler = new DataHandler(doStatistics);
     }
 
+    /** Creates a handler of another slice of the same visiting, which writes to the same output as the given handler */
+    private StdOutVisitorHandler(StdOutVisitorHandler other) {
+        super(other.showProgress, other.showStatistics, other.abortOnClusterDown, other.printLock);
+        this.printIds = other.printIds;
+        this.indentXml = other.indentXml;
+        this.processTimeMilliSecs = other.processTimeMilliSecs;
+        this.jsonOutput = other.jsonOutput;
+        this.doStatistics = other.doStatistics;
+        this.output = other.output;
+        this.out = other.out;
+        this.dataHandler = new DataHandler(doStatistics);
+        synchronized (printLock) {
+            output.openSlices++;
+        }
+    }
+
+    /**
+     * Returns a new handler for visiting another slice concurrently with this, which writes to the same output.
+     * The output is ended when all the slices are done.
+     */
+    StdOutVisitorHandler forSlice() {
+        return new StdOutVisitorHandler(this);
+    }
+
     private static PrintStream createStdOutPrintStream() {
         try {
             return new PrintStream(System.out, true, "UTF-8");
@@ -77,6 +105,17 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
 
     public VisitorDataHandler getDataHandler() { return dataHandler; }
 
+    /** The state of the output shared by the handlers of all slices, guarded by the print lock */
+    private static class Output {
+
+        /** Whether nothing is written to the json feed yet */
+        boolean first = true;
+
+        /** The number of slices which are not done yet */
+        int openSlices = 1;
+
+    }
+
     class StatisticsMap extends LinkedHashMap<String, Integer> {
         int maxSize;
 
@@ -110,7 +149,6 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
     class DataHandler extends DumpVisitorDataHandler {
         boolean doStatistics;
         StatisticsMap statisticsMap = new StatisticsMap(10000);
-        private volatile boolean first = true;
 
         public DataHandler(boolean doStatistics) {
             this.doStatistics = doStatistics;
@@ -124,40 +162,36 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
                 } catch (InterruptedException e) {}
             }
 
-            synchronized (printLock) {
-                if (m instanceof MapVisitorMessage) {
+            if (m instanceof MapVisitorMessage) {
+                synchronized (printLock) {
                     onMapVisitorData(((MapVisitorMessage)m).getData());
-                    ack(token);
-                } else if (m instanceof DocumentListMessage) {
-                    DocumentListMessage dlm = (DocumentListMessage)m;
+                }
+                ack(token);
+            } else if (m instanceof DocumentListMessage) {
+                DocumentListMessage dlm = (DocumentListMessage)m;
+                synchronized (printLock) {
                     onDocumentList(dlm.getBucketId(), dlm.getDocuments());
-                    ack(token);
-                } else if (m instanceof EmptyBucketsMessage) {
-                    onEmptyBuckets(((EmptyBucketsMessage)m).getBucketIds());
-                    ack(token);
-                } else {
-                    super.onMessage(m, token);
                 }
+                ack(token);
+            } else if (m instanceof EmptyBucketsMessage) {
+                onEmptyBuckets(((EmptyBucketsMessage)m).getBucketIds());
+                ack(token);
+            } else {
+                // Documents are formatted concurrently, and only written while holding the lock
+                super.onMessage(m, token);
             }
         }
 
         @Override
         public void onDocument(Document doc, long timestamp) {
             try {
-                if (lastLineIsProgress) {
-                    System.err.print('\r');
-                }
-
                 if (printIds) {
-                    out.print(doc.getId());
-                    out.print(" (Last modified at ");
-                    out.println(timestamp + ")");
+                    print(doc.getId() + " (Last modified at " + timestamp + ")\n");
                 } else {
                     if (jsonOutput) {
                         writeJsonDocument(doc);
                     } else {
-                        out.print(doc.toXML(
-                                indentXml ? "  " : ""));
+                        print(doc.toXML(indentXml ? "  " : ""));
                     }
                 }
             } catch (Exception e) {
@@ -168,19 +202,14 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
         }
 
         private void writeJsonDocument(Document doc) throws IOException {
-            writeFeedStartOrRecordSeparator();
-            out.write(JsonWriter.toByteArray(doc));
+            writeJsonRecord(JsonWriter.toByteArray(doc));
         }
 
         @Override
         public void onRemove(DocumentId docId) {
             try {
-                if (lastLineIsProgress) {
-                    System.err.print('\r');
-                }
-
                 if (printIds) {
-                    out.println(docId + " (Removed)");
+                    print(docId + " (Removed)\n");
                 } else {
                     if (jsonOutput) {
                         writeJsonDocumentRemove(docId);
@@ -190,7 +219,7 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
                         stream.addAttribute("documentid", docId);
                         stream.endTag();
                         assert(stream.isFinalized());
-                        out.print(stream);
+                        print(stream.toString());
                     }
                 }
             } catch (Exception e) {
@@ -202,14 +231,34 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
 
         private void writeJsonDocumentRemove(DocumentId docId)
                 throws IOException {
-            writeFeedStartOrRecordSeparator();
-            out.write(JsonWriter.documentRemove(docId));
+            writeJsonRecord(JsonWriter.documentRemove(docId));
+        }
+
+        private void print(String text) {
+            synchronized (printLock) {
+                clearProgressLine();
+                out.print(text);
+            }
+        }
+
+        private void writeJsonRecord(byte[] record) throws IOException {
+            synchronized (printLock) {
+                clearProgressLine();
+                writeFeedStartOrRecordSeparator();
+                out.write(record);
+            }
+        }
+
+        private void clearProgressLine() {
+            if (lastLineIsProgress) {
+                System.err.print('\r');
+            }
         }
 
         private void writeFeedStartOrRecordSeparator() {
-            if (first) {
+            if (output.first) {
                 out.println("[");
-                first = false;
+                output.first = false;
             } else {
                 out.println(",");
             }
@@ -248,14 +297,16 @@ public class StdOutVisitorHandler extends VdsVisitHandler {
         }
 
         @Override
-        public synchronized void onDone() {
-            if (jsonOutput && !printIds) {
-                if (first) {
-                    out.print('[');
+        public void onDone() {
+            synchronized (printLock) {
+                if (--output.openSlices == 0 && jsonOutput && !printIds) {
+                    if (output.first) {
+                        out.print('[');
+                    }
+                    out.println("]");
                 }
-                out.println("]");
+                statisticsMap.dumpAll();
             }
-            statisticsMap.dumpAll();
             super.onDone();
         }
     }
@@ -25,8 +25,12 @@ import org.apache.commons.cli.Options;
 
 import java.io.*;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Client using visiting, used by the vespa-visit command line tool.
@@ -37,11 +41,12 @@ public class VdsVisit {
 
     private VdsVisitParameters params;
     private MessageBusParams mbparams = new MessageBusParams(new LoadTypeSet());
-    private VisitorSession session;
+    private final List<VisitorSession> sessions = new CopyOnWriteArrayList<>();
 
     private final VisitorSessionAccessorFactory sessionAccessorFactory;
     private VisitorSessionAccessor sessionAccessor;
     private ShutdownHookRegistrar shutdownHookRegistrar;
+    private volatile PrintStream out;
 
     public interface ShutdownHookRegistrar {
 
@@ -347,6 +352,24 @@ public class VdsVisit {
                         FixedBucketSpaces.defaultSpace(), FixedBucketSpaces.globalSpace(), FixedBucketSpaces.defaultSpace()))
                 .build());
 
+        options.addOption(Option.builder()
+                .longOpt("slices")
+                .hasArg(true)
+                .argName("num")
+                .desc("Visit using this many concurrent visitor sessions, each visiting its own slice of the buckets. " +
+                      "Must be a power of two, and at most 2 to the power of the distribution bits of the cluster. " +
+                      "When used with a progress file, the progress of each slice is tracked in a separate file " +
+                      "named by the progress file name suffixed by '.slice-<id>-of-<num>'. Documents from different " +
+                      "slices are written in no particular order. Defaults to 1.")
+                .type(Number.class)
+                .build());
+
+        options.addOption(Option.builder()
+                .longOpt("gzip")
+                .hasArg(false)
+                .desc("Compress the output with gzip.")
+                .build());
+
         return options;
     }
 
@@ -362,6 +385,8 @@ public class VdsVisit {
         private int processTime = 0;
         private int fullTimeout = 7 * 24 * 60 * 60 * 1000;
         private boolean jsonOutput = false;
+        private int slices = 1;
+        private boolean gzipOutput = false;
 
         public VisitorParameters getVisitorParameters() {
             return visitorParameters;
@@ -430,6 +455,22 @@ public class VdsVisit {
         public void setJsonOutput(boolean jsonOutput) {
             this.jsonOutput = jsonOutput;
         }
+
+        public int getSlices() {
+            return slices;
+        }
+
+        public void setSlices(int slices) {
+            this.slices = slices;
+        }
+
+        public boolean isGzipOutput() {
+            return gzipOutput;
+        }
+
+        public void setGzipOutput(boolean gzipOutput) {
+            this.gzipOutput = gzipOutput;
+        }
     }
 
     protected static class ArgumentParser {
@@ -561,6 +602,20 @@ public class VdsVisit {
             }
             allParams.setJsonOutput(!xmlOutput);
 
+            if (line.hasOption("slices")) {
+                int slices = ((Number)line.getParsedOptionValue("slices")).intValue();
+                if (Integer.bitCount(slices) != 1) {
+                    throw new IllegalArgumentException("Number of slices must be a power of two, not " + slices);
+                }
+                if (slices > 1 && line.hasOption("statistics")) {
+                    throw new IllegalArgumentException("Cannot combine statistics with more than one slice");
+                }
+                allParams.setSlices(slices);
+            }
+            if (line.hasOption("gzip")) {
+                allParams.setGzipOutput(true);
+            }
+
             allParams.setVisitorParameters(params);
             return allParams;
         }
@@ -659,6 +714,12 @@ public class VdsVisit {
         if (params.skipBucketsOnFatalErrors()) {
             out.println("Skip visiting super buckets with fatal errors.");
         }
+        if (vdsParams.getSlices() > 1) {
+            out.println("Visiting in " + vdsParams.getSlices() + " concurrent slices.");
+        }
+        if (vdsParams.isGzipOutput()) {
+            out.println("Compressing output with gzip.");
+        }
     }
 
     private void onDocumentSelectionException(Exception e) {
@@ -679,41 +740,35 @@ public class VdsVisit {
 
     protected int doRun() {
         VisitorParameters visitorParameters = params.getVisitorParameters();
-        // If progress file already exists, create resume token from it
-        if (visitorParameters.getResumeFileName() != null &&
-            !"".equals(visitorParameters.getResumeFileName()))
-        {
-            try {
-                File file = new File(visitorParameters.getResumeFileName());
-                FileInputStream fos = new FileInputStream(file);
-
-                StringBuilder builder = new StringBuilder();
-                byte[] b = new byte[100000];
-                int length;
-
-                while ((length = fos.read(b)) > 0) {
-                    builder.append(new String(b, 0, length));
-                }
-                fos.close();
-                visitorParameters.setResumeToken(new ProgressToken(builder.toString()));
-
-                if (params.isVerbose()) {
-                    System.err.format("Resuming visitor already %.1f %% finished.\n",
-                            visitorParameters.getResumeToken().percentFinished());
+        List<VisitorParameters> sliceParameters = new ArrayList<>();
+        for (int sliceId = 0; sliceId < params.getSlices(); sliceId++) {
+            VisitorParameters sliceParams = visitorParameters;
+            if (params.getSlices() > 1) {
+                sliceParams = new VisitorParameters(visitorParameters);
+                sliceParams.slice(params.getSlices(), sliceId);
+                sliceParams.setThrottlePolicy(visitorParameters.getThrottlePolicy());
+                if (hasProgressFile(visitorParameters)) {
+                    sliceParams.setResumeFileName(String.format("%s.slice-%d-of-%d", visitorParameters.getResumeFileName(),
+                                                                sliceId, params.getSlices()));
                 }
-            } catch (FileNotFoundException e) {
-                // Ignore; file has not been created yet but will be shortly.
-            } catch (IOException e) {
-                System.err.println("Could not open progress file: " + visitorParameters.getResumeFileName());
-                e.printStackTrace(System.err);
+            }
+            if ( ! readProgressFile(sliceParams)) {
                 return 1;
             }
+            sliceParameters.add(sliceParams);
         }
 
         initShutdownHook();
         sessionAccessor = sessionAccessorFactory.createVisitorSessionAccessor();
 
-        VdsVisitHandler handler;
+        try {
+            out = createOutput();
+        } catch (IOException e) {
+            System.err.println("Could not create output: " + e.getMessage());
+            return 1;
+        }
+
+        StdOutVisitorHandler handler;
 
         handler = new StdOutVisitorHandler(
                 params.isPrintIdsOnly(),
@@ -723,34 +778,44 @@ public class VdsVisit {
                 params.getStatisticsParts() != null,
                 params.getAbortOnClusterDown(),
                 params.getProcessTime(),
-                params.jsonOutput);
+                params.jsonOutput,
+                out);
 
-        if (visitorParameters.getResumeFileName() != null) {
-            handler.setProgressFileName(visitorParameters.getResumeFileName());
-        }
+        for (VisitorParameters sliceParams : sliceParameters) {
+            VdsVisitHandler sliceHandler = sliceParams.getSliceId() == 0 ? handler : handler.forSlice();
+            if (sliceParams.getResumeFileName() != null) {
+                sliceHandler.setProgressFileName(sliceParams.getResumeFileName());
+            }
 
-        visitorParameters.setControlHandler(handler.getControlHandler());
-        if (visitorParameters.getRemoteDataHandler() == null) {
-            visitorParameters.setLocalDataHandler(handler.getDataHandler());
-        }
+            sliceParams.setControlHandler(sliceHandler.getControlHandler());
+            if (sliceParams.getRemoteDataHandler() == null) {
+                sliceParams.setLocalDataHandler(sliceHandler.getDataHandler());
+            }
 
-        if (params.getStatisticsParts() != null) {
-            String[] parts = params.getStatisticsParts().split(",");
-            for (String s : parts) {
-                visitorParameters.setLibraryParameter(s, "true");
+            if (params.getStatisticsParts() != null) {
+                String[] parts = params.getStatisticsParts().split(",");
+                for (String s : parts) {
+                    sliceParams.setLibraryParameter(s, "true");
+                }
             }
         }
 
         try {
-            session = sessionAccessor.createVisitorSession(visitorParameters);
-            while (true) {
-                try {
-                    if (session.waitUntilDone(params.getFullTimeout())) break;
-                } catch (InterruptedException e) {}
+            for (VisitorParameters sliceParams : sliceParameters) {
+                sessions.add(sessionAccessor.createVisitorSession(sliceParams));
+            }
+            for (VisitorSession session : sessions) {
+                while (true) {
+                    try {
+                        if (session.waitUntilDone(params.getFullTimeout())) break;
+                    } catch (InterruptedException e) {}
+                }
             }
 
             if (visitorParameters.getTraceLevel() > 0) {
-                System.out.println(session.getTrace().toString());
+                for (VisitorSession session : sessions) {
+                    out.println(session.getTrace().toString());
+                }
             }
         } catch (ParseException e) {
             onDocumentSelectionException(e);
@@ -761,14 +826,65 @@ public class VdsVisit {
             System.err.println("Caught unexpected exception: ");
             e.printStackTrace(System.err);
             return 1;
+        } finally {
+            if (params.isGzipOutput()) {
+                out.close();
+            }
         }
-        if (visitorParameters.getControlHandler().getResult().code
-                == VisitorControlHandler.CompletionCode.SUCCESS)
-        {
-            return 0;
-        } else {
-            return 1;
+        for (VisitorParameters sliceParams : sliceParameters) {
+            if (sliceParams.getControlHandler().getResult().code != VisitorControlHandler.CompletionCode.SUCCESS) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean hasProgressFile(VisitorParameters visitorParameters) {
+        return visitorParameters.getResumeFileName() != null && !"".equals(visitorParameters.getResumeFileName());
+    }
+
+    /**
+     * If the progress file of the given parameters already exists, sets a resume token read from it.
+     *
+     * @return whether the progress file was read, or did not exist
+     */
+    private boolean readProgressFile(VisitorParameters visitorParameters) {
+        if ( ! hasProgressFile(visitorParameters)) return true;
+
+        try {
+            File file = new File(visitorParameters.getResumeFileName());
+            FileInputStream fos = new FileInputStream(file);
+
+            StringBuilder builder = new StringBuilder();
+            byte[] b = new byte[100000];
+            int length;
+
+            while ((length = fos.read(b)) > 0) {
+                builder.append(new String(b, 0, length));
+            }
+            fos.close();
+            visitorParameters.setResumeToken(new ProgressToken(builder.toString()));
+
+            if (params.isVerbose()) {
+                System.err.format("Resuming visitor already %.1f %% finished.\n",
+                        visitorParameters.getResumeToken().percentFinished());
+            }
+        } catch (FileNotFoundException e) {
+            // Ignore; file has not been created yet but will be shortly.
+        } catch (IOException e) {
+            System.err.println("Could not open progress file: " + visitorParameters.getResumeFileName());
+            e.printStackTrace(System.err);
+            return false;
         }
+        return true;
+    }
+
+    /** Returns the stream to write visited documents to, which must be closed after visiting if it is compressed */
+    private PrintStream createOutput() throws IOException {
+        if (params.isGzipOutput()) {
+            return new PrintStream(new GZIPOutputStream(new BufferedOutputStream(System.out, 1 << 16), 1 << 16), false, "UTF-8");
+        }
+        return new PrintStream(System.out, true, "UTF-8");
     }
 
     private void initShutdownHook() {
@@ -778,7 +894,7 @@ public class VdsVisit {
     class CleanUpThread extends Thread {
         public void run() {
             try {
-                if (session != null) {
+                for (VisitorSession session : sessions) {
                     session.destroy();
                 }
             } catch (IllegalStateException ise) {
@@ -791,6 +907,13 @@ public class VdsVisit {
             } catch (IllegalStateException ise) {
                 //ignore this too
             }
+            // Complete the output, which for gzip means writing the trailer, also when interrupted
+            if (out != null) {
+                if (params.isGzipOutput())
+                    out.close();
+                else
+                    out.flush();
+            }
         }
     }
 }
@@ -28,16 +28,22 @@ public abstract class VdsVisitHandler {
     boolean abortOnClusterDown;
     boolean lastLineIsProgress = false;
     String lastPercentage;
-    final Object printLock = new Object();
+    final Object printLock;
 
     protected String progressFileName = "";
 
     final VisitorControlHandler controlHandler = new ControlHandler();
 
     public VdsVisitHandler(boolean showProgress, boolean showStatistics, boolean abortOnClusterDown) {
+        this(showProgress, showStatistics, abortOnClusterDown, new Object());
+    }
+
+    /** Creates a handler which prints while holding the given lock, which may be shared with other handlers */
+    VdsVisitHandler(boolean showProgress, boolean showStatistics, boolean abortOnClusterDown, Object printLock) {
         this.showProgress = showProgress;
         this.showStatistics = showStatistics;
         this.abortOnClusterDown = abortOnClusterDown;
+        this.printLock = printLock;
     }
 
     public boolean getShowProgress() {
@@ -1,6 +1,8 @@
 // Copyright 2018 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.vespavisit;
 
+import com.yahoo.document.DocumentId;
+import com.yahoo.documentapi.DumpVisitorDataHandler;
 import com.yahoo.documentapi.VisitorDataHandler;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -10,6 +12,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author bjorncs
@@ -49,4 +52,28 @@ public class StdOutVisitorHandlerTest {
         String output = out.toString().trim();
         assertEquals(expectedOutput, output);
     }
+
+    @Test
+    public void slices_write_to_the_same_output_which_is_ended_when_all_slices_are_done() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StdOutVisitorHandler visitorHandler =
+                new StdOutVisitorHandler(/*printIds*/false, false, false, false, false, false, 0, jsonOutput, new PrintStream(out, true));
+        StdOutVisitorHandler sliceHandler = visitorHandler.forSlice();
+        ((DumpVisitorDataHandler)visitorHandler.getDataHandler()).onRemove(new DocumentId("id:ns:type::1"));
+        ((DumpVisitorDataHandler)sliceHandler.getDataHandler()).onRemove(new DocumentId("id:ns:type::2"));
+        visitorHandler.getDataHandler().onDone();
+        String unfinishedOutput = out.toString().trim();
+        sliceHandler.getDataHandler().onDone();
+        String output = out.toString().trim();
+        assertTrue(output.contains("id:ns:type::1"));
+        assertTrue(output.contains("id:ns:type::2"));
+        if (jsonOutput) {
+            assertTrue(unfinishedOutput.startsWith("[") && ! unfinishedOutput.endsWith("]"));
+            assertTrue(output.startsWith("[") && output.endsWith("]"));
+            assertEquals(1, output.chars().filter(c -> c == ',').count());
+        }
+        else {
+            assertEquals(unfinishedOutput, output);
+        }
+    }
 }
\ No newline at end of file
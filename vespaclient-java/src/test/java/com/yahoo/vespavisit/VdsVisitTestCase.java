@@ -12,11 +12,15 @@ import com.yahoo.vespaclient.ClusterList;
 import org.apache.commons.cli.Options;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.*;
 
@@ -300,6 +304,36 @@ public class VdsVisitTestCase {
         assertEquals("CountVisitor", params.getVisitorLibrary());
     }
 
+    @Test
+    public void testSlicesAndGzip() throws Exception {
+        VdsVisit.VdsVisitParameters allParams = createMockArgumentParser().parse(new String[] { "--slices", "4", "--gzip" });
+        assertEquals(4, allParams.getSlices());
+        assertTrue(allParams.isGzipOutput());
+
+        VdsVisit.VdsVisitParameters defaultParams = createMockArgumentParser().parse(emptyArgList());
+        assertEquals(1, defaultParams.getSlices());
+        assertFalse(defaultParams.isGzipOutput());
+
+        try {
+            createMockArgumentParser().parse(new String[] { "--slices", "0" });
+            fail("no exception thrown");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Number of slices must be a power of two, not 0", e.getMessage());
+        }
+        try {
+            createMockArgumentParser().parse(new String[] { "--slices", "3" });
+            fail("no exception thrown");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Number of slices must be a power of two, not 3", e.getMessage());
+        }
+        try {
+            createMockArgumentParser().parse(new String[] { "--slices", "2", "--statistics", "foo" });
+            fail("no exception thrown");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Cannot combine statistics with more than one slice", e.getMessage());
+        }
+    }
+
     // TODO: use DummyVisitorSession instead?
     private static class MockVisitorSession implements VisitorSession {
         private VisitorParameters params;
@@ -321,7 +355,9 @@ public class VdsVisitTestCase {
 
         @Override
         public Trace getTrace() {
-            return null;
+            Trace trace = new Trace(params.getTraceLevel());
+            trace.trace(1, "Visited by mock session", false);
+            return trace;
         }
 
         @Override
@@ -451,4 +487,73 @@ public class VdsVisitTestCase {
         assertNotNull(accessorFactory.getLastCreatedAccessor());
         assertTrue(accessorFactory.getLastCreatedAccessor().isShutdown());
     }
+
+    @Test
+    public void testGzipOutputIsCompletedByTheShutdownHook() throws Exception {
+        CountDownLatch visiting = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        MockShutdownHookRegistrar shutdownHookRegistrar = new MockShutdownHookRegistrar();
+        VdsVisit vdsVisit = new VdsVisit(() -> new MockVisitorSessionAccessor() {
+            @Override
+            public VisitorSession createVisitorSession(VisitorParameters params) {
+                return new MockVisitorSession(params) {
+                    @Override
+                    public boolean waitUntilDone(long l) throws InterruptedException {
+                        visiting.countDown();
+                        interrupted.await();
+                        return super.waitUntilDone(l);
+                    }
+                };
+            }
+        }, shutdownHookRegistrar);
+
+        VdsVisit.VdsVisitParameters params = new VdsVisit.VdsVisitParameters();
+        params.setVisitorParameters(new VisitorParameters(""));
+        params.setGzipOutput(true);
+        vdsVisit.setVdsVisitParameters(params);
+
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream oldOut = System.out;
+        System.setOut(new PrintStream(outContent));
+        Thread visitor = new Thread(vdsVisit::doRun);
+        try {
+            visitor.start();
+            visiting.await();
+            shutdownHookRegistrar.getCleanUpThread().run(); // As on Ctrl-C while visiting
+
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(outContent.toByteArray()))) {
+                assertEquals(0, in.readAllBytes().length);
+            }
+        } finally {
+            interrupted.countDown();
+            visitor.join();
+            System.setOut(oldOut);
+        }
+    }
+
+    @Test
+    public void testTraceIsWrittenToGzipOutput() throws Exception {
+        VdsVisit vdsVisit = new VdsVisit(new MockVisitorSessionAccessorFactory(), new MockShutdownHookRegistrar());
+
+        VdsVisit.VdsVisitParameters params = new VdsVisit.VdsVisitParameters();
+        VisitorParameters visitorParameters = new VisitorParameters("");
+        visitorParameters.setTraceLevel(1);
+        params.setVisitorParameters(visitorParameters);
+        params.setGzipOutput(true);
+        vdsVisit.setVdsVisitParameters(params);
+
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream oldOut = System.out;
+        System.setOut(new PrintStream(outContent));
+        try {
+            assertEquals(0, vdsVisit.doRun());
+        } finally {
+            System.setOut(oldOut);
+        }
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(outContent.toByteArray()))) {
+            String output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(output, output.contains("Visited by mock session"));
+        }
+    }
 }
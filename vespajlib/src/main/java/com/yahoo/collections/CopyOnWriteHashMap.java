@@ -117,7 +117,10 @@ public class CopyOnWriteHashMap<K,V> extends AbstractMap<K,V> implements Cloneab
             return map.size();
         }
 
-        public void clear() { map.clear(); }
+        public void clear() {
+            makeWritable();
+            map.clear();
+        }
 
     }
 
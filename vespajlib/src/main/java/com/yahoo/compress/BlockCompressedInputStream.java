@@ -0,0 +1,139 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * An input stream which reads data written by a {@link BlockCompressedOutputStream}.
+ * Skipping past entire blocks does not decompress them, and skips their stored data in the underlying stream,
+ * so reading from a random position is cheap if the underlying stream can skip efficiently, like file streams.
+ * <p>
+ * This is not thread safe.
+ *
+ * @author bratseth
+ */
+public class BlockCompressedInputStream extends InputStream {
+
+    private final DataInputStream in;
+    private final Compressor compressor = new Compressor();
+
+    /** The current, decompressed block */
+    private byte[] block = new byte[0];
+    private int position = 0;
+
+    /** The type, uncompressed size and stored size of the next block, if its header is read but its data is not */
+    private CompressionType pendingType = null;
+    private int pendingSize;
+    private int pendingStoredSize;
+
+    private boolean eof = false;
+
+    public BlockCompressedInputStream(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        int magic = this.in.readInt();
+        if (magic != BlockCompressedOutputStream.magic)
+            throw new IOException("Not a block compressed stream: Expected magic number " +
+                                  Integer.toHexString(BlockCompressedOutputStream.magic) + " but got " + Integer.toHexString(magic));
+    }
+
+    @Override
+    public int read() throws IOException {
+        if ( ! fill()) return -1;
+        return block[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if ( ! fill()) return -1;
+        int length = Math.min(len, block.length - position);
+        System.arraycopy(block, position, b, off, length);
+        position += length;
+        return length;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n) {
+            if (position < block.length) { // Skip within the current block
+                int length = (int) Math.min(n - skipped, block.length - position);
+                position += length;
+                skipped += length;
+            }
+            else if (readHeader()) {
+                if (pendingSize <= n - skipped) { // Skip the entire next block without decompressing it
+                    skipFully(pendingStoredSize);
+                    skipped += pendingSize;
+                    pendingType = null;
+                }
+                else {
+                    readBlock();
+                }
+            }
+            else {
+                break;
+            }
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return block.length - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /** Makes sure there is data to read in the current block, and returns whether there is */
+    private boolean fill() throws IOException {
+        while (position == block.length) {
+            if ( ! readHeader()) return false;
+            readBlock();
+        }
+        return true;
+    }
+
+    /** Reads the header of the next block, if not already read, and returns whether there is a next block */
+    private boolean readHeader() throws IOException {
+        if (pendingType != null) return true;
+        if (eof) return false;
+        int code = in.read();
+        if (code < 0) {
+            eof = true;
+            return false;
+        }
+        pendingType = CompressionType.valueOf((byte) code);
+        pendingSize = in.readInt();
+        pendingStoredSize = in.readInt();
+        return true;
+    }
+
+    private void readBlock() throws IOException {
+        byte[] stored = new byte[pendingStoredSize];
+        in.readFully(stored);
+        block = pendingType.isCompressed() ? compressor.decompress(pendingType, stored, 0, pendingSize, Optional.of(pendingStoredSize))
+                                           : stored;
+        position = 0;
+        pendingType = null;
+    }
+
+    private void skipFully(int length) throws IOException {
+        while (length > 0) {
+            long skipped = in.skip(length);
+            if (skipped <= 0) {
+                if (in.read() < 0) throw new EOFException("Unexpected end of block compressed stream");
+                skipped = 1;
+            }
+            length -= skipped;
+        }
+    }
+
+}
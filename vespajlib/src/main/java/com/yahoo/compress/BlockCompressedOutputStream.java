@@ -0,0 +1,98 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An output stream which compresses the data written to it in independent blocks, such that the data can be
+ * read back by a {@link BlockCompressedInputStream} which decompresses only the blocks which are read.
+ * <p>
+ * The format is a magic number followed by a sequence of blocks, each consisting of the compression type code (byte),
+ * the uncompressed size (int), the stored size (int), and the stored data. Blocks which do not compress well
+ * are stored uncompressed.
+ * <p>
+ * This is not thread safe.
+ *
+ * @author bratseth
+ */
+public class BlockCompressedOutputStream extends OutputStream {
+
+    /** The magic number starting all block compressed streams */
+    static final int magic = 0x56424331; // "VBC1"
+
+    /** The default number of uncompressed bytes in each block */
+    public static final int defaultBlockSize = 1 << 16;
+
+    private final DataOutputStream out;
+    private final Compressor compressor;
+    private final byte[] block;
+    private int blockLength = 0;
+
+    /** Creates a stream writing LZ4 compressed blocks of the default size to the given stream */
+    public BlockCompressedOutputStream(OutputStream out) throws IOException {
+        this(out, new Compressor(CompressionType.LZ4, 5), defaultBlockSize);
+    }
+
+    /**
+     * Creates a stream writing compressed blocks to the given stream
+     *
+     * @param out the stream to write to
+     * @param compressor the compressor to use for each block
+     * @param blockSize the number of uncompressed bytes in each block, except the last
+     */
+    public BlockCompressedOutputStream(OutputStream out, Compressor compressor, int blockSize) throws IOException {
+        if (blockSize <= 0) throw new IllegalArgumentException("Block size must be positive, but was " + blockSize);
+        this.out = new DataOutputStream(out);
+        this.compressor = compressor;
+        this.block = new byte[blockSize];
+        this.out.writeInt(magic);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        block[blockLength++] = (byte) b;
+        if (blockLength == block.length)
+            writeBlock();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int length = Math.min(len, block.length - blockLength);
+            System.arraycopy(b, off, block, blockLength, length);
+            blockLength += length;
+            off += length;
+            len -= length;
+            if (blockLength == block.length)
+                writeBlock();
+        }
+    }
+
+    /** Writes the current block, which may be partial, and any buffered data, to the underlying stream */
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            flush();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (blockLength == 0) return;
+        Compressor.Compression compression = compressor.compress(block, blockLength);
+        int storedSize = compression.type() == CompressionType.LZ4 ? compression.data().length : blockLength;
+        out.writeByte(compression.type().getCode());
+        out.writeInt(blockLength);
+        out.writeInt(storedSize);
+        out.write(compression.data(), 0, storedSize);
+        blockLength = 0;
+    }
+
+}
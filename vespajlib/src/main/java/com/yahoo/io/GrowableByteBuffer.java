@@ -403,6 +403,40 @@ public class GrowableByteBuffer implements Comparable<GrowableByteBuffer> {
         }
     }
 
+    //BULK ACCESS:
+
+    /**
+     * Makes room for the given number of bytes at the current position and advances the position past them.
+     * Returns a buffer of exactly these bytes with the byte order of this, such that they can be written in bulk,
+     * e.g through {@link ByteBuffer#asDoubleBuffer()}.
+     *
+     * @param size the number of bytes to reserve
+     * @return a buffer sharing content with this, which is only valid until this is written to again
+     */
+    public ByteBuffer reserve(int size) {
+        accomodate(size);
+        ByteBuffer reserved = buffer.slice().order(buffer.order());
+        reserved.limit(size);
+        buffer.position(buffer.position() + size);
+        return reserved;
+    }
+
+    /**
+     * Returns a buffer of exactly the given number of bytes from the current position, with the byte order of this,
+     * and advances the position past them, such that they can be read in bulk, e.g through {@link ByteBuffer#asDoubleBuffer()}.
+     *
+     * @param size the number of bytes to return
+     * @return a buffer sharing content with this
+     * @throws BufferUnderflowException if fewer than the given number of bytes remain
+     */
+    public ByteBuffer slice(int size) {
+        if (size > buffer.remaining()) throw new BufferUnderflowException();
+        ByteBuffer slice = buffer.slice().order(buffer.order());
+        slice.limit(size);
+        buffer.position(buffer.position() + size);
+        return slice;
+    }
+
     //METHODS OF ENCAPSULATED BYTEBUFFER:
     public static GrowableByteBuffer allocate(int capacity) {
         return new GrowableByteBuffer(ByteBuffer.allocate(capacity));
@@ -18,7 +18,7 @@ ArrayTraverser, ObjectSymbolTraverser
 
     public byte[] encode(Slime slime) {
         out.reset();
-        encodeSymbolTable(slime);
+        encodeSymbolTable(slime.symbolTable());
         encodeValue(slime.get());
         return out.toArray();
     }
@@ -122,12 +122,11 @@ ArrayTraverser, ObjectSymbolTraverser
         assert false : "Should not be reached";
     }
 
-    void encodeSymbolTable(Slime slime) {
-        int numSymbols = slime.symbols();
+    void encodeSymbolTable(SymbolTable symbols) {
+        int numSymbols = symbols.symbols();
         encode_cmpr_long(numSymbols);
         for (int i = 0 ; i < numSymbols; ++i) {
-            String name = slime.inspect(i);
-            byte[] bytes = Utf8Codec.encode(name);
+            byte[] bytes = Utf8Codec.encode(symbols.inspect(i));
             encode_cmpr_long(bytes.length);
             out.put(bytes);
         }
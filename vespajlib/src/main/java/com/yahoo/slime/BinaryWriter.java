@@ -0,0 +1,202 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.slime;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Writes values in the Slime binary format as they are produced, without building a {@link Slime} first.
+ * The result is identical to encoding a Slime with the same content using {@link BinaryFormat#encode}.
+ * <p>
+ * As the format prefixes arrays and objects by their size, the number of entries or fields must be given
+ * when they are begun. In objects, each value must be preceded by its field name.
+ * Field names are collected into the symbol table as they are written, and the symbol table is
+ * placed in front of the values when the result is produced.
+ * <p>
+ * A writer can be reused by calling {@link #reset}, which keeps the buffers already allocated.
+ * Instances are not thread safe.
+ *
+ * @author bratseth
+ */
+public final class BinaryWriter {
+
+    private final SymbolTable symbols = new SymbolTable();
+    private final BinaryEncoder header = new BinaryEncoder(64);
+    private final BinaryEncoder values;
+
+    /** The number of values remaining in each array or object being written, innermost last */
+    private int[] remaining = new int[8];
+
+    /** Whether each array or object being written is an object */
+    private boolean[] isObject = new boolean[8];
+
+    /** The number of arrays and objects being written */
+    private int depth = 0;
+
+    /** Whether a field name is written and waiting for its value */
+    private boolean hasFieldName = false;
+
+    /** Whether the root value is completely written */
+    private boolean complete = false;
+
+    public BinaryWriter() {
+        this(4096);
+    }
+
+    /** Creates a writer with the given initial value buffer capacity in bytes */
+    public BinaryWriter(int capacity) {
+        values = new BinaryEncoder(capacity);
+    }
+
+    /** Discards all content written to this such that it can be used to write another value */
+    public BinaryWriter reset() {
+        symbols.clear();
+        values.out.reset();
+        depth = 0;
+        hasFieldName = false;
+        complete = false;
+        return this;
+    }
+
+    /** Writes the name of the next field in the object currently being written */
+    public BinaryWriter field(String name) {
+        if (depth == 0 || ! isObject[depth - 1])
+            throw new IllegalStateException("Field names can only be written in objects");
+        if (hasFieldName)
+            throw new IllegalStateException("Field name '" + name + "' written where a value was expected");
+        values.encode_cmpr_long(symbols.insert(name));
+        hasFieldName = true;
+        return this;
+    }
+
+    /** Begins writing an array which must be followed by exactly the given number of values */
+    public BinaryWriter beginArray(int entries) {
+        return begin(Type.ARRAY, entries);
+    }
+
+    /** Begins writing an object which must be followed by exactly the given number of field name and value pairs */
+    public BinaryWriter beginObject(int fields) {
+        return begin(Type.OBJECT, fields);
+    }
+
+    public BinaryWriter writeNix() {
+        beforeValue();
+        values.encodeNIX();
+        return afterValue();
+    }
+
+    public BinaryWriter writeBool(boolean value) {
+        beforeValue();
+        values.encodeBOOL(value);
+        return afterValue();
+    }
+
+    public BinaryWriter writeLong(long value) {
+        beforeValue();
+        values.encodeLONG(value);
+        return afterValue();
+    }
+
+    public BinaryWriter writeDouble(double value) {
+        beforeValue();
+        values.encodeDOUBLE(value);
+        return afterValue();
+    }
+
+    public BinaryWriter writeString(String value) {
+        beforeValue();
+        if (isAscii(value)) {
+            values.write_type_and_size(Type.STRING.ID, value.length());
+            values.out.putAscii(value);
+        }
+        else {
+            values.encodeSTRING(Utf8Codec.encode(value));
+        }
+        return afterValue();
+    }
+
+    /** Writes a string given as UTF-8 bytes */
+    public BinaryWriter writeString(byte[] utf8) {
+        beforeValue();
+        values.encodeSTRING(utf8);
+        return afterValue();
+    }
+
+    public BinaryWriter writeData(byte[] value) {
+        beforeValue();
+        values.encodeDATA(value);
+        return afterValue();
+    }
+
+    /** Returns the size in bytes of the encoded value */
+    public int size() {
+        encodeHeader();
+        return header.out.position() + values.out.position();
+    }
+
+    /** Returns the encoded value in a new array */
+    public byte[] toArray() {
+        encodeHeader();
+        byte[] result = new byte[header.out.position() + values.out.position()];
+        header.out.copyTo(result, 0);
+        values.out.copyTo(result, header.out.position());
+        return result;
+    }
+
+    /** Puts the encoded value into the given buffer, which must have at least {@link #size} bytes remaining */
+    public void writeTo(ByteBuffer buffer) {
+        encodeHeader();
+        header.out.writeTo(buffer);
+        values.out.writeTo(buffer);
+    }
+
+    private BinaryWriter begin(Type type, int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("The size of an " + type + " cannot be negative, but was " + size);
+        beforeValue();
+        values.write_type_and_size(type.ID, size);
+        if (depth == remaining.length) {
+            remaining = Arrays.copyOf(remaining, depth * 2);
+            isObject = Arrays.copyOf(isObject, depth * 2);
+        }
+        remaining[depth] = size;
+        isObject[depth] = type == Type.OBJECT;
+        depth++;
+        return afterValue();
+    }
+
+    private void beforeValue() {
+        if (complete)
+            throw new IllegalStateException("Value written after the root value is complete");
+        if (depth == 0) return;
+        if (isObject[depth - 1]) {
+            if ( ! hasFieldName)
+                throw new IllegalStateException("Value written in an object without a field name");
+            hasFieldName = false;
+        }
+        remaining[depth - 1]--;
+    }
+
+    /** Ends all arrays and objects which are complete after a value is written, as ends are not marked in the format */
+    private BinaryWriter afterValue() {
+        while (depth > 0 && remaining[depth - 1] == 0)
+            depth--;
+        if (depth == 0)
+            complete = true;
+        return this;
+    }
+
+    private void encodeHeader() {
+        if ( ! complete)
+            throw new IllegalStateException("The value is not completely written");
+        header.out.reset();
+        header.encodeSymbolTable(symbols);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++)
+            if (value.charAt(i) >= 0x80) return false;
+        return true;
+    }
+
+}
@@ -1,6 +1,8 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.slime;
 
+import java.nio.ByteBuffer;
+
 final class BufferedOutput {
 
     private byte[] buf;
@@ -44,8 +46,15 @@ final class BufferedOutput {
 
     final void put(byte[] bytes) {
         reserve(bytes.length);
-        for (byte b : bytes) {
-            buf[pos++] = b;
+        System.arraycopy(bytes, 0, buf, pos, bytes.length);
+        pos += bytes.length;
+    }
+
+    /** Puts the given characters, which must all be below 0x80, as one byte each (which is their UTF-8 encoding) */
+    final void putAscii(String ascii) {
+        reserve(ascii.length());
+        for (int i = 0; i < ascii.length(); i++) {
+            buf[pos++] = (byte)ascii.charAt(i);
         }
     }
 
@@ -54,4 +63,14 @@ final class BufferedOutput {
         System.arraycopy(buf, 0, ret, 0, pos);
         return ret;
     }
+
+    /** Copies the content of this into the given array at the given offset */
+    void copyTo(byte[] destination, int offset) {
+        System.arraycopy(buf, 0, destination, offset, pos);
+    }
+
+    /** Puts the content of this into the given buffer */
+    void writeTo(ByteBuffer destination) {
+        destination.put(buf, 0, pos);
+    }
 }
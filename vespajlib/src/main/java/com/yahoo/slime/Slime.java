@@ -23,6 +23,9 @@ public final class Slime {
         return names.symbols();
     }
 
+    /** Returns the symbol table of this */
+    SymbolTable symbolTable() { return names; }
+
     /**
      * Return the symbol name associated with an id.
      * 
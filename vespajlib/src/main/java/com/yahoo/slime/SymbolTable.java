@@ -1,6 +1,8 @@
 // Copyright 2017 Yahoo Holdings. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
 package com.yahoo.slime;
 
+import java.util.Arrays;
+
 /**
  * A mapping from an arbitrary set of unique strings to a range of
  * integers.  Slime users normally won't need to use this class
@@ -43,6 +45,14 @@ final class SymbolTable {
         }
     }
 
+    /** Removes all symbol names from this, keeping the capacity allocated. */
+    final void clear() {
+        if (used == 0) return;
+        Arrays.fill(names, 0, used, null);
+        Arrays.fill(hash, 0);
+        used = 0;
+    }
+
     /** Return count of contained symbol names. */
     final int symbols() { return used; }
 
@@ -4,6 +4,8 @@ package com.yahoo.tensor;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -134,6 +136,24 @@ public abstract class IndexedTensor implements Tensor {
      */
     public abstract float getFloat(long valueIndex);
 
+    /**
+     * Puts all the values of this as doubles in the <i>standard value order</i> into the given buffer,
+     * which must have at least {@link #size} values remaining.
+     */
+    public void copyValuesTo(DoubleBuffer buffer) {
+        for (int i = 0; i < size(); i++)
+            buffer.put(get(i));
+    }
+
+    /**
+     * Puts all the values of this as floats in the <i>standard value order</i> into the given buffer,
+     * which must have at least {@link #size} values remaining.
+     */
+    public void copyValuesTo(FloatBuffer buffer) {
+        for (int i = 0; i < size(); i++)
+            buffer.put(getFloat(i));
+    }
+
     static long toValueIndex(long[] indexes, DimensionSizes sizes) {
         if (indexes.length == 1) return indexes[0]; // for speed
         if (indexes.length == 0) return 0; // for speed
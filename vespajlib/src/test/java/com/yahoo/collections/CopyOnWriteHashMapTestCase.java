@@ -51,6 +51,17 @@ public class CopyOnWriteHashMapTestCase {
         assertEquals("d2", clone.get("d"));
     }
 
+    @Test
+    public void testClearClone() {
+        CopyOnWriteHashMap<String, String> map = new CopyOnWriteHashMap<>();
+        map.put("a", "a1");
+        CopyOnWriteHashMap<String,String> clone = map.clone();
+        clone.clear();
+        assertEquals(1, map.size());
+        assertEquals("a1", map.get("a"));
+        assertTrue(clone.isEmpty());
+    }
+
     @Test
     public void testCallEntrySetThenModify() {
         CopyOnWriteHashMap<String, String> map = new CopyOnWriteHashMap<>();
@@ -0,0 +1,72 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.compress;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author bratseth
+ */
+public class BlockCompressedStreamTest {
+
+    @Test
+    public void can_write_and_read_compressible_and_incompressible_data() throws IOException {
+        byte[] data = new byte[10_000];
+        Arrays.fill(data, 0, 5_000, (byte) 'a');
+        byte[] random = new byte[5_000];
+        new Random(42).nextBytes(random);
+        System.arraycopy(random, 0, data, 5_000, random.length);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new BlockCompressedOutputStream(compressed, new Compressor(), 1_000)) {
+            out.write(data, 0, 3);
+            out.write(data[3]);
+            out.write(data, 4, data.length - 4);
+        }
+        assertTrue(compressed.size() < data.length);
+
+        try (InputStream in = new BlockCompressedInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void can_skip_into_and_across_blocks() throws IOException {
+        byte[] data = new byte[10_000];
+        for (int i = 0; i < data.length; i++)
+            data[i] = (byte) (i % 100);
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = new BlockCompressedOutputStream(compressed, new Compressor(), 1_000)) {
+            out.write(data);
+        }
+
+        try (InputStream in = new BlockCompressedInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertEquals(1_500, in.skip(1_500));
+            assertEquals(data[1_500], (byte) in.read());
+            assertEquals(3_000, in.skip(3_000));
+            byte[] read = new byte[100];
+            assertEquals(100, in.readNBytes(read, 0, 100));
+            assertArrayEquals(Arrays.copyOfRange(data, 4_501, 4_601), read);
+            assertEquals(data.length - 4_601, in.skip(100_000));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void other_data_is_rejected() throws IOException {
+        new BlockCompressedInputStream(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5 }));
+    }
+
+}
@@ -3,6 +3,7 @@ package com.yahoo.io;
 
 import org.junit.Test;
 
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.InvalidMarkException;
@@ -794,4 +795,28 @@ public class GrowableByteBufferTestCase {
         assertTrue(caught);
     }
 
+    @Test
+    public void testBulkAccess() {
+        GrowableByteBuffer buffer = new GrowableByteBuffer(8, 2.0f);
+        buffer.putInt(7);
+        buffer.reserve(3 * 8).asDoubleBuffer().put(new double[] { 1.5, -2.0, 3.25 });
+        buffer.putInt(9);
+        assertEquals(4 + 3 * 8 + 4, buffer.position());
+
+        buffer.flip();
+        assertEquals(7, buffer.getInt());
+        ByteBuffer slice = buffer.slice(3 * 8);
+        assertEquals(9, buffer.getInt());
+        assertEquals(ByteOrder.BIG_ENDIAN, slice.order());
+        double[] values = new double[3];
+        slice.asDoubleBuffer().get(values);
+        assertArrayEquals(new double[] { 1.5, -2.0, 3.25 }, values, 0.0);
+
+        try {
+            buffer.slice(1);
+            fail("Expected exception");
+        } catch (BufferUnderflowException expected) {
+        }
+    }
+
 }
@@ -0,0 +1,93 @@
+// Copyright Verizon Media. Licensed under the terms of the Apache 2.0 license. See LICENSE in the project root.
+package com.yahoo.slime;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author bratseth
+ */
+public class BinaryWriterTest {
+
+    @Test
+    public void testWritingIsEquivalentToEncodingSlime() {
+        Slime slime = new Slime();
+        Cursor root = slime.setObject();
+        root.setString("class", "summary");
+        root.setData("sessionid", new byte[] { 1, 2, 3 });
+        root.setLong("negative", -7);
+        root.setLong("large", Long.MAX_VALUE);
+        root.setDouble("double", 3.5);
+        root.setBool("bool", true);
+        root.setNix("nix");
+        root.setString("unicode", "blåbærsyltetøy");
+        Cursor array = root.setArray("gids");
+        for (int i = 0; i < 40; i++)
+            array.addData(new byte[] { (byte)i });
+        Cursor nested = array.addObject();
+        nested.setString("class", "nested");
+        nested.setArray("empty");
+        array.addObject();
+
+        BinaryWriter writer = new BinaryWriter(16);
+        writer.beginObject(9)
+              .field("class").writeString("summary")
+              .field("sessionid").writeData(new byte[] { 1, 2, 3 })
+              .field("negative").writeLong(-7)
+              .field("large").writeLong(Long.MAX_VALUE)
+              .field("double").writeDouble(3.5)
+              .field("bool").writeBool(true)
+              .field("nix").writeNix()
+              .field("unicode").writeString("blåbærsyltetøy")
+              .field("gids").beginArray(42);
+        for (int i = 0; i < 40; i++)
+            writer.writeData(new byte[] { (byte)i });
+        writer.beginObject(2)
+              .field("class").writeString(Utf8Codec.encode("nested"))
+              .field("empty").beginArray(0);
+        writer.beginObject(0);
+
+        byte[] expected = BinaryFormat.encode(slime);
+        assertArrayEquals(expected, writer.toArray());
+        assertEquals(expected.length, writer.size());
+        ByteBuffer buffer = ByteBuffer.allocate(writer.size());
+        writer.writeTo(buffer);
+        assertArrayEquals(expected, buffer.array());
+
+        writer.reset().beginArray(1).writeLong(3);
+        Slime other = new Slime();
+        other.setArray().addLong(3);
+        assertArrayEquals(BinaryFormat.encode(other), writer.toArray());
+    }
+
+    @Test
+    public void testWritingScalarRoot() {
+        Slime slime = new Slime();
+        slime.setString("value");
+        assertArrayEquals(BinaryFormat.encode(slime), new BinaryWriter().writeString("value").toArray());
+    }
+
+    @Test
+    public void testIllegalWriting() {
+        assertIllegal(() -> new BinaryWriter().beginObject(1).writeLong(1));
+        assertIllegal(() -> new BinaryWriter().beginArray(1).field("foo"));
+        assertIllegal(() -> new BinaryWriter().beginObject(1).field("foo").field("bar"));
+        assertIllegal(() -> new BinaryWriter().beginArray(1).writeLong(1).writeLong(2));
+        assertIllegal(() -> new BinaryWriter().beginArray(2).writeLong(1).toArray());
+    }
+
+    private void assertIllegal(Runnable write) {
+        try {
+            write.run();
+            fail("Expected exception");
+        }
+        catch (IllegalStateException expected) {
+        }
+    }
+
+}